@@ -0,0 +1,122 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.BucketLeapArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the contention of {@link ArrayMetric} (and the underlying {@code LeapArray})
+ * shared by 1 to 64 threads, as the metrics of a hot resource are.</p>
+ * <p>
+ * The short interval variant rotates the window every 10 ms, so that the cost of bucket
+ * rotation under contention is included.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ArrayMetricBenchmark {
+
+    private static final int SAMPLE_COUNT = 2;
+
+    @Param({"1000", "20"})
+    private int intervalInMs;
+
+    @Param({"false", "true"})
+    private boolean lockFreeRotation;
+
+    private ArrayMetric metric;
+
+    @Setup
+    public void setUp() {
+        metric = new ArrayMetric(new BucketLeapArray(SAMPLE_COUNT, intervalInMs, lockFreeRotation));
+    }
+
+    private long addAndRead() {
+        metric.addPass(1);
+        metric.addRT(1);
+        return metric.pass();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void addPass1() {
+        metric.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void addPass4() {
+        metric.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void addPass16() {
+        metric.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void addPass64() {
+        metric.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long addAndRead1() {
+        return addAndRead();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long addAndRead4() {
+        return addAndRead();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long addAndRead16() {
+        return addAndRead();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long addAndRead64() {
+        return addAndRead();
+    }
+}
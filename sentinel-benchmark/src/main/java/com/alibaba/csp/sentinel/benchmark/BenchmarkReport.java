@@ -0,0 +1,204 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * <p>Benchmark results that could be saved as a baseline (in CSV) and compared with another run.</p>
+ * <p>
+ * A benchmark is considered regressed if its score gets worse than the baseline by more than
+ * the threshold ratio (lower throughput or higher time per operation), or if it allocates
+ * more bytes per operation than the baseline by more than the threshold ratio
+ * (requires the GC profiler).
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class BenchmarkReport {
+
+    static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    private static final String CSV_HEADER = "benchmark,mode,score,error,unit,allocBytesPerOp";
+    /**
+     * Allocation differences within this many bytes per operation are ignored (e.g. TLAB noise).
+     */
+    private static final double ALLOC_TOLERANCE_BYTES = 8;
+
+    private final Map<String, Record> records = new LinkedHashMap<>();
+
+    public static BenchmarkReport fromResults(Collection<RunResult> results) {
+        BenchmarkReport report = new BenchmarkReport();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            Result primary = result.getPrimaryResult();
+            double alloc = -1;
+            for (Map.Entry<String, Result> e : result.getSecondaryResults().entrySet()) {
+                if (e.getKey().endsWith(ALLOC_RATE_NORM)) {
+                    alloc = e.getValue().getScore();
+                }
+            }
+            report.add(new Record(benchmarkKey(params), params.getMode(), primary.getScore(),
+                primary.getScoreError(), primary.getScoreUnit(), alloc));
+        }
+        return report;
+    }
+
+    public static BenchmarkReport load(File file) throws IOException {
+        BenchmarkReport report = new BenchmarkReport();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.equals(CSV_HEADER)) {
+                    continue;
+                }
+                // The key may contain commas (in parameters), so fields are parsed from the tail.
+                String[] tail = new String[5];
+                int end = line.length();
+                for (int i = tail.length - 1; i >= 0; i--) {
+                    int comma = line.lastIndexOf(',', end - 1);
+                    if (comma < 0) {
+                        throw new IOException("Bad baseline line: " + line);
+                    }
+                    tail[i] = line.substring(comma + 1, end);
+                    end = comma;
+                }
+                report.add(new Record(line.substring(0, end), Mode.deepValueOf(tail[0]),
+                    Double.parseDouble(tail[1]), Double.parseDouble(tail[2]), tail[3], Double.parseDouble(tail[4])));
+            }
+        }
+        return report;
+    }
+
+    public void save(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+            for (Record record : records.values()) {
+                writer.write(record.key + ',' + record.mode.shortLabel() + ',' + record.score + ','
+                    + record.error + ',' + record.unit + ',' + record.allocBytesPerOp);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Compare with the baseline and print the report.
+     *
+     * @param baseline  results of the baseline run
+     * @param threshold max ratio of the tolerated regression, e.g. 0.1 for 10%
+     * @param out       where the report is printed
+     * @return benchmarks that regressed
+     */
+    public List<String> compare(BenchmarkReport baseline, double threshold, PrintStream out) {
+        List<String> regressions = new ArrayList<>();
+        out.printf("%-90s %14s %14s %9s %12s %12s %s%n", "Benchmark", "Baseline", "Current", "Change",
+            "B/op(base)", "B/op(cur)", "");
+        for (Record current : records.values()) {
+            Record base = baseline.records.get(current.key);
+            if (base == null || base.mode != current.mode) {
+                out.printf("%-90s %14s %14.3f %9s %12s %12s NEW%n", current.key, "-", current.score, "-", "-",
+                    formatAlloc(current.allocBytesPerOp));
+                continue;
+            }
+            double change = base.score == 0 ? 0 : (current.score - base.score) / base.score;
+            // For throughput higher is better, while for the other modes (time per op) lower is better.
+            boolean scoreRegressed = current.mode == Mode.Throughput ? change < -threshold : change > threshold;
+            boolean allocRegressed = base.allocBytesPerOp >= 0 && current.allocBytesPerOp >= 0
+                && current.allocBytesPerOp - base.allocBytesPerOp
+                > Math.max(base.allocBytesPerOp * threshold, ALLOC_TOLERANCE_BYTES);
+            String flag = "";
+            if (scoreRegressed || allocRegressed) {
+                regressions.add(current.key);
+                flag = scoreRegressed && allocRegressed ? "REGRESSED(score,alloc)"
+                    : scoreRegressed ? "REGRESSED(score)" : "REGRESSED(alloc)";
+            }
+            out.printf("%-90s %14.3f %14.3f %+8.1f%% %12s %12s %s%n", current.key, base.score, current.score,
+                change * 100, formatAlloc(base.allocBytesPerOp), formatAlloc(current.allocBytesPerOp), flag);
+        }
+        out.printf("%d benchmark(s) compared, %d regressed beyond %.1f%%%n", records.size(), regressions.size(),
+            threshold * 100);
+        return regressions;
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    private void add(Record record) {
+        records.put(record.key, record);
+    }
+
+    private static String formatAlloc(double alloc) {
+        return alloc < 0 ? "-" : String.format("%.1f", alloc);
+    }
+
+    private static String benchmarkKey(BenchmarkParams params) {
+        StringBuilder sb = new StringBuilder(params.getBenchmark());
+        Collection<String> keys = params.getParamsKeys();
+        if (!keys.isEmpty()) {
+            sb.append('{');
+            boolean first = true;
+            for (String key : keys) {
+                if (!first) {
+                    sb.append(';');
+                }
+                sb.append(key).append('=').append(params.getParam(key));
+                first = false;
+            }
+            sb.append('}');
+        }
+        return sb.toString();
+    }
+
+    private static class Record {
+        private final String key;
+        private final Mode mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+        private final double allocBytesPerOp;
+
+        Record(String key, Mode mode, double score, double error, String unit, double allocBytesPerOp) {
+            this.key = key;
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.allocBytesPerOp = allocBytesPerOp;
+        }
+    }
+}
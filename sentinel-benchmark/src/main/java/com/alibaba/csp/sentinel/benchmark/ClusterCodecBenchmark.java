@@ -0,0 +1,206 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowBatchRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowBatchResponseDataDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowResponseDataDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.ParamFlowRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowBatchRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowBatchResponseDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowResponseDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.ParamFlowRequestDataDecoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for encoding and decoding of the cluster flow control frames, on both the
+ * client side and the token server side.</p>
+ * <p>
+ * Buffers are allocated once from the pooled allocator (as in the Netty pipeline) and reused,
+ * so that only the cost (and allocation) of the codec itself is measured.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ClusterCodecBenchmark {
+
+    private static final long FLOW_ID = 111L;
+
+    @Param({"32"})
+    private int batchSize;
+
+    private final FlowRequestDataWriter flowRequestWriter = new FlowRequestDataWriter();
+    private final FlowRequestDataDecoder flowRequestDecoder = new FlowRequestDataDecoder();
+    private final FlowResponseDataWriter flowResponseWriter = new FlowResponseDataWriter();
+    private final FlowResponseDataDecoder flowResponseDecoder = new FlowResponseDataDecoder();
+    private final FlowBatchRequestDataWriter batchRequestWriter = new FlowBatchRequestDataWriter();
+    private final FlowBatchRequestDataDecoder batchRequestDecoder = new FlowBatchRequestDataDecoder();
+    private final FlowBatchResponseDataWriter batchResponseWriter = new FlowBatchResponseDataWriter();
+    private final FlowBatchResponseDataDecoder batchResponseDecoder = new FlowBatchResponseDataDecoder();
+    private final ParamFlowRequestDataWriter paramRequestWriter = new ParamFlowRequestDataWriter();
+    private final ParamFlowRequestDataDecoder paramRequestDecoder = new ParamFlowRequestDataDecoder();
+
+    private FlowRequestData flowRequest;
+    private FlowTokenResponseData flowResponse;
+    private FlowBatchRequestData batchRequest;
+    private FlowBatchResponseData batchResponse;
+    private ParamFlowRequestData paramRequest;
+
+    private ByteBuf out;
+    private ByteBuf flowRequestBuf;
+    private ByteBuf flowResponseBuf;
+    private ByteBuf batchRequestBuf;
+    private ByteBuf batchResponseBuf;
+    private ByteBuf paramRequestBuf;
+
+    @Setup
+    public void setUp() {
+        flowRequest = new FlowRequestData().setFlowId(FLOW_ID).setCount(1).setPriority(false);
+        flowResponse = new FlowTokenResponseData().setRemainingCount(100).setWaitInMs(0);
+        batchRequest = new FlowBatchRequestData(new ArrayList<ClusterRequest<FlowRequestData>>(batchSize));
+        batchResponse = new FlowBatchResponseData(new ArrayList<ClusterResponse<FlowTokenResponseData>>(batchSize));
+        for (int i = 0; i < batchSize; i++) {
+            batchRequest.addRequest(new ClusterRequest<>(i + 1, ClusterConstants.MSG_TYPE_FLOW,
+                new FlowRequestData().setFlowId(FLOW_ID + i).setCount(1).setPriority(false)));
+            batchResponse.addResponse(new ClusterResponse<>(i + 1, ClusterConstants.MSG_TYPE_FLOW,
+                ClusterConstants.RESPONSE_STATUS_OK, new FlowTokenResponseData().setRemainingCount(i)));
+        }
+        paramRequest = new ParamFlowRequestData().setFlowId(FLOW_ID).setCount(1)
+            .setParams(Arrays.<Object>asList("user-id-12345", 42, 1024L));
+
+        PooledByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+        out = allocator.buffer(4096);
+        flowRequestBuf = allocator.buffer(64);
+        flowRequestWriter.writeTo(flowRequest, flowRequestBuf);
+        flowResponseBuf = allocator.buffer(64);
+        flowResponseWriter.writeTo(flowResponse, flowResponseBuf);
+        batchRequestBuf = allocator.buffer(4096);
+        batchRequestWriter.writeTo(batchRequest, batchRequestBuf);
+        batchResponseBuf = allocator.buffer(4096);
+        batchResponseWriter.writeTo(batchResponse, batchResponseBuf);
+        paramRequestBuf = allocator.buffer(1024);
+        paramRequestWriter.writeTo(paramRequest, paramRequestBuf);
+    }
+
+    @TearDown
+    public void tearDown() {
+        out.release();
+        flowRequestBuf.release();
+        flowResponseBuf.release();
+        batchRequestBuf.release();
+        batchResponseBuf.release();
+        paramRequestBuf.release();
+    }
+
+    @Benchmark
+    public ByteBuf encodeFlowRequest() {
+        out.clear();
+        flowRequestWriter.writeTo(flowRequest, out);
+        return out;
+    }
+
+    @Benchmark
+    public FlowRequestData decodeFlowRequest() {
+        flowRequestBuf.readerIndex(0);
+        return flowRequestDecoder.decode(flowRequestBuf);
+    }
+
+    @Benchmark
+    public ByteBuf encodeFlowResponse() {
+        out.clear();
+        flowResponseWriter.writeTo(flowResponse, out);
+        return out;
+    }
+
+    @Benchmark
+    public FlowTokenResponseData decodeFlowResponse() {
+        flowResponseBuf.readerIndex(0);
+        return flowResponseDecoder.decode(flowResponseBuf);
+    }
+
+    @Benchmark
+    public ByteBuf encodeFlowBatchRequest() {
+        out.clear();
+        batchRequestWriter.writeTo(batchRequest, out);
+        return out;
+    }
+
+    @Benchmark
+    public FlowBatchRequestData decodeFlowBatchRequest() {
+        batchRequestBuf.readerIndex(0);
+        return batchRequestDecoder.decode(batchRequestBuf);
+    }
+
+    @Benchmark
+    public ByteBuf encodeFlowBatchResponse() {
+        out.clear();
+        batchResponseWriter.writeTo(batchResponse, out);
+        return out;
+    }
+
+    @Benchmark
+    public FlowBatchResponseData decodeFlowBatchResponse() {
+        batchResponseBuf.readerIndex(0);
+        return batchResponseDecoder.decode(batchResponseBuf);
+    }
+
+    @Benchmark
+    public ByteBuf encodeParamFlowRequest() {
+        out.clear();
+        paramRequestWriter.writeTo(paramRequest, out);
+        return out;
+    }
+
+    @Benchmark
+    public ParamFlowRequestData decodeParamFlowRequest() {
+        paramRequestBuf.readerIndex(0);
+        return paramRequestDecoder.decode(paramRequestBuf);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.LogBase;
+import com.alibaba.csp.sentinel.node.metric.BinaryMetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricWriter;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for reading a window of metrics (as the dashboard fetches via the {@code metric} command)
+ * from the metric files of each format.</p>
+ *
+ * @since 2.0.0
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class MetricSearcherBenchmark {
+
+    private static final int SECONDS = 60;
+
+    private static final File LOG_DIR;
+
+    static {
+        // The log directory should be set before Sentinel classes are loaded.
+        try {
+            LOG_DIR = Files.createTempDirectory("sentinel-metric-search-benchmark").toFile();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        System.setProperty(LogBase.LOG_DIR, LOG_DIR.getAbsolutePath());
+    }
+
+    @Param({"5000"})
+    private int resourceCount;
+
+    @Param({SentinelConfig.METRIC_FILE_FORMAT_TEXT, SentinelConfig.METRIC_FILE_FORMAT_BINARY})
+    private String format;
+
+    private MetricSearcher searcher;
+    private long beginTime;
+    private String identity;
+
+    @Setup
+    public void setUp() throws Exception {
+        MetricWriter writer = new MetricWriter(SentinelConfig.DEFAULT_SINGLE_METRIC_FILE_SIZE,
+            SentinelConfig.DEFAULT_TOTAL_METRIC_FILE_COUNT, format);
+        beginTime = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        List<MetricNode> nodes = new ArrayList<>(resourceCount);
+        for (int i = 0; i < resourceCount; i++) {
+            MetricNode node = new MetricNode();
+            node.setResource("com.alibaba.csp.sentinel.benchmark.Resource:method" + i + "(java.lang.String)");
+            node.setPassQps(1000 + i);
+            node.setSuccessQps(1000 + i);
+            node.setBlockQps(i);
+            node.setRt(20);
+            nodes.add(node);
+        }
+        for (int s = 0; s < SECONDS; s++) {
+            writer.write(beginTime + s * 1000L, nodes);
+        }
+        writer.close();
+        identity = nodes.get(resourceCount / 2).getResource();
+
+        String appName = SentinelConfig.getAppName();
+        if (SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(format)) {
+            searcher = new BinaryMetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                MetricWriter.formBinaryMetricFileName(appName, PidUtil.getPid()));
+        } else {
+            searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = new File(MetricWriter.METRIC_BASE_DIR).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.contains(MetricWriter.METRIC_FILE) || name.contains(MetricWriter.METRIC_BINARY_FILE)) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public List<MetricNode> findWindow() throws Exception {
+        return searcher.findByTimeAndResource(beginTime, beginTime + (SECONDS - 1) * 1000L, null);
+    }
+
+    @Benchmark
+    public List<MetricNode> findWindowOfResource() throws Exception {
+        return searcher.findByTimeAndResource(beginTime, beginTime + (SECONDS - 1) * 1000L, identity);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.LogBase;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the throughput of {@link MetricWriter}. Each invocation writes the metrics
+ * of all resources for the next second, as the metric timer does once a second.</p>
+ * <p>
+ * Metric files are written to a temporary log directory, which is cleaned after each iteration.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MetricWriterBenchmark {
+
+    private static final long SINGLE_FILE_SIZE = 1024 * 1024 * 50;
+    private static final int TOTAL_FILE_COUNT = 6;
+
+    private static final File LOG_DIR;
+
+    static {
+        // The log directory should be set before Sentinel classes are loaded.
+        try {
+            LOG_DIR = Files.createTempDirectory("sentinel-metric-benchmark").toFile();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        System.setProperty(LogBase.LOG_DIR, LOG_DIR.getAbsolutePath());
+    }
+
+    @Param({"10", "100", "1000"})
+    private int resourceCount;
+
+    @Param({SentinelConfig.METRIC_FILE_FORMAT_TEXT, SentinelConfig.METRIC_FILE_FORMAT_BINARY})
+    private String format;
+
+    private List<MetricNode> nodes;
+    private MetricWriter writer;
+    private long time;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        nodes = new ArrayList<>(resourceCount);
+        for (int i = 0; i < resourceCount; i++) {
+            MetricNode node = new MetricNode();
+            node.setResource("com.alibaba.csp.sentinel.benchmark.Resource:method" + i + "(java.lang.String)");
+            node.setPassQps(1000 + i);
+            node.setSuccessQps(1000 + i);
+            node.setBlockQps(i);
+            node.setRt(20);
+            node.setConcurrency(i % 64);
+            nodes.add(node);
+        }
+        writer = new MetricWriter(SINGLE_FILE_SIZE, TOTAL_FILE_COUNT, format);
+        time = System.currentTimeMillis() / 1000 * 1000;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        writer.close();
+        File[] files = new File(MetricWriter.METRIC_BASE_DIR).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.contains(MetricWriter.METRIC_FILE) || name.contains(MetricWriter.METRIC_BINARY_FILE)) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeSecond() throws Exception {
+        time += 1000;
+        writer.write(time, nodes);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowChecker;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowLongCounters;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the QPS check of a single hot parameter value shared by many threads.</p>
+ * <p>
+ * {@code long} values are checked with {@link ParamFlowLongCounters}, of which each segment is guarded by a lock,
+ * while {@code string} values go through the boxed counters updated via CAS, which is the path that numeric
+ * values took before. The low threshold blocks most of the checks, and the high one is never reached.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParamFlowHotKeyBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-param-hot-key";
+
+    @Param({"long", "string"})
+    private String keyType;
+
+    @Param({"100", "1000000000"})
+    private double count;
+
+    private ResourceWrapper resourceWrapper;
+    private ParamFlowRule rule;
+    private Object[] args;
+
+    @Setup
+    public void setUp() {
+        resourceWrapper = new StringResourceWrapper(RESOURCE_NAME, EntryType.IN);
+        rule = new ParamFlowRule(RESOURCE_NAME)
+            .setParamIdx(0)
+            .setCount(count);
+        ParamFlowRuleManager.loadRules(Collections.singletonList(rule));
+        ParameterMetricStorage.initParamMetricsFor(resourceWrapper, rule);
+        args = new Object[] {"long".equals(keyType) ? (Object)42L : "42"};
+    }
+
+    @TearDown
+    public void tearDown() {
+        ParamFlowRuleManager.loadRules(Collections.<ParamFlowRule>emptyList());
+        ParameterMetricStorage.clearParamMetricForResource(RESOURCE_NAME);
+    }
+
+    private boolean check() {
+        return ParamFlowChecker.passCheck(resourceWrapper, rule, 1, args);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean check1() {
+        return check();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean check8() {
+        return check();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean check32() {
+        return check();
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthoritySlot;
+import com.alibaba.csp.sentinel.slots.block.concurrency.ConcurrencyLimitRule;
+import com.alibaba.csp.sentinel.slots.block.concurrency.ConcurrencyLimitRuleManager;
+import com.alibaba.csp.sentinel.slots.block.concurrency.ConcurrencyLimitSlot;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowSlot;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.slots.statistic.StatisticSlot;
+import com.alibaba.csp.sentinel.slots.system.SystemRule;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+import com.alibaba.csp.sentinel.slots.system.SystemSlot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the entry and exit of a single processor slot, so that the cost of each slot
+ * in the default slot chain could be measured (and compared) separately.</p>
+ * <p>
+ * Rules of the slot under test are loaded with thresholds that are never reached, so that
+ * the whole checking path is measured rather than the blocking path.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ProcessorSlotBenchmark {
+
+    private static final String RESOURCE_NAME = "slot-benchmark";
+    private static final String CONTEXT_NAME = "slot-benchmark-context";
+    private static final String ORIGIN = "benchmark-origin";
+
+    private static final int PARAM_KEY_COUNT = 1024;
+    private static final double NEVER_REACHED = 1e9;
+
+    @Param({"nodeSelector", "clusterBuilder", "statistic", "flowDefault", "flowWarmUp", "flowThrottling",
+        "degrade", "concurrencyLimit", "paramFlow", "authority", "system"})
+    private String slotName;
+
+    private ProcessorSlot<Object> slot;
+    private ResourceWrapper resourceWrapper;
+    private Context context;
+    private Entry entry;
+    private DefaultNode node;
+
+    private Object[][] paramArgs;
+    private int paramIndex;
+
+    @Setup
+    public void setUp() throws Exception {
+        loadRules();
+        slot = createSlot();
+
+        paramArgs = new Object[PARAM_KEY_COUNT][];
+        for (int i = 0; i < PARAM_KEY_COUNT; i++) {
+            paramArgs[i] = new Object[] {"key-" + i};
+        }
+        // A real entry is required, as some slots depend on the current entry and node of the context.
+        resourceWrapper = new StringResourceWrapper(RESOURCE_NAME, EntryType.IN);
+        context = ContextUtil.enter(CONTEXT_NAME, ORIGIN);
+        entry = SphU.entry(RESOURCE_NAME, EntryType.IN, 1, paramArgs[0]);
+        node = (DefaultNode) context.getCurNode();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (entry != null) {
+            entry.exit(1, paramArgs[0]);
+        }
+        ContextUtil.exit();
+
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        DegradeRuleManager.loadRules(Collections.<DegradeRule>emptyList());
+        ConcurrencyLimitRuleManager.loadRules(Collections.<ConcurrencyLimitRule>emptyList());
+        ParamFlowRuleManager.loadRules(Collections.<ParamFlowRule>emptyList());
+        AuthorityRuleManager.loadRules(Collections.<AuthorityRule>emptyList());
+        SystemRuleManager.loadRules(Collections.<SystemRule>emptyList());
+    }
+
+    @Benchmark
+    public void entryAndExit() throws Throwable {
+        Object[] args = paramArgs[paramIndex++ & (PARAM_KEY_COUNT - 1)];
+        slot.entry(context, resourceWrapper, node, 1, false, args);
+        slot.exit(context, resourceWrapper, 1, args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProcessorSlot<Object> createSlot() {
+        ProcessorSlot<?> slot;
+        switch (slotName) {
+            case "nodeSelector":
+                slot = new NodeSelectorSlot();
+                break;
+            case "clusterBuilder":
+                slot = new ClusterBuilderSlot();
+                break;
+            case "statistic":
+                slot = new StatisticSlot();
+                break;
+            case "flowDefault":
+            case "flowWarmUp":
+            case "flowThrottling":
+                slot = new FlowSlot();
+                break;
+            case "degrade":
+                slot = new DegradeSlot();
+                break;
+            case "concurrencyLimit":
+                slot = new ConcurrencyLimitSlot();
+                break;
+            case "paramFlow":
+                slot = new ParamFlowSlot();
+                break;
+            case "authority":
+                slot = new AuthoritySlot();
+                break;
+            case "system":
+                slot = new SystemSlot();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown slot: " + slotName);
+        }
+        return (ProcessorSlot<Object>) slot;
+    }
+
+    private void loadRules() {
+        switch (slotName) {
+            case "flowDefault":
+                FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(RESOURCE_NAME)
+                    .setCount(NEVER_REACHED)));
+                break;
+            case "flowWarmUp":
+                FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(RESOURCE_NAME)
+                    .setCount(NEVER_REACHED)
+                    .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP)
+                    .setWarmUpPeriodSec(10)));
+                break;
+            case "flowThrottling":
+                FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(RESOURCE_NAME)
+                    .setCount(NEVER_REACHED)
+                    .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                    .setMaxQueueingTimeMs(500)));
+                break;
+            case "degrade":
+                DegradeRuleManager.loadRules(Collections.singletonList(new DegradeRule(RESOURCE_NAME)
+                    .setGrade(RuleConstant.DEGRADE_GRADE_RT)
+                    .setCount(1000)
+                    .setSlowRatioThreshold(1.0d)
+                    .setMinRequestAmount(Integer.MAX_VALUE)
+                    .setTimeWindow(10)));
+                break;
+            case "concurrencyLimit":
+                ConcurrencyLimitRuleManager.loadRules(Collections.singletonList(
+                    new ConcurrencyLimitRule(RESOURCE_NAME).setInitialLimit(1000)));
+                break;
+            case "paramFlow":
+                ParamFlowRuleManager.loadRules(Collections.singletonList(new ParamFlowRule(RESOURCE_NAME)
+                    .setParamIdx(0)
+                    .setCount(NEVER_REACHED)));
+                break;
+            case "authority":
+                AuthorityRule authorityRule = new AuthorityRule();
+                authorityRule.setResource(RESOURCE_NAME);
+                authorityRule.setStrategy(RuleConstant.AUTHORITY_WHITE);
+                authorityRule.setLimitApp("app-a,app-b,app-c,app-d,app-e,app-f,app-g," + ORIGIN);
+                AuthorityRuleManager.loadRules(Collections.singletonList(authorityRule));
+                break;
+            case "system":
+                SystemRule systemRule = new SystemRule();
+                systemRule.setQps(NEVER_REACHED);
+                systemRule.setMaxThread((long) NEVER_REACHED);
+                systemRule.setAvgRt((long) NEVER_REACHED);
+                SystemRuleManager.loadRules(Collections.singletonList(systemRule));
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Runs the benchmarks with the GC profiler, and compares the results with a saved baseline.</p>
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.alibaba.csp.sentinel.benchmark.SentinelBenchmarkRunner
+ * [-i include-regex] [-b baseline.csv] [-s save.csv] [-t threshold]}
+ * </p>
+ * <p>
+ * The process exits with status 1 if any benchmark regresses beyond the threshold
+ * (10% by default), so that it could be used as a gate in CI.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public final class SentinelBenchmarkRunner {
+
+    private static final double DEFAULT_THRESHOLD = 0.1d;
+
+    public static void main(String[] args) throws Exception {
+        String include = SentinelBenchmarkRunner.class.getPackage().getName() + ".*";
+        File baselineFile = null;
+        File saveFile = null;
+        double threshold = DEFAULT_THRESHOLD;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value of " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "-i":
+                    include = value;
+                    break;
+                case "-b":
+                    baselineFile = new File(value);
+                    break;
+                case "-s":
+                    saveFile = new File(value);
+                    break;
+                case "-t":
+                    threshold = Double.parseDouble(value);
+                    break;
+                default:
+                    usage("Unknown option: " + arg);
+            }
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class);
+        Collection<RunResult> results = new Runner(options.build()).run();
+        BenchmarkReport report = BenchmarkReport.fromResults(results);
+
+        if (saveFile != null) {
+            report.save(saveFile);
+            System.out.println("Results saved to " + saveFile.getAbsolutePath());
+        }
+        if (baselineFile != null) {
+            BenchmarkReport baseline = BenchmarkReport.load(baselineFile);
+            List<String> regressions = report.compare(baseline, threshold, System.out);
+            if (!regressions.isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: SentinelBenchmarkRunner [-i include-regex] [-b baseline.csv] [-s save.csv] "
+            + "[-t threshold]");
+        System.exit(2);
+    }
+
+    private SentinelBenchmarkRunner() {}
+}
@@ -24,10 +24,19 @@ public final class ClientConstants {
     public static final int TYPE_PING = 0;
     public static final int TYPE_FLOW = 1;
     public static final int TYPE_PARAM_FLOW = 2;
+    public static final int TYPE_FLOW_BATCH = 5;
+    public static final int TYPE_FLOW_LEASE = 6;
+    public static final int TYPE_FLOW_LEASE_RETURN = 7;
 
     public static final int CLIENT_STATUS_OFF = 0;
     public static final int CLIENT_STATUS_PENDING = 1;
     public static final int CLIENT_STATUS_STARTED = 2;
 
+    /**
+     * Strategies of selecting a connection from the connection pool.
+     */
+    public static final String CONNECTION_SELECT_ROUND_ROBIN = "round-robin";
+    public static final String CONNECTION_SELECT_LEAST_PENDING = "least-pending";
+
     private ClientConstants() {}
 }
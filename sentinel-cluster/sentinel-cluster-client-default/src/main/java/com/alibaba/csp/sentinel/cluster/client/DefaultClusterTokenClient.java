@@ -15,8 +15,16 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
@@ -26,8 +34,11 @@ import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientShardConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ServerChangeObserver;
 import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
+import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
@@ -37,17 +48,32 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
- * Default implementation of {@link ClusterTokenClient}.
+ * <p>Default implementation of {@link ClusterTokenClient}.</p>
+ * <p>
+ * Token requests are routed to token servers by the shards in {@link ClusterClientAssignConfig}
+ * (since 2.0.0), and each token server could be connected with a pool of connections
+ * (see {@link ClusterClientStartUpConfig#getConnectionPoolSize()}).
+ * </p>
  *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class DefaultClusterTokenClient implements ClusterTokenClient {
 
-    private ClusterTransportClient transportClient;
-    private TokenServerDescriptor serverDescriptor;
+    /**
+     * Connection to the default token server, which serves requests that match no shard.
+     */
+    private volatile ServerConnection defaultConnection;
+    private volatile List<ShardConnection> shardConnections = Collections.emptyList();
+    /**
+     * All connections, keyed by the server address.
+     */
+    private volatile Map<String, ServerConnection> connections = Collections.emptyMap();
 
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
+    private final int flowLeaseCount = ClusterClientStartUpConfig.getFlowLeaseCount();
+    private final int connectionPoolSize = ClusterClientStartUpConfig.getConnectionPoolSize();
+    private final String connectionSelectStrategy = ClusterClientStartUpConfig.getConnectionSelectStrategy();
 
     public DefaultClusterTokenClient() {
         ClusterClientConfigManager.addServerChangeObserver(new ServerChangeObserver() {
@@ -59,15 +85,8 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         initNewConnection();
     }
 
-    private boolean serverEqual(TokenServerDescriptor descriptor, ClusterClientAssignConfig config) {
-        if (descriptor == null || config == null) {
-            return false;
-        }
-        return descriptor.getHost().equals(config.getServerHost()) && descriptor.getPort() == config.getServerPort();
-    }
-
-    private void initNewConnection() {
-        if (transportClient != null) {
+    private synchronized void initNewConnection() {
+        if (defaultConnection != null) {
             return;
         }
         String host = ClusterClientConfigManager.getServerHost();
@@ -77,46 +96,105 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
 
         try {
-            this.transportClient = new NettyTransportClient(host, port);
-            this.serverDescriptor = new TokenServerDescriptor(host, port);
-            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
+            updateConnections(host, port, ClusterClientConfigManager.getShards());
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to initialize new token client", ex);
         }
     }
 
-    private void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
-        if (serverEqual(serverDescriptor, config)) {
-            return;
-        }
+    private synchronized void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
         try {
-            if (transportClient != null) {
-                transportClient.stop();
-            }
-            // Replace with new, even if the new client is not ready.
-            this.transportClient = new NettyTransportClient(config.getServerHost(), config.getServerPort());
-            this.serverDescriptor = new TokenServerDescriptor(config.getServerHost(), config.getServerPort());
-            startClientIfScheduled();
-            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
+            updateConnections(config.getServerHost(), config.getServerPort(), config.getShards());
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to change remote token server", ex);
         }
     }
 
-    private void startClientIfScheduled() throws Exception {
+    /**
+     * Connect to the default server and servers of the shards. Connections to unchanged servers are kept,
+     * while connections to the servers no longer assigned are stopped.
+     */
+    private void updateConnections(String host, int port, List<ClusterClientShardConfig> shards) throws Exception {
+        Map<String, ServerConnection> oldConnections = this.connections;
+        Map<String, ServerConnection> newConnections = new HashMap<>();
+        List<ServerConnection> created = new ArrayList<>();
+
+        ServerConnection newDefault = obtainConnection(host, port, oldConnections, newConnections, created);
+        List<ShardConnection> newShards = new ArrayList<>();
+        if (shards != null) {
+            for (ClusterClientShardConfig shard : shards) {
+                newShards.add(new ShardConnection(shard, obtainConnection(shard.getServerHost(),
+                    shard.getServerPort(), oldConnections, newConnections, created)));
+            }
+        }
+
+        for (Map.Entry<String, ServerConnection> e : oldConnections.entrySet()) {
+            if (!newConnections.containsKey(e.getKey())) {
+                e.getValue().stop();
+            }
+        }
+        // Replace with new, even if the new clients are not ready.
+        this.defaultConnection = newDefault;
+        this.shardConnections = Collections.unmodifiableList(newShards);
+        this.connections = Collections.unmodifiableMap(newConnections);
+
+        for (ServerConnection connection : created) {
+            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", connection.descriptor);
+            if (shouldStart.get()) {
+                connection.transportClient.start();
+            }
+        }
+    }
+
+    private ServerConnection obtainConnection(String host, int port, Map<String, ServerConnection> oldConnections,
+                                              Map<String, ServerConnection> newConnections,
+                                              List<ServerConnection> created) {
+        String address = host + ":" + port;
+        ServerConnection connection = newConnections.get(address);
+        if (connection == null) {
+            connection = oldConnections.get(address);
+            if (connection == null) {
+                connection = new ServerConnection(new TokenServerDescriptor(host, port), newTransportClient(host, port));
+                created.add(connection);
+            }
+            newConnections.put(address, connection);
+        }
+        return connection;
+    }
+
+    private ClusterTransportClient newTransportClient(String host, int port) {
+        if (connectionPoolSize > 1) {
+            return new PooledTransportClient(host, port, connectionPoolSize, connectionSelectStrategy);
+        }
+        return new NettyTransportClient(host, port);
+    }
+
+    private FlowTokenLeaseManager newLeaseManager(ClusterTransportClient client) {
+        if (flowLeaseCount <= 0) {
+            return null;
+        }
+        // Leases are tracked per connection by the token server, so they must go through the same connection.
+        if (client instanceof PooledTransportClient) {
+            client = ((PooledTransportClient) client).getPrimaryClient();
+        }
+        return new FlowTokenLeaseManager(client, flowLeaseCount);
+    }
+
+    private synchronized void startClientIfScheduled() throws Exception {
         if (shouldStart.get()) {
-            if (transportClient != null) {
-                transportClient.start();
-            } else {
+            if (connections.isEmpty()) {
                 RecordLog.warn("[DefaultClusterTokenClient] Cannot start transport client: client not created");
             }
+            for (ServerConnection connection : connections.values()) {
+                connection.transportClient.start();
+            }
         }
     }
 
-    private void stopClientIfStarted() throws Exception {
+    private synchronized void stopClientIfStarted() throws Exception {
         if (shouldStart.compareAndSet(true, false)) {
-            if (transportClient != null) {
-                transportClient.stop();
+            for (ServerConnection connection : connections.values()) {
+                connection.stop();
             }
         }
     }
@@ -135,15 +213,54 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
 
     @Override
     public int getState() {
-        if (transportClient == null) {
+        ServerConnection connection = this.defaultConnection;
+        if (connection == null) {
             return ClientConstants.CLIENT_STATUS_OFF;
         }
-        return transportClient.isReady() ? ClientConstants.CLIENT_STATUS_STARTED : ClientConstants.CLIENT_STATUS_OFF;
+        return connection.transportClient.isReady() ? ClientConstants.CLIENT_STATUS_STARTED
+            : ClientConstants.CLIENT_STATUS_OFF;
     }
 
     @Override
     public TokenServerDescriptor currentServer() {
-        return serverDescriptor;
+        ServerConnection connection = this.defaultConnection;
+        return connection == null ? null : connection.descriptor;
+    }
+
+    /**
+     * @return count of the in-flight token requests of all connections
+     * @since 2.0.0
+     */
+    public int getPendingRequestCount() {
+        int count = 0;
+        for (ServerConnection connection : connections.values()) {
+            ClusterTransportClient client = connection.transportClient;
+            if (client instanceof NettyTransportClient) {
+                count += ((NettyTransportClient) client).getPendingRequestCount();
+            } else if (client instanceof PooledTransportClient) {
+                count += ((PooledTransportClient) client).getPendingRequestCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the connection to the token server which serves the flow rule.
+     *
+     * @param flowId flow ID of the cluster rule
+     * @return connection to the token server, or null if not connected
+     */
+    private ServerConnection route(long flowId) {
+        List<ShardConnection> shards = this.shardConnections;
+        if (!shards.isEmpty()) {
+            String namespace = ConfigSupplierRegistry.getNamespaceSupplier().get();
+            for (ShardConnection shard : shards) {
+                if (shard.config.matches(flowId, namespace)) {
+                    return shard.connection;
+                }
+            }
+        }
+        return defaultConnection;
     }
 
     @Override
@@ -151,11 +268,14 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         if (notValidRequest(flowId, acquireCount)) {
             return badRequest();
         }
-        FlowRequestData data = new FlowRequestData().setCount(acquireCount)
-            .setFlowId(flowId).setPriority(prioritized);
-        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+        ServerConnection connection = route(flowId);
+        TokenResult leasedResult = tryAcquireFromLease(connection, flowId, acquireCount, prioritized);
+        if (leasedResult != null) {
+            return leasedResult;
+        }
+        ClusterRequest<FlowRequestData> request = buildFlowRequest(flowId, acquireCount, prioritized);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(connection, request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -169,11 +289,9 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
             return badRequest();
         }
-        ParamFlowRequestData data = new ParamFlowRequestData().setCount(acquireCount)
-            .setFlowId(flowId).setParams(params);
-        ClusterRequest<ParamFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
+        ClusterRequest<ParamFlowRequestData> request = buildParamFlowRequest(flowId, acquireCount, params);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(route(flowId), request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -182,6 +300,50 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    @Override
+    public CompletableFuture<TokenResult> requestTokenAsync(Long flowId, int acquireCount, boolean prioritized) {
+        if (notValidRequest(flowId, acquireCount)) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        ServerConnection connection = route(flowId);
+        TokenResult leasedResult = tryAcquireFromLease(connection, flowId, acquireCount, prioritized);
+        if (leasedResult != null) {
+            return CompletableFuture.completedFuture(leasedResult);
+        }
+        return sendTokenRequestAsync(connection, buildFlowRequest(flowId, acquireCount, prioritized));
+    }
+
+    private TokenResult tryAcquireFromLease(ServerConnection connection, Long flowId, int acquireCount,
+                                            boolean prioritized) {
+        // Prioritized requests may occupy future buckets, which is decided by the token server.
+        if (connection == null || connection.leaseManager == null || prioritized) {
+            return null;
+        }
+        return connection.leaseManager.tryAcquire(flowId, acquireCount);
+    }
+
+    @Override
+    public CompletableFuture<TokenResult> requestParamTokenAsync(Long flowId, int acquireCount,
+                                                                 Collection<Object> params) {
+        if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        return sendTokenRequestAsync(route(flowId), buildParamFlowRequest(flowId, acquireCount, params));
+    }
+
+    private ClusterRequest<FlowRequestData> buildFlowRequest(Long flowId, int acquireCount, boolean prioritized) {
+        FlowRequestData data = new FlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setPriority(prioritized);
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+    }
+
+    private ClusterRequest<ParamFlowRequestData> buildParamFlowRequest(Long flowId, int acquireCount,
+                                                                       Collection<Object> params) {
+        ParamFlowRequestData data = new ParamFlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setParams(params);
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         return null;
@@ -203,13 +365,39 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
-    private TokenResult sendTokenRequest(ClusterRequest request) throws Exception {
-        if (transportClient == null) {
+    private TokenResult sendTokenRequest(ServerConnection connection, ClusterRequest request) throws Exception {
+        if (connection == null) {
             RecordLog.warn(
                 "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
             return clientFail();
         }
-        ClusterResponse response = transportClient.sendRequest(request);
+        ClusterResponse response = connection.transportClient.sendRequest(request);
+        return toTokenResult(response);
+    }
+
+    private CompletableFuture<TokenResult> sendTokenRequestAsync(ServerConnection connection,
+                                                                 ClusterRequest request) {
+        if (connection == null) {
+            RecordLog.warn(
+                "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+            return CompletableFuture.completedFuture(clientFail());
+        }
+        return connection.transportClient.sendRequestAsync(request).handle(new BiFunction<ClusterResponse, Throwable, TokenResult>() {
+            @Override
+            public TokenResult apply(ClusterResponse response, Throwable ex) {
+                if (ex != null) {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    ClusterClientStatLogUtil.log(cause.getMessage());
+                    return clientFail();
+                }
+                TokenResult result = toTokenResult(response);
+                logForResult(result);
+                return result;
+            }
+        });
+    }
+
+    private TokenResult toTokenResult(ClusterResponse response) {
         TokenResult result = new TokenResult(response.getStatus());
         if (response.getData() != null) {
             FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
@@ -230,4 +418,38 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
     private TokenResult clientFail() {
         return new TokenResult(TokenResultStatus.FAIL);
     }
+
+    /**
+     * Transport client to a token server, with the leases of flow tokens from the server.
+     */
+    private final class ServerConnection {
+
+        private final TokenServerDescriptor descriptor;
+        private final ClusterTransportClient transportClient;
+        private final FlowTokenLeaseManager leaseManager;
+
+        ServerConnection(TokenServerDescriptor descriptor, ClusterTransportClient transportClient) {
+            this.descriptor = descriptor;
+            this.transportClient = transportClient;
+            this.leaseManager = newLeaseManager(transportClient);
+        }
+
+        void stop() throws Exception {
+            if (leaseManager != null) {
+                leaseManager.giveBackAll();
+            }
+            transportClient.stop();
+        }
+    }
+
+    private static final class ShardConnection {
+
+        private final ClusterClientShardConfig config;
+        private final ServerConnection connection;
+
+        ShardConnection(ClusterClientShardConfig config, ServerConnection connection) {
+            this.config = config;
+            this.connection = connection;
+        }
+    }
 }
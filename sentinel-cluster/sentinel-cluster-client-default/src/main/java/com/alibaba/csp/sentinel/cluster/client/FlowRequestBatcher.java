@@ -0,0 +1,155 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.client.handler.PendingRequestTable;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+
+/**
+ * <p>Coalesces concurrent flow token requests of a channel into {@link ClusterConstants#MSG_TYPE_FLOW_BATCH}
+ * frames.</p>
+ * <p>
+ * Requests are queued and written by the event loop of the channel, either when the micro-window since the
+ * first queued request has passed, or at once when there are enough requests for a full batch. All frames
+ * of one drain are written with a single flush.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class FlowRequestBatcher {
+
+    /**
+     * The xid of the batch frame itself, as responses are matched by the xid of each item.
+     */
+    private static final int BATCH_FRAME_XID = 0;
+
+    private final Channel channel;
+    private final PendingRequestTable pendingRequests;
+    private final long windowMicros;
+    private final int maxBatchSize;
+
+    private final Queue<ClusterRequest<FlowRequestData>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    FlowRequestBatcher(Channel channel, PendingRequestTable pendingRequests, long windowMicros, int maxBatchSize) {
+        this.channel = channel;
+        this.pendingRequests = pendingRequests;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Queue the flow request, whose promise should have been registered in the {@link PendingRequestTable}.
+     *
+     * @param request flow request with valid xid
+     */
+    @SuppressWarnings("unchecked")
+    void add(ClusterRequest request) {
+        queue.offer((ClusterRequest<FlowRequestData>) request);
+        int pending = pendingCount.incrementAndGet();
+        try {
+            if (pending % maxBatchSize == 0) {
+                // A full batch is ready.
+                channel.eventLoop().execute(flushTask);
+            } else if (flushScheduled.compareAndSet(false, true)) {
+                channel.eventLoop().schedule(flushTask, windowMicros, TimeUnit.MICROSECONDS);
+            }
+        } catch (RejectedExecutionException ex) {
+            // The event loop is shutting down.
+            failAll(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+        }
+    }
+
+    private void flush() {
+        // Reset before draining, so that requests queued afterwards will schedule a new flush.
+        flushScheduled.set(false);
+        boolean written = false;
+        List<ClusterRequest<FlowRequestData>> items;
+        while (!(items = drain()).isEmpty()) {
+            write(items);
+            written = true;
+        }
+        if (written) {
+            channel.flush();
+        }
+    }
+
+    private List<ClusterRequest<FlowRequestData>> drain() {
+        List<ClusterRequest<FlowRequestData>> items = new ArrayList<>(Math.min(maxBatchSize, pendingCount.get()));
+        ClusterRequest<FlowRequestData> request;
+        while (items.size() < maxBatchSize && (request = queue.poll()) != null) {
+            items.add(request);
+        }
+        pendingCount.addAndGet(-items.size());
+        return items;
+    }
+
+    private void write(final List<ClusterRequest<FlowRequestData>> items) {
+        Object frame;
+        if (items.size() == 1) {
+            frame = items.get(0);
+        } else {
+            frame = new ClusterRequest<>(BATCH_FRAME_XID, ClusterConstants.MSG_TYPE_FLOW_BATCH,
+                new FlowBatchRequestData(items));
+        }
+        channel.write(frame).addListener(new GenericFutureListener<Future<? super Void>>() {
+            @Override
+            public void operationComplete(Future<? super Void> f) {
+                if (!f.isSuccess()) {
+                    Throwable cause = f.cause() != null ? f.cause()
+                        : new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS);
+                    for (ClusterRequest<FlowRequestData> item : items) {
+                        pendingRequests.fail(item.getId(), cause);
+                    }
+                }
+            }
+        });
+    }
+
+    private void failAll(Throwable cause) {
+        ClusterRequest<FlowRequestData> request;
+        while ((request = queue.poll()) != null) {
+            pendingCount.decrementAndGet();
+            pendingRequests.fail(request.getId(), cause);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Leases of cluster flow tokens, which are served locally so that most of the token requests
+ * need not go over the wire.</p>
+ * <p>
+ * Leases are renewed asynchronously. Requests that cannot be served by the current lease (e.g. exhausted,
+ * expired or being renewed) fall back to requesting the token server directly. Unused tokens are given back
+ * when the lease expires or is replaced.
+ * </p>
+ * <p>
+ * Leasing of a flow is disabled if the token server answers its lease request with BAD_REQUEST. If several
+ * lease requests in a row time out (e.g. servers without leasing support simply drop the lease requests),
+ * leasing is suspended for the token server, and probed again after an exponential backoff.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class FlowTokenLeaseManager {
+
+    /**
+     * Time to wait before leasing again after a failed lease request.
+     */
+    private static final int RENEW_BACKOFF_MS = 1000;
+    /**
+     * Count of lease requests timed out in a row, from which leasing is suspended for the token server.
+     */
+    static final int MAX_CONSECUTIVE_TIMEOUTS = 3;
+    /**
+     * Min and max time of suspending leasing for the token server, doubled on each timed out probe.
+     */
+    static final int MIN_SUSPEND_MS = 1000;
+    static final int MAX_SUSPEND_MS = 60 * 1000;
+
+    private final ClusterTransportClient transportClient;
+    private final int leaseCount;
+
+    private final Map<Long, LeaseSlot> slots = new ConcurrentHashMap<>();
+    /**
+     * Lease ids are unique per client, so that the server refunds given back tokens to the lease they belong to.
+     */
+    private final AtomicLong leaseIdGenerator = new AtomicLong();
+
+    private final AtomicInteger consecutiveTimeouts = new AtomicInteger();
+    private volatile long suspendedUntil = 0;
+
+    FlowTokenLeaseManager(ClusterTransportClient transportClient, int leaseCount) {
+        this.transportClient = transportClient;
+        this.leaseCount = leaseCount;
+    }
+
+    /**
+     * Try to acquire tokens from the lease of the flow rule.
+     *
+     * @param flowId       flow ID of the cluster rule
+     * @param acquireCount token count to acquire
+     * @return the result if served by the lease, or null if the token server should be requested directly
+     */
+    TokenResult tryAcquire(long flowId, int acquireCount) {
+        if (suspendedUntil != 0 && TimeUtil.currentTimeMillis() < suspendedUntil) {
+            return null;
+        }
+        LeaseSlot slot = getOrCreateSlot(flowId);
+        if (slot.disabled) {
+            return null;
+        }
+        Lease lease = slot.lease;
+        if (lease != null) {
+            if (TimeUtil.currentTimeMillis() < lease.expireAt) {
+                int remaining = lease.tryTake(acquireCount);
+                if (remaining >= 0) {
+                    return new TokenResult(TokenResultStatus.OK)
+                        .setRemaining(remaining)
+                        .setWaitInMs(0);
+                }
+                if (lease.backoff) {
+                    return null;
+                }
+            } else {
+                giveBack(flowId, lease);
+            }
+        }
+        renewAsync(flowId, slot, lease);
+        return null;
+    }
+
+    /**
+     * Give back unused tokens of all leases and drop them.
+     */
+    void giveBackAll() {
+        for (Map.Entry<Long, LeaseSlot> e : slots.entrySet()) {
+            Lease lease = e.getValue().lease;
+            if (lease != null && TimeUtil.currentTimeMillis() < lease.expireAt) {
+                giveBack(e.getKey(), lease);
+            }
+        }
+        slots.clear();
+    }
+
+    boolean isSuspended() {
+        return suspendedUntil != 0 && TimeUtil.currentTimeMillis() < suspendedUntil;
+    }
+
+    boolean isDisabled(long flowId) {
+        LeaseSlot slot = slots.get(flowId);
+        return slot != null && slot.disabled;
+    }
+
+    int getLeasedRemaining(long flowId) {
+        LeaseSlot slot = slots.get(flowId);
+        Lease lease = slot == null ? null : slot.lease;
+        return lease == null ? 0 : lease.remaining.get();
+    }
+
+    private LeaseSlot getOrCreateSlot(long flowId) {
+        LeaseSlot slot = slots.get(flowId);
+        if (slot == null) {
+            LeaseSlot newSlot = new LeaseSlot();
+            slot = slots.putIfAbsent(flowId, newSlot);
+            if (slot == null) {
+                slot = newSlot;
+            }
+        }
+        return slot;
+    }
+
+    private void renewAsync(final long flowId, final LeaseSlot slot, final Lease oldLease) {
+        if (!slot.renewing.compareAndSet(false, true)) {
+            return;
+        }
+        final long leaseId = leaseIdGenerator.incrementAndGet();
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+            new FlowRequestData().setFlowId(flowId).setCount(leaseCount).setLeaseId(leaseId));
+        transportClient.sendRequestAsync(request).whenComplete(new BiConsumer<ClusterResponse, Throwable>() {
+            @Override
+            public void accept(ClusterResponse response, Throwable ex) {
+                try {
+                    onLeaseResponse(flowId, leaseId, slot, response, ex);
+                } finally {
+                    slot.renewing.set(false);
+                }
+                if (oldLease != null) {
+                    giveBack(flowId, oldLease);
+                }
+            }
+        });
+    }
+
+    private void onLeaseResponse(long flowId, long leaseId, LeaseSlot slot, ClusterResponse response,
+                                 Throwable ex) {
+        long now = TimeUtil.currentTimeMillis();
+        if (ex != null || response == null) {
+            if (isTimeout(ex)) {
+                int timeouts = consecutiveTimeouts.incrementAndGet();
+                if (timeouts >= MAX_CONSECUTIVE_TIMEOUTS) {
+                    suspend(now, timeouts - MAX_CONSECUTIVE_TIMEOUTS);
+                }
+            }
+            slot.lease = Lease.backoff(now + RENEW_BACKOFF_MS);
+            return;
+        }
+        consecutiveTimeouts.set(0);
+        if (suspendedUntil != 0) {
+            suspendedUntil = 0;
+            RecordLog.info("[FlowTokenLeaseManager] Token server answered lease request again, leasing resumed");
+        }
+        FlowTokenResponseData data = (FlowTokenResponseData) response.getData();
+        switch (response.getStatus()) {
+            case TokenResultStatus.OK:
+                slot.lease = new Lease(leaseId, data.getRemainingCount(), now + data.getWaitInMs(), false);
+                break;
+            case TokenResultStatus.BLOCKED:
+                // No more tokens to lease in current bucket.
+                slot.lease = Lease.backoff(now + Math.max(data == null ? 0 : data.getWaitInMs(), 1));
+                break;
+            case TokenResultStatus.BAD_REQUEST:
+                slot.disabled = true;
+                RecordLog.warn("[FlowTokenLeaseManager] Token server rejected lease request of flowId {}, "
+                    + "leasing disabled for the flow", flowId);
+                break;
+            default:
+                slot.lease = Lease.backoff(now + RENEW_BACKOFF_MS);
+        }
+    }
+
+    /**
+     * Suspend leasing for the token server, after which lease requests serve as probes of the server.
+     *
+     * @param now          current time
+     * @param failedProbes count of probes timed out since the suspension
+     */
+    private void suspend(long now, int failedProbes) {
+        long suspendMs = Math.min((long) MIN_SUSPEND_MS << Math.min(failedProbes, 16), MAX_SUSPEND_MS);
+        suspendedUntil = now + suspendMs;
+        if (failedProbes == 0) {
+            RecordLog.warn("[FlowTokenLeaseManager] Lease requests timed out {} times in a row, "
+                + "leasing suspended for {} ms", MAX_CONSECUTIVE_TIMEOUTS, suspendMs);
+        }
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof SentinelClusterException
+            && ClusterErrorMessages.REQUEST_TIME_OUT.equals(cause.getMessage());
+    }
+
+    private void giveBack(long flowId, Lease lease) {
+        int unused = lease.drain();
+        if (unused <= 0) {
+            return;
+        }
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE_RETURN,
+            new FlowRequestData().setFlowId(flowId).setCount(unused).setLeaseId(lease.id));
+        // The result is ignored, as unused tokens expire anyway.
+        transportClient.sendRequestAsync(request);
+    }
+
+    private static final class LeaseSlot {
+        private final AtomicBoolean renewing = new AtomicBoolean(false);
+        private volatile Lease lease;
+        /**
+         * Whether the token server rejected leasing of the flow.
+         */
+        private volatile boolean disabled = false;
+    }
+
+    private static final class Lease {
+
+        private final long id;
+        private final AtomicInteger remaining;
+        private final long expireAt;
+        /**
+         * Whether this is an empty lease to hold off renewing until expiry.
+         */
+        private final boolean backoff;
+
+        Lease(long id, int count, long expireAt, boolean backoff) {
+            this.id = id;
+            this.remaining = new AtomicInteger(count);
+            this.expireAt = expireAt;
+            this.backoff = backoff;
+        }
+
+        static Lease backoff(long expireAt) {
+            return new Lease(0, 0, expireAt, true);
+        }
+
+        int tryTake(int count) {
+            while (true) {
+                int current = remaining.get();
+                if (current < count) {
+                    return -1;
+                }
+                if (remaining.compareAndSet(current, current - count)) {
+                    return current - count;
+                }
+            }
+        }
+
+        int drain() {
+            return remaining.getAndSet(0);
+        }
+    }
+}
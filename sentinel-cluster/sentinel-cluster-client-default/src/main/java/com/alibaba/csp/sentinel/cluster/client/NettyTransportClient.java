@@ -15,20 +15,25 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
-import java.util.AbstractMap.SimpleEntry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
 import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientHandler;
-import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientPromiseHolder;
+import com.alibaba.csp.sentinel.cluster.client.handler.PendingRequestTable;
 import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.request.Request;
@@ -44,12 +49,12 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.ChannelPromise;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 
 /**
@@ -65,20 +70,30 @@ public class NettyTransportClient implements ClusterTransportClient {
         new NamedThreadFactory("sentinel-cluster-transport-client-scheduler", true));
 
     public static final int RECONNECT_DELAY_MS = 2000;
+    /**
+     * Interval of sweeping timed-out pending requests, which is also the max delay of async request timeout.
+     */
+    public static final int PENDING_SWEEP_INTERVAL_MS = 10;
 
     private final String host;
     private final int port;
 
     private Channel channel;
     private NioEventLoopGroup eventLoopGroup;
+    private volatile FlowRequestBatcher flowBatcher;
     private TokenClientHandler clientHandler;
+    private ScheduledFuture<?> sweepTask;
 
-    private final AtomicInteger idGenerator = new AtomicInteger(0);
+    private final PendingRequestTable pendingRequests =
+        new PendingRequestTable(ClusterClientStartUpConfig.getMaxPendingRequests());
     private final AtomicInteger currentState = new AtomicInteger(ClientConstants.CLIENT_STATUS_OFF);
     private final AtomicInteger failConnectedTime = new AtomicInteger(0);
 
     private final AtomicBoolean shouldRetry = new AtomicBoolean(true);
 
+    private final int flowBatchWindowMicros = ClusterClientStartUpConfig.getFlowBatchWindowMicros();
+    private final int flowBatchMaxSize = ClusterClientStartUpConfig.getFlowBatchMaxSize();
+
     public NettyTransportClient(String host, int port) {
         AssertUtil.assertNotBlank(host, "remote host cannot be blank");
         AssertUtil.isTrue(port > 0, "port should be positive");
@@ -97,7 +112,7 @@ public class NettyTransportClient implements ClusterTransportClient {
             .handler(new ChannelInitializer<SocketChannel>() {
                 @Override
                 public void initChannel(SocketChannel ch) throws Exception {
-                    clientHandler = new TokenClientHandler(currentState, disconnectCallback);
+                    clientHandler = new TokenClientHandler(currentState, disconnectCallback, pendingRequests);
 
                     ChannelPipeline pipeline = ch.pipeline();
                     pipeline.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
@@ -126,6 +141,10 @@ public class NettyTransportClient implements ClusterTransportClient {
                     } else {
                         failConnectedTime.set(0);
                         channel = future.channel();
+                        if (flowBatchWindowMicros > 0) {
+                            flowBatcher = new FlowRequestBatcher(channel, pendingRequests, flowBatchWindowMicros,
+                                flowBatchMaxSize);
+                        }
                         RecordLog.info("[NettyTransportClient] Successfully connect to server <{}:{}>", host, port);
                     }
                 }
@@ -159,14 +178,38 @@ public class NettyTransportClient implements ClusterTransportClient {
     @Override
     public void start() throws Exception {
         shouldRetry.set(true);
+        startSweepTask();
         startInternal();
     }
 
+    private synchronized void startSweepTask() {
+        if (sweepTask == null) {
+            sweepTask = SCHEDULER.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        pendingRequests.sweepTimeouts();
+                    } catch (Throwable ex) {
+                        RecordLog.warn("[NettyTransportClient] Failed to sweep timed-out requests", ex);
+                    }
+                }
+            }, PENDING_SWEEP_INTERVAL_MS, PENDING_SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void stopSweepTask() {
+        if (sweepTask != null) {
+            sweepTask.cancel(false);
+            sweepTask = null;
+        }
+    }
+
     private void startInternal() {
         connect(initClientBootstrap());
     }
 
     private void cleanUp() {
+        flowBatcher = null;
         if (channel != null) {
             channel.close();
             channel = null;
@@ -174,6 +217,8 @@ public class NettyTransportClient implements ClusterTransportClient {
         if (eventLoopGroup != null) {
             eventLoopGroup.shutdownGracefully();
         }
+        // Responses of the pending requests will never arrive.
+        pendingRequests.failAll(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
     }
 
     @Override
@@ -190,6 +235,7 @@ public class NettyTransportClient implements ClusterTransportClient {
         }
 
         cleanUp();
+        stopSweepTask();
         failConnectedTime.set(0);
 
         RecordLog.info("[NettyTransportClient] Cluster transport client stopped");
@@ -206,67 +252,78 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     @Override
     public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
-        if (!isReady()) {
-            throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
-        }
-        if (!validRequest(request)) {
-            throw new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST);
-        }
-        int xid = getCurrentId();
+        CompletableFuture<ClusterResponse> future = sendRequestAsync(request);
         try {
-            request.setId(xid);
-
-            channel.writeAndFlush(request);
-
-            ChannelPromise promise = channel.newPromise();
-            TokenClientPromiseHolder.putPromise(xid, promise);
-
-            if (!promise.await(ClusterClientConfigManager.getRequestTimeout())) {
-                throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
-            }
-
-            SimpleEntry<ChannelPromise, ClusterResponse> entry = TokenClientPromiseHolder.getEntry(xid);
-            if (entry == null || entry.getValue() == null) {
-                // Should not go through here.
-                throw new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS);
+            return future.get(ClusterClientConfigManager.getRequestTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            pendingRequests.fail(request.getId(), ex);
+            throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
             }
-            return entry.getValue();
-        } finally {
-            TokenClientPromiseHolder.remove(xid);
+            throw ex;
         }
     }
 
-    private int getCurrentId() {
-        int pre, next;
-        do {
-            pre = idGenerator.get();
-            next = pre >= MAX_ID ? MIN_ID : pre + 1;
-        } while (!idGenerator.compareAndSet(pre, next));
-        return next;
-    }
-
-    /*public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
-        // Uncomment this when min target JDK is 1.8.
+    /**
+     * Send the request without waiting for the response. Requests are pipelined on the same channel
+     * and matched with their responses by xid, so there could be many in-flight requests at the same time.
+     * The returned future completes exceptionally with {@link SentinelClusterException} if the request
+     * is timed out, could not be written, or there are too many in-flight requests
+     * (see {@link ClusterClientStartUpConfig#getMaxPendingRequests()}).
+     * <p>
+     * If flow batching is enabled (see {@link ClusterClientStartUpConfig#getFlowBatchWindowMicros()}),
+     * flow requests are coalesced within the micro-window and sent in batch frames.
+     * </p>
+     *
+     * @param request Sentinel cluster request
+     * @return future of the response
+     * @since 2.0.0
+     */
+    @Override
+    public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
+        Channel channel = this.channel;
+        if (channel == null || !isReady()) {
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+            return future;
+        }
         if (!validRequest(request)) {
-            return CompletableFuture.failedFuture(new IllegalArgumentException("Bad request"));
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST));
+            return future;
+        }
+        // The promise must be registered before writing, as the response might arrive at once.
+        final int xid = pendingRequests.register(future, ClusterClientConfigManager.getRequestTimeout());
+        if (xid < 0) {
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.TOO_MANY_REQUESTS));
+            return future;
         }
-        int xid = getCurrentId();
         request.setId(xid);
 
-        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
-        channel.writeAndFlush(request)
-            .addListener(f -> {
-                if (f.isSuccess()) {
-                    future.complete(someResult);
-                } else if (f.cause() != null) {
-                    future.completeExceptionally(f.cause());
-                } else {
-                    future.cancel(false);
+        FlowRequestBatcher batcher = this.flowBatcher;
+        if (batcher != null && request.getType() == ClusterConstants.MSG_TYPE_FLOW) {
+            batcher.add(request);
+        } else {
+            channel.writeAndFlush(request).addListener(new GenericFutureListener<Future<? super Void>>() {
+                @Override
+                public void operationComplete(Future<? super Void> f) {
+                    if (!f.isSuccess()) {
+                        pendingRequests.fail(xid, f.cause() != null ? f.cause()
+                            : new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS));
+                    }
                 }
             });
+        }
         return future;
-    }*/
+    }
 
-    private static final int MIN_ID = 1;
-    private static final int MAX_ID = 999_999_999;
+    /**
+     * @return count of the in-flight requests
+     * @since 2.0.0
+     */
+    public int getPendingRequestCount() {
+        return pendingRequests.getPendingCount();
+    }
 }
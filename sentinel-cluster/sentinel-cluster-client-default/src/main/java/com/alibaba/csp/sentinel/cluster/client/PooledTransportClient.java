@@ -0,0 +1,163 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A pool of {@link NettyTransportClient} connected to the same token server, so that requests
+ * are not limited by the throughput of a single channel.</p>
+ * <p>
+ * Each request is sent via one ready connection, which is selected either in round-robin
+ * ({@link ClientConstants#CONNECTION_SELECT_ROUND_ROBIN}) or by the least pending requests
+ * ({@link ClientConstants#CONNECTION_SELECT_LEAST_PENDING}).
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class PooledTransportClient implements ClusterTransportClient {
+
+    private final NettyTransportClient[] clients;
+    private final boolean leastPending;
+
+    private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+    public PooledTransportClient(String host, int port, int poolSize, String selectStrategy) {
+        AssertUtil.isTrue(poolSize > 0, "poolSize should be positive");
+        this.clients = new NettyTransportClient[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            clients[i] = new NettyTransportClient(host, port);
+        }
+        this.leastPending = ClientConstants.CONNECTION_SELECT_LEAST_PENDING.equals(selectStrategy);
+    }
+
+    @Override
+    public void start() throws Exception {
+        for (NettyTransportClient client : clients) {
+            client.start();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        for (NettyTransportClient client : clients) {
+            try {
+                client.stop();
+            } catch (Exception ex) {
+                RecordLog.warn("[PooledTransportClient] Failed to stop transport client", ex);
+            }
+        }
+    }
+
+    @Override
+    public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
+        NettyTransportClient client = select();
+        if (client == null) {
+            throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
+        }
+        return client.sendRequest(request);
+    }
+
+    @Override
+    public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        NettyTransportClient client = select();
+        if (client == null) {
+            CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+            return future;
+        }
+        return client.sendRequestAsync(request);
+    }
+
+    /**
+     * @return true if any connection is ready
+     */
+    @Override
+    public boolean isReady() {
+        for (NettyTransportClient client : clients) {
+            if (client.isReady()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the connection for requests that must go through the same connection (e.g. flow leases,
+     * which are tracked per connection by the token server).
+     *
+     * @return the first connection of the pool
+     */
+    public NettyTransportClient getPrimaryClient() {
+        return clients[0];
+    }
+
+    public int getPoolSize() {
+        return clients.length;
+    }
+
+    NettyTransportClient getClient(int index) {
+        return clients[index];
+    }
+
+    /**
+     * @return count of the in-flight requests of all connections
+     */
+    public int getPendingRequestCount() {
+        int count = 0;
+        for (NettyTransportClient client : clients) {
+            count += client.getPendingRequestCount();
+        }
+        return count;
+    }
+
+    NettyTransportClient select() {
+        int size = clients.length;
+        int start = (nextIndex.getAndIncrement() & Integer.MAX_VALUE) % size;
+        if (!leastPending) {
+            for (int i = 0; i < size; i++) {
+                NettyTransportClient client = clients[(start + i) % size];
+                if (client.isReady()) {
+                    return client;
+                }
+            }
+            return null;
+        }
+        // Ties are broken in round-robin, so that idle connections are used in turn.
+        NettyTransportClient selected = null;
+        int minPending = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            NettyTransportClient client = clients[(start + i) % size];
+            if (client.isReady()) {
+                int pending = client.getPendingRequestCount();
+                if (pending < minPending) {
+                    selected = client;
+                    minPending = pending;
+                }
+            }
+        }
+        return selected;
+    }
+}
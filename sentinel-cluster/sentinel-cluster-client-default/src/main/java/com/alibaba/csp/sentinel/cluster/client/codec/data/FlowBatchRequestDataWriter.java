@@ -0,0 +1,50 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer for {@link FlowBatchRequestData}.</p>
+ * <p>
+ * Format: item count (2 bytes), then for each item:
+ * xid (4 bytes) | flow ID (8 bytes) | count (4 bytes) | priority flag (1 byte)
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class FlowBatchRequestDataWriter implements EntityWriter<FlowBatchRequestData, ByteBuf> {
+
+    @Override
+    public void writeTo(FlowBatchRequestData entity, ByteBuf target) {
+        List<ClusterRequest<FlowRequestData>> requests = entity.getRequests();
+        target.writeShort(requests.size());
+        for (ClusterRequest<FlowRequestData> request : requests) {
+            FlowRequestData data = request.getData();
+            target.writeInt(request.getId());
+            target.writeLong(data.getFlowId());
+            target.writeInt(data.getCount());
+            target.writeBoolean(data.isPriority());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Decoder for {@link FlowBatchResponseData}.</p>
+ * <p>
+ * Format: item count (2 bytes), then for each item:
+ * xid (4 bytes) | status (1 byte) | remaining count (4 bytes) | wait in ms (4 bytes)
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class FlowBatchResponseDataDecoder implements EntityDecoder<ByteBuf, FlowBatchResponseData> {
+
+    private static final int ITEM_BYTES = 13;
+
+    @Override
+    public FlowBatchResponseData decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        int size = source.readUnsignedShort();
+        if (source.readableBytes() < size * ITEM_BYTES) {
+            return null;
+        }
+        List<ClusterResponse<FlowTokenResponseData>> responses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int xid = source.readInt();
+            int status = source.readByte();
+            FlowTokenResponseData data = new FlowTokenResponseData()
+                .setRemainingCount(source.readInt())
+                .setWaitInMs(source.readInt());
+            responses.add(new ClusterResponse<>(xid, ClusterConstants.MSG_TYPE_FLOW, status, data));
+        }
+        return new FlowBatchResponseData(responses);
+    }
+}
@@ -25,6 +25,8 @@ import io.netty.buffer.ByteBuf;
  * | RequestID(8 byte) | Type(1 byte) | FlowID(8 byte) | Count(4 byte) | PriorityFlag (1) |
  * +-------------------+--------------+----------------+---------------+------------------+
  *
+ * The lease ID (8 byte) follows the priority flag for lease requests.
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
@@ -35,5 +37,8 @@ public class FlowRequestDataWriter implements EntityWriter<FlowRequestData, Byte
         target.writeLong(entity.getFlowId());
         target.writeInt(entity.getCount());
         target.writeBoolean(entity.isPriority());
+        if (entity.getLeaseId() != 0) {
+            target.writeLong(entity.getLeaseId());
+        }
     }
 }
@@ -16,22 +16,37 @@
 package com.alibaba.csp.sentinel.cluster.client.codec.data;
 
 import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import io.netty.buffer.ByteBuf;
 
 /**
+ * <pre>
+ * +-------------------+---------------+-------------------+--------------+
+ * | namespace len (4) | namespace ... | client id len (4) | client id... |
+ * +-------------------+---------------+-------------------+--------------+
+ * </pre>
+ * <p>Servers of older versions only read the namespace and ignore the client id.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
-public class PingRequestDataWriter implements EntityWriter<String, ByteBuf> {
+public class PingRequestDataWriter implements EntityWriter<PingRequestData, ByteBuf> {
 
     @Override
-    public void writeTo(String entity, ByteBuf target) {
-        if (StringUtil.isBlank(entity) || target == null) {
+    public void writeTo(PingRequestData entity, ByteBuf target) {
+        if (entity == null || StringUtil.isBlank(entity.getNamespace()) || target == null) {
             return;
         }
-        byte[] bytes = entity.getBytes();
+        writeString(entity.getNamespace(), target);
+        if (StringUtil.isNotBlank(entity.getClientId())) {
+            writeString(entity.getClientId(), target);
+        }
+    }
+
+    private void writeString(String value, ByteBuf target) {
+        byte[] bytes = value.getBytes();
         target.writeInt(bytes.length);
         target.writeBytes(bytes);
     }
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import java.util.List;
+
 /**
  * @author Eric Zhao
  * @since 1.4.1
@@ -24,6 +26,12 @@ public class ClusterClientAssignConfig {
     private String serverHost;
     private Integer serverPort;
 
+    /**
+     * Optional shards served by other token servers (since 2.0.0).
+     * Requests which match no shard go to the default server above.
+     */
+    private List<ClusterClientShardConfig> shards;
+
     public ClusterClientAssignConfig() {}
 
     public ClusterClientAssignConfig(String serverHost, Integer serverPort) {
@@ -49,11 +57,21 @@ public class ClusterClientAssignConfig {
         return this;
     }
 
+    public List<ClusterClientShardConfig> getShards() {
+        return shards;
+    }
+
+    public ClusterClientAssignConfig setShards(List<ClusterClientShardConfig> shards) {
+        this.shards = shards;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientAssignConfig{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", shards=" + shards +
             '}';
     }
 }
@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.cluster.client.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
@@ -37,6 +38,7 @@ public final class ClusterClientConfigManager {
      */
     private static volatile String serverHost = null;
     private static volatile int serverPort = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
+    private static volatile List<ClusterClientShardConfig> shards = Collections.emptyList();
 
     private static volatile int requestTimeout = ClusterConstants.DEFAULT_REQUEST_TIMEOUT;
     private static volatile int connectTimeout = ClusterConstants.DEFAULT_CONNECT_TIMEOUT_MILLIS;
@@ -127,7 +129,8 @@ public final class ClusterClientConfigManager {
                     "[ClusterClientConfigManager] Invalid cluster client assign config, ignoring: " + config);
                 return;
             }
-            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)) {
+            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)
+                && shards.equals(shardsOf(config))) {
                 return;
             }
 
@@ -182,12 +185,31 @@ public final class ClusterClientConfigManager {
 
         serverHost = host;
         serverPort = port;
+        shards = shardsOf(config);
+    }
+
+    private static List<ClusterClientShardConfig> shardsOf(ClusterClientAssignConfig config) {
+        List<ClusterClientShardConfig> list = config.getShards();
+        return list == null ? Collections.<ClusterClientShardConfig>emptyList()
+            : Collections.unmodifiableList(new ArrayList<>(list));
     }
 
     public static boolean isValidAssignConfig(ClusterClientAssignConfig config) {
-        return config != null && StringUtil.isNotBlank(config.getServerHost())
-            && config.getServerPort() > 0
-            && config.getServerPort() <= 65535;
+        if (config == null || !isValidServer(config.getServerHost(), config.getServerPort())) {
+            return false;
+        }
+        if (config.getShards() != null) {
+            for (ClusterClientShardConfig shard : config.getShards()) {
+                if (shard == null || !isValidServer(shard.getServerHost(), shard.getServerPort())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidServer(String host, Integer port) {
+        return StringUtil.isNotBlank(host) && port != null && port > 0 && port <= 65535;
     }
 
     public static boolean isValidClientConfig(ClusterClientConfig config) {
@@ -202,6 +224,14 @@ public final class ClusterClientConfigManager {
         return serverPort;
     }
 
+    /**
+     * @return shards of the current assignment, never null
+     * @since 2.0.0
+     */
+    public static List<ClusterClientShardConfig> getShards() {
+        return shards;
+    }
+
     public static int getRequestTimeout() {
         return requestTimeout;
     }
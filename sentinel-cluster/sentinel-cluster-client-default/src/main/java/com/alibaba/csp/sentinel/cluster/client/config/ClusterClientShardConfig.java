@@ -0,0 +1,133 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.config;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>A shard of cluster flow control, which is served by its own token server.</p>
+ * <p>
+ * A shard owns the flow IDs within {@code [minFlowId, maxFlowId]} (either bound could be absent)
+ * of the given namespaces (all namespaces if absent). Token requests of a client are routed to
+ * the first shard that matches, or to the default server of {@link ClusterClientAssignConfig} if none matches.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class ClusterClientShardConfig {
+
+    private String serverHost;
+    private Integer serverPort;
+
+    private Long minFlowId;
+    private Long maxFlowId;
+    private Set<String> namespaces;
+
+    public ClusterClientShardConfig() {}
+
+    public ClusterClientShardConfig(String serverHost, Integer serverPort) {
+        this.serverHost = serverHost;
+        this.serverPort = serverPort;
+    }
+
+    public boolean matches(long flowId, String namespace) {
+        if (minFlowId != null && flowId < minFlowId) {
+            return false;
+        }
+        if (maxFlowId != null && flowId > maxFlowId) {
+            return false;
+        }
+        return namespaces == null || namespaces.isEmpty() || namespaces.contains(namespace);
+    }
+
+    public String getServerHost() {
+        return serverHost;
+    }
+
+    public ClusterClientShardConfig setServerHost(String serverHost) {
+        this.serverHost = serverHost;
+        return this;
+    }
+
+    public Integer getServerPort() {
+        return serverPort;
+    }
+
+    public ClusterClientShardConfig setServerPort(Integer serverPort) {
+        this.serverPort = serverPort;
+        return this;
+    }
+
+    public Long getMinFlowId() {
+        return minFlowId;
+    }
+
+    public ClusterClientShardConfig setMinFlowId(Long minFlowId) {
+        this.minFlowId = minFlowId;
+        return this;
+    }
+
+    public Long getMaxFlowId() {
+        return maxFlowId;
+    }
+
+    public ClusterClientShardConfig setMaxFlowId(Long maxFlowId) {
+        this.maxFlowId = maxFlowId;
+        return this;
+    }
+
+    public Set<String> getNamespaces() {
+        return namespaces;
+    }
+
+    public ClusterClientShardConfig setNamespaces(Set<String> namespaces) {
+        this.namespaces = namespaces;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ClusterClientShardConfig that = (ClusterClientShardConfig) o;
+        return Objects.equals(serverHost, that.serverHost)
+            && Objects.equals(serverPort, that.serverPort)
+            && Objects.equals(minFlowId, that.minFlowId)
+            && Objects.equals(maxFlowId, that.maxFlowId)
+            && Objects.equals(namespaces, that.namespaces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(serverHost, serverPort, minFlowId, maxFlowId, namespaces);
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterClientShardConfig{" +
+            "serverHost='" + serverHost + '\'' +
+            ", serverPort=" + serverPort +
+            ", minFlowId=" + minFlowId +
+            ", maxFlowId=" + maxFlowId +
+            ", namespaces=" + namespaces +
+            '}';
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
@@ -29,6 +31,16 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 public class ClusterClientStartUpConfig {
 
     private static final String MAX_PARAM_BYTE_SIZE = "csp.sentinel.cluster.max.param.byte.size";
+    private static final String FLOW_BATCH_WINDOW_MICROS = "csp.sentinel.cluster.client.flow.batch.window.us";
+    private static final String FLOW_BATCH_MAX_SIZE = "csp.sentinel.cluster.client.flow.batch.max.size";
+    private static final String FLOW_LEASE_COUNT = "csp.sentinel.cluster.client.flow.lease.count";
+    private static final String MAX_PENDING_REQUESTS = "csp.sentinel.cluster.client.max.pending.requests";
+    private static final String CONNECTION_POOL_SIZE = "csp.sentinel.cluster.client.connection.pool.size";
+    private static final String CONNECTION_SELECT_STRATEGY = "csp.sentinel.cluster.client.connection.select.strategy";
+
+    public static final int DEFAULT_FLOW_BATCH_MAX_SIZE = 32;
+    public static final int DEFAULT_MAX_PENDING_REQUESTS = 1024;
+    public static final int MAX_CONNECTION_POOL_SIZE = 64;
 
     /**
      * Get the max bytes params can be serialized
@@ -45,5 +57,109 @@ public class ClusterClientStartUpConfig {
         }
     }
 
+    /**
+     * Get the micro-window (in microseconds) within which concurrent flow token requests are coalesced
+     * into one batch frame. The token server should support the flow batch request (since 2.0.0).
+     *
+     * @return the batch window in microseconds, 0 means flow batching is disabled (by default)
+     * @since 2.0.0
+     */
+    public static int getFlowBatchWindowMicros() {
+        String windowMicros = SentinelConfig.getConfig(FLOW_BATCH_WINDOW_MICROS);
+        try {
+            return windowMicros == null ? 0 : Math.max(0, Integer.parseInt(windowMicros));
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse flowBatchWindowMicros: " + windowMicros);
+            return 0;
+        }
+    }
+
+    /**
+     * Get the max amount of flow token requests in a batch frame, a batch is sent at once when it is full.
+     *
+     * @return the max batch size, within [1, {@link ClusterConstants#MAX_FLOW_BATCH_SIZE}]
+     * @since 2.0.0
+     */
+    public static int getFlowBatchMaxSize() {
+        String maxSize = SentinelConfig.getConfig(FLOW_BATCH_MAX_SIZE);
+        try {
+            int size = maxSize == null ? DEFAULT_FLOW_BATCH_MAX_SIZE : Integer.parseInt(maxSize);
+            return Math.min(Math.max(1, size), ClusterConstants.MAX_FLOW_BATCH_SIZE);
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse flowBatchMaxSize: " + maxSize);
+            return DEFAULT_FLOW_BATCH_MAX_SIZE;
+        }
+    }
+
+    /**
+     * Get the amount of tokens to lease from the token server for each cluster flow rule. Leased tokens
+     * are served locally for non-prioritized requests. The token server should support flow leasing (since 2.0.0).
+     *
+     * @return the lease count, 0 means flow leasing is disabled (by default)
+     * @since 2.0.0
+     */
+    public static int getFlowLeaseCount() {
+        String leaseCount = SentinelConfig.getConfig(FLOW_LEASE_COUNT);
+        try {
+            return leaseCount == null ? 0 : Math.max(0, Integer.parseInt(leaseCount));
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse flowLeaseCount: " + leaseCount);
+            return 0;
+        }
+    }
+
+    /**
+     * Get the max count of in-flight requests of each transport client. It will be rounded up to a power of 2.
+     * Requests beyond the limit fail at once.
+     *
+     * @return the max count of pending requests
+     * @since 2.0.0
+     */
+    public static int getMaxPendingRequests() {
+        String maxPending = SentinelConfig.getConfig(MAX_PENDING_REQUESTS);
+        try {
+            int count = maxPending == null ? DEFAULT_MAX_PENDING_REQUESTS : Integer.parseInt(maxPending);
+            return count > 0 ? count : DEFAULT_MAX_PENDING_REQUESTS;
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse maxPendingRequests: " + maxPending);
+            return DEFAULT_MAX_PENDING_REQUESTS;
+        }
+    }
 
+    /**
+     * Get the count of connections to each token server. Requests are spread over the connections
+     * if the pool size is greater than 1.
+     *
+     * @return the connection pool size, 1 by default
+     * @since 2.0.0
+     */
+    public static int getConnectionPoolSize() {
+        String poolSize = SentinelConfig.getConfig(CONNECTION_POOL_SIZE);
+        try {
+            int size = poolSize == null ? 1 : Integer.parseInt(poolSize);
+            return Math.min(Math.max(1, size), MAX_CONNECTION_POOL_SIZE);
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse connectionPoolSize: " + poolSize);
+            return 1;
+        }
+    }
+
+    /**
+     * Get the strategy of selecting a connection from the connection pool, either
+     * {@link ClientConstants#CONNECTION_SELECT_ROUND_ROBIN} or {@link ClientConstants#CONNECTION_SELECT_LEAST_PENDING}.
+     *
+     * @return the connection select strategy, round-robin by default
+     * @since 2.0.0
+     */
+    public static String getConnectionSelectStrategy() {
+        String strategy = SentinelConfig.getConfig(CONNECTION_SELECT_STRATEGY);
+        if (ClientConstants.CONNECTION_SELECT_LEAST_PENDING.equals(strategy)) {
+            return ClientConstants.CONNECTION_SELECT_LEAST_PENDING;
+        }
+        if (strategy != null && !ClientConstants.CONNECTION_SELECT_ROUND_ROBIN.equals(strategy)) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Unknown connection select strategy, "
+                + "using round-robin: " + strategy);
+        }
+        return ClientConstants.CONNECTION_SELECT_ROUND_ROBIN;
+    }
 }
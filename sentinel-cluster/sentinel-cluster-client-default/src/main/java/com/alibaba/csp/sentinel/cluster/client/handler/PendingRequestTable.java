@@ -0,0 +1,194 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.handler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Fixed-capacity table of the pending requests of the token client, indexed by request xid.</p>
+ * <p>
+ * The slot of a request is {@code xid & (capacity - 1)}, so a response is matched with its request in O(1)
+ * without boxing the xid. A request is rejected if no free slot can be found, which bounds the number
+ * of in-flight requests. Slots are preallocated, and the state of each slot is kept in an
+ * {@link AtomicIntegerArray}: {@link #FREE}, {@link #BUSY} (being registered or released), or the xid
+ * of the pending request. The promise and deadline of a slot are published by setting the xid and
+ * are only touched by the thread which has claimed the slot.
+ * </p>
+ * <p>
+ * Timed-out requests are failed by {@link #sweepTimeouts()}, which should be invoked periodically.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public final class PendingRequestTable {
+
+    private static final int FREE = 0;
+    private static final int BUSY = -1;
+
+    private static final int MIN_ID = 1;
+    private static final int MAX_ID = 999_999_999;
+
+    private final int mask;
+    private final AtomicIntegerArray states;
+    private final CompletableFuture<ClusterResponse>[] promises;
+    private final long[] deadlines;
+
+    private final AtomicInteger idGenerator = new AtomicInteger(0);
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+
+    @SuppressWarnings("unchecked")
+    public PendingRequestTable(int capacity) {
+        AssertUtil.isTrue(capacity > 0, "capacity should be positive");
+        int size = 1;
+        while (size < capacity && size < (1 << 30)) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.states = new AtomicIntegerArray(size);
+        this.promises = new CompletableFuture[size];
+        this.deadlines = new long[size];
+    }
+
+    /**
+     * Register the promise of a new request.
+     *
+     * @param promise   promise to complete when the response arrives
+     * @param timeoutMs timeout of the request in milliseconds
+     * @return the xid assigned to the request, or -1 if there are too many pending requests
+     */
+    public int register(CompletableFuture<ClusterResponse> promise, long timeoutMs) {
+        long deadline = TimeUtil.currentTimeMillis() + timeoutMs;
+        // Slots of long-pending requests are skipped, so try at most once for each slot.
+        for (int i = 0; i <= mask && pendingCount.get() <= mask; i++) {
+            int xid = nextId();
+            int index = xid & mask;
+            if (states.compareAndSet(index, FREE, BUSY)) {
+                promises[index] = promise;
+                deadlines[index] = deadline;
+                pendingCount.incrementAndGet();
+                states.set(index, xid);
+                return xid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Complete the pending request with the response.
+     *
+     * @param xid      request xid
+     * @param response response of the request
+     * @return true if the pending request is completed by this invocation, otherwise false
+     */
+    public boolean complete(int xid, ClusterResponse response) {
+        CompletableFuture<ClusterResponse> promise = release(xid);
+        return promise != null && promise.complete(response);
+    }
+
+    /**
+     * Fail the pending request (e.g. timed out or failed to write).
+     *
+     * @param xid   request xid
+     * @param cause cause of the failure
+     * @return true if the pending request is failed by this invocation, otherwise false
+     */
+    public boolean fail(int xid, Throwable cause) {
+        CompletableFuture<ClusterResponse> promise = release(xid);
+        return promise != null && promise.completeExceptionally(cause);
+    }
+
+    /**
+     * Fail all pending requests whose deadline has passed.
+     *
+     * @return count of the timed-out requests
+     */
+    public int sweepTimeouts() {
+        if (pendingCount.get() == 0) {
+            return 0;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        int count = 0;
+        for (int index = 0; index <= mask; index++) {
+            int xid = states.get(index);
+            if (xid > 0 && deadlines[index] <= now
+                && fail(xid, new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fail all pending requests (e.g. when the connection is closed).
+     *
+     * @param cause cause of the failure
+     */
+    public void failAll(Throwable cause) {
+        for (int index = 0; index <= mask && pendingCount.get() > 0; index++) {
+            int xid = states.get(index);
+            if (xid > 0) {
+                fail(xid, cause);
+            }
+        }
+    }
+
+    /**
+     * @return count of the pending (in-flight) requests
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * @return max count of the pending requests
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    private CompletableFuture<ClusterResponse> release(int xid) {
+        if (xid <= 0) {
+            return null;
+        }
+        int index = xid & mask;
+        if (!states.compareAndSet(index, xid, BUSY)) {
+            // Already completed, or the slot has been taken by another request.
+            return null;
+        }
+        CompletableFuture<ClusterResponse> promise = promises[index];
+        promises[index] = null;
+        pendingCount.decrementAndGet();
+        states.set(index, FREE);
+        return promise;
+    }
+
+    private int nextId() {
+        int pre, next;
+        do {
+            pre = idGenerator.get();
+            next = pre >= MAX_ID ? MIN_ID : pre + 1;
+        } while (!idGenerator.compareAndSet(pre, next));
+        return next;
+    }
+}
@@ -16,13 +16,17 @@
 package com.alibaba.csp.sentinel.cluster.client.handler;
 
 import java.net.InetSocketAddress;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
 import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.channel.ChannelHandlerContext;
@@ -36,12 +40,21 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
  */
 public class TokenClientHandler extends ChannelInboundHandlerAdapter {
 
+    /**
+     * Id of the client process, sent in the ping of every connection so that the server counts
+     * all (pooled) connections of the process as one client.
+     */
+    private static final String CLIENT_ID = UUID.randomUUID().toString();
+
     private final AtomicInteger currentState;
     private final Runnable disconnectCallback;
+    private final PendingRequestTable pendingRequests;
 
-    public TokenClientHandler(AtomicInteger currentState, Runnable disconnectCallback) {
+    public TokenClientHandler(AtomicInteger currentState, Runnable disconnectCallback,
+                              PendingRequestTable pendingRequests) {
         this.currentState = currentState;
         this.disconnectCallback = disconnectCallback;
+        this.pendingRequests = pendingRequests;
     }
 
     @Override
@@ -60,16 +73,23 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
                 handlePingResponse(ctx, response);
                 return;
             }
+            if (response.getType() == ClusterConstants.MSG_TYPE_FLOW_BATCH) {
+                handleFlowBatchResponse(response);
+                return;
+            }
 
-            TokenClientPromiseHolder.completePromise(response.getId(), response);
+            pendingRequests.complete(response.getId(), response);
         }
     }
 
     private void fireClientPing(ChannelHandlerContext ctx) {
-        // Data body: namespace of the client.
-        ClusterRequest<String> ping = new ClusterRequest<String>().setId(0)
+        // Data body: namespace and id of the client.
+        PingRequestData data = new PingRequestData()
+            .setNamespace(ConfigSupplierRegistry.getNamespaceSupplier().get())
+            .setClientId(CLIENT_ID);
+        ClusterRequest<PingRequestData> ping = new ClusterRequest<PingRequestData>().setId(0)
             .setType(ClusterConstants.MSG_TYPE_PING)
-            .setData(ConfigSupplierRegistry.getNamespaceSupplier().get());
+            .setData(data);
         ctx.writeAndFlush(ping);
     }
 
@@ -83,6 +103,18 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    private void handleFlowBatchResponse(ClusterResponse<?> response) {
+        Object data = response.getData();
+        if (!(data instanceof FlowBatchResponseData)) {
+            RecordLog.warn("[TokenClientHandler] Bad flow batch response, status: {}", response.getStatus());
+            return;
+        }
+        // Complete each pending request in the batch with its own xid.
+        for (ClusterResponse<FlowTokenResponseData> itemResponse : ((FlowBatchResponseData) data).getResponses()) {
+            pendingRequests.complete(itemResponse.getId(), itemResponse);
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         RecordLog.warn("[TokenClientHandler] Client exception caught", cause);
@@ -31,6 +31,8 @@ public class ClusterClientStateEntity {
 
     private Integer requestTimeout;
 
+    private Integer pendingRequestCount;
+
     public String getServerHost() {
         return serverHost;
     }
@@ -67,6 +69,15 @@ public class ClusterClientStateEntity {
         return this;
     }
 
+    public Integer getPendingRequestCount() {
+        return pendingRequestCount;
+    }
+
+    public ClusterClientStateEntity setPendingRequestCount(Integer pendingRequestCount) {
+        this.pendingRequestCount = pendingRequestCount;
+        return this;
+    }
+
     public ClusterClientConfig toClientConfig() {
         return new ClusterClientConfig().setRequestTimeout(requestTimeout);
     }
@@ -84,6 +95,7 @@ public class ClusterClientStateEntity {
             ", serverPort=" + serverPort +
             ", clientState=" + clientState +
             ", requestTimeout=" + requestTimeout +
+            ", pendingRequestCount=" + pendingRequestCount +
             '}';
     }
 }
@@ -16,6 +16,8 @@
 package com.alibaba.csp.sentinel.command.handler;
 
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
 import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
 import com.alibaba.csp.sentinel.command.CommandHandler;
@@ -39,7 +41,11 @@ public class FetchClusterClientConfigHandler implements CommandHandler<String> {
             .setServerPort(ClusterClientConfigManager.getServerPort())
             .setRequestTimeout(ClusterClientConfigManager.getRequestTimeout());
         if (TokenClientProvider.isClientSpiAvailable()) {
-            stateVO.setClientState(TokenClientProvider.getClient().getState());
+            ClusterTokenClient client = TokenClientProvider.getClient();
+            stateVO.setClientState(client.getState());
+            if (client instanceof DefaultClusterTokenClient) {
+                stateVO.setPendingRequestCount(((DefaultClusterTokenClient) client).getPendingRequestCount());
+            }
         } else {
             stateVO.setClientState(ClientConstants.CLIENT_STATUS_OFF);
         }
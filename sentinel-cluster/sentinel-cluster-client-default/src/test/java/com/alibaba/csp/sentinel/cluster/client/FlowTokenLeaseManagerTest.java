@@ -0,0 +1,215 @@
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FlowTokenLeaseManagerTest {
+
+    private static final long FLOW_ID = 100L;
+    private static final int LEASE_COUNT = 10;
+
+    private LeasingTransportClient transportClient;
+    private FlowTokenLeaseManager leaseManager;
+
+    @Before
+    public void setUp() {
+        transportClient = new LeasingTransportClient();
+        leaseManager = new FlowTokenLeaseManager(transportClient, LEASE_COUNT);
+    }
+
+    @Test
+    public void testAcquireFromLease() {
+        transportClient.nextLease(TokenResultStatus.OK, LEASE_COUNT, 10000);
+        // The first request goes to the token server directly, while the lease is being requested.
+        assertNull(leaseManager.tryAcquire(FLOW_ID, 1));
+        assertEquals(1, transportClient.requests.size());
+        assertRequest(transportClient.requests.get(0), ClusterConstants.MSG_TYPE_FLOW_LEASE, LEASE_COUNT);
+
+        for (int i = LEASE_COUNT - 1; i >= 0; i--) {
+            TokenResult result = leaseManager.tryAcquire(FLOW_ID, 1);
+            assertNotNull(result);
+            assertEquals(TokenResultStatus.OK, (int) result.getStatus());
+            assertEquals(i, result.getRemaining());
+        }
+
+        // Exhausted, and no more tokens in current bucket.
+        transportClient.nextLease(TokenResultStatus.BLOCKED, 0, 10000);
+        assertNull(leaseManager.tryAcquire(FLOW_ID, 1));
+        assertEquals(2, transportClient.requests.size());
+        // Hold off leasing until the backoff expires.
+        assertNull(leaseManager.tryAcquire(FLOW_ID, 1));
+        assertEquals(2, transportClient.requests.size());
+    }
+
+    @Test
+    public void testGiveBackUnusedTokens() throws Exception {
+        transportClient.nextLease(TokenResultStatus.OK, 5, 100);
+        assertNull(leaseManager.tryAcquire(FLOW_ID, 1));
+        assertNotNull(leaseManager.tryAcquire(FLOW_ID, 2));
+        assertEquals(3, leaseManager.getLeasedRemaining(FLOW_ID));
+        Thread.sleep(150);
+
+        transportClient.nextLease(TokenResultStatus.OK, LEASE_COUNT, 10000);
+        assertNull(leaseManager.tryAcquire(FLOW_ID, 1));
+        assertEquals(3, transportClient.requests.size());
+        assertRequest(transportClient.requests.get(1), ClusterConstants.MSG_TYPE_FLOW_LEASE_RETURN, 3);
+        assertRequest(transportClient.requests.get(2), ClusterConstants.MSG_TYPE_FLOW_LEASE, LEASE_COUNT);
+        assertEquals(LEASE_COUNT, leaseManager.getLeasedRemaining(FLOW_ID));
+
+        leaseManager.giveBackAll();
+        assertEquals(4, transportClient.requests.size());
+        assertRequest(transportClient.requests.get(3), ClusterConstants.MSG_TYPE_FLOW_LEASE_RETURN, LEASE_COUNT);
+        assertEquals(0, leaseManager.getLeasedRemaining(FLOW_ID));
+
+        // Unused tokens are given back with the id of their own lease.
+        assertNotEquals(leaseIdOf(transportClient.requests.get(0)), leaseIdOf(transportClient.requests.get(2)));
+        assertEquals(leaseIdOf(transportClient.requests.get(0)), leaseIdOf(transportClient.requests.get(1)));
+        assertEquals(leaseIdOf(transportClient.requests.get(2)), leaseIdOf(transportClient.requests.get(3)));
+    }
+
+    @Test
+    public void testLeaseDisabledForRejectedFlow() {
+        transportClient.nextLease(TokenResultStatus.BAD_REQUEST, 0, 0);
+        assertNull(leaseManager.tryAcquire(FLOW_ID, 1));
+        assertNull(leaseManager.tryAcquire(FLOW_ID, 1));
+        assertNull(leaseManager.tryAcquire(FLOW_ID, 1));
+        assertEquals(1, transportClient.requests.size());
+        assertTrue(leaseManager.isDisabled(FLOW_ID));
+
+        // Other flows are still leased.
+        transportClient.nextLease(TokenResultStatus.OK, LEASE_COUNT, 10000);
+        assertNull(leaseManager.tryAcquire(FLOW_ID + 1, 1));
+        assertNotNull(leaseManager.tryAcquire(FLOW_ID + 1, 1));
+        assertFalse(leaseManager.isDisabled(FLOW_ID + 1));
+        assertFalse(leaseManager.isSuspended());
+    }
+
+    @Test
+    public void testLeaseSuspendedAfterConsecutiveTimeouts() throws Exception {
+        // Old servers drop lease requests, which then time out.
+        transportClient.leaseTimeout = true;
+        for (int i = 0; i < FlowTokenLeaseManager.MAX_CONSECUTIVE_TIMEOUTS; i++) {
+            assertFalse(leaseManager.isSuspended());
+            // Each flow renews at once, as the backoff is per flow.
+            assertNull(leaseManager.tryAcquire(FLOW_ID + i, 1));
+        }
+        assertTrue(leaseManager.isSuspended());
+        assertEquals(FlowTokenLeaseManager.MAX_CONSECUTIVE_TIMEOUTS, transportClient.requests.size());
+
+        assertNull(leaseManager.tryAcquire(FLOW_ID + 100, 1));
+        assertEquals(FlowTokenLeaseManager.MAX_CONSECUTIVE_TIMEOUTS, transportClient.requests.size());
+
+        // Probe the server again after the suspension, which resumes leasing once answered.
+        Thread.sleep(FlowTokenLeaseManager.MIN_SUSPEND_MS + 50);
+        assertFalse(leaseManager.isSuspended());
+        transportClient.leaseTimeout = false;
+        transportClient.nextLease(TokenResultStatus.OK, LEASE_COUNT, 10000);
+        assertNull(leaseManager.tryAcquire(FLOW_ID + 100, 1));
+        assertEquals(FlowTokenLeaseManager.MAX_CONSECUTIVE_TIMEOUTS + 1, transportClient.requests.size());
+        assertNotNull(leaseManager.tryAcquire(FLOW_ID + 100, 1));
+        assertFalse(leaseManager.isSuspended());
+    }
+
+    @Test
+    public void testSuspensionExtendedByTimedOutProbe() throws Exception {
+        transportClient.leaseTimeout = true;
+        for (int i = 0; i < FlowTokenLeaseManager.MAX_CONSECUTIVE_TIMEOUTS; i++) {
+            assertNull(leaseManager.tryAcquire(FLOW_ID + i, 1));
+        }
+        Thread.sleep(FlowTokenLeaseManager.MIN_SUSPEND_MS + 50);
+        assertNull(leaseManager.tryAcquire(FLOW_ID + 100, 1));
+        assertEquals(FlowTokenLeaseManager.MAX_CONSECUTIVE_TIMEOUTS + 1, transportClient.requests.size());
+        // The probe timed out as well, so leasing is suspended for twice as long.
+        assertTrue(leaseManager.isSuspended());
+        Thread.sleep(FlowTokenLeaseManager.MIN_SUSPEND_MS + 50);
+        assertTrue(leaseManager.isSuspended());
+    }
+
+    @Test
+    public void testTimeoutCountResetByResponse() {
+        transportClient.leaseTimeout = true;
+        for (int i = 0; i < FlowTokenLeaseManager.MAX_CONSECUTIVE_TIMEOUTS - 1; i++) {
+            assertNull(leaseManager.tryAcquire(FLOW_ID + i, 1));
+        }
+        transportClient.leaseTimeout = false;
+        transportClient.nextLease(TokenResultStatus.BLOCKED, 0, 10000);
+        assertNull(leaseManager.tryAcquire(FLOW_ID + 10, 1));
+        transportClient.leaseTimeout = true;
+        assertNull(leaseManager.tryAcquire(FLOW_ID + 11, 1));
+        assertFalse(leaseManager.isSuspended());
+    }
+
+    private void assertRequest(ClusterRequest request, int type, int count) {
+        assertEquals(type, request.getType());
+        FlowRequestData data = (FlowRequestData) request.getData();
+        assertEquals(FLOW_ID, data.getFlowId());
+        assertEquals(count, data.getCount());
+    }
+
+    private long leaseIdOf(ClusterRequest request) {
+        return ((FlowRequestData) request.getData()).getLeaseId();
+    }
+
+    /**
+     * Replies lease requests with the given result at once, and records all requests.
+     */
+    private static class LeasingTransportClient implements ClusterTransportClient {
+
+        private final List<ClusterRequest> requests = new ArrayList<>();
+        private ClusterResponse<FlowTokenResponseData> nextLease;
+        private boolean leaseTimeout = false;
+
+        void nextLease(int status, int count, int validInMs) {
+            this.nextLease = new ClusterResponse<>(0, ClusterConstants.MSG_TYPE_FLOW_LEASE, status,
+                new FlowTokenResponseData().setRemainingCount(count).setWaitInMs(validInMs));
+        }
+
+        @Override
+        public void start() {}
+
+        @Override
+        public void stop() {}
+
+        @Override
+        public ClusterResponse sendRequest(ClusterRequest request) {
+            requests.add(request);
+            if (request.getType() == ClusterConstants.MSG_TYPE_FLOW_LEASE) {
+                return nextLease;
+            }
+            return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+                new FlowTokenResponseData());
+        }
+
+        @Override
+        public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+            if (leaseTimeout && request.getType() == ClusterConstants.MSG_TYPE_FLOW_LEASE) {
+                requests.add(request);
+                CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
+                future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT));
+                return future;
+            }
+            return CompletableFuture.completedFuture(sendRequest(request));
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+    }
+}
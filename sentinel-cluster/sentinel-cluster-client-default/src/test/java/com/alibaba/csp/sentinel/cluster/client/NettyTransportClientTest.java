@@ -0,0 +1,250 @@
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.init.DefaultClusterClientInitFunc;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the pipelined and batched requests of {@link NettyTransportClient}.
+ */
+public class NettyTransportClientTest {
+
+    private static final int PIPELINED_REQUEST_COUNT = 64;
+    private static final long IGNORED_FLOW_ID = 999L;
+
+    private static final String FLOW_BATCH_WINDOW_KEY = "csp.sentinel.cluster.client.flow.batch.window.us";
+    private static final String FLOW_BATCH_MAX_SIZE_KEY = "csp.sentinel.cluster.client.flow.batch.max.size";
+
+    private NioEventLoopGroup serverGroup;
+    private Channel serverChannel;
+    private NettyTransportClient client;
+    private final AtomicInteger receivedFrames = new AtomicInteger(0);
+
+    @Before
+    public void setUp() throws Exception {
+        new DefaultClusterClientInitFunc().init();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000));
+
+        serverGroup = new NioEventLoopGroup(1);
+        serverChannel = new ServerBootstrap()
+            .group(serverGroup)
+            .channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel ch) {
+                    ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
+                    ch.pipeline().addLast(new LengthFieldPrepender(2));
+                    ch.pipeline().addLast(new ReversedOrderFlowHandler(receivedFrames));
+                }
+            })
+            .bind("127.0.0.1", 0).sync().channel();
+
+        client = startClient();
+    }
+
+    private NettyTransportClient startClient() throws Exception {
+        int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+        NettyTransportClient client = new NettyTransportClient("127.0.0.1", port);
+        client.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!client.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(client.isReady());
+        return client;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.stop();
+        serverChannel.close().sync();
+        serverGroup.shutdownGracefully().sync();
+        ClusterClientConfigManager.applyNewConfig(
+            new ClusterClientConfig().setRequestTimeout(ClusterConstants.DEFAULT_REQUEST_TIMEOUT));
+    }
+
+    @Test
+    public void testPipelinedRequestsMatchedByXid() throws Exception {
+        List<CompletableFuture<ClusterResponse>> futures = new ArrayList<>();
+        for (int i = 1; i <= PIPELINED_REQUEST_COUNT; i++) {
+            futures.add(client.sendRequestAsync(flowRequest(i, i)));
+        }
+        // The server replies only when all requests arrive, so they must be in flight at the same time.
+        for (int i = 1; i <= PIPELINED_REQUEST_COUNT; i++) {
+            ClusterResponse response = futures.get(i - 1).get(5, TimeUnit.SECONDS);
+            assertEquals(ClusterConstants.RESPONSE_STATUS_OK, response.getStatus());
+            assertEquals(i * 10, ((FlowTokenResponseData) response.getData()).getRemainingCount());
+        }
+    }
+
+    @Test
+    public void testFlowRequestsCoalescedIntoBatches() throws Exception {
+        client.stop();
+        SentinelConfig.setConfig(FLOW_BATCH_WINDOW_KEY, "100000");
+        SentinelConfig.setConfig(FLOW_BATCH_MAX_SIZE_KEY, "16");
+        try {
+            client = startClient();
+            receivedFrames.set(0);
+
+            List<CompletableFuture<ClusterResponse>> futures = new ArrayList<>();
+            for (int i = 1; i <= PIPELINED_REQUEST_COUNT; i++) {
+                futures.add(client.sendRequestAsync(flowRequest(i, i)));
+            }
+            for (int i = 1; i <= PIPELINED_REQUEST_COUNT; i++) {
+                ClusterResponse response = futures.get(i - 1).get(5, TimeUnit.SECONDS);
+                assertEquals(ClusterConstants.MSG_TYPE_FLOW, response.getType());
+                assertEquals(ClusterConstants.RESPONSE_STATUS_OK, response.getStatus());
+                assertEquals(i * 10, ((FlowTokenResponseData) response.getData()).getRemainingCount());
+            }
+            // Requests are sent in batches of at most 16 items.
+            assertTrue(receivedFrames.get() >= PIPELINED_REQUEST_COUNT / 16);
+            assertTrue(receivedFrames.get() < PIPELINED_REQUEST_COUNT / 4);
+        } finally {
+            SentinelConfig.setConfig(FLOW_BATCH_WINDOW_KEY, "0");
+        }
+    }
+
+    @Test
+    public void testAsyncRequestTimeout() throws Exception {
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(50));
+
+        CompletableFuture<ClusterResponse> future = client.sendRequestAsync(flowRequest(IGNORED_FLOW_ID, 1));
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("The request should be timed out");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof SentinelClusterException);
+            assertEquals(ClusterErrorMessages.REQUEST_TIME_OUT, ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testSyncRequestTimeout() throws Exception {
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(50));
+
+        try {
+            client.sendRequest(flowRequest(IGNORED_FLOW_ID, 1));
+            fail("The request should be timed out");
+        } catch (SentinelClusterException ex) {
+            assertEquals(ClusterErrorMessages.REQUEST_TIME_OUT, ex.getMessage());
+        }
+    }
+
+    private ClusterRequest<FlowRequestData> flowRequest(long flowId, int count) {
+        FlowRequestData data = new FlowRequestData().setFlowId(flowId).setCount(count).setPriority(false);
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+    }
+
+    /**
+     * Replies flow requests in the reversed order once {@link #PIPELINED_REQUEST_COUNT} requests arrive.
+     * Requests that arrive in batch frames are replied in batch frames too.
+     */
+    private static class ReversedOrderFlowHandler extends ChannelInboundHandlerAdapter {
+
+        private static final int REPLY_BATCH_SIZE = 16;
+
+        private final AtomicInteger receivedFrames;
+        private final List<int[]> pending = new ArrayList<>();
+        private boolean batched = false;
+
+        ReversedOrderFlowHandler(AtomicInteger receivedFrames) {
+            this.receivedFrames = receivedFrames;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            try {
+                int xid = buf.readInt();
+                int type = buf.readByte();
+                if (type == ClusterConstants.MSG_TYPE_FLOW) {
+                    receivedFrames.incrementAndGet();
+                    readItem(xid, buf);
+                } else if (type == ClusterConstants.MSG_TYPE_FLOW_BATCH) {
+                    receivedFrames.incrementAndGet();
+                    batched = true;
+                    int size = buf.readUnsignedShort();
+                    for (int i = 0; i < size; i++) {
+                        readItem(buf.readInt(), buf);
+                    }
+                }
+                if (pending.size() == PIPELINED_REQUEST_COUNT) {
+                    reply(ctx);
+                }
+            } finally {
+                buf.release();
+            }
+        }
+
+        private void readItem(int xid, ByteBuf buf) {
+            long flowId = buf.readLong();
+            int count = buf.readInt();
+            buf.readBoolean();
+            if (flowId != IGNORED_FLOW_ID) {
+                pending.add(new int[] {xid, count});
+            }
+        }
+
+        private void reply(ChannelHandlerContext ctx) {
+            for (int i = pending.size() - 1; i >= 0; ) {
+                ByteBuf out = ctx.alloc().buffer();
+                if (batched) {
+                    int size = Math.min(REPLY_BATCH_SIZE, i + 1);
+                    out.writeInt(0);
+                    out.writeByte(ClusterConstants.MSG_TYPE_FLOW_BATCH);
+                    out.writeByte(ClusterConstants.RESPONSE_STATUS_OK);
+                    out.writeShort(size);
+                    for (int j = 0; j < size; j++, i--) {
+                        out.writeInt(pending.get(i)[0]);
+                        out.writeByte(ClusterConstants.RESPONSE_STATUS_OK);
+                        out.writeInt(pending.get(i)[1] * 10);
+                        out.writeInt(0);
+                    }
+                } else {
+                    out.writeInt(pending.get(i)[0]);
+                    out.writeByte(ClusterConstants.MSG_TYPE_FLOW);
+                    out.writeByte(ClusterConstants.RESPONSE_STATUS_OK);
+                    out.writeInt(pending.get(i)[1] * 10);
+                    out.writeInt(0);
+                    i--;
+                }
+                ctx.write(out);
+            }
+            ctx.flush();
+            pending.clear();
+        }
+    }
+}
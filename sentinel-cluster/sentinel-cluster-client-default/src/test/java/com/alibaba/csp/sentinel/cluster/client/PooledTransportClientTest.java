@@ -0,0 +1,159 @@
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.init.DefaultClusterClientInitFunc;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PooledTransportClientTest {
+
+    private static final int POOL_SIZE = 4;
+
+    private NioEventLoopGroup serverGroup;
+    private Channel serverChannel;
+    private PooledTransportClient client;
+
+    private final Set<SocketAddress> requestedFrom = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setUp() throws Exception {
+        new DefaultClusterClientInitFunc().init();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000));
+        serverGroup = new NioEventLoopGroup(1);
+        serverChannel = new ServerBootstrap()
+            .group(serverGroup)
+            .channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel ch) {
+                    ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
+                    ch.pipeline().addLast(new LengthFieldPrepender(2));
+                    ch.pipeline().addLast(new EchoFlowHandler());
+                }
+            })
+            .bind("127.0.0.1", 0).sync().channel();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+        serverChannel.close().sync();
+        serverGroup.shutdownGracefully().sync();
+        ClusterClientConfigManager.applyNewConfig(
+            new ClusterClientConfig().setRequestTimeout(ClusterConstants.DEFAULT_REQUEST_TIMEOUT));
+    }
+
+    @Test
+    public void testRoundRobinOverConnections() throws Exception {
+        client = startClient(ClientConstants.CONNECTION_SELECT_ROUND_ROBIN);
+        for (int i = 1; i <= POOL_SIZE * 2; i++) {
+            assertEquals(i, sendFlowRequest(i));
+        }
+        assertEquals(POOL_SIZE, requestedFrom.size());
+    }
+
+    @Test
+    public void testLeastPendingSelectsIdleConnections() throws Exception {
+        client = startClient(ClientConstants.CONNECTION_SELECT_LEAST_PENDING);
+        // All connections are idle, so they are used in turn.
+        for (int i = 1; i <= POOL_SIZE; i++) {
+            assertEquals(i, sendFlowRequest(i));
+        }
+        assertEquals(POOL_SIZE, requestedFrom.size());
+    }
+
+    @Test
+    public void testSkipConnectionsNotReady() throws Exception {
+        client = startClient(ClientConstants.CONNECTION_SELECT_ROUND_ROBIN);
+        client.getPrimaryClient().stop();
+        for (int i = 0; i < POOL_SIZE * 2; i++) {
+            assertNotSame(client.getPrimaryClient(), client.select());
+        }
+        assertTrue(client.isReady());
+    }
+
+    private PooledTransportClient startClient(String strategy) throws Exception {
+        int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+        PooledTransportClient client = new PooledTransportClient("127.0.0.1", port, POOL_SIZE, strategy);
+        client.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!allReady(client) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(allReady(client));
+        return client;
+    }
+
+    private boolean allReady(PooledTransportClient client) {
+        for (int i = 0; i < client.getPoolSize(); i++) {
+            if (!client.getClient(i).isReady()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int sendFlowRequest(int count) throws Exception {
+        FlowRequestData data = new FlowRequestData().setFlowId(1L).setCount(count).setPriority(false);
+        ClusterResponse response = client.sendRequest(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data));
+        return ((FlowTokenResponseData) response.getData()).getRemainingCount();
+    }
+
+    /**
+     * Replies flow requests with the requested count as the remaining count.
+     */
+    private class EchoFlowHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            try {
+                int xid = buf.readInt();
+                int type = buf.readByte();
+                if (type != ClusterConstants.MSG_TYPE_FLOW) {
+                    return;
+                }
+                requestedFrom.add(ctx.channel().remoteAddress());
+                buf.readLong();
+                int count = buf.readInt();
+                ByteBuf out = ctx.alloc().buffer();
+                out.writeInt(xid);
+                out.writeByte(ClusterConstants.MSG_TYPE_FLOW);
+                out.writeByte(ClusterConstants.RESPONSE_STATUS_OK);
+                out.writeInt(count);
+                out.writeInt(0);
+                ctx.writeAndFlush(out);
+            } finally {
+                buf.release();
+            }
+        }
+    }
+}
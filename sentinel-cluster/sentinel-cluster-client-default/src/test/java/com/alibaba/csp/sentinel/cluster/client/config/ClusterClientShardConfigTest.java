@@ -0,0 +1,53 @@
+package com.alibaba.csp.sentinel.cluster.client.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClusterClientShardConfigTest {
+
+    @Test
+    public void testMatchFlowIdRange() {
+        ClusterClientShardConfig shard = new ClusterClientShardConfig("127.0.0.1", 18731)
+            .setMinFlowId(100L)
+            .setMaxFlowId(199L);
+        assertFalse(shard.matches(99L, "app"));
+        assertTrue(shard.matches(100L, "app"));
+        assertTrue(shard.matches(199L, "app"));
+        assertFalse(shard.matches(200L, "app"));
+
+        ClusterClientShardConfig openEnded = new ClusterClientShardConfig("127.0.0.1", 18731).setMinFlowId(1000L);
+        assertFalse(openEnded.matches(999L, "app"));
+        assertTrue(openEnded.matches(Long.MAX_VALUE, "app"));
+    }
+
+    @Test
+    public void testMatchNamespaces() {
+        ClusterClientShardConfig shard = new ClusterClientShardConfig("127.0.0.1", 18731)
+            .setNamespaces(new HashSet<>(Arrays.asList("app-a", "app-b")));
+        assertTrue(shard.matches(1L, "app-a"));
+        assertTrue(shard.matches(1L, "app-b"));
+        assertFalse(shard.matches(1L, "app-c"));
+
+        shard.setNamespaces(Collections.<String>emptySet());
+        assertTrue(shard.matches(1L, "app-c"));
+    }
+
+    @Test
+    public void testValidAssignConfigWithShards() {
+        ClusterClientAssignConfig config = new ClusterClientAssignConfig("127.0.0.1", 18730);
+        assertTrue(ClusterClientConfigManager.isValidAssignConfig(config));
+
+        config.setShards(Collections.singletonList(new ClusterClientShardConfig("127.0.0.1", 18731)));
+        assertTrue(ClusterClientConfigManager.isValidAssignConfig(config));
+
+        config.setShards(Collections.singletonList(new ClusterClientShardConfig("", 18731)));
+        assertFalse(ClusterClientConfigManager.isValidAssignConfig(config));
+        config.setShards(Collections.singletonList(new ClusterClientShardConfig("127.0.0.1", null)));
+        assertFalse(ClusterClientConfigManager.isValidAssignConfig(config));
+    }
+}
@@ -0,0 +1,121 @@
+package com.alibaba.csp.sentinel.cluster.client.handler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PendingRequestTableTest {
+
+    @Test
+    public void testCapacityRoundedUpToPowerOfTwo() {
+        assertEquals(1, new PendingRequestTable(1).getCapacity());
+        assertEquals(8, new PendingRequestTable(5).getCapacity());
+        assertEquals(1024, new PendingRequestTable(1024).getCapacity());
+    }
+
+    @Test
+    public void testCompleteByXid() throws Exception {
+        PendingRequestTable table = new PendingRequestTable(4);
+        CompletableFuture<ClusterResponse> f1 = new CompletableFuture<>();
+        CompletableFuture<ClusterResponse> f2 = new CompletableFuture<>();
+        int xid1 = table.register(f1, 1000);
+        int xid2 = table.register(f2, 1000);
+        assertTrue(xid1 > 0 && xid2 > 0 && xid1 != xid2);
+        assertEquals(2, table.getPendingCount());
+
+        ClusterResponse<Integer> response = new ClusterResponse<>(xid2, ClusterConstants.MSG_TYPE_FLOW,
+            ClusterConstants.RESPONSE_STATUS_OK, null);
+        assertTrue(table.complete(xid2, response));
+        assertSame(response, f2.get());
+        assertFalse(f1.isDone());
+        // Duplicate or unknown responses are ignored.
+        assertFalse(table.complete(xid2, response));
+        assertFalse(table.complete(xid2 + 100, response));
+        assertFalse(table.complete(0, response));
+        assertEquals(1, table.getPendingCount());
+    }
+
+    @Test
+    public void testRejectWhenFull() {
+        PendingRequestTable table = new PendingRequestTable(4);
+        List<Integer> xids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            xids.add(table.register(new CompletableFuture<ClusterResponse>(), 1000));
+        }
+        assertEquals(4, new HashSet<>(xids).size());
+        assertEquals(-1, table.register(new CompletableFuture<ClusterResponse>(), 1000));
+
+        // A free slot could be found even if the next xid maps to a pending slot.
+        assertTrue(table.fail(xids.get(1), new RuntimeException()));
+        int xid = table.register(new CompletableFuture<ClusterResponse>(), 1000);
+        assertTrue(xid > 0);
+        assertFalse(xids.contains(xid));
+        assertEquals(4, table.getPendingCount());
+    }
+
+    @Test
+    public void testSweepTimeouts() throws Exception {
+        PendingRequestTable table = new PendingRequestTable(8);
+        CompletableFuture<ClusterResponse> expired = new CompletableFuture<>();
+        CompletableFuture<ClusterResponse> alive = new CompletableFuture<>();
+        table.register(expired, 0);
+        table.register(alive, 60_000);
+
+        Thread.sleep(5);
+        assertEquals(1, table.sweepTimeouts());
+        assertFalse(alive.isDone());
+        try {
+            expired.get();
+            fail("The request should be timed out");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof SentinelClusterException);
+            assertEquals(ClusterErrorMessages.REQUEST_TIME_OUT, ex.getCause().getMessage());
+        }
+
+        table.failAll(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+        assertTrue(alive.isCompletedExceptionally());
+        assertEquals(0, table.getPendingCount());
+    }
+
+    @Test
+    public void testConcurrentRegisterAndComplete() throws Exception {
+        final PendingRequestTable table = new PendingRequestTable(64);
+        final Set<Integer> failures = new HashSet<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        CompletableFuture<ClusterResponse> f = new CompletableFuture<>();
+                        int xid = table.register(f, 1000);
+                        ClusterResponse<Integer> response = new ClusterResponse<>(xid, ClusterConstants.MSG_TYPE_FLOW,
+                            ClusterConstants.RESPONSE_STATUS_OK, i);
+                        if (xid < 0 || !table.complete(xid, response) || f.getNow(null) != response) {
+                            synchronized (failures) {
+                                failures.add(i);
+                            }
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.isEmpty());
+        assertEquals(0, table.getPendingCount());
+    }
+}
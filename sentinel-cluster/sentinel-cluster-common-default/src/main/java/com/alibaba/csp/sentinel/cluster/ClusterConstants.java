@@ -26,7 +26,24 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_PARAM_FLOW = 2;
     public static final int MSG_TYPE_CONCURRENT_FLOW_ACQUIRE = 3;
     public static final int MSG_TYPE_CONCURRENT_FLOW_RELEASE = 4;
-
+    /**
+     * Batch of flow requests coalesced by the client, whose items are identified by their own xid.
+     *
+     * @since 2.0.0
+     */
+    public static final int MSG_TYPE_FLOW_BATCH = 5;
+    /**
+     * Lease a block of flow tokens to be served by the client locally.
+     *
+     * @since 2.0.0
+     */
+    public static final int MSG_TYPE_FLOW_LEASE = 6;
+    /**
+     * Give back unused tokens of a flow lease.
+     *
+     * @since 2.0.0
+     */
+    public static final int MSG_TYPE_FLOW_LEASE_RETURN = 7;
 
     public static final int RESPONSE_STATUS_BAD = -1;
     public static final int RESPONSE_STATUS_OK = 0;
@@ -44,5 +61,12 @@ public final class ClusterConstants {
     public static final int DEFAULT_REQUEST_TIMEOUT = 20;
     public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10 * 1000;
 
+    /**
+     * Max amount of items in a flow batch request, so that the frame fits in the 1024-byte frame limit.
+     *
+     * @since 2.0.0
+     */
+    public static final int MAX_FLOW_BATCH_SIZE = 48;
+
     private ClusterConstants() {}
 }
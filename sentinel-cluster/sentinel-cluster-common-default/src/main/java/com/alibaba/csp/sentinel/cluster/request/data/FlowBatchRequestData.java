@@ -0,0 +1,61 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+
+/**
+ * Data of a {@link com.alibaba.csp.sentinel.cluster.ClusterConstants#MSG_TYPE_FLOW_BATCH} request, which
+ * carries several flow requests. Each item keeps the xid of its original request.
+ *
+ * @since 2.0.0
+ */
+public class FlowBatchRequestData {
+
+    private List<ClusterRequest<FlowRequestData>> requests;
+
+    public FlowBatchRequestData() {
+        this(new ArrayList<ClusterRequest<FlowRequestData>>());
+    }
+
+    public FlowBatchRequestData(List<ClusterRequest<FlowRequestData>> requests) {
+        this.requests = requests;
+    }
+
+    public List<ClusterRequest<FlowRequestData>> getRequests() {
+        return requests;
+    }
+
+    public FlowBatchRequestData setRequests(List<ClusterRequest<FlowRequestData>> requests) {
+        this.requests = requests;
+        return this;
+    }
+
+    public FlowBatchRequestData addRequest(ClusterRequest<FlowRequestData> request) {
+        requests.add(request);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowBatchRequestData{" +
+            "requests=" + requests +
+            '}';
+    }
+}
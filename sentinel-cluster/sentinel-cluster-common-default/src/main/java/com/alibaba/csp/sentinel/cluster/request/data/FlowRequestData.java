@@ -24,6 +24,13 @@ public class FlowRequestData {
     private long flowId;
     private int count;
     private boolean priority;
+    /**
+     * Id of the token lease (unique per client), carried by lease and lease return requests
+     * so that unused tokens are given back to the lease they were leased in. 0 means none.
+     *
+     * @since 2.0.0
+     */
+    private long leaseId;
 
     public long getFlowId() {
         return flowId;
@@ -52,12 +59,22 @@ public class FlowRequestData {
         return this;
     }
 
+    public long getLeaseId() {
+        return leaseId;
+    }
+
+    public FlowRequestData setLeaseId(long leaseId) {
+        this.leaseId = leaseId;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "FlowRequestData{" +
             "flowId=" + flowId +
             ", count=" + count +
             ", priority=" + priority +
+            ", leaseId=" + leaseId +
             '}';
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+/**
+ * Data of the ping request, which registers a client connection to the token server.
+ *
+ * @since 2.0.0
+ */
+public class PingRequestData {
+
+    private String namespace;
+    /**
+     * Id of the client, shared by all connections from the same client process, so that
+     * the server counts them as one client.
+     */
+    private String clientId;
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public PingRequestData setNamespace(String namespace) {
+        this.namespace = namespace;
+        return this;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public PingRequestData setClientId(String clientId) {
+        this.clientId = clientId;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "PingRequestData{" +
+            "namespace='" + namespace + '\'' +
+            ", clientId='" + clientId + '\'' +
+            '}';
+    }
+}
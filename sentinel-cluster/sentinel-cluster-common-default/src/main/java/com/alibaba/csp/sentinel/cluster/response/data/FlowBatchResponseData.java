@@ -0,0 +1,61 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.response.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+/**
+ * Data of a {@link com.alibaba.csp.sentinel.cluster.ClusterConstants#MSG_TYPE_FLOW_BATCH} response, which
+ * carries the responses of each item in the batch request, identified by the xid of the item.
+ *
+ * @since 2.0.0
+ */
+public class FlowBatchResponseData {
+
+    private List<ClusterResponse<FlowTokenResponseData>> responses;
+
+    public FlowBatchResponseData() {
+        this(new ArrayList<ClusterResponse<FlowTokenResponseData>>());
+    }
+
+    public FlowBatchResponseData(List<ClusterResponse<FlowTokenResponseData>> responses) {
+        this.responses = responses;
+    }
+
+    public List<ClusterResponse<FlowTokenResponseData>> getResponses() {
+        return responses;
+    }
+
+    public FlowBatchResponseData setResponses(List<ClusterResponse<FlowTokenResponseData>> responses) {
+        this.responses = responses;
+        return this;
+    }
+
+    public FlowBatchResponseData addResponse(ClusterResponse<FlowTokenResponseData> response) {
+        responses.add(response);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowBatchResponseData{" +
+            "responses=" + responses +
+            '}';
+    }
+}
@@ -35,7 +35,7 @@ import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
  */
 final class ClusterFlowChecker {
 
-    private static double calcGlobalThreshold(FlowRule rule) {
+    static double calcGlobalThreshold(FlowRule rule) {
         double count = rule.getCount();
         switch (rule.getClusterConfig().getThresholdType()) {
             case ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL:
@@ -64,13 +64,11 @@ final class ClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        double latestQps = metric.getAvg(ClusterFlowEvent.PASS);
         double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
-        double nextRemaining = globalThreshold - latestQps - acquireCount;
+        // Checking and acquiring are done atomically, so concurrent requests won't be over-admitted.
+        double nextRemaining = metric.tryAcquirePass(acquireCount, globalThreshold);
 
         if (nextRemaining >= 0) {
-            // TODO: checking logic and metric operation should be separated.
-            metric.add(ClusterFlowEvent.PASS, acquireCount);
             metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
             if (prioritized) {
                 // Add prioritized pass.
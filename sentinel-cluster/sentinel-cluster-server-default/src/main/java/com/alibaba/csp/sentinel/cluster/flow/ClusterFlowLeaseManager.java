@@ -0,0 +1,208 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Manager of the token leases of cluster flow rules.</p>
+ * <p>
+ * A lease is a block of tokens which a client could serve locally within one bucket length.
+ * Leased tokens are counted as passed at once, so the global threshold still holds no matter whether they
+ * are used. Outstanding leases are tracked per client connection and per lease id (given by the client),
+ * so that a client could give back no more than a lease holds, and unused tokens are refunded to the bucket
+ * the lease was granted in, even if the client gives back the lease after the next one is granted.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public final class ClusterFlowLeaseManager {
+
+    /**
+     * (clientAddress, (flowId, lease))
+     */
+    private static final Map<String, Map<Long, FlowLease>> LEASE_MAP = new ConcurrentHashMap<>();
+
+    static TokenResult acquireLease(String clientAddress, /*@Valid*/ FlowRule rule, long leaseId, int maxCount) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!ClusterFlowChecker.allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        double globalThreshold = ClusterFlowChecker.calcGlobalThreshold(rule)
+            * ClusterServerConfigManager.getExceedCount();
+        int windowLengthInMs = metric.getWindowLengthInMs();
+        // A lease holds no more than the share of one bucket.
+        int maxLeaseCount = (int) Math.max(1, Math.floor(globalThreshold * windowLengthInMs / 1000.0));
+
+        long windowStart = metric.currentWindowStart();
+        int leased = metric.tryLeasePass(Math.min(maxCount, maxLeaseCount), globalThreshold);
+        if (leased <= 0) {
+            ClusterServerStatLogUtil.log("flow|lease_block|" + id);
+            return new TokenResult(TokenResultStatus.BLOCKED)
+                .setRemaining(0)
+                .setWaitInMs(windowLengthInMs);
+        }
+        metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+        getOrCreateLease(clientAddress, id).lease(leaseId, windowStart, leased, metric.getIntervalInMs());
+        ClusterServerStatLogUtil.log("flow|lease|" + id, leased);
+
+        return new TokenResult(TokenResultStatus.OK)
+            .setRemaining(leased)
+            .setWaitInMs(windowLengthInMs);
+    }
+
+    static TokenResult returnLease(String clientAddress, Long flowId, long leaseId, int unusedCount) {
+        Map<Long, FlowLease> leases = LEASE_MAP.get(clientAddress);
+        FlowLease lease = leases == null ? null : leases.get(flowId);
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+        if (lease == null || metric == null) {
+            return new TokenResult(TokenResultStatus.OK).setRemaining(0);
+        }
+        int refunded = lease.giveBack(metric, leaseId, unusedCount);
+        return new TokenResult(TokenResultStatus.OK).setRemaining(refunded);
+    }
+
+    /**
+     * Remove all leases of the client (e.g. when disconnected). Leased tokens are kept counted.
+     *
+     * @param clientAddress address of the client
+     */
+    public static void removeLeases(String clientAddress) {
+        if (clientAddress != null) {
+            LEASE_MAP.remove(clientAddress);
+        }
+    }
+
+    /**
+     * Get count of outstanding leased tokens of the client for given flow rule.
+     *
+     * @param clientAddress address of the client
+     * @param flowId        flow ID of the cluster rule
+     * @return count of outstanding leased tokens
+     */
+    public static int getOutstandingCount(String clientAddress, Long flowId) {
+        Map<Long, FlowLease> leases = LEASE_MAP.get(clientAddress);
+        FlowLease lease = leases == null ? null : leases.get(flowId);
+        return lease == null ? 0 : lease.getOutstanding();
+    }
+
+    private static FlowLease getOrCreateLease(String clientAddress, Long flowId) {
+        Map<Long, FlowLease> leases = LEASE_MAP.get(clientAddress);
+        if (leases == null) {
+            Map<Long, FlowLease> newLeases = new ConcurrentHashMap<>();
+            leases = LEASE_MAP.putIfAbsent(clientAddress, newLeases);
+            if (leases == null) {
+                leases = newLeases;
+            }
+        }
+        FlowLease lease = leases.get(flowId);
+        if (lease == null) {
+            FlowLease newLease = new FlowLease();
+            lease = leases.putIfAbsent(flowId, newLease);
+            if (lease == null) {
+                lease = newLease;
+            }
+        }
+        return lease;
+    }
+
+    static void clearAll() {
+        LEASE_MAP.clear();
+    }
+
+    /**
+     * Outstanding leased tokens of a client for a flow rule, tracked per lease with the bucket it was leased from.
+     */
+    private static final class FlowLease {
+
+        /**
+         * (leaseId, lease)
+         */
+        private final Map<Long, Lease> leases = new HashMap<>();
+        private int intervalInMs;
+
+        synchronized void lease(long leaseId, long windowStart, int count, int intervalInMs) {
+            this.intervalInMs = intervalInMs;
+            // Leases which have slid out of the interval could no longer be refunded.
+            Iterator<Lease> it = leases.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().windowStart <= windowStart - intervalInMs) {
+                    it.remove();
+                }
+            }
+            Lease lease = leases.get(leaseId);
+            if (lease == null) {
+                leases.put(leaseId, new Lease(windowStart, count));
+            } else {
+                // Should not happen as the client never reuses a lease id, count it in the newer bucket.
+                lease.windowStart = windowStart;
+                lease.outstanding += count;
+            }
+        }
+
+        synchronized int giveBack(ClusterMetric metric, long leaseId, int count) {
+            // A lease is given back once, the rest of it has been used.
+            Lease lease = leases.remove(leaseId);
+            if (lease == null) {
+                return 0;
+            }
+            return metric.refundPass(lease.windowStart, Math.min(count, lease.outstanding));
+        }
+
+        synchronized int getOutstanding() {
+            long validStart = TimeUtil.currentTimeMillis() - intervalInMs;
+            int outstanding = 0;
+            for (Lease lease : leases.values()) {
+                if (lease.windowStart > validStart) {
+                    outstanding += lease.outstanding;
+                }
+            }
+            return outstanding;
+        }
+    }
+
+    private static final class Lease {
+
+        private long windowStart;
+        private int outstanding;
+
+        Lease(long windowStart, int outstanding) {
+            this.windowStart = windowStart;
+            this.outstanding = outstanding;
+        }
+    }
+
+    private ClusterFlowLeaseManager() {}
+}
@@ -84,6 +84,46 @@ public class DefaultTokenService implements TokenService {
         ConcurrentClusterFlowChecker.releaseConcurrentToken(tokenId);
     }
 
+    /**
+     * Request a lease of at most {@code maxCount} tokens, which could be served by the client locally
+     * within the validity period (carried in {@link TokenResult#getWaitInMs()}).
+     *
+     * @param clientAddress address of the client connection
+     * @param ruleId        the unique rule ID
+     * @param leaseId       id of the lease given by the client, which the unused tokens are given back with
+     * @param maxCount      max token count to lease
+     * @return result of the lease request, the leased count is carried in {@link TokenResult#getRemaining()}
+     * @since 2.0.0
+     */
+    public TokenResult requestLeaseToken(String clientAddress, Long ruleId, long leaseId, int maxCount) {
+        if (notValidRequest(clientAddress, ruleId, maxCount)) {
+            return badRequest();
+        }
+        // The rule should be valid.
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+        return ClusterFlowLeaseManager.acquireLease(clientAddress, rule, leaseId, maxCount);
+    }
+
+    /**
+     * Give back the unused tokens of a lease.
+     *
+     * @param clientAddress address of the client connection
+     * @param ruleId        the unique rule ID
+     * @param leaseId       id of the lease which the tokens were leased in
+     * @param unusedCount   count of unused tokens
+     * @return result of the return request, the count given back is carried in {@link TokenResult#getRemaining()}
+     * @since 2.0.0
+     */
+    public TokenResult returnLeaseToken(String clientAddress, Long ruleId, long leaseId, int unusedCount) {
+        if (notValidRequest(clientAddress, ruleId, unusedCount)) {
+            return badRequest();
+        }
+        return ClusterFlowLeaseManager.returnLease(clientAddress, ruleId, leaseId, unusedCount);
+    }
+
     private boolean notValidRequest(Long id, int count) {
         return id == null || id <= 0 || count <= 0;
     }
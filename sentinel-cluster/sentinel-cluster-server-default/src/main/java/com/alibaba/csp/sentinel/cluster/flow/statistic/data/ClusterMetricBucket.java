@@ -15,15 +15,20 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.data;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * <p>The pass count is kept in an {@link AtomicLong} rather than a {@link LongAdder},
+ * so that admission could be checked and consumed in a single CAS, see {@link #tryAddPass(long, long)}.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class ClusterMetricBucket {
 
     private final LongAdder[] counters;
+    private final AtomicLong passCounter = new AtomicLong();
 
     public ClusterMetricBucket() {
         ClusterFlowEvent[] events = ClusterFlowEvent.values();
@@ -37,14 +42,42 @@ public class ClusterMetricBucket {
         for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
             counters[event.ordinal()].reset();
         }
+        passCounter.set(0);
     }
 
     public long get(ClusterFlowEvent event) {
+        if (event == ClusterFlowEvent.PASS) {
+            return passCounter.get();
+        }
         return counters[event.ordinal()].sum();
     }
 
     public ClusterMetricBucket add(ClusterFlowEvent event, long count) {
-        counters[event.ordinal()].add(count);
+        if (event == ClusterFlowEvent.PASS) {
+            passCounter.addAndGet(count);
+        } else {
+            counters[event.ordinal()].add(count);
+        }
         return this;
     }
+
+    /**
+     * Atomically add the pass count if the current pass count of this bucket does not exceed the given bound.
+     *
+     * @param count           pass count to add
+     * @param maxCurrentCount max allowed pass count of this bucket before adding
+     * @return the pass count before adding if succeeded, otherwise -1
+     * @since 2.0.0
+     */
+    public long tryAddPass(long count, long maxCurrentCount) {
+        while (true) {
+            long current = passCounter.get();
+            if (current > maxCurrentCount) {
+                return -1;
+            }
+            if (passCounter.compareAndSet(current, current + count)) {
+                return current;
+            }
+        }
+    }
 }
@@ -19,6 +19,7 @@ import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
@@ -71,6 +72,120 @@ public class ClusterMetric {
         return getSum(event) / metric.getIntervalInSecond();
     }
 
+    /**
+     * <p>Check whether the average pass QPS with {@code acquireCount} more passes does not exceed
+     * the threshold, then add the pass count. Checking and adding are done in a single CAS on the
+     * pass counter of current bucket, so concurrent acquirers can never be admitted beyond the threshold.</p>
+     *
+     * @param acquireCount count to acquire
+     * @param threshold    threshold of the average pass QPS
+     * @return remaining count after acquiring (non-negative) if acquired, otherwise a negative value
+     * @since 2.0.0
+     */
+    public double tryAcquirePass(int acquireCount, double threshold) {
+        ClusterMetricBucket current = metric.currentWindow().value();
+        long previousPass = 0;
+        List<ClusterMetricBucket> buckets = metric.values();
+        for (ClusterMetricBucket bucket : buckets) {
+            if (bucket != current) {
+                previousPass += bucket.get(ClusterFlowEvent.PASS);
+            }
+        }
+        double intervalInSecond = metric.getIntervalInSecond();
+        // threshold - (previousPass + currentPass) / intervalInSecond - acquireCount >= 0
+        long maxCurrentPass = (long) Math.floor((threshold - acquireCount) * intervalInSecond) - previousPass;
+        long currentPass = current.tryAddPass(acquireCount, maxCurrentPass);
+        if (currentPass < 0) {
+            return -1;
+        }
+        return threshold - (previousPass + currentPass) / intervalInSecond - acquireCount;
+    }
+
+    /**
+     * <p>Lease at most {@code maxCount} passes from current bucket, as long as the average pass QPS
+     * does not exceed the threshold. The leased passes are counted at once, so that the threshold still holds
+     * no matter whether they will be used or not.</p>
+     *
+     * @param maxCount  max count to lease
+     * @param threshold threshold of the average pass QPS
+     * @return count of leased passes, 0 if there is no more available pass
+     * @since 2.0.0
+     */
+    public int tryLeasePass(int maxCount, double threshold) {
+        ClusterMetricBucket current = metric.currentWindow().value();
+        long previousPass = 0;
+        List<ClusterMetricBucket> buckets = metric.values();
+        for (ClusterMetricBucket bucket : buckets) {
+            if (bucket != current) {
+                previousPass += bucket.get(ClusterFlowEvent.PASS);
+            }
+        }
+        long maxPass = (long) Math.floor(threshold * metric.getIntervalInSecond()) - previousPass;
+        while (true) {
+            long available = maxPass - current.get(ClusterFlowEvent.PASS);
+            if (available <= 0) {
+                return 0;
+            }
+            int count = (int) Math.min(maxCount, available);
+            if (current.tryAddPass(count, maxPass - count) >= 0) {
+                return count;
+            }
+            // Lost the race to other acquirers, retry with the latest pass count.
+        }
+    }
+
+    /**
+     * Give back leased but unused passes to the bucket which they were leased from, only if the bucket
+     * is still in the sliding interval (so that they are still counted). Passes of other buckets are never touched.
+     *
+     * @param windowStart start time of the bucket which the passes were leased from
+     * @param count       count of unused passes
+     * @return count of passes actually given back
+     * @since 2.0.0
+     */
+    public int refundPass(long windowStart, int count) {
+        WindowWrap<ClusterMetricBucket> current = metric.currentWindow();
+        if (count <= 0 || windowStart <= current.windowStart() - metric.getIntervalInMs()
+            || windowStart > current.windowStart()) {
+            return 0;
+        }
+        // The bucket is null if it has been rotated for a newer window.
+        ClusterMetricBucket bucket = metric.getWindowValue(windowStart);
+        if (bucket == null) {
+            return 0;
+        }
+        // Never let the pass count of the bucket go negative.
+        int refund = (int) Math.min(count, bucket.get(ClusterFlowEvent.PASS));
+        if (refund > 0) {
+            bucket.add(ClusterFlowEvent.PASS, -refund);
+        }
+        return Math.max(refund, 0);
+    }
+
+    /**
+     * @return start time of current bucket
+     * @since 2.0.0
+     */
+    public long currentWindowStart() {
+        return metric.currentWindow().windowStart();
+    }
+
+    /**
+     * @return length of the sliding interval in milliseconds
+     * @since 2.0.0
+     */
+    public int getIntervalInMs() {
+        return metric.getIntervalInMs();
+    }
+
+    /**
+     * @return length of each bucket in milliseconds
+     * @since 2.0.0
+     */
+    public int getWindowLengthInMs() {
+        return metric.getIntervalInMs() / metric.getSampleCount();
+    }
+
     /**
      * Try to pre-occupy upcoming buckets.
      *
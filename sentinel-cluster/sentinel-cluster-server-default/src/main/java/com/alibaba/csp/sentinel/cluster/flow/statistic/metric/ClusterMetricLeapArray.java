@@ -32,7 +32,8 @@ public class ClusterMetricLeapArray extends LeapArray<ClusterMetricBucket> {
     private boolean hasOccupied = false;
 
     public ClusterMetricLeapArray(int sampleCount, int intervalInMs) {
-        super(sampleCount, intervalInMs);
+        // Occupied counts are transferred on bucket reset, so the buckets should always be reset in place.
+        super(sampleCount, intervalInMs, false);
         ClusterFlowEvent[] events = ClusterFlowEvent.values();
         this.occupyCounter = new LongAdder[events.length];
         for (ClusterFlowEvent event : events) {
@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Decoder for {@link FlowBatchRequestData}.</p>
+ * <p>
+ * Format: item count (2 bytes), then for each item:
+ * xid (4 bytes) | flow ID (8 bytes) | count (4 bytes) | priority flag (1 byte)
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class FlowBatchRequestDataDecoder implements EntityDecoder<ByteBuf, FlowBatchRequestData> {
+
+    private static final int ITEM_BYTES = 17;
+
+    @Override
+    public FlowBatchRequestData decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        int size = source.readUnsignedShort();
+        if (size > ClusterConstants.MAX_FLOW_BATCH_SIZE || source.readableBytes() < size * ITEM_BYTES) {
+            return null;
+        }
+        List<ClusterRequest<FlowRequestData>> requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int xid = source.readInt();
+            FlowRequestData data = new FlowRequestData()
+                .setFlowId(source.readLong())
+                .setCount(source.readInt())
+                .setPriority(source.readBoolean());
+            requests.add(new ClusterRequest<>(xid, ClusterConstants.MSG_TYPE_FLOW, data));
+        }
+        return new FlowBatchRequestData(requests);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer for {@link FlowBatchResponseData}.</p>
+ * <p>
+ * Format: item count (2 bytes), then for each item:
+ * xid (4 bytes) | status (1 byte) | remaining count (4 bytes) | wait in ms (4 bytes)
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class FlowBatchResponseDataWriter implements EntityWriter<FlowBatchResponseData, ByteBuf> {
+
+    @Override
+    public void writeTo(FlowBatchResponseData entity, ByteBuf out) {
+        List<ClusterResponse<FlowTokenResponseData>> responses = entity.getResponses();
+        out.writeShort(responses.size());
+        for (ClusterResponse<FlowTokenResponseData> response : responses) {
+            FlowTokenResponseData data = response.getData();
+            out.writeInt(response.getId());
+            out.writeByte(response.getStatus());
+            out.writeInt(data == null ? 0 : data.getRemainingCount());
+            out.writeInt(data == null ? 0 : data.getWaitInMs());
+        }
+    }
+}
@@ -25,7 +25,7 @@ import io.netty.buffer.ByteBuf;
  * Decoder for {@link FlowRequestData} from {@code ByteBuf} stream. The layout:
  * </p>
  * <pre>
- * | flow ID (8) | count (4) | priority flag (1) |
+ * | flow ID (8) | count (4) | priority flag (1) | lease ID (8, lease requests only) |
  * </pre>
  *
  * @author Eric Zhao
@@ -42,6 +42,9 @@ public class FlowRequestDataDecoder implements EntityDecoder<ByteBuf, FlowReques
             if (source.readableBytes() >= 1) {
                 requestData.setPriority(source.readBoolean());
             }
+            if (source.readableBytes() >= 8) {
+                requestData.setLeaseId(source.readLong());
+            }
             return requestData;
         }
         return null;
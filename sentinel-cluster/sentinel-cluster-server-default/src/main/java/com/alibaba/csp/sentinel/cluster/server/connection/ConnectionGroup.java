@@ -15,18 +15,23 @@
  */
 package com.alibaba.csp.sentinel.cluster.server.connection;
 
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
  * The connection group stores connection set for a specific namespace.
+ * <p>
+ * The connected count is the count of distinct clients rather than connections: connections carrying
+ * the same client id (e.g. pooled connections of a client) are counted once. Connections without
+ * a client id (from clients of older versions) are counted by address.
+ * </p>
  *
  * @author Eric Zhao
  * @since 1.4.0
@@ -38,6 +43,15 @@ public class ConnectionGroup {
     private final Set<ConnectionDescriptor> connectionSet = new CopyOnWriteArraySet<>();
     private final AtomicInteger connectedCount = new AtomicInteger();
 
+    /**
+     * Client identity of each connected address.
+     */
+    private final Map<String, String> identityMap = new HashMap<>();
+    /**
+     * Count of connections of each client identity.
+     */
+    private final Map<String, Integer> identityConnections = new HashMap<>();
+
     public ConnectionGroup(String namespace) {
         AssertUtil.notEmpty(namespace, "namespace cannot be empty");
         this.namespace = namespace;
@@ -48,6 +62,18 @@ public class ConnectionGroup {
     }
 
     public ConnectionGroup addConnection(String address) {
+        return addConnection(address, null);
+    }
+
+    /**
+     * Add a connection of given client. Connections of the same client are counted once.
+     *
+     * @param address  remote address of the connection
+     * @param clientId id of the client, or null if the client did not send one
+     * @return current connection group
+     * @since 2.0.0
+     */
+    public synchronized ConnectionGroup addConnection(String address, String clientId) {
         AssertUtil.notEmpty(address, "address cannot be empty");
 
         String[] ip = address.split(":");
@@ -57,24 +83,53 @@ public class ConnectionGroup {
         } else {
             host = address;
         }
-        boolean newAdded = connectionSet.add(new ConnectionDescriptor().setAddress(address).setHost(host));
-        if (newAdded) {
+        String identity = StringUtil.isBlank(clientId) ? address : clientId;
+        String previous = identityMap.put(address, identity);
+        if (identity.equals(previous)) {
+            return this;
+        }
+        if (previous != null) {
+            // The address re-registered with another client id.
+            connectionSet.remove(new ConnectionDescriptor().setAddress(address));
+            releaseIdentity(previous);
+        }
+        connectionSet.add(new ConnectionDescriptor().setAddress(address).setHost(host).setClientId(clientId));
+        Integer connections = identityConnections.get(identity);
+        if (connections == null) {
+            identityConnections.put(identity, 1);
             connectedCount.incrementAndGet();
+        } else {
+            identityConnections.put(identity, connections + 1);
         }
 
         return this;
     }
 
-    public ConnectionGroup removeConnection(String address) {
+    public synchronized ConnectionGroup removeConnection(String address) {
         AssertUtil.notEmpty(address, "address cannot be empty");
 
-        if (connectionSet.remove(new ConnectionDescriptor().setAddress(address))) {
-            connectedCount.decrementAndGet();
+        String identity = identityMap.remove(address);
+        if (identity != null) {
+            connectionSet.remove(new ConnectionDescriptor().setAddress(address));
+            releaseIdentity(identity);
         }
 
         return this;
     }
 
+    private void releaseIdentity(String identity) {
+        Integer connections = identityConnections.get(identity);
+        if (connections == null) {
+            return;
+        }
+        if (connections <= 1) {
+            identityConnections.remove(identity);
+            connectedCount.decrementAndGet();
+        } else {
+            identityConnections.put(identity, connections - 1);
+        }
+    }
+
     public String getNamespace() {
         return namespace;
     }
@@ -91,12 +91,27 @@ public final class ConnectionManager {
     }
 
     public static ConnectionGroup addConnection(String namespace, String address) {
+        return addConnection(namespace, address, null);
+    }
+
+    /**
+     * Add a connection of given client to the namespace. Connections with the same client id
+     * are counted as one client.
+     *
+     * @param namespace namespace of the client
+     * @param address   remote address of the connection
+     * @param clientId  id of the client, or null if the client did not send one
+     * @return the connection group of the namespace
+     * @since 2.0.0
+     */
+    public static ConnectionGroup addConnection(String namespace, String address, String clientId) {
         AssertUtil.assertNotBlank(namespace, "namespace should not be empty");
         AssertUtil.assertNotBlank(address, "address should not be empty");
         ConnectionGroup group = getOrCreateGroup(namespace);
-        group.addConnection(address);
+        group.addConnection(address, clientId);
         NAMESPACE_MAP.put(address, namespace);
-        RecordLog.info("[ConnectionManager] Client <{}> registered with namespace <{}>", address, namespace);
+        RecordLog.info("[ConnectionManager] Client <{}> registered with namespace <{}>, client id: {}",
+            address, namespace, clientId);
         return group;
     }
 
@@ -18,10 +18,13 @@ package com.alibaba.csp.sentinel.cluster.server.handler;
 import java.net.InetSocketAddress;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.flow.ClusterFlowLeaseManager;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
+import com.alibaba.csp.sentinel.cluster.server.processor.ClientAwareRequestProcessor;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessor;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessorProvider;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -54,6 +57,7 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
         String remoteAddress = getRemoteAddress(ctx);
         globalConnectionPool.remove(ctx.channel());
         ConnectionManager.removeConnection(remoteAddress);
+        ClusterFlowLeaseManager.removeLeases(remoteAddress);
     }
 
     @Override
@@ -74,6 +78,10 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
             if (processor == null) {
                 RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
                 writeBadResponse(ctx, request);
+            } else if (processor instanceof ClientAwareRequestProcessor) {
+                ClusterResponse<?> response = ((ClientAwareRequestProcessor<?, ?>) processor)
+                    .processRequest(getRemoteAddress(ctx), request);
+                writeResponse(ctx, response);
             } else {
                 ClusterResponse<?> response = processor.processRequest(request);
                 writeResponse(ctx, response);
@@ -92,14 +100,16 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void handlePingRequest(ChannelHandlerContext ctx, ClusterRequest request) {
-        if (request.getData() == null || StringUtil.isBlank((String)request.getData())) {
+        Object data = request.getData();
+        if (!(data instanceof PingRequestData) || StringUtil.isBlank(((PingRequestData)data).getNamespace())) {
             writeBadResponse(ctx, request);
             return;
         }
-        String namespace = (String)request.getData();
+        PingRequestData ping = (PingRequestData)data;
         String clientAddress = getRemoteAddress(ctx);
-        // Add the remote namespace to connection manager.
-        int curCount = ConnectionManager.addConnection(namespace, clientAddress).getConnectedCount();
+        // Add the remote namespace to connection manager, connections of the same client are counted once.
+        int curCount = ConnectionManager.addConnection(ping.getNamespace(), clientAddress, ping.getClientId())
+            .getConnectedCount();
         int status = ClusterConstants.RESPONSE_STATUS_OK;
         ClusterResponse<Integer> response = new ClusterResponse<>(request.getId(), request.getType(), status, curCount);
         writeResponse(ctx, response);
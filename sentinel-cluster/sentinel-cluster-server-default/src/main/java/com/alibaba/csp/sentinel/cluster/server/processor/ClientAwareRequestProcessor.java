@@ -0,0 +1,44 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+/**
+ * Base of the request processors which need to know the client connection of the request
+ * (e.g. to track per-connection state).
+ *
+ * @since 2.0.0
+ */
+public abstract class ClientAwareRequestProcessor<T, R> implements RequestProcessor<T, R> {
+
+    /**
+     * Process the cluster request from given client.
+     *
+     * @param clientAddress address of the client connection
+     * @param request       Sentinel cluster request
+     * @return the response after processed
+     */
+    public abstract ClusterResponse<R> processRequest(String clientAddress, ClusterRequest<T> request);
+
+    @Override
+    public ClusterResponse<R> processRequest(ClusterRequest<T> request) {
+        // The client is unknown.
+        return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_BAD, null);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+
+/**
+ * Processor of the flow batch request, which evaluates all items of the batch in one pass
+ * and replies them within a single response frame.
+ *
+ * @since 2.0.0
+ */
+@RequestType(ClusterConstants.MSG_TYPE_FLOW_BATCH)
+public class FlowBatchRequestProcessor implements RequestProcessor<FlowBatchRequestData, FlowBatchResponseData> {
+
+    @Override
+    public ClusterResponse<FlowBatchResponseData> processRequest(ClusterRequest<FlowBatchRequestData> request) {
+        if (request.getData() == null) {
+            return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_BAD,
+                null);
+        }
+        TokenService tokenService = TokenServiceProvider.getService();
+
+        List<ClusterRequest<FlowRequestData>> items = request.getData().getRequests();
+        FlowBatchResponseData responseData = new FlowBatchResponseData();
+        for (ClusterRequest<FlowRequestData> item : items) {
+            FlowRequestData data = item.getData();
+            TokenResult result = tokenService.requestToken(data.getFlowId(), data.getCount(), data.isPriority());
+            responseData.addResponse(new ClusterResponse<>(item.getId(), item.getType(), result.getStatus(),
+                new FlowTokenResponseData()
+                    .setRemainingCount(result.getRemaining())
+                    .setWaitInMs(result.getWaitInMs())));
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+            responseData);
+    }
+}
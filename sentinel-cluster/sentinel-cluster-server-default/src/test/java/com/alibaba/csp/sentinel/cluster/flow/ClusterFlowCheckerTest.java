@@ -15,9 +15,13 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow;
 
+import java.util.Collections;
+
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
@@ -72,6 +76,49 @@ public class ClusterFlowCheckerTest {
         ClusterMetricStatistics.removeMetric(flowId);
     }
 
+    @Test
+    public void testAvgLocalThresholdWithPooledConnections() {
+        String namespace = "avg-local-pool-test";
+        long flowId = 98766L;
+        FlowRule rule = new FlowRule("avg-local-resource")
+            .setCount(10)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_AVG_LOCAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(rule));
+        rule = ClusterFlowRuleManager.getFlowRuleById(flowId);
+        int poolSize = 4;
+        try {
+            ConnectionManager.addConnection(namespace, "12.23.34.45:5000", "client-a");
+            assertEquals(10, ClusterFlowChecker.calcGlobalThreshold(rule), 0.01);
+
+            // Other pooled connections of the same client do not raise the threshold.
+            for (int i = 1; i < poolSize; i++) {
+                ConnectionManager.addConnection(namespace, "12.23.34.45:" + (5000 + i), "client-a");
+                assertEquals(10, ClusterFlowChecker.calcGlobalThreshold(rule), 0.01);
+            }
+
+            ConnectionManager.addConnection(namespace, "12.23.34.46:5000", "client-b");
+            assertEquals(20, ClusterFlowChecker.calcGlobalThreshold(rule), 0.01);
+
+            // The client stays connected until its last connection is closed.
+            for (int i = 0; i < poolSize - 1; i++) {
+                ConnectionManager.removeConnection(namespace, "12.23.34.45:" + (5000 + i));
+                assertEquals(20, ClusterFlowChecker.calcGlobalThreshold(rule), 0.01);
+            }
+            ConnectionManager.removeConnection(namespace, "12.23.34.45:" + (5000 + poolSize - 1));
+            assertEquals(10, ClusterFlowChecker.calcGlobalThreshold(rule), 0.01);
+        } finally {
+            for (int i = 0; i < poolSize; i++) {
+                ConnectionManager.removeConnection(namespace, "12.23.34.45:" + (5000 + i));
+            }
+            ConnectionManager.removeConnection(namespace, "12.23.34.46:5000");
+            ClusterFlowRuleManager.loadRules(namespace, Collections.<FlowRule>emptyList());
+        }
+    }
+
     private TokenResult tryAcquire(FlowRule clusterRule, boolean occupy) {
         return ClusterFlowChecker.acquireClusterToken(clusterRule, 1, occupy);
     }
@@ -0,0 +1,116 @@
+package com.alibaba.csp.sentinel.cluster.flow;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClusterFlowLeaseManagerTest extends AbstractTimeBasedTest {
+
+    private static final String NAMESPACE = "lease-test";
+    private static final String CLIENT = "127.0.0.1:52000";
+    private static final long FLOW_ID = 23456L;
+
+    private FlowRule rule;
+
+    @Before
+    public void setUp() {
+        // 100 QPS with default 10 buckets per second, so that a lease holds at most 10 tokens.
+        rule = new FlowRule("lease-resource")
+            .setCount(100)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(FLOW_ID)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+        rule = ClusterFlowRuleManager.getFlowRuleById(FLOW_ID);
+    }
+
+    @After
+    public void tearDown() {
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+        ClusterMetricStatistics.removeMetric(FLOW_ID);
+        ClusterFlowLeaseManager.clearAll();
+    }
+
+    @Test
+    public void testLeaseNeverExceedsGlobalThreshold() {
+        setCurrentMillis(System.currentTimeMillis());
+
+        TokenResult result = ClusterFlowLeaseManager.acquireLease(CLIENT, rule, 1, 30);
+        assertEquals(TokenResultStatus.OK, (int) result.getStatus());
+        assertEquals(10, (int) result.getRemaining());
+        assertEquals(100, result.getWaitInMs());
+
+        for (int i = 1; i < 10; i++) {
+            assertEquals(10, (int) ClusterFlowLeaseManager.acquireLease(CLIENT, rule, i + 1, 30).getRemaining());
+        }
+        assertEquals(100, ClusterFlowLeaseManager.getOutstandingCount(CLIENT, FLOW_ID));
+        assertEquals(100, ClusterMetricStatistics.getMetric(FLOW_ID).getSum(ClusterFlowEvent.PASS));
+
+        TokenResult blocked = ClusterFlowLeaseManager.acquireLease(CLIENT, rule, 11, 30);
+        assertEquals(TokenResultStatus.BLOCKED, (int) blocked.getStatus());
+        // Direct requests are blocked as well, as all tokens have been leased.
+        assertEquals(TokenResultStatus.BLOCKED, (int) ClusterFlowChecker.acquireClusterToken(rule, 1, false)
+            .getStatus());
+    }
+
+    @Test
+    public void testReturnUnusedTokens() {
+        setCurrentMillis(System.currentTimeMillis());
+
+        for (int i = 0; i < 10; i++) {
+            ClusterFlowLeaseManager.acquireLease(CLIENT, rule, i + 1, 10);
+        }
+        // A client could not give back more than a lease holds.
+        assertEquals(0, (int) ClusterFlowLeaseManager.returnLease("127.0.0.1:52001", FLOW_ID, 1, 4).getRemaining());
+        assertEquals(0, (int) ClusterFlowLeaseManager.returnLease(CLIENT, FLOW_ID, 100, 4).getRemaining());
+        assertEquals(4, (int) ClusterFlowLeaseManager.returnLease(CLIENT, FLOW_ID, 1, 4).getRemaining());
+        assertEquals(10, (int) ClusterFlowLeaseManager.returnLease(CLIENT, FLOW_ID, 2, 30).getRemaining());
+        // A lease is given back only once.
+        assertEquals(0, (int) ClusterFlowLeaseManager.returnLease(CLIENT, FLOW_ID, 2, 10).getRemaining());
+        assertEquals(80, ClusterFlowLeaseManager.getOutstandingCount(CLIENT, FLOW_ID));
+        assertEquals(10, (int) ClusterFlowLeaseManager.acquireLease(CLIENT, rule, 11, 10).getRemaining());
+        assertEquals(4, (int) ClusterFlowLeaseManager.acquireLease(CLIENT, rule, 12, 10).getRemaining());
+
+        // Leases which have slid out of the interval are no longer counted, so they are not refunded.
+        sleep(1000);
+        assertEquals(0, (int) ClusterFlowLeaseManager.returnLease(CLIENT, FLOW_ID, 3, 10).getRemaining());
+        assertEquals(10, (int) ClusterFlowLeaseManager.acquireLease(CLIENT, rule, 13, 10).getRemaining());
+        assertEquals(10, ClusterFlowLeaseManager.getOutstandingCount(CLIENT, FLOW_ID));
+
+        ClusterFlowLeaseManager.removeLeases(CLIENT);
+        assertEquals(0, ClusterFlowLeaseManager.getOutstandingCount(CLIENT, FLOW_ID));
+    }
+
+    @Test
+    public void testReturnLeaseAfterRenewedInNewBucket() {
+        setCurrentMillis(System.currentTimeMillis() / 1000 * 1000);
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(FLOW_ID);
+
+        assertEquals(10, (int) ClusterFlowLeaseManager.acquireLease(CLIENT, rule, 1, 10).getRemaining());
+        // The client renews the lease in the next bucket, then gives back 6 unused tokens of the old lease.
+        sleep(100);
+        assertEquals(10, (int) ClusterFlowLeaseManager.acquireLease(CLIENT, rule, 2, 10).getRemaining());
+        assertEquals(6, (int) ClusterFlowLeaseManager.returnLease(CLIENT, FLOW_ID, 1, 6).getRemaining());
+
+        // Refunded to the bucket of the old lease, the new lease keeps its bucket fully counted.
+        assertEquals(10, metric.getCurrentCount(ClusterFlowEvent.PASS));
+        assertEquals(4 + 10, metric.getSum(ClusterFlowEvent.PASS));
+        assertEquals(10, ClusterFlowLeaseManager.getOutstandingCount(CLIENT, FLOW_ID));
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.test.AbstractTimeBasedTest;
 import org.junit.Assert;
@@ -43,4 +46,84 @@ public class ClusterMetricTest extends AbstractTimeBasedTest {
         metric.add(ClusterFlowEvent.PASS, 1);
         Assert.assertEquals(0, metric.tryOccupyNext(ClusterFlowEvent.PASS, 333, 900));
     }
+
+    @Test
+    public void testTryAcquirePass() {
+        setCurrentMillis(System.currentTimeMillis());
+        ClusterMetric metric = new ClusterMetric(2, 2000);
+        // 4 passes in 2 seconds, which is 2 QPS on average.
+        metric.add(ClusterFlowEvent.PASS, 4);
+        Assert.assertEquals(1, metric.tryAcquirePass(1, 4), 0.01);
+        Assert.assertEquals(0.5, metric.tryAcquirePass(1, 4), 0.01);
+        Assert.assertEquals(0, metric.tryAcquirePass(1, 4), 0.01);
+        Assert.assertTrue(metric.tryAcquirePass(1, 4) < 0);
+        Assert.assertTrue(metric.tryAcquirePass(5, 4) < 0);
+        Assert.assertEquals(7, metric.getSum(ClusterFlowEvent.PASS));
+
+        sleep(1000);
+        Assert.assertTrue(metric.tryAcquirePass(1, 4) < 0);
+        sleep(1000);
+        Assert.assertEquals(3, metric.tryAcquirePass(1, 4), 0.01);
+    }
+
+    @Test
+    public void testRefundPassToLeasedBucket() {
+        setCurrentMillis(System.currentTimeMillis() / 1000 * 1000);
+        ClusterMetric metric = new ClusterMetric(2, 1000);
+        long leasedWindowStart = metric.currentWindowStart();
+        Assert.assertEquals(10, metric.tryLeasePass(10, 30));
+
+        // Returned after the window rotates, but the leasing bucket is still in the interval.
+        sleep(500);
+        metric.add(ClusterFlowEvent.PASS, 5);
+        Assert.assertEquals(4, metric.refundPass(leasedWindowStart, 4));
+        Assert.assertEquals(6 + 5, metric.getSum(ClusterFlowEvent.PASS));
+        Assert.assertEquals(5, metric.getCurrentCount(ClusterFlowEvent.PASS));
+        // Clamped against the pass count of the leasing bucket.
+        Assert.assertEquals(6, metric.refundPass(leasedWindowStart, 100));
+        Assert.assertEquals(5, metric.getSum(ClusterFlowEvent.PASS));
+
+        // The leasing bucket has slid out, passes of the current bucket must be kept.
+        leasedWindowStart = metric.currentWindowStart();
+        Assert.assertEquals(3, metric.tryLeasePass(3, 30));
+        sleep(1000);
+        metric.add(ClusterFlowEvent.PASS, 2);
+        Assert.assertEquals(0, metric.refundPass(leasedWindowStart, 3));
+        Assert.assertEquals(2, metric.getCurrentCount(ClusterFlowEvent.PASS));
+    }
+
+    @Test
+    public void testConcurrentTryAcquirePassNotOverAdmitted() throws Exception {
+        setCurrentMillis(System.currentTimeMillis());
+        final ClusterMetric metric = new ClusterMetric(10, 1000);
+        final int threshold = 100;
+        final int nThreads = 32;
+        final int times = 20;
+        final AtomicInteger passed = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(nThreads);
+        for (int i = 0; i < nThreads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < times; j++) {
+                            if (metric.tryAcquirePass(1, threshold) >= 0) {
+                                passed.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException ignore) {
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        latch.await();
+
+        Assert.assertEquals(threshold, passed.get());
+        Assert.assertEquals(threshold, metric.getSum(ClusterFlowEvent.PASS));
+    }
 }
@@ -0,0 +1,77 @@
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link FlowBatchRequestDataDecoder} and {@link FlowBatchResponseDataWriter}.
+ */
+public class FlowBatchRequestDataDecoderTest {
+
+    @Test
+    public void testDecodeBatchRequest() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(2);
+        buf.writeInt(11).writeLong(101L).writeInt(1).writeBoolean(false);
+        buf.writeInt(12).writeLong(102L).writeInt(3).writeBoolean(true);
+
+        FlowBatchRequestData data = new FlowBatchRequestDataDecoder().decode(buf);
+        assertThat(data).isNotNull();
+        assertThat(data.getRequests()).hasSize(2);
+
+        ClusterRequest<FlowRequestData> second = data.getRequests().get(1);
+        assertThat(second.getId()).isEqualTo(12);
+        assertThat(second.getType()).isEqualTo(ClusterConstants.MSG_TYPE_FLOW);
+        assertThat(second.getData().getFlowId()).isEqualTo(102L);
+        assertThat(second.getData().getCount()).isEqualTo(3);
+        assertThat(second.getData().isPriority()).isTrue();
+        assertThat(buf.readableBytes()).isZero();
+
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeTruncatedBatchRequest() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(2);
+        buf.writeInt(11).writeLong(101L).writeInt(1).writeBoolean(false);
+
+        assertThat(new FlowBatchRequestDataDecoder().decode(buf)).isNull();
+        buf.release();
+    }
+
+    @Test
+    public void testWriteBatchResponse() {
+        FlowBatchResponseData data = new FlowBatchResponseData()
+            .addResponse(new ClusterResponse<>(11, ClusterConstants.MSG_TYPE_FLOW, 0,
+                new FlowTokenResponseData().setRemainingCount(5).setWaitInMs(0)))
+            .addResponse(new ClusterResponse<>(12, ClusterConstants.MSG_TYPE_FLOW, 1,
+                new FlowTokenResponseData().setRemainingCount(0).setWaitInMs(20)));
+        ByteBuf buf = Unpooled.buffer();
+        new FlowBatchResponseDataWriter().writeTo(data, buf);
+
+        assertThat(buf.readUnsignedShort()).isEqualTo(2);
+        assertThat(buf.readInt()).isEqualTo(11);
+        assertThat(buf.readByte()).isEqualTo((byte) 0);
+        assertThat(buf.readInt()).isEqualTo(5);
+        assertThat(buf.readInt()).isEqualTo(0);
+        assertThat(buf.readInt()).isEqualTo(12);
+        assertThat(buf.readByte()).isEqualTo((byte) 1);
+        assertThat(buf.readInt()).isEqualTo(0);
+        assertThat(buf.readInt()).isEqualTo(20);
+        assertThat(buf.readableBytes()).isZero();
+
+        buf.release();
+    }
+}
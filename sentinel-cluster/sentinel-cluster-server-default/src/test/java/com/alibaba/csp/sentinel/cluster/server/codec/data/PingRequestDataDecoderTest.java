@@ -0,0 +1,46 @@
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PingRequestDataDecoderTest {
+
+    @Test
+    public void testDecodeWithClientId() {
+        ByteBuf buf = Unpooled.buffer();
+        writeString(buf, "app-namespace");
+        writeString(buf, "client-a");
+
+        PingRequestData data = new PingRequestDataDecoder().decode(buf);
+        assertNotNull(data);
+        assertEquals("app-namespace", data.getNamespace());
+        assertEquals("client-a", data.getClientId());
+
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeWithoutClientId() {
+        // Ping from clients of older versions only carries the namespace.
+        ByteBuf buf = Unpooled.buffer();
+        writeString(buf, "app-namespace");
+
+        PingRequestData data = new PingRequestDataDecoder().decode(buf);
+        assertNotNull(data);
+        assertEquals("app-namespace", data.getNamespace());
+        assertNull(data.getClientId());
+
+        buf.release();
+    }
+
+    private void writeString(ByteBuf buf, String value) {
+        byte[] bytes = value.getBytes();
+        buf.writeInt(bytes.length);
+        buf.writeBytes(bytes);
+    }
+}
@@ -31,4 +31,44 @@ public class ConnectionGroupTest {
         group.removeConnection(address3);
         assertEquals(1, group.getConnectedCount());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testConnectionsOfSameClientCountedOnce() {
+        ConnectionGroup group = new ConnectionGroup("group");
+        int poolSize = 4;
+        for (int i = 0; i < poolSize; i++) {
+            group.addConnection("12.23.34.45:" + (5000 + i), "client-a");
+        }
+        assertEquals(1, group.getConnectedCount());
+        assertEquals(poolSize, group.getConnectionSet().size());
+
+        group.addConnection("12.23.34.46:5000", "client-b");
+        // Connections of clients without id are counted by address.
+        group.addConnection("12.23.34.47:5000");
+        assertEquals(3, group.getConnectedCount());
+
+        for (int i = 0; i < poolSize - 1; i++) {
+            group.removeConnection("12.23.34.45:" + (5000 + i));
+            assertEquals(3, group.getConnectedCount());
+        }
+        group.removeConnection("12.23.34.45:" + (5000 + poolSize - 1));
+        assertEquals(2, group.getConnectedCount());
+        // Removing an unknown or already removed connection changes nothing.
+        group.removeConnection("12.23.34.45:5000");
+        assertEquals(2, group.getConnectedCount());
+    }
+
+    @Test
+    public void testConnectionReRegisteredWithClientId() {
+        ConnectionGroup group = new ConnectionGroup("group");
+        group.addConnection("12.23.34.45:5000", "client-a");
+        group.addConnection("12.23.34.45:5001", "client-a");
+        group.addConnection("12.23.34.45:5001", "client-a");
+        assertEquals(1, group.getConnectedCount());
+
+        group.addConnection("12.23.34.45:5001", "client-b");
+        assertEquals(2, group.getConnectedCount());
+        group.removeConnection("12.23.34.45:5000");
+        assertEquals(1, group.getConnectedCount());
+    }
+}
@@ -80,6 +80,7 @@ public final class Constants {
     public static final int ORDER_AUTHORITY_SLOT = -6000;
     public static final int ORDER_SYSTEM_SLOT = -5000;
     public static final int ORDER_FLOW_SLOT = -2000;
+    public static final int ORDER_CONCURRENCY_LIMIT_SLOT = -1800;
     public static final int ORDER_DEFAULT_CIRCUIT_BREAKER_SLOT = -1500;
     public static final int ORDER_DEGRADE_SLOT = -1000;
 
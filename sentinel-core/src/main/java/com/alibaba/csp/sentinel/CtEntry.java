@@ -49,7 +49,7 @@ class CtEntry extends Entry {
         setUpEntryFor(context);
     }
 
-    private void setUpEntryFor(Context context) {
+    void setUpEntryFor(Context context) {
         // The entry should not be associated to NullContext.
         if (context instanceof NullContext) {
             return;
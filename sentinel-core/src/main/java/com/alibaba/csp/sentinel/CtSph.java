@@ -16,13 +16,15 @@
 package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.context.NullContext;
+import com.alibaba.csp.sentinel.node.NodeRegistry;
 import com.alibaba.csp.sentinel.slotchain.MethodResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
@@ -31,6 +33,7 @@ import com.alibaba.csp.sentinel.slotchain.SlotChainProvider;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
+import com.alibaba.csp.sentinel.util.function.Function;
 
 /**
  * {@inheritDoc}
@@ -48,9 +51,26 @@ public class CtSph implements Sph {
 	 * Same resource({@link ResourceWrapper#equals(Object)}) will share the same
 	 * {@link ProcessorSlotChain}, no matter in which {@link Context}.
 	 */
-	private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap = new HashMap<ResourceWrapper, ProcessorSlotChain>();
+	private static final NodeRegistry<ResourceWrapper, ProcessorSlotChain> chainMap = new NodeRegistry<>(
+		SentinelConfig.maxSlotChainSize());
 
-	private static final Object LOCK = new Object();
+	/**
+	 * Incremented whenever a slot chain is removed, so that holders which could not get a slot chain as the
+	 * amount of slot chains exceeded the threshold (e.g. {@link ResourceHandle}s) could tell when to try again.
+	 * Removed chains themselves are marked by {@link ProcessorSlotChain#markRemoved()}.
+	 */
+	private static final AtomicInteger chainGeneration = new AtomicInteger();
+
+	private static volatile boolean chainLimitWarned = false;
+
+	private static final Function<ResourceWrapper, ProcessorSlotChain> CHAIN_FACTORY
+		= new Function<ResourceWrapper, ProcessorSlotChain>() {
+		@Override
+		public ProcessorSlotChain apply(ResourceWrapper resourceWrapper) {
+			//初始化责任链
+			return SlotChainProvider.newSlotChain();
+		}
+	};
 
 	private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
 		AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
@@ -137,6 +157,46 @@ public class CtSph implements Sph {
 		return e;
 	}
 
+	/**
+	 * Do all {@link Rule}s checking about the resource of a pre-resolved {@link ResourceHandle}.
+	 * The cached slot chain of the handle is used directly, and entries are recycled per thread.
+	 *
+	 * @param handle      the resource handle
+	 * @param count       tokens needed
+	 * @param prioritized whether the entry is prioritized
+	 * @param args        arguments of user method call
+	 * @return {@link Entry} represents this call
+	 * @throws BlockException if any rule's threshold is exceeded
+	 * @since 2.0.0
+	 */
+	Entry entryWithHandle(ResourceHandle handle, int count, boolean prioritized, Object... args) throws BlockException {
+		ResourceWrapper resourceWrapper = handle.getResourceWrapper();
+		Context context = ContextUtil.getContext();
+		if (context instanceof NullContext) {
+			return new CtEntry(resourceWrapper, null, context);
+		}
+		if (context == null) {
+			// Reuse the exited default context of current thread.
+			context = InternalContextUtil.internalEnterDefault();
+		}
+
+		if (!Constants.ON) { return new CtEntry(resourceWrapper, null, context); }
+		ProcessorSlot<Object> chain = handle.getChain();
+		if (chain == null) { return new CtEntry(resourceWrapper, null, context); }
+
+		RecyclableEntry e = handle.acquireEntry(chain, context);
+		Entry ref = e.newRef();
+		try {
+			chain.entry(context, resourceWrapper, null, count, prioritized, args);
+		} catch (BlockException e1) {
+			e.exit(count, args);
+			throw e1;
+		} catch (Throwable e1) {
+			RecordLog.info("Sentinel unexpected exception", e1);
+		}
+		return ref;
+	}
+
 	/**
 	 * Do all {@link Rule}s checking about the resource.
 	 *
@@ -158,26 +218,41 @@ public class CtSph implements Sph {
 	}
 
 	//责任链的构建
-	ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
-		ProcessorSlotChain chain = chainMap.get(resourceWrapper);
-		if (chain == null) {
-			synchronized (LOCK) {
-				chain = chainMap.get(resourceWrapper);
-				if (chain == null) {
-					// Entry size limit.
-					if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) { return null; }
-					//初始化责任链
-					chain = SlotChainProvider.newSlotChain();
-					Map<ResourceWrapper, ProcessorSlotChain> newMap = new HashMap<ResourceWrapper, ProcessorSlotChain>(chainMap.size() + 1);
-					newMap.putAll(chainMap);
-					newMap.put(resourceWrapper, chain);
-					chainMap = newMap;
-				}
-			}
+	ProcessorSlotChain lookProcessChain(ResourceWrapper resourceWrapper) {
+		// Entry size limit: null is returned when the chain map is full.
+		ProcessorSlotChain chain = chainMap.getOrCreate(resourceWrapper, CHAIN_FACTORY);
+		if (chain == null && !chainLimitWarned) {
+			chainLimitWarned = true;
+			RecordLog.warn("[CtSph] Amount of slot chains exceeds the threshold {}, rules will not be checked for "
+				+ "new resources (e.g. {}). Consider enabling idle node eviction via {}", chainMap.size(),
+				resourceWrapper.getName(), SentinelConfig.NODE_IDLE_TTL);
 		}
 		return chain;
 	}
 
+	/**
+	 * Remove the slot chain of the resource, so that a new slot chain (with new statistic nodes) will be
+	 * created on next access. Rules of the resource are not affected.
+	 *
+	 * @param resourceWrapper the resource
+	 * @param chain           the slot chain expected to be removed
+	 * @return whether the slot chain is removed
+	 * @since 2.0.0
+	 */
+	public static boolean removeChain(ResourceWrapper resourceWrapper, ProcessorSlotChain chain) {
+		if (!chainMap.remove(resourceWrapper, chain)) {
+			return false;
+		}
+		chain.markRemoved();
+		chainGeneration.incrementAndGet();
+		chainLimitWarned = false;
+		return true;
+	}
+
+	static int chainGeneration() {
+		return chainGeneration.get();
+	}
+
 	/**
 	 * Get current size of created slot chains.
 	 *
@@ -194,7 +269,11 @@ public class CtSph implements Sph {
 	 * @since 0.2.0
 	 */
 	static void resetChainMap() {
+		for (ProcessorSlotChain chain : chainMap.asMap().values()) {
+			chain.markRemoved();
+		}
 		chainMap.clear();
+		chainGeneration.incrementAndGet();
 	}
 
 	/**
@@ -203,6 +282,16 @@ public class CtSph implements Sph {
 	 * @since 0.2.0
 	 */
 	static Map<ResourceWrapper, ProcessorSlotChain> getChainMap() {
+		return chainMap.asMap();
+	}
+
+	/**
+	 * Get the registry of created slot chains.
+	 *
+	 * @return the registry of created slot chains
+	 * @since 2.0.0
+	 */
+	public static NodeRegistry<ResourceWrapper, ProcessorSlotChain> getChainRegistry() {
 		return chainMap;
 	}
 
@@ -217,6 +306,10 @@ public class CtSph implements Sph {
 		static Context internalEnter(String name, String origin) {
 			return trueEnter(name, origin);
 		}
+
+		static Context internalEnterDefault() {
+			return trueEnterDefault();
+		}
 	}
 
 	@Override
@@ -308,6 +401,11 @@ public class CtSph implements Sph {
 		return entryWithPriority(resource, count, prioritized, args);
 	}
 
+	@Override
+	public ResourceHandle handle(String name, int resourceType, EntryType entryType) {
+		return new ResourceHandle(this, new StringResourceWrapper(name, entryType, resourceType));
+	}
+
 	@Override
 	public AsyncEntry asyncEntryWithType(String name, int resourceType, EntryType entryType, int count, boolean prioritized, Object[] args) throws BlockException {
 		StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
@@ -55,7 +55,7 @@ public abstract class Entry implements AutoCloseable {
 
     private static final Object[] OBJECTS0 = new Object[0];
 
-    private final long createTimestamp;
+    private long createTimestamp;
     private long completeTimestamp;
 
     private Node curNode;
@@ -74,6 +74,29 @@ public abstract class Entry implements AutoCloseable {
         this.createTimestamp = TimeUtil.currentTimeMillis();
     }
 
+    /**
+     * Reset the per-invocation state so that this entry could be reused for another invocation
+     * of the same resource. Only for recyclable entries.
+     */
+    void resetForReuse() {
+        this.createTimestamp = TimeUtil.currentTimeMillis();
+        this.completeTimestamp = 0;
+        this.curNode = null;
+        this.originNode = null;
+        this.error = null;
+        this.blockError = null;
+    }
+
+    /**
+     * Get the entry holding the per-invocation state (timestamps, nodes and errors) of this entry.
+     * Only references to recyclable entries hold no state of their own.
+     *
+     * @return the entry holding the state, which is this entry by default
+     */
+    Entry state() {
+        return this;
+    }
+
     public ResourceWrapper getResourceWrapper() {
         return resourceWrapper;
     }
@@ -128,41 +151,41 @@ public abstract class Entry implements AutoCloseable {
     public abstract Node getLastNode();
 
     public long getCreateTimestamp() {
-        return createTimestamp;
+        return state().createTimestamp;
     }
 
     public long getCompleteTimestamp() {
-        return completeTimestamp;
+        return state().completeTimestamp;
     }
 
     public Entry setCompleteTimestamp(long completeTimestamp) {
-        this.completeTimestamp = completeTimestamp;
+        state().completeTimestamp = completeTimestamp;
         return this;
     }
 
     public Node getCurNode() {
-        return curNode;
+        return state().curNode;
     }
 
     public void setCurNode(Node node) {
-        this.curNode = node;
+        state().curNode = node;
     }
 
     public BlockException getBlockError() {
-        return blockError;
+        return state().blockError;
     }
 
     public Entry setBlockError(BlockException blockError) {
-        this.blockError = blockError;
+        state().blockError = blockError;
         return this;
     }
 
     public Throwable getError() {
-        return error;
+        return state().error;
     }
 
     public void setError(Throwable error) {
-        this.error = error;
+        state().error = error;
     }
 
     /**
@@ -172,11 +195,11 @@ public abstract class Entry implements AutoCloseable {
      * {@link ContextUtil#enter(String name, String origin)}.
      */
     public Node getOriginNode() {
-        return originNode;
+        return state().originNode;
     }
 
     public void setOriginNode(Node originNode) {
-        this.originNode = originNode;
+        state().originNode = originNode;
     }
 
     /**
@@ -0,0 +1,168 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.util.function.BiConsumer;
+
+/**
+ * A {@link CtEntry} that returns itself to the per-thread pool of its {@link ResourceHandle}
+ * once it has been exited successfully, so that it could be reused by the next invocation.
+ *
+ * <p>Recyclable entries are never handed out directly. Each invocation gets a {@link Ref} bound to the
+ * generation of the entry, which is bumped once the entry is exited, so that a stale reference kept after
+ * {@link #exit()} could not touch the invocation reusing the entry.</p>
+ *
+ * @since 2.0.0
+ */
+final class RecyclableEntry extends CtEntry {
+
+    private final Pool pool;
+
+    /**
+     * Generation of the entry, bumped on each exit to poison the references of the previous invocation.
+     */
+    private int generation;
+
+    private RecyclableEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context,
+                            Pool pool) {
+        super(resourceWrapper, chain, context);
+        this.pool = pool;
+    }
+
+    private void reuse(ProcessorSlot<Object> chain, Context context) {
+        resetForReuse();
+        this.parent = null;
+        this.child = null;
+        this.exitHandlers = null;
+        this.chain = chain;
+        this.context = context;
+
+        setUpEntryFor(context);
+    }
+
+    @Override
+    public void exit(int count, Object... args) throws ErrorEntryFreeException {
+        if (context == null) {
+            // Duplicate exit, the entry has been recycled already.
+            return;
+        }
+        trueExit(count, args);
+        generation++;
+        pool.release(this);
+    }
+
+    /**
+     * Get a reference to the current invocation of this entry.
+     *
+     * @return the reference, which turns into a no-op once this entry is exited
+     */
+    Ref newRef() {
+        return new Ref(this, generation);
+    }
+
+    /**
+     * Reference to a specific invocation of a recyclable entry, which is handed out to the caller.
+     * The state and all operations are those of the entry while the invocation is alive; afterwards exit is
+     * a no-op and the state is the reference's own.
+     */
+    static final class Ref extends Entry {
+
+        private final RecyclableEntry entry;
+        private final int generation;
+
+        private Ref(RecyclableEntry entry, int generation) {
+            super(entry.getResourceWrapper());
+            this.entry = entry;
+            this.generation = generation;
+        }
+
+        /**
+         * @return the entry if the invocation is alive, otherwise null
+         */
+        private RecyclableEntry live() {
+            return entry.generation == generation ? entry : null;
+        }
+
+        @Override
+        public void exit(int count, Object... args) throws ErrorEntryFreeException {
+            RecyclableEntry e = live();
+            if (e != null) {
+                e.exit(count, args);
+            }
+        }
+
+        @Override
+        protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+            RecyclableEntry e = live();
+            return e == null ? null : e.trueExit(count, args);
+        }
+
+        @Override
+        public Node getLastNode() {
+            RecyclableEntry e = live();
+            return e == null ? null : e.getLastNode();
+        }
+
+        @Override
+        public void whenTerminate(BiConsumer<Context, Entry> handler) {
+            RecyclableEntry e = live();
+            if (e != null) {
+                e.whenTerminate(handler);
+            }
+        }
+
+        @Override
+        Entry state() {
+            RecyclableEntry e = live();
+            return e == null ? this : e;
+        }
+    }
+
+    /**
+     * Per-thread stack of idle entries for a specific resource.
+     */
+    static final class Pool {
+
+        private final Thread owner = Thread.currentThread();
+        private final RecyclableEntry[] entries;
+        private int size = 0;
+
+        Pool(int capacity) {
+            this.entries = new RecyclableEntry[capacity];
+        }
+
+        RecyclableEntry acquire(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+            if (size == 0) {
+                return new RecyclableEntry(resourceWrapper, chain, context, this);
+            }
+            RecyclableEntry entry = entries[--size];
+            entries[size] = null;
+            entry.reuse(chain, context);
+            return entry;
+        }
+
+        void release(RecyclableEntry entry) {
+            // Entries exited from other threads or beyond the capacity are simply left to GC.
+            if (size < entries.length && Thread.currentThread() == owner) {
+                entries[size++] = entry;
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+/**
+ * <p>A pre-resolved handle of a protected resource, created via {@link SphU#handle(String)}.</p>
+ * <p>
+ * The handle caches the {@link ResourceWrapper}, the slot chain and the {@link ClusterNode} of the resource,
+ * and recycles the entries it creates, so that the steady-state entry/exit pair on hot resources
+ * only allocates a small reference to the recycled entry per invocation. Handles are thread-safe
+ * and are expected to be created once and kept (e.g. in a static field):
+ * </p>
+ *
+ * <pre>
+ *  private static final ResourceHandle HANDLE = SphU.handle("abc");
+ *
+ *  public void foo() {
+ *     Entry entry = null;
+ *     try {
+ *        entry = HANDLE.entry();
+ *        // resource that need protection
+ *     } catch (BlockException blockException) {
+ *         // when goes there, it is blocked
+ *     } finally {
+ *         if (entry != null) {
+ *             entry.exit();
+ *         }
+ *     }
+ *  }
+ * </pre>
+ *
+ * <p>
+ * Note that the entry returned by the handle is recycled after {@link Entry#exit()}. Calls on it after exit
+ * do not affect the invocation reusing the entry, but it should NOT be referenced after exit.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public final class ResourceHandle {
+
+    private static final Object[] OBJECTS0 = new Object[0];
+
+    /**
+     * Max amount of idle entries kept for each thread, which covers the common recursive invocations.
+     */
+    private static final int MAX_IDLE_ENTRIES_PER_THREAD = 4;
+
+    private final CtSph sph;
+    private final ResourceWrapper resourceWrapper;
+
+    private volatile ResolvedChain chain;
+    private volatile ClusterNode clusterNode;
+
+    private final ThreadLocal<RecyclableEntry.Pool> entryPool = new ThreadLocal<RecyclableEntry.Pool>() {
+        @Override
+        protected RecyclableEntry.Pool initialValue() {
+            return new RecyclableEntry.Pool(MAX_IDLE_ENTRIES_PER_THREAD);
+        }
+    };
+
+    ResourceHandle(CtSph sph, ResourceWrapper resourceWrapper) {
+        this.sph = sph;
+        this.resourceWrapper = resourceWrapper;
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource.
+     *
+     * @return the {@link Entry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     */
+    public Entry entry() throws BlockException {
+        return sph.entryWithHandle(this, 1, false, OBJECTS0);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource.
+     *
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @return the {@link Entry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     */
+    public Entry entry(int batchCount) throws BlockException {
+        return sph.entryWithHandle(this, batchCount, false, OBJECTS0);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource.
+     *
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     */
+    public Entry entry(int batchCount, Object... args) throws BlockException {
+        return sph.entryWithHandle(this, batchCount, false, args);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource with priority.
+     *
+     * @param batchCount  the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param prioritized whether the entry is prioritized
+     * @return the {@link Entry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     */
+    public Entry entryWithPriority(int batchCount, boolean prioritized) throws BlockException {
+        return sph.entryWithHandle(this, batchCount, prioritized, OBJECTS0);
+    }
+
+    public ResourceWrapper getResourceWrapper() {
+        return resourceWrapper;
+    }
+
+    /**
+     * Get the {@link ClusterNode} of the resource.
+     *
+     * @return the cluster node, or null if the resource has never been entered
+     */
+    public ClusterNode getClusterNode() {
+        ClusterNode node = clusterNode;
+        if (node == null || node.isEvicted()) {
+            node = ClusterBuilderSlot.getClusterNodeMap().get(resourceWrapper);
+            clusterNode = node;
+        }
+        return node;
+    }
+
+    /**
+     * Get the slot chain of the resource, which will be resolved at the first time.
+     *
+     * The slot chain will be resolved again if it has been removed (e.g. evicted when idle). If there was
+     * no slot chain as the amount of slot chains exceeded the threshold, it is resolved again only after
+     * any slot chain has been removed.
+     *
+     * @return the slot chain, or null if the amount of slot chains exceeds the threshold
+     */
+    ProcessorSlot<Object> getChain() {
+        ResolvedChain c = chain;
+        if (c != null) {
+            if (c.chain != null ? !c.chain.isRemoved() : c.generation == CtSph.chainGeneration()) {
+                return c.chain;
+            }
+        }
+        // Read the generation before the lookup, so that a chain removed meanwhile is not missed.
+        int generation = CtSph.chainGeneration();
+        c = new ResolvedChain(sph.lookProcessChain(resourceWrapper), generation);
+        chain = c;
+        return c.chain;
+    }
+
+    RecyclableEntry acquireEntry(ProcessorSlot<Object> chain, Context context) {
+        return entryPool.get().acquire(resourceWrapper, chain, context);
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceHandle{" +
+            "resourceWrapper=" + resourceWrapper +
+            '}';
+    }
+
+    private static final class ResolvedChain {
+        private final ProcessorSlotChain chain;
+        /**
+         * Generation of the slot chains when the chain was resolved, only checked if there was no chain.
+         */
+        private final int generation;
+
+        ResolvedChain(ProcessorSlotChain chain, int generation) {
+            this.chain = chain;
+            this.generation = generation;
+        }
+    }
+}
@@ -193,4 +193,18 @@ public interface Sph extends SphResourceTypeSupport {
      */
     Entry entryWithPriority(String name, EntryType trafficType, int batchCount, boolean prioritized, Object... args)
         throws BlockException;
+
+    /**
+     * Create a pre-resolved handle of the protected resource. Entries created by the handle
+     * reuse the resolved resource and slot chain, and are recycled after exit.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     * @since 2.0.0
+     */
+    ResourceHandle handle(String name, int resourceType, EntryType trafficType);
 }
@@ -365,4 +365,45 @@ public class SphU {
                                         Object[] args) throws BlockException {
         return Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
     }
+
+    /**
+     * Create a pre-resolved handle of the given resource. The handle should be created once and reused,
+     * entries created by the handle are recycled after exit. See {@link ResourceHandle}.
+     *
+     * @param name the unique name of the protected resource
+     * @return the handle of the resource
+     * @since 2.0.0
+     */
+    public static ResourceHandle handle(String name) {
+        return Env.sph.handle(name, ResourceTypeConstants.COMMON, EntryType.OUT);
+    }
+
+    /**
+     * Create a pre-resolved handle of the given resource. See {@link ResourceHandle}.
+     *
+     * @param name        the unique name of the protected resource
+     * @param trafficType the traffic type (inbound, outbound or internal). This is used
+     *                    to mark whether it can be blocked when the system is unstable,
+     *                    only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     * @since 2.0.0
+     */
+    public static ResourceHandle handle(String name, EntryType trafficType) {
+        return Env.sph.handle(name, ResourceTypeConstants.COMMON, trafficType);
+    }
+
+    /**
+     * Create a pre-resolved handle of the given resource. See {@link ResourceHandle}.
+     *
+     * @param name         the unique name of the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     * @since 2.0.0
+     */
+    public static ResourceHandle handle(String name, int resourceType, EntryType trafficType) {
+        return Env.sph.handle(name, resourceType, trafficType);
+    }
 }
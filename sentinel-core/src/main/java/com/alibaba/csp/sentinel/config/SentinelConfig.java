@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.config;
 
+import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -61,6 +62,16 @@ public final class SentinelConfig {
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
     public static final String METRIC_FLUSH_INTERVAL = "csp.sentinel.metric.flush.interval";
+    public static final String LOCK_FREE_WINDOW_ROTATION = "csp.sentinel.statistic.lock.free.rotation";
+    public static final String METRIC_FILE_FORMAT = "csp.sentinel.metric.file.format";
+    public static final String METRIC_RESOURCE_INDEX = "csp.sentinel.metric.file.resource.index";
+    public static final String METRIC_WRITE_QUEUE_SIZE = "csp.sentinel.metric.write.queue.size";
+    public static final String METRIC_FILE_FORCE_INTERVAL = "csp.sentinel.metric.file.force.interval";
+    public static final String NODE_IDLE_TTL = "csp.sentinel.statistic.node.idle.ttl";
+    public static final String MAX_SLOT_CHAIN_SIZE = "csp.sentinel.slot.chain.max.size";
+    public static final String SPARSE_MINUTE_METRIC_THRESHOLD = "csp.sentinel.statistic.minute.sparse.threshold";
+    public static final String SYSTEM_STATUS_INTERVAL = "csp.sentinel.system.status.interval.ms";
+    public static final String SYSTEM_CGROUP_ROOT = "csp.sentinel.system.cgroup.root";
 
     public static final String DEFAULT_CHARSET = "UTF-8";
     public static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
@@ -68,6 +79,16 @@ public final class SentinelConfig {
     public static final int DEFAULT_COLD_FACTOR = 3;
     public static final int DEFAULT_STATISTIC_MAX_RT = 5000;
     public static final long DEFAULT_METRIC_FLUSH_INTERVAL = 1L;
+    public static final boolean DEFAULT_LOCK_FREE_WINDOW_ROTATION = false;
+    public static final String METRIC_FILE_FORMAT_TEXT = "text";
+    public static final String METRIC_FILE_FORMAT_BINARY = "binary";
+    public static final boolean DEFAULT_METRIC_RESOURCE_INDEX = true;
+    public static final int DEFAULT_METRIC_WRITE_QUEUE_SIZE = 60;
+    public static final long DEFAULT_METRIC_FILE_FORCE_INTERVAL = 1000;
+    public static final long DEFAULT_NODE_IDLE_TTL = 0;
+    public static final long DEFAULT_SPARSE_MINUTE_METRIC_THRESHOLD = 10;
+    public static final long DEFAULT_SYSTEM_STATUS_INTERVAL = 1000;
+    public static final String DEFAULT_SYSTEM_CGROUP_ROOT = "/sys/fs/cgroup";
 
     static {
         try {
@@ -259,6 +280,218 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * <p>Whether the sliding windows of metric buckets ({@code BucketLeapArray} and the occupiable ones)
+     * rotate deprecated buckets via CAS instead of resetting them in place under a lock. Other sliding
+     * windows always reset their buckets in place.</p>
+     *
+     * @return true if lock-free bucket rotation is enabled
+     * @since 2.0.0
+     */
+    public static boolean lockFreeWindowRotation() {
+        String v = props.get(LOCK_FREE_WINDOW_ROTATION);
+        if (StringUtil.isBlank(v)) {
+            return DEFAULT_LOCK_FREE_WINDOW_ROTATION;
+        }
+        return Boolean.parseBoolean(v.trim());
+    }
+
+    /**
+     * <p>Get the format of metric log files, either {@link #METRIC_FILE_FORMAT_TEXT} (by default)
+     * or {@link #METRIC_FILE_FORMAT_BINARY}.</p>
+     *
+     * @return the metric file format
+     * @since 2.0.0
+     */
+    public static String metricFileFormat() {
+        String v = props.get(METRIC_FILE_FORMAT);
+        if (StringUtil.isBlank(v)) {
+            return METRIC_FILE_FORMAT_TEXT;
+        }
+        v = v.trim();
+        if (!METRIC_FILE_FORMAT_TEXT.equalsIgnoreCase(v) && !METRIC_FILE_FORMAT_BINARY.equalsIgnoreCase(v)) {
+            RecordLog.warn("[SentinelConfig] Invalid metric file format: {}, using the default value instead: "
+                + METRIC_FILE_FORMAT_TEXT, v);
+            return METRIC_FILE_FORMAT_TEXT;
+        }
+        return v.toLowerCase();
+    }
+
+    public static boolean isBinaryMetricFileFormat() {
+        return METRIC_FILE_FORMAT_BINARY.equals(metricFileFormat());
+    }
+
+    /**
+     * <p>Whether a resource index is written alongside each metric file, so that the metrics of
+     * a single resource could be searched without scanning the whole file.</p>
+     *
+     * @return true if the resource index of metric files is enabled
+     * @since 2.0.0
+     */
+    public static boolean metricResourceIndexEnabled() {
+        String v = props.get(METRIC_RESOURCE_INDEX);
+        if (StringUtil.isBlank(v)) {
+            return DEFAULT_METRIC_RESOURCE_INDEX;
+        }
+        return Boolean.parseBoolean(v.trim());
+    }
+
+    /**
+     * <p>Capacity of the queue of metric snapshots waiting to be written into metric files.
+     * Snapshots are dropped when the queue is full.</p>
+     *
+     * @return capacity of the metric write queue
+     * @since 2.0.0
+     */
+    public static int metricWriteQueueSize() {
+        String v = props.get(METRIC_WRITE_QUEUE_SIZE);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return DEFAULT_METRIC_WRITE_QUEUE_SIZE;
+            }
+            int size = Integer.parseInt(v.trim());
+            if (size <= 0) {
+                throw new IllegalArgumentException("queue size should be positive");
+            }
+            return size;
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid metricWriteQueueSize value: {}, using the default value instead: "
+                    + DEFAULT_METRIC_WRITE_QUEUE_SIZE, v, throwable);
+            return DEFAULT_METRIC_WRITE_QUEUE_SIZE;
+        }
+    }
+
+    /**
+     * <p>Minimum interval (in milliseconds) between forcing written metrics to the storage device.
+     * A non-positive value disables forcing, which leaves it to the operating system.</p>
+     *
+     * @return the interval of forcing metric files in milliseconds
+     * @since 2.0.0
+     */
+    public static long metricFileForceIntervalMs() {
+        String v = props.get(METRIC_FILE_FORCE_INTERVAL);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return DEFAULT_METRIC_FILE_FORCE_INTERVAL;
+            }
+            return Long.parseLong(v.trim());
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid metricFileForceInterval value: {}, using the default value "
+                    + "instead: " + DEFAULT_METRIC_FILE_FORCE_INTERVAL, v, throwable);
+            return DEFAULT_METRIC_FILE_FORCE_INTERVAL;
+        }
+    }
+
+    /**
+     * <p>Time (in milliseconds) after which the slot chain and statistic nodes of a resource that has not been
+     * accessed are evicted. Rules of evicted resources are kept, and the resource will be rebuilt (with empty
+     * statistics) on next access. A non-positive value disables eviction.</p>
+     *
+     * @return idle TTL of the resources in milliseconds
+     * @since 2.0.0
+     */
+    public static long nodeIdleTtlMs() {
+        String v = props.get(NODE_IDLE_TTL);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return DEFAULT_NODE_IDLE_TTL;
+            }
+            return Long.parseLong(v.trim());
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid nodeIdleTtl value: {}, using the default value instead: "
+                    + DEFAULT_NODE_IDLE_TTL, v, throwable);
+            return DEFAULT_NODE_IDLE_TTL;
+        }
+    }
+
+    /**
+     * <p>Max amount of slot chains (i.e. resources). Rules are not checked for resources beyond the limit.</p>
+     *
+     * @return max amount of slot chains
+     * @since 2.0.0
+     */
+    public static int maxSlotChainSize() {
+        String v = props.get(MAX_SLOT_CHAIN_SIZE);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return Constants.MAX_SLOT_CHAIN_SIZE;
+            }
+            int size = Integer.parseInt(v.trim());
+            if (size <= 0) {
+                throw new IllegalArgumentException("max slot chain size should be positive");
+            }
+            return size;
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid maxSlotChainSize value: {}, using the default value instead: "
+                    + Constants.MAX_SLOT_CHAIN_SIZE, v, throwable);
+            return Constants.MAX_SLOT_CHAIN_SIZE;
+        }
+    }
+
+    /**
+     * <p>Pass and block count within a second from which the minute metric of a node is upgraded from the sparse
+     * ring (which only holds buckets of the seconds with traffic) to the full sliding window.
+     * A non-positive value disables the sparse ring, so that the full sliding window is used from the start.</p>
+     *
+     * @return the QPS threshold of upgrading the minute metric
+     * @since 2.0.0
+     */
+    public static long sparseMinuteMetricThreshold() {
+        String v = props.get(SPARSE_MINUTE_METRIC_THRESHOLD);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return DEFAULT_SPARSE_MINUTE_METRIC_THRESHOLD;
+            }
+            return Long.parseLong(v.trim());
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid sparseMinuteMetricThreshold value: {}, using the default value "
+                    + "instead: " + DEFAULT_SPARSE_MINUTE_METRIC_THRESHOLD, v, throwable);
+            return DEFAULT_SPARSE_MINUTE_METRIC_THRESHOLD;
+        }
+    }
+
+    /**
+     * <p>Interval (in milliseconds) of sampling the system status (CPU usage and load) for system rules.
+     * A shorter interval (e.g. 100 ms) lets system protection react to CPU spikes faster.</p>
+     *
+     * @return the sampling interval of system status in milliseconds
+     * @since 2.0.0
+     */
+    public static long systemStatusIntervalMs() {
+        String v = props.get(SYSTEM_STATUS_INTERVAL);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return DEFAULT_SYSTEM_STATUS_INTERVAL;
+            }
+            long interval = Long.parseLong(v.trim());
+            if (interval <= 0) {
+                throw new IllegalArgumentException("system status interval should be positive");
+            }
+            return interval;
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid systemStatusInterval value: {}, using the default value "
+                    + "instead: " + DEFAULT_SYSTEM_STATUS_INTERVAL, v, throwable);
+            return DEFAULT_SYSTEM_STATUS_INTERVAL;
+        }
+    }
+
+    /**
+     * <p>Directory of the cgroup, from which the CPU and memory metrics of the container are read for
+     * system rules. It overrides the cgroup of the process, which is resolved from {@code /proc/self/cgroup}
+     * and {@code /proc/self/mountinfo} by default.</p>
+     *
+     * @return the configured directory of the cgroup (the controller directories for cgroup v1), or null if
+     * not configured
+     * @since 2.0.0
+     */
+    public static String systemCgroupRoot() {
+        String v = props.get(SYSTEM_CGROUP_ROOT);
+        if (StringUtil.isBlank(v)) {
+            return null;
+        }
+        return v.trim();
+    }
+
     /**
      * Function for resolving project name. The order is elaborated below:
      *
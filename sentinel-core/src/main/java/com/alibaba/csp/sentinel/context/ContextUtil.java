@@ -15,10 +15,6 @@
  */
 package com.alibaba.csp.sentinel.context;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
-
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.SphO;
@@ -27,6 +23,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.NodeRegistry;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
 
@@ -50,11 +47,15 @@ public class ContextUtil {
     private static ThreadLocal<Context> contextHolder = new ThreadLocal<>();
 
     /**
-     * Holds all {@link EntranceNode}. Each {@link EntranceNode} is associated with a distinct context name.
+     * The default context last used by current thread, which could be reused once it has been exited.
      */
-    private static volatile Map<String, DefaultNode> contextNameNodeMap = new HashMap<>();
+    private static final ThreadLocal<Context> recycledDefaultContextHolder = new ThreadLocal<>();
 
-    private static final ReentrantLock LOCK = new ReentrantLock();
+    /**
+     * Holds all {@link EntranceNode}. Each {@link EntranceNode} is associated with a distinct context name.
+     */
+    private static final NodeRegistry<String, DefaultNode> contextNameNodeMap = new NodeRegistry<>(
+        Constants.MAX_CONTEXT_NAME_SIZE + 1);
     private static final Context NULL_CONTEXT = new NullContext();
 
     static {
@@ -73,11 +74,9 @@ public class ContextUtil {
      * Not thread-safe, only for test.
      */
     static void resetContextMap() {
-        if (contextNameNodeMap != null) {
-            RecordLog.warn("Context map cleared and reset to initial state");
-            contextNameNodeMap.clear();
-            initDefaultContext();
-        }
+        RecordLog.warn("Context map cleared and reset to initial state");
+        contextNameNodeMap.clear();
+        initDefaultContext();
     }
 
     /**
@@ -120,34 +119,18 @@ public class ContextUtil {
     protected static Context trueEnter(String name, String origin) {
         Context context = contextHolder.get();
         if (context == null) {
-            Map<String, DefaultNode> localCacheNameMap = contextNameNodeMap;
-            DefaultNode node = localCacheNameMap.get(name);
+            DefaultNode node = contextNameNodeMap.get(name);
             if (node == null) {
-                if (localCacheNameMap.size() > Constants.MAX_CONTEXT_NAME_SIZE) {
+                if (contextNameNodeMap.isFull()) {
                     setNullContext();
                     return NULL_CONTEXT;
-                } else {
-                    LOCK.lock();
-                    try {
-                        node = contextNameNodeMap.get(name);
-                        if (node == null) {
-                            if (contextNameNodeMap.size() > Constants.MAX_CONTEXT_NAME_SIZE) {
-                                setNullContext();
-                                return NULL_CONTEXT;
-                            } else {
-                                node = new EntranceNode(new StringResourceWrapper(name, EntryType.IN), null);
-                                // Add entrance node.
-                                Constants.ROOT.addChild(node);
-
-                                Map<String, DefaultNode> newMap = new HashMap<>(contextNameNodeMap.size() + 1);
-                                newMap.putAll(contextNameNodeMap);
-                                newMap.put(name, node);
-                                contextNameNodeMap = newMap;
-                            }
-                        }
-                    } finally {
-                        LOCK.unlock();
-                    }
+                }
+                EntranceNode newNode = new EntranceNode(new StringResourceWrapper(name, EntryType.IN), null);
+                node = contextNameNodeMap.putIfAbsent(name, newNode);
+                if (node == null) {
+                    node = newNode;
+                    // Add entrance node.
+                    Constants.ROOT.addChild(node);
                 }
             }
             context = new Context(node, name);
@@ -158,6 +141,33 @@ public class ContextUtil {
         return context;
     }
 
+    /**
+     * Enter the default context like {@code trueEnter(Constants.CONTEXT_DEFAULT_NAME, "")}, but reuse the
+     * default context instance of current thread if it has been exited, so that no context is allocated
+     * per invocation. Only for allocation-free internal entry paths.
+     *
+     * @return the invocation context of the current thread
+     * @since 2.0.0
+     */
+    protected static Context trueEnterDefault() {
+        Context context = contextHolder.get();
+        if (context != null) {
+            return context;
+        }
+        Context recycled = recycledDefaultContextHolder.get();
+        if (recycled != null && recycled.getCurEntry() == null
+            && recycled.getEntranceNode() == contextNameNodeMap.get(Constants.CONTEXT_DEFAULT_NAME)) {
+            recycled.setOrigin("");
+            contextHolder.set(recycled);
+            return recycled;
+        }
+        context = trueEnter(Constants.CONTEXT_DEFAULT_NAME, "");
+        if (!(context instanceof NullContext)) {
+            recycledDefaultContextHolder.set(context);
+        }
+        return context;
+    }
+
     private static boolean shouldWarn = true;
 
     private static void setNullContext() {
@@ -15,14 +15,20 @@
  */
 package com.alibaba.csp.sentinel.node;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
 
 import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.statistic.data.LatencyHistogram;
+import com.alibaba.csp.sentinel.slots.statistic.metric.LatencyHistogramLeapArray;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
 
 /**
  * <p>
@@ -55,19 +61,34 @@ public class ClusterNode extends StatisticNode {
         AssertUtil.notEmpty(name, "name cannot be empty");
         this.name = name;
         this.resourceType = resourceType;
+        this.lastAccessTime = TimeUtil.currentTimeMillis();
     }
 
+    /**
+     * The last time (in milliseconds, with a precision of {@link #ACCESS_TIME_PRECISION_MS}) when the resource
+     * was entered.
+     */
+    private volatile long lastAccessTime;
+
+    /**
+     * Whether the node has been evicted as an idle node, after which it will no longer be updated.
+     */
+    private volatile boolean evicted = false;
+
     /**
      * <p>The origin map holds the pair: (origin, originNode) for one specific resource.</p>
      * <p>
      * The longer the application runs, the more stable this mapping will become.
-     * So we didn't use concurrent map here, but a lock, as this lock only happens
-     * at the very beginning while concurrent map will hold the lock all the time.
+     * Reads of the registry never lock, and adding a new origin does not copy the existing ones.
      * </p>
      */
-    private Map<String, StatisticNode> originCountMap = new HashMap<>();
+    private final NodeRegistry<String, StatisticNode> originCountMap = new NodeRegistry<>();
 
-    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Response time histograms of the recent seconds, only kept once enabled (e.g. by a percentile
+     * circuit breaking rule of the resource).
+     */
+    private volatile LatencyHistogramLeapArray rtHistograms;
 
     /**
      * Get resource name of the resource node.
@@ -99,28 +120,157 @@ public class ClusterNode extends StatisticNode {
      * @return the {@link Node} of the specific origin
      */
     public Node getOrCreateOriginNode(String origin) {
-        StatisticNode statisticNode = originCountMap.get(origin);
-        if (statisticNode == null) {
-            lock.lock();
-            try {
-                statisticNode = originCountMap.get(origin);
-                if (statisticNode == null) {
-                    // The node is absent, create a new node for the origin.
-                    statisticNode = new StatisticNode();
-                    HashMap<String, StatisticNode> newMap = new HashMap<>(originCountMap.size() + 1);
-                    newMap.putAll(originCountMap);
-                    newMap.put(origin, statisticNode);
-                    originCountMap = newMap;
+        return originCountMap.getOrCreate(origin, ORIGIN_NODE_FACTORY);
+    }
+
+    public Map<String, StatisticNode> getOriginCountMap() {
+        return originCountMap.asMap();
+    }
+
+    /**
+     * Get the registry of the origin nodes.
+     *
+     * @return the registry of the origin nodes
+     * @since 2.0.0
+     */
+    public NodeRegistry<String, StatisticNode> getOriginNodeRegistry() {
+        return originCountMap;
+    }
+
+    /**
+     * Record an access to the resource. The access time is only written when it changes by
+     * {@link #ACCESS_TIME_PRECISION_MS} or more, so that hot resources do not contend on it.
+     *
+     * @since 2.0.0
+     */
+    public void touch() {
+        long now = TimeUtil.currentTimeMillis();
+        if (now - lastAccessTime >= ACCESS_TIME_PRECISION_MS) {
+            lastAccessTime = now;
+        }
+    }
+
+    /**
+     * Get the last time when the resource was entered.
+     *
+     * @return the last access time in milliseconds
+     * @since 2.0.0
+     */
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /**
+     * Whether the node has been evicted (see {@link NodeReclaimer}). Holders of an evicted node should look up
+     * the node of the resource again.
+     *
+     * @return whether the node has been evicted
+     * @since 2.0.0
+     */
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    void markEvicted() {
+        this.evicted = true;
+    }
+
+    /**
+     * Start keeping response time histograms of the resource for each second, which are attached to
+     * the {@link MetricNode}s of the resource.
+     *
+     * @since 2.0.0
+     */
+    public void enableRtHistogram() {
+        if (rtHistograms == null) {
+            synchronized (this) {
+                if (rtHistograms == null) {
+                    rtHistograms = new LatencyHistogramLeapArray(RT_HISTOGRAM_SECONDS, RT_HISTOGRAM_SECONDS * 1000);
                 }
-            } finally {
-                lock.unlock();
             }
         }
-        return statisticNode;
     }
 
-    public Map<String, StatisticNode> getOriginCountMap() {
-        return originCountMap;
+    /**
+     * Get a copy of the response time histogram of the second.
+     *
+     * @param timestamp start time of the second in milliseconds
+     * @return the histogram of the second, or null if histograms are not enabled or the second is not kept
+     * @since 2.0.0
+     */
+    public LatencyHistogram getRtHistogram(long timestamp) {
+        LatencyHistogramLeapArray histograms = rtHistograms;
+        LatencyHistogram histogram = histograms == null ? null : histograms.getWindowValue(timestamp);
+        return histogram == null ? null : new LatencyHistogram().add(histogram);
+    }
+
+    @Override
+    public void addRtAndSuccess(long rt, int successCount) {
+        super.addRtAndSuccess(rt, successCount);
+        LatencyHistogramLeapArray histograms = rtHistograms;
+        if (histograms != null) {
+            histograms.currentWindow().value().record(rt);
+        }
+    }
+
+    @Override
+    public Map<Long, MetricNode> metrics() {
+        Map<Long, MetricNode> metrics = super.metrics();
+        attachRtHistograms(metrics.values());
+        return metrics;
+    }
+
+    @Override
+    public List<MetricNode> rawMetricsInMin(Predicate<Long> timePredicate) {
+        List<MetricNode> metrics = super.rawMetricsInMin(timePredicate);
+        attachRtHistograms(metrics);
+        return metrics;
+    }
+
+    private void attachRtHistograms(Collection<MetricNode> metrics) {
+        if (rtHistograms == null) {
+            return;
+        }
+        for (MetricNode node : metrics) {
+            node.setRtHistogram(getRtHistogram(node.getTimestamp()));
+        }
     }
 
+    @Override
+    public long estimatedBytes() {
+        long bytes = super.estimatedBytes() + estimatedOriginNodesBytes();
+        LatencyHistogramLeapArray histograms = rtHistograms;
+        if (histograms != null) {
+            bytes += histograms.estimatedBytes();
+        }
+        // The fields of the cluster node, and the registry of origin nodes.
+        return bytes + 24 + 16 + 64;
+    }
+
+    /**
+     * Estimate the heap size retained by the origin nodes (and the entries of them).
+     *
+     * @return estimated size in bytes
+     * @since 2.0.0
+     */
+    public long estimatedOriginNodesBytes() {
+        long bytes = 0;
+        for (Map.Entry<String, StatisticNode> e : originCountMap.asMap().entrySet()) {
+            // The map entry, and the origin string.
+            bytes += 32 + 40 + 2L * e.getKey().length() + e.getValue().estimatedBytes();
+        }
+        return bytes;
+    }
+
+    private static final long ACCESS_TIME_PRECISION_MS = 1000;
+    private static final int RT_HISTOGRAM_SECONDS = 5;
+
+    private static final Function<String, StatisticNode> ORIGIN_NODE_FACTORY = new Function<String, StatisticNode>() {
+        @Override
+        public StatisticNode apply(String origin) {
+            // The node is absent, create a new node for the origin.
+            return new StatisticNode();
+        }
+    };
+
 }
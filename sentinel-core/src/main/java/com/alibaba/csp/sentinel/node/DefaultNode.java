@@ -15,8 +15,9 @@
  */
 package com.alibaba.csp.sentinel.node;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.SphO;
@@ -48,7 +49,7 @@ public class DefaultNode extends StatisticNode {
 	/**
 	 * The list of all child nodes.
 	 */
-	private volatile Set<Node> childList = new HashSet<>();
+	private volatile Set<Node> childList = newChildSet();
 
 	/**
 	 * Associated cluster node.
@@ -82,24 +83,34 @@ public class DefaultNode extends StatisticNode {
 			RecordLog.warn("Trying to add null child to node <{}>, ignored", id.getName());
 			return;
 		}
-		if (!childList.contains(node)) {
-			synchronized (this) {
-				if (!childList.contains(node)) {
-					Set<Node> newSet = new HashSet<>(childList.size() + 1);
-					newSet.addAll(childList);
-					newSet.add(node);
-					childList = newSet;
-				}
-			}
+		if (!childList.contains(node) && childList.add(node)) {
 			RecordLog.info("Add child <{}> to node <{}>", ((DefaultNode) node).id.getName(), id.getName());
 		}
 	}
 
+	/**
+	 * Remove the child node from current node.
+	 *
+	 * @param node the child node
+	 * @return whether the node was a child of current node
+	 * @since 2.0.0
+	 */
+	public boolean removeChild(Node node) {
+		return childList.remove(node);
+	}
+
 	/**
 	 * Reset the child node list.
 	 */
 	public void removeChildList() {
-		this.childList = new HashSet<>();
+		this.childList = newChildSet();
+	}
+
+	/**
+	 * Children are kept in a concurrent set, so adding a child does not copy the others.
+	 */
+	private static Set<Node> newChildSet() {
+		return Collections.newSetFromMap(new ConcurrentHashMap<Node, Boolean>());
 	}
 
 	public Set<Node> getChildList() {
@@ -142,6 +153,12 @@ public class DefaultNode extends StatisticNode {
 		this.clusterNode.addPassRequest(count);
 	}
 
+	@Override
+	public long estimatedBytes() {
+		// The fields of the node, and the set of children (excluding the children themselves).
+		return super.estimatedBytes() + 24 + 16 + 64 + 32L * childList.size();
+	}
+
 	public void printDefaultNode() {
 		visitTree(0, this);
 	}
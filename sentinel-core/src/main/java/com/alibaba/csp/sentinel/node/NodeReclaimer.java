@@ -0,0 +1,210 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.CtSph;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Reclaims the slot chains and statistic nodes of resources that have been idle for a while.</p>
+ * <p>
+ * A resource is idle when it has not been entered for the idle TTL and has no running invocations.
+ * The slot chain of an idle resource is removed, together with its {@link ClusterNode} (and origin nodes)
+ * and the {@link DefaultNode}s of it in the invocation tree. Rules are kept as they are bound to the
+ * resource name, and the chain and nodes will be created again (with empty statistics) on next access.
+ * So the amount of resources that could be checked is bounded by the resources accessed within the TTL,
+ * rather than all resources ever accessed.
+ * </p>
+ * <p>
+ * Nodes of other resources under an evicted {@link DefaultNode} are moved onto its parent in the
+ * invocation tree, their statistics are not affected.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public final class NodeReclaimer {
+
+    private static final long MIN_SWEEP_INTERVAL_MS = 1000;
+    private static final long MAX_SWEEP_INTERVAL_MS = 60 * 1000;
+
+    private static ScheduledExecutorService scheduler = null;
+
+    /**
+     * Start evicting resources idle for the given TTL periodically.
+     *
+     * @param idleTtlMs idle TTL of the resources in milliseconds, a non-positive value stops evicting
+     */
+    public static synchronized void start(final long idleTtlMs) {
+        stop();
+        if (idleTtlMs <= 0) {
+            return;
+        }
+        long interval = Math.max(MIN_SWEEP_INTERVAL_MS, Math.min(idleTtlMs / 2, MAX_SWEEP_INTERVAL_MS));
+        scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("sentinel-node-reclaimer", true));
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int evicted = evictIdle(TimeUtil.currentTimeMillis(), idleTtlMs);
+                    if (evicted > 0) {
+                        RecordLog.info("[NodeReclaimer] {} idle resources evicted", evicted);
+                    }
+                } catch (Throwable e) {
+                    RecordLog.warn("[NodeReclaimer] Failed to evict idle resources", e);
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        RecordLog.info("[NodeReclaimer] Evicting resources idle for {} ms, every {} ms", idleTtlMs, interval);
+    }
+
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Evict the resources that are idle at given time.
+     *
+     * @param currentTime current time in milliseconds
+     * @param idleTtlMs   idle TTL of the resources in milliseconds
+     * @return amount of resources evicted
+     */
+    public static int evictIdle(long currentTime, long idleTtlMs) {
+        NodeRegistry<ResourceWrapper, ClusterNode> clusterNodes = ClusterBuilderSlot.getClusterNodeRegistry();
+        NodeRegistry<ResourceWrapper, ProcessorSlotChain> chains = CtSph.getChainRegistry();
+        Set<ClusterNode> evicted = Collections.newSetFromMap(new IdentityHashMap<ClusterNode, Boolean>());
+        for (Map.Entry<ResourceWrapper, ClusterNode> e : clusterNodes.asMap().entrySet()) {
+            ClusterNode node = e.getValue();
+            if (currentTime - node.getLastAccessTime() < idleTtlMs || node.curThreadNum() > 0) {
+                continue;
+            }
+            ResourceWrapper resource = e.getKey();
+            // Remove the chain first, so that new invocations will build a new chain (and new nodes).
+            ProcessorSlotChain chain = chains.get(resource);
+            if (chain != null) {
+                CtSph.removeChain(resource, chain);
+            }
+            if (clusterNodes.remove(resource, node)) {
+                node.markEvicted();
+                evicted.add(node);
+            }
+        }
+        if (!evicted.isEmpty()) {
+            detachDefaultNodes(evicted);
+        }
+        return evicted.size();
+    }
+
+    private static void detachDefaultNodes(Set<ClusterNode> evicted) {
+        Set<DefaultNode> visited = Collections.newSetFromMap(new IdentityHashMap<DefaultNode, Boolean>());
+        Deque<DefaultNode> stack = new ArrayDeque<>();
+        stack.push(Constants.ROOT);
+        while (!stack.isEmpty()) {
+            DefaultNode parent = stack.pop();
+            if (!visited.add(parent)) {
+                continue;
+            }
+            for (Node child : parent.getChildList()) {
+                DefaultNode node = (DefaultNode)child;
+                if (isEvicted(node, evicted)) {
+                    parent.removeChild(node);
+                    adoptChildren(parent, node, evicted, stack);
+                } else {
+                    stack.push(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the children of an evicted node onto its parent. Their nodes are cached in the slot chains of their
+     * own resources and are not linked into the tree again, so they would be lost from the tree (and the sums
+     * of the entrance node) if detached together with the evicted node.
+     */
+    private static void adoptChildren(DefaultNode parent, DefaultNode evictedNode, Set<ClusterNode> evicted,
+                                      Deque<DefaultNode> stack) {
+        Deque<DefaultNode> orphans = new ArrayDeque<>();
+        orphans.push(evictedNode);
+        while (!orphans.isEmpty()) {
+            for (Node child : orphans.pop().getChildList()) {
+                DefaultNode node = (DefaultNode)child;
+                if (isEvicted(node, evicted)) {
+                    orphans.push(node);
+                } else {
+                    parent.addChild(node);
+                    stack.push(node);
+                }
+            }
+        }
+    }
+
+    private static boolean isEvicted(DefaultNode node, Set<ClusterNode> evicted) {
+        return node.getClusterNode() != null && evicted.contains(node.getClusterNode());
+    }
+
+    /**
+     * Collect the {@link DefaultNode}s in the invocation tree by their cluster nodes.
+     *
+     * @return the {@link DefaultNode}s of each cluster node (compared by identity)
+     */
+    public static Map<ClusterNode, List<DefaultNode>> collectDefaultNodes() {
+        Map<ClusterNode, List<DefaultNode>> result = new IdentityHashMap<>();
+        Set<DefaultNode> visited = Collections.newSetFromMap(new IdentityHashMap<DefaultNode, Boolean>());
+        Deque<DefaultNode> stack = new ArrayDeque<>();
+        stack.push(Constants.ROOT);
+        while (!stack.isEmpty()) {
+            DefaultNode node = stack.pop();
+            if (!visited.add(node)) {
+                continue;
+            }
+            ClusterNode clusterNode = node.getClusterNode();
+            if (clusterNode != null) {
+                List<DefaultNode> nodes = result.get(clusterNode);
+                if (nodes == null) {
+                    nodes = new ArrayList<>();
+                    result.put(clusterNode, nodes);
+                }
+                nodes.add(node);
+            }
+            for (Node child : node.getChildList()) {
+                stack.push((DefaultNode)child);
+            }
+        }
+        return result;
+    }
+
+    private NodeReclaimer() {}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>A concurrent registry of the nodes (and slot chains) created on the request path, such as the
+ * cluster nodes of resources, the origin nodes of a resource and the entrance nodes of contexts.</p>
+ * <p>
+ * Reads never lock, and creating a node only touches its own key: unlike a copy-on-write map, adding
+ * the n-th node does not copy the other n - 1, so services with a large number of resources or origins
+ * (e.g. URL-based resources) no longer stall while warming up. The registry may be bounded, and idle
+ * nodes may be evicted via {@link #evictIf(Predicate)}.
+ * </p>
+ * <p>
+ * Note that the bound is checked without locking, so it might be exceeded slightly when nodes are
+ * created concurrently.
+ * </p>
+ *
+ * @param <K> type of the key
+ * @param <V> type of the node
+ * @since 2.0.0
+ */
+public final class NodeRegistry<K, V> {
+
+    private final ConcurrentHashMap<K, V> map;
+    private final int maxSize;
+
+    /**
+     * Create an unbounded registry.
+     */
+    public NodeRegistry() {
+        this(0);
+    }
+
+    /**
+     * @param maxSize max amount of nodes, or a non-positive value for an unbounded registry
+     */
+    public NodeRegistry(int maxSize) {
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<>(16);
+    }
+
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Get the node of the key, or create one if absent. Nodes might be created more than once
+     * when the same key is requested concurrently, but only one of them is kept and returned,
+     * so the factory should have no side effects.
+     *
+     * @param key     the key
+     * @param factory factory of the node
+     * @return the node of the key, or null if absent and the registry is full
+     */
+    public V getOrCreate(K key, Function<K, V> factory) {
+        V node = map.get(key);
+        if (node != null) {
+            return node;
+        }
+        if (isFull()) {
+            return null;
+        }
+        node = factory.apply(key);
+        AssertUtil.notNull(node, "node created should not be null");
+        V existing = map.putIfAbsent(key, node);
+        return existing == null ? node : existing;
+    }
+
+    /**
+     * Register the node if the key is absent.
+     *
+     * @return the node registered before, or null if the given node is registered
+     */
+    public V putIfAbsent(K key, V node) {
+        return map.putIfAbsent(key, node);
+    }
+
+    /**
+     * @return whether no more nodes could be created
+     */
+    public boolean isFull() {
+        return maxSize > 0 && map.size() >= maxSize;
+    }
+
+    /**
+     * Remove all nodes matching the predicate (e.g. idle nodes).
+     *
+     * @param predicate whether a node should be evicted
+     * @return amount of nodes evicted
+     */
+    public int evictIf(Predicate<V> predicate) {
+        int evicted = 0;
+        for (Iterator<V> it = map.values().iterator(); it.hasNext(); ) {
+            if (predicate.test(it.next())) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Register the node, replacing the node registered before (if any).
+     *
+     * @return the node registered before, or null if absent
+     */
+    public V put(K key, V node) {
+        return map.put(key, node);
+    }
+
+    public boolean remove(K key, V node) {
+        return map.remove(key, node);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * @return a live view of the nodes, which is concurrent and could be modified
+     */
+    public Map<K, V> asMap() {
+        return map;
+    }
+}
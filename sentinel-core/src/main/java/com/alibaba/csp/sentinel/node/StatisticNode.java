@@ -20,9 +20,11 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
 import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.TieredMetric;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.Predicate;
 
@@ -96,11 +98,18 @@ public class StatisticNode implements Node {
     private transient volatile Metric rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT,
         IntervalProperty.INTERVAL);
 
+    /**
+     * Max amount of buckets of the sparse minute metric, before it is upgraded to the full sliding window.
+     */
+    private static final int SPARSE_MINUTE_METRIC_SIZE = 8;
+    private static final long SPARSE_MINUTE_METRIC_THRESHOLD = SentinelConfig.sparseMinuteMetricThreshold();
+
     /**
      * Holds statistics of the recent 60 seconds. The windowLengthInMs is deliberately set to 1000 milliseconds,
      * meaning each bucket per second, in this way we can get accurate statistics of each second.
+     * Buckets are only allocated for the seconds with traffic until the traffic grows (see {@link TieredMetric}).
      */
-    private transient Metric rollingCounterInMinute = new ArrayMetric(60, 60 * 1000, false);
+    private transient Metric rollingCounterInMinute = newMinuteMetric();
 
     /**
      * The counter for thread count.
@@ -112,6 +121,13 @@ public class StatisticNode implements Node {
      */
     private long lastFetchTime = -1;
 
+    private static Metric newMinuteMetric() {
+        if (SPARSE_MINUTE_METRIC_THRESHOLD <= 0) {
+            return new ArrayMetric(60, 60 * 1000, false);
+        }
+        return new TieredMetric(60, 60 * 1000, SPARSE_MINUTE_METRIC_SIZE, SPARSE_MINUTE_METRIC_THRESHOLD);
+    }
+
     @Override
     public Map<Long, MetricNode> metrics() {
         // The fetch operation is thread-safe under a single-thread scheduler pool.
@@ -334,4 +350,15 @@ public class StatisticNode implements Node {
         rollingCounterInMinute.addOccupiedPass(acquireCount);
         rollingCounterInMinute.addPass(acquireCount);
     }
+
+    /**
+     * Estimate the heap size retained by the node, assuming a 64-bit JVM with compressed references.
+     *
+     * @return estimated size in bytes
+     * @since 2.0.0
+     */
+    public long estimatedBytes() {
+        // The node itself and the thread counter (an uncontended LongAdder).
+        return 32 + 24 + rollingCounterInSecond.estimatedBytes() + rollingCounterInMinute.estimatedBytes();
+    }
 }
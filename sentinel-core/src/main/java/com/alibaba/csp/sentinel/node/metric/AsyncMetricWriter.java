@@ -0,0 +1,190 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Writes metric snapshots via a {@link MetricWriter} in a dedicated thread, so that the metric timer
+ * never waits for the file system.</p>
+ * <p>
+ * Snapshots are put into a bounded queue, and dropped (with a warning) when the queue is full.
+ * The writer thread takes all queued snapshots at once, writes them into the buffers of the
+ * {@link MetricWriter} and flushes them together (group commit). Written files are forced to the
+ * storage device at most once per force interval.
+ * </p>
+ * <p>
+ * If the writer thread exits unexpectedly (e.g. interrupted by the container), it is restarted by the next offer.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class AsyncMetricWriter {
+
+    /**
+     * Marker to stop the writer thread.
+     */
+    private static final SortedMap<Long, List<MetricNode>> STOP = Collections.unmodifiableSortedMap(
+        new TreeMap<Long, List<MetricNode>>());
+
+    private final MetricWriter writer;
+    private final BlockingQueue<SortedMap<Long, List<MetricNode>>> queue;
+    private final long forceIntervalMs;
+    private volatile Thread thread;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private long lastForceTime;
+    private volatile boolean closed = false;
+
+    AsyncMetricWriter(MetricWriter writer, int queueSize, long forceIntervalMs) {
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.forceIntervalMs = forceIntervalMs;
+        this.thread = startThread();
+    }
+
+    private Thread startThread() {
+        Thread t = new NamedThreadFactory("sentinel-metrics-writer", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        });
+        t.start();
+        return t;
+    }
+
+    /**
+     * Restart the writer thread if it has exited while the writer is still open.
+     */
+    private synchronized void ensureThreadAlive() {
+        if (closed || thread.isAlive()) {
+            return;
+        }
+        RecordLog.warn("[AsyncMetricWriter] Metric writer thread exited unexpectedly, restarting it");
+        thread = startThread();
+    }
+
+    /**
+     * Queue metrics to write. The metrics are handed over to the writer as is, so the caller should pass
+     * a fresh snapshot and never modify it afterwards.
+     *
+     * @param metrics metrics grouped by timestamp
+     * @return false if the queue is full or the writer is closed, so that the metrics are dropped
+     */
+    boolean offer(SortedMap<Long, List<MetricNode>> metrics) {
+        if (closed) {
+            return false;
+        }
+        if (!thread.isAlive()) {
+            ensureThreadAlive();
+        }
+        if (queue.offer(metrics)) {
+            return true;
+        }
+        long dropped = droppedCount.incrementAndGet();
+        RecordLog.warn("[AsyncMetricWriter] Metric write queue is full, metrics dropped (total dropped: {})",
+            dropped);
+        return false;
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Package-private for test.
+     */
+    Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * Write all queued metrics, then close the writer.
+     */
+    void close() throws Exception {
+        // Make sure the queued metrics are drained before closing.
+        ensureThreadAlive();
+        closed = true;
+        queue.put(STOP);
+        thread.join();
+        writer.close();
+    }
+
+    private void writeLoop() {
+        List<SortedMap<Long, List<MetricNode>>> group = new ArrayList<>();
+        while (true) {
+            try {
+                group.add(queue.take());
+                queue.drainTo(group);
+            } catch (InterruptedException e) {
+                if (!closed) {
+                    RecordLog.warn("[AsyncMetricWriter] Metric writer thread interrupted, it will be restarted "
+                        + "on the next offer");
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+            boolean stop = writeGroup(group);
+            group.clear();
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if the writer thread should stop
+     */
+    private boolean writeGroup(List<SortedMap<Long, List<MetricNode>>> group) {
+        boolean stop = false;
+        // Existence of the files only needs to be checked once per group.
+        boolean checkFiles = true;
+        try {
+            for (SortedMap<Long, List<MetricNode>> metrics : group) {
+                if (metrics == STOP) {
+                    stop = true;
+                    continue;
+                }
+                for (Entry<Long, List<MetricNode>> entry : metrics.entrySet()) {
+                    writer.write(entry.getKey(), entry.getValue(), checkFiles);
+                    checkFiles = false;
+                }
+            }
+            writer.flush();
+            long now = TimeUtil.currentTimeMillis();
+            if (forceIntervalMs > 0 && now - lastForceTime >= forceIntervalMs) {
+                writer.force();
+                lastForceTime = now;
+            }
+        } catch (Throwable e) {
+            RecordLog.warn("[AsyncMetricWriter] Write metric error", e);
+        }
+        return stop;
+    }
+}
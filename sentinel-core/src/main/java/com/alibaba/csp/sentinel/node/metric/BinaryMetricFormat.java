@@ -0,0 +1,112 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * <p>The binary metric file format.</p>
+ * <p>
+ * A binary metric file starts with a header of {@link #HEADER_SIZE} bytes (magic and version),
+ * followed by fixed-width records of {@link #RECORD_SIZE} bytes:
+ * </p>
+ * <pre>
+ * timestamp (8) | resource ID (4) | classification (4) | passQps (8) | blockQps (8) | successQps (8)
+ * | exceptionQps (8) | rt (8) | occupiedPassQps (8) | concurrency (4)
+ * </pre>
+ * <p>
+ * Resource names are stored in the dictionary file ({@code ${metricFileName}.dict}) of each metric file,
+ * which is a sequence of (length (4) | UTF-8 bytes) whose resource ID is the ordinal. Dictionary entries
+ * are always flushed before the records that refer to them. The second index file ({@code .idx})
+ * is the same as the text format.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class BinaryMetricFormat {
+
+    static final Charset CHARSET = Charset.forName("UTF-8");
+
+    static final int MAGIC = 0x534D4246;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int RESOURCE_ID_OFFSET = 8;
+    static final int CLASSIFICATION_OFFSET = 12;
+    static final int PASS_QPS_OFFSET = 16;
+    static final int BLOCK_QPS_OFFSET = 24;
+    static final int SUCCESS_QPS_OFFSET = 32;
+    static final int EXCEPTION_QPS_OFFSET = 40;
+    static final int RT_OFFSET = 48;
+    static final int OCCUPIED_PASS_QPS_OFFSET = 56;
+    static final int CONCURRENCY_OFFSET = 64;
+    static final int RECORD_SIZE = 68;
+
+    static final String DICT_FILE_SUFFIX = ".dict";
+
+    static void writeHeader(ByteBuffer target) {
+        target.putInt(MAGIC);
+        target.putInt(VERSION);
+    }
+
+    static boolean isValidHeader(ByteBuffer source) {
+        return source.limit() >= HEADER_SIZE && source.getInt(0) == MAGIC && source.getInt(4) == VERSION;
+    }
+
+    static void writeRecord(MetricNode node, int resourceId, ByteBuffer target) {
+        target.putLong(node.getTimestamp());
+        target.putInt(resourceId);
+        target.putInt(node.getClassification());
+        target.putLong(node.getPassQps());
+        target.putLong(node.getBlockQps());
+        target.putLong(node.getSuccessQps());
+        target.putLong(node.getExceptionQps());
+        target.putLong(node.getRt());
+        target.putLong(node.getOccupiedPassQps());
+        target.putInt(node.getConcurrency());
+    }
+
+    static long readTimestamp(ByteBuffer source, int position) {
+        return source.getLong(position + TIMESTAMP_OFFSET);
+    }
+
+    static int readResourceId(ByteBuffer source, int position) {
+        return source.getInt(position + RESOURCE_ID_OFFSET);
+    }
+
+    static MetricNode readRecord(ByteBuffer source, int position, String resource) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(source.getLong(position + TIMESTAMP_OFFSET));
+        node.setResource(resource);
+        node.setClassification(source.getInt(position + CLASSIFICATION_OFFSET));
+        node.setPassQps(source.getLong(position + PASS_QPS_OFFSET));
+        node.setBlockQps(source.getLong(position + BLOCK_QPS_OFFSET));
+        node.setSuccessQps(source.getLong(position + SUCCESS_QPS_OFFSET));
+        node.setExceptionQps(source.getLong(position + EXCEPTION_QPS_OFFSET));
+        node.setRt(source.getLong(position + RT_OFFSET));
+        node.setOccupiedPassQps(source.getLong(position + OCCUPIED_PASS_QPS_OFFSET));
+        node.setConcurrency(source.getInt(position + CONCURRENCY_OFFSET));
+        return node;
+    }
+
+    static String formDictFileName(String metricFileName) {
+        return metricFileName + DICT_FILE_SUFFIX;
+    }
+
+    private BinaryMetricFormat() {}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+/**
+ * <p>A {@link MetricSearcher} for the binary metric files written by {@link MetricWriter}
+ * in binary format. Metric files are located via the second index as the text format,
+ * and records are scanned from memory-mapped files without parsing text lines.</p>
+ *
+ * @since 2.0.0
+ */
+public class BinaryMetricSearcher extends MetricSearcher {
+
+    /**
+     * @param baseDir      directory of the metric files
+     * @param baseFileName base name of the binary metric files, see {@link MetricWriter#formBinaryMetricFileName}
+     */
+    public BinaryMetricSearcher(String baseDir, String baseFileName) {
+        super(baseDir, baseFileName, new MappedMetricsReader());
+    }
+}
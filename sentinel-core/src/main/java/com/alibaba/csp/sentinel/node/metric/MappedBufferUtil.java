@@ -0,0 +1,98 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>Releases memory-mapped buffers of metric files explicitly once they have been read.</p>
+ * <p>
+ * Otherwise the mappings are only released when the buffers are garbage collected, so that the files
+ * (and the address space) of the searched metrics are held for long. The cleaner of the buffer is invoked via
+ * {@code sun.misc.Unsafe#invokeCleaner} since JDK 9, and via {@code sun.nio.ch.DirectBuffer#cleaner} before.
+ * If neither is accessible, the buffers are left to GC.
+ * </p>
+ * <p>
+ * Note that a buffer (and any duplicate of it) must NOT be accessed after being unmapped.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class MappedBufferUtil {
+
+    private static final Unmapper UNMAPPER = createUnmapper();
+
+    /**
+     * Unmap the buffer if it is a mapped buffer.
+     *
+     * @param buf the buffer, which could be null
+     */
+    static void unmap(ByteBuffer buf) {
+        if (buf == null || !buf.isDirect() || UNMAPPER == null) {
+            return;
+        }
+        try {
+            UNMAPPER.unmap(buf);
+        } catch (Throwable e) {
+            RecordLog.warn("[MappedBufferUtil] Failed to unmap buffer, leaving it to GC", e);
+        }
+    }
+
+    private static Unmapper createUnmapper() {
+        try {
+            // JDK 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            final Object unsafe = field.get(null);
+            return new Unmapper() {
+                @Override
+                public void unmap(ByteBuffer buf) throws Exception {
+                    invokeCleaner.invoke(unsafe, buf);
+                }
+            };
+        } catch (Throwable ignore) {
+        }
+        try {
+            // JDK 8
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return new Unmapper() {
+                @Override
+                public void unmap(ByteBuffer buf) throws Exception {
+                    Object c = cleaner.invoke(buf);
+                    if (c != null) {
+                        clean.invoke(c);
+                    }
+                }
+            };
+        } catch (Throwable e) {
+            RecordLog.info("[MappedBufferUtil] Unmapping is not supported, mapped buffers are left to GC", e);
+            return null;
+        }
+    }
+
+    private interface Unmapper {
+        void unmap(ByteBuffer buf) throws Exception;
+    }
+
+    private MappedBufferUtil() {}
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>Reads metrics from binary metric files (see {@link BinaryMetricFormat}) via memory mapping.</p>
+ * <p>
+ * Records are scanned in place: the timestamp and resource ID of each record are read from the mapped
+ * buffer directly, and a {@link MetricNode} is only created for records that are returned.
+ * Resource dictionaries are cached and read incrementally as they grow.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+class MappedMetricsReader extends MetricsReader {
+
+    private static final int MAX_CACHED_DICTIONARIES = 16;
+
+    private final Map<String, ResourceDictionary> dictionaries = new LinkedHashMap<String, ResourceDictionary>(
+        MAX_CACHED_DICTIONARIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ResourceDictionary> eldest) {
+            return size() > MAX_CACHED_DICTIONARIES;
+        }
+    };
+
+    MappedMetricsReader() {
+        super(BinaryMetricFormat.CHARSET);
+    }
+
+    @Override
+    boolean readMetricsInOneFileByEndTime(List<MetricNode> list, String fileName, long offset,
+                                          long beginTimeMs, long endTimeMs, String identity) throws Exception {
+        ByteBuffer buf = map(fileName);
+        if (buf == null) {
+            return true;
+        }
+        try {
+            // The dictionary is read after mapping, so that it covers all mapped records.
+            ResourceDictionary dict = loadDictionary(fileName);
+            int identityId = identity == null ? -1 : dict.idOf(identity);
+            long beginSecond = beginTimeMs / 1000;
+            long endSecond = endTimeMs / 1000;
+            int end = recordsEnd(buf);
+            for (int pos = recordsStart(offset); pos < end; pos += BinaryMetricFormat.RECORD_SIZE) {
+                long currentSecond = BinaryMetricFormat.readTimestamp(buf, pos) / 1000;
+                // currentSecond should >= beginSecond, otherwise a wrong metric file must occur
+                if (currentSecond < beginSecond || currentSecond > endSecond) {
+                    return false;
+                }
+                int resourceId = BinaryMetricFormat.readResourceId(buf, pos);
+                if (identity == null || resourceId == identityId) {
+                    String resource = dict.nameOf(resourceId);
+                    if (resource != null) {
+                        list.add(BinaryMetricFormat.readRecord(buf, pos, resource));
+                    }
+                }
+                if (list.size() >= MAX_LINES_RETURN) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            MappedBufferUtil.unmap(buf);
+        }
+    }
+
+    @Override
+    void readMetricsInOneFile(List<MetricNode> list, String fileName,
+                              long offset, int recommendLines) throws Exception {
+        ByteBuffer buf = map(fileName);
+        if (buf == null) {
+            return;
+        }
+        try {
+            ResourceDictionary dict = loadDictionary(fileName);
+            long lastSecond = -1;
+            if (list.size() > 0) {
+                lastSecond = list.get(list.size() - 1).getTimestamp() / 1000;
+            }
+            int end = recordsEnd(buf);
+            for (int pos = recordsStart(offset); pos < end; pos += BinaryMetricFormat.RECORD_SIZE) {
+                long currentSecond = BinaryMetricFormat.readTimestamp(buf, pos) / 1000;
+                if (list.size() >= recommendLines && currentSecond != lastSecond) {
+                    break;
+                }
+                String resource = dict.nameOf(BinaryMetricFormat.readResourceId(buf, pos));
+                if (resource != null) {
+                    list.add(BinaryMetricFormat.readRecord(buf, pos, resource));
+                }
+                lastSecond = currentSecond;
+            }
+        } finally {
+            MappedBufferUtil.unmap(buf);
+        }
+    }
+
+    @Override
+    void readMetricsAt(List<MetricNode> list, String fileName, MetricResourceIndex.Result offsets,
+                       String identity) throws Exception {
+        ByteBuffer buf = map(fileName);
+        if (buf == null) {
+            return;
+        }
+        try {
+            ResourceDictionary dict = loadDictionary(fileName);
+            int identityId = dict.idOf(identity);
+            int end = recordsEnd(buf);
+            for (int i = 0; i < offsets.size() && list.size() < MAX_LINES_RETURN; i++) {
+                int pos = (int) offsets.offsetAt(i);
+                if (pos + BinaryMetricFormat.RECORD_SIZE <= end
+                    && BinaryMetricFormat.readResourceId(buf, pos) == identityId) {
+                    list.add(BinaryMetricFormat.readRecord(buf, pos, identity));
+                }
+            }
+        } finally {
+            MappedBufferUtil.unmap(buf);
+        }
+    }
+
+    private static int recordsStart(long offset) {
+        return (int) Math.max(offset, BinaryMetricFormat.HEADER_SIZE);
+    }
+
+    /**
+     * @return end of the complete records, as the last record may be partially written
+     */
+    private static int recordsEnd(ByteBuffer buf) {
+        int count = (buf.limit() - BinaryMetricFormat.HEADER_SIZE) / BinaryMetricFormat.RECORD_SIZE;
+        return BinaryMetricFormat.HEADER_SIZE + count * BinaryMetricFormat.RECORD_SIZE;
+    }
+
+    /**
+     * @return the mapped file, which should be unmapped via {@link MappedBufferUtil#unmap(ByteBuffer)} once read,
+     * or null if the file is absent or invalid
+     */
+    private ByteBuffer map(String fileName) throws IOException {
+        if (!new File(fileName).exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = Math.min(channel.size(), Integer.MAX_VALUE);
+            if (size < BinaryMetricFormat.HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer buf = channel.map(MapMode.READ_ONLY, 0, size);
+            if (!BinaryMetricFormat.isValidHeader(buf)) {
+                MappedBufferUtil.unmap(buf);
+                RecordLog.warn("[MappedMetricsReader] Ignoring invalid binary metric file: {}", fileName);
+                return null;
+            }
+            return buf;
+        }
+    }
+
+    private ResourceDictionary loadDictionary(String fileName) throws IOException {
+        ResourceDictionary dict = dictionaries.get(fileName);
+        if (dict == null) {
+            dict = new ResourceDictionary();
+            dictionaries.put(fileName, dict);
+        }
+        String dictFileName = BinaryMetricFormat.formDictFileName(fileName);
+        if (!new File(dictFileName).exists()) {
+            return dict;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(dictFileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < dict.readBytes) {
+                // The file has been re-created.
+                dict = new ResourceDictionary();
+                dictionaries.put(fileName, dict);
+            }
+            if (size > dict.readBytes) {
+                ByteBuffer buf = channel.map(MapMode.READ_ONLY, dict.readBytes, size - dict.readBytes);
+                try {
+                    dict.append(buf);
+                } finally {
+                    MappedBufferUtil.unmap(buf);
+                }
+            }
+        }
+        return dict;
+    }
+
+    /**
+     * Resource names of a binary metric file, indexed by resource ID.
+     */
+    private static class ResourceDictionary {
+
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+        private long readBytes;
+
+        void append(ByteBuffer buf) {
+            // Entries may be partially written, which would be read next time.
+            while (buf.remaining() >= 4) {
+                int length = buf.getInt(buf.position());
+                if (length < 0 || buf.remaining() < 4 + length) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                buf.position(buf.position() + 4);
+                buf.get(bytes);
+                String name = new String(bytes, BinaryMetricFormat.CHARSET);
+                ids.put(name, names.size());
+                names.add(name);
+                readBytes += 4 + length;
+            }
+        }
+
+        String nameOf(int id) {
+            return id >= 0 && id < names.size() ? names.get(id) : null;
+        }
+
+        int idOf(String name) {
+            Integer id = ids.get(name);
+            return id == null ? -2 : id;
+        }
+    }
+}
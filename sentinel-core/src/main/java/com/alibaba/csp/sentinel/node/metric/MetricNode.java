@@ -19,6 +19,8 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
+import com.alibaba.csp.sentinel.slots.statistic.data.LatencyHistogram;
+
 /**
  * Metrics data for a specific resource at given {@code timestamp}.
  *
@@ -50,6 +52,13 @@ public class MetricNode {
      */
     private int concurrency;
 
+    /**
+     * Response time histogram of the second, only kept in memory (not written to metric files).
+     *
+     * @since 2.0.0
+     */
+    private LatencyHistogram rtHistogram;
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -132,6 +141,22 @@ public class MetricNode {
         return this;
     }
 
+    /**
+     * Get the response time histogram of the second, which is only present for resources
+     * with response time histograms enabled.
+     *
+     * @return the histogram, or null if absent
+     * @since 2.0.0
+     */
+    public LatencyHistogram getRtHistogram() {
+        return rtHistogram;
+    }
+
+    public MetricNode setRtHistogram(LatencyHistogram rtHistogram) {
+        this.rtHistogram = rtHistogram;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "MetricNode{" +
@@ -0,0 +1,259 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>The resource index of a metric file ({@code ${metricFileName}.ridx}), which maps a resource to the offsets
+ * of its metrics in the file, so that the metrics of a resource are located without scanning all metrics in
+ * the time range.</p>
+ * <p>
+ * The index is a sequence of fixed-width entries:
+ * </p>
+ * <pre>
+ * second (8) | hash of the resource name (4) | offset of the metric in the metric file (8)
+ * </pre>
+ * <p>
+ * The metrics of a second written at once form a run, which starts with a header entry
+ * ({@code second | count of entries in the run | -1}) and is followed by its entries sorted by hash.
+ * Entries are sorted by second, so that the first run of a second could be found via binary search,
+ * and the entries of the resource within a run via another binary search. A lookup therefore only touches
+ * the run headers of the seconds in the range and the entries of the resource (and those of the same hash),
+ * instead of every entry in the range. As different resources may have the same hash, the resource of each
+ * located metric must be checked. Entries are always flushed after the metrics they refer to.
+ * </p>
+ * <p>
+ * The index is append-only, as it is written along with the metric file, so it is sorted by second first
+ * rather than by resource. The cost is one binary search per run (usually one run per second) in the range.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class MetricResourceIndex {
+
+    static final String FILE_SUFFIX = ".ridx";
+
+    static final int ENTRY_SIZE = 20;
+
+    /**
+     * Offset of the header entry of a run.
+     */
+    private static final long RUN_HEADER = -1;
+
+    static void writeRunHeader(ByteBuffer target, long second, int count) {
+        target.putLong(second);
+        target.putInt(count);
+        target.putLong(RUN_HEADER);
+    }
+
+    static void writeEntry(ByteBuffer target, long second, int hash, long offset) {
+        target.putLong(second);
+        target.putInt(hash);
+        target.putLong(offset);
+    }
+
+    static String formIndexFileName(String metricFileName) {
+        return metricFileName + FILE_SUFFIX;
+    }
+
+    static boolean exists(String metricFileName) {
+        return new File(formIndexFileName(metricFileName)).exists();
+    }
+
+    /**
+     * Find offsets of the metrics of the resource within {@code [beginSecond, endSecond]}.
+     *
+     * @param metricFileName the metric file
+     * @param beginSecond    begin second, inclusive
+     * @param endSecond      end second, inclusive
+     * @param resource       name of the resource
+     * @return offsets of the candidate metrics in order, whose resource should be checked
+     */
+    static Result find(String metricFileName, long beginSecond, long endSecond, String resource)
+        throws IOException {
+        Result result = new Result();
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(Paths.get(formIndexFileName(metricFileName)),
+            StandardOpenOption.READ)) {
+            long size = Math.min(channel.size(), Integer.MAX_VALUE);
+            if (size < ENTRY_SIZE) {
+                return result;
+            }
+            buf = channel.map(MapMode.READ_ONLY, 0, size);
+        }
+        try {
+            // The last entry may be partially written.
+            int count = buf.limit() / ENTRY_SIZE;
+            int hash = resource.hashCode();
+            int i = firstEntryFrom(buf, count, beginSecond);
+            while (i < count) {
+                int pos = i * ENTRY_SIZE;
+                if (buf.getLong(pos) > endSecond) {
+                    result.reachedEnd = true;
+                    break;
+                }
+                if (buf.getLong(pos + 12) != RUN_HEADER) {
+                    // Not expected, take the entry as a run of its own.
+                    if (buf.getInt(pos + 8) == hash) {
+                        result.add(buf.getLong(pos + 12));
+                    }
+                    i++;
+                    continue;
+                }
+                // The last run may be partially written.
+                int runBegin = i + 1;
+                int runEnd = (int)Math.min(count, (long)runBegin + buf.getInt(pos + 8));
+                for (int j = firstEntryOfHash(buf, runBegin, runEnd, hash); j < runEnd; j++) {
+                    int entryPos = j * ENTRY_SIZE;
+                    if (buf.getInt(entryPos + 8) != hash) {
+                        break;
+                    }
+                    result.add(buf.getLong(entryPos + 12));
+                }
+                i = runEnd;
+            }
+        } finally {
+            MappedBufferUtil.unmap(buf);
+        }
+        return result;
+    }
+
+    /**
+     * @return index of the first entry whose second is not less than {@code beginSecond}
+     */
+    private static int firstEntryFrom(ByteBuffer buf, int count, long beginSecond) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buf.getLong(mid * ENTRY_SIZE) < beginSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first entry within the run {@code [low, high)} whose hash is not less than
+     * {@code hash}
+     */
+    private static int firstEntryOfHash(ByteBuffer buf, int low, int high, int hash) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buf.getInt(mid * ENTRY_SIZE + 8) < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Entries of the metrics of a second written at once, which are sorted by hash before written.
+     */
+    static final class Run {
+
+        private int[] hashes = new int[64];
+        private long[] offsets = new long[64];
+        /**
+         * Sort keys of the entries, the hash in the high 32 bits and the index in the low 32 bits,
+         * so that entries of the same hash are kept in the order written.
+         */
+        private long[] keys = new long[64];
+        private int size;
+
+        void add(String resource, long offset) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                keys = new long[size * 2];
+            }
+            hashes[size] = resource.hashCode();
+            offsets[size] = offset;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Sort the entries by hash. Entries are then accessed in order via {@link #hashAt(int)}
+         * and {@link #offsetAt(int)}.
+         */
+        void sort() {
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((long)hashes[i] << 32) | i;
+            }
+            Arrays.sort(keys, 0, size);
+        }
+
+        int hashAt(int i) {
+            return (int)(keys[i] >> 32);
+        }
+
+        long offsetAt(int i) {
+            return offsets[(int)keys[i]];
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    static final class Result {
+
+        private long[] offsets = new long[16];
+        private int size;
+
+        /**
+         * Whether there are metrics after the end second in the file.
+         */
+        private boolean reachedEnd;
+
+        private void add(long offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+
+        long offsetAt(int i) {
+            return offsets[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isReachedEnd() {
+            return reachedEnd;
+        }
+    }
+
+    private MetricResourceIndex() {}
+}
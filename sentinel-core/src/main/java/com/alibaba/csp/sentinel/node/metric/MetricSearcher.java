@@ -55,21 +55,29 @@ public class MetricSearcher {
      * @param charset
      */
     public MetricSearcher(String baseDir, String baseFileName, Charset charset) {
+        this(baseDir, baseFileName, new MetricsReader(checkCharset(charset)));
+    }
+
+    MetricSearcher(String baseDir, String baseFileName, MetricsReader metricsReader) {
         if (baseDir == null) {
             throw new IllegalArgumentException("baseDir can't be null");
         }
         if (baseFileName == null) {
             throw new IllegalArgumentException("baseFileName can't be null");
         }
-        if (charset == null) {
-            throw new IllegalArgumentException("charset can't be null");
-        }
         this.baseDir = baseDir;
         if (!baseDir.endsWith(File.separator)) {
             this.baseDir += File.separator;
         }
         this.baseFileName = baseFileName;
-        metricsReader = new MetricsReader(charset);
+        this.metricsReader = metricsReader;
+    }
+
+    private static Charset checkCharset(Charset charset) {
+        if (charset == null) {
+            throw new IllegalArgumentException("charset can't be null");
+        }
+        return charset;
     }
 
     /**
@@ -15,17 +15,20 @@
  */
 package com.alibaba.csp.sentinel.node.metric;
 
-import java.io.BufferedOutputStream;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.alibaba.csp.sentinel.log.LogBase;
 import com.alibaba.csp.sentinel.util.PidUtil;
@@ -41,6 +44,22 @@ import com.alibaba.csp.sentinel.log.RecordLog;
  * <li>metric of different day should in different file;</li>
  * <li>every metric file is accompanied with an index file, which file name is {@code ${metricFileName}.idx}</li>
  * </ol>
+ * <p>
+ * Metrics are written as text lines by default. In binary format ({@link SentinelConfig#METRIC_FILE_FORMAT}),
+ * metrics are written as fixed-width records (see {@link BinaryMetricFormat}) to files named like
+ * {@code ${appName}-metrics.bin.pid${pid}.yyyy-MM-dd.[number]}, which could be read by {@link BinaryMetricSearcher}.
+ * </p>
+ * <p>
+ * Unless disabled ({@link SentinelConfig#METRIC_RESOURCE_INDEX}), every metric file is also accompanied
+ * with a resource index file ({@code ${metricFileName}.ridx}, see {@link MetricResourceIndex}),
+ * so that metrics of a single resource could be searched without scanning the whole file.
+ * </p>
+ * <p>
+ * Files are written through {@link FileChannel}s with reusable direct buffers. {@link #write(long, List)}
+ * flushes the buffers after each call, while {@link AsyncMetricWriter} writes several batches and flushes
+ * them at once (group commit). Buffers are always flushed in the order of dependency (dictionary, metrics,
+ * then indexes), so that readers never see index entries (or records) referring to data not written yet.
+ * </p>
  *
  * @author Carpenter Lee
  */
@@ -55,9 +74,18 @@ public class MetricWriter {
      * @see #formMetricFileName(String, int)
      */
     public static final String METRIC_FILE = "metrics.log";
+    /**
+     * @since 2.0.0
+     */
+    public static final String METRIC_BINARY_FILE = "metrics.bin";
     public static final String METRIC_FILE_INDEX_SUFFIX = ".idx";
     public static final Comparator<String> METRIC_FILE_NAME_CMP = new MetricFileNameComparator();
 
+    private static final int METRIC_BUFFER_SIZE = 256 * 1024;
+    private static final int INDEX_BUFFER_SIZE = 4 * 1024;
+    private static final int DICT_BUFFER_SIZE = 64 * 1024;
+    private static final int RESOURCE_INDEX_BUFFER_SIZE = 64 * 1024;
+
     private final DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     /**
      * 排除时差干扰
@@ -71,14 +99,33 @@ public class MetricWriter {
     private File curMetricFile;
     private File curMetricIndexFile;
 
-    private FileOutputStream outMetric;
-    private DataOutputStream outIndex;
-    private BufferedOutputStream outMetricBuf;
+    private ChannelWriter outMetric;
+    private ChannelWriter outIndex;
+    /**
+     * Direct buffers reused by the writers of all files.
+     */
+    private final ByteBuffer metricBuffer;
+    private final ByteBuffer indexBuffer;
+    private final ByteBuffer dictBuffer;
+    private final ByteBuffer resourceIndexBuffer;
     private long singleFileSize;
     private int totalFileCount;
     private boolean append = false;
     private final int pid = PidUtil.getPid();
 
+    private final boolean binary;
+    /**
+     * Resource IDs in the dictionary of current binary metric file.
+     */
+    private final Map<String, Integer> resourceIds = new HashMap<>();
+    private File curDictFile;
+    private ChannelWriter outDict;
+
+    private final boolean resourceIndex;
+    private File curResourceIndexFile;
+    private ChannelWriter outResourceIndex;
+    private final MetricResourceIndex.Run resourceIndexRun = new MetricResourceIndex.Run();
+
     /**
      * 秒级统计，忽略毫秒数。
      */
@@ -89,12 +136,35 @@ public class MetricWriter {
     }
 
     public MetricWriter(long singleFileSize, int totalFileCount) {
+        this(singleFileSize, totalFileCount, SentinelConfig.METRIC_FILE_FORMAT_TEXT);
+    }
+
+    /**
+     * @param format either {@link SentinelConfig#METRIC_FILE_FORMAT_TEXT} or
+     *               {@link SentinelConfig#METRIC_FILE_FORMAT_BINARY}
+     * @since 2.0.0
+     */
+    public MetricWriter(long singleFileSize, int totalFileCount, String format) {
+        this(METRIC_BASE_DIR, singleFileSize, totalFileCount, format);
+    }
+
+    MetricWriter(String baseDir, long singleFileSize, int totalFileCount, String format) {
+        this(baseDir, singleFileSize, totalFileCount, format, SentinelConfig.metricResourceIndexEnabled());
+    }
+
+    MetricWriter(String baseDir, long singleFileSize, int totalFileCount, String format, boolean resourceIndex) {
         if (singleFileSize <= 0 || totalFileCount <= 0) {
             throw new IllegalArgumentException();
         }
-        RecordLog.info("[MetricWriter] Creating new MetricWriter, singleFileSize={}, totalFileCount={}",
-            singleFileSize, totalFileCount);
-        this.baseDir = METRIC_BASE_DIR;
+        RecordLog.info("[MetricWriter] Creating new MetricWriter, singleFileSize={}, totalFileCount={}, format={}",
+            singleFileSize, totalFileCount, format);
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
+        this.binary = SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(format);
+        this.resourceIndex = resourceIndex;
+        this.metricBuffer = ByteBuffer.allocateDirect(METRIC_BUFFER_SIZE);
+        this.indexBuffer = ByteBuffer.allocateDirect(INDEX_BUFFER_SIZE);
+        this.dictBuffer = binary ? ByteBuffer.allocateDirect(DICT_BUFFER_SIZE) : null;
+        this.resourceIndexBuffer = resourceIndex ? ByteBuffer.allocateDirect(RESOURCE_INDEX_BUFFER_SIZE) : null;
         File dir = new File(baseDir);
         if (!dir.exists()) {
             dir.mkdirs();
@@ -118,6 +188,16 @@ public class MetricWriter {
      * @param nodes
      */
     public synchronized void write(long time, List<MetricNode> nodes) throws Exception {
+        write(time, nodes, true);
+        flush();
+    }
+
+    /**
+     * Write metrics into the buffers, which are not flushed until full or {@link #flush()}.
+     *
+     * @param checkFiles whether to check the existence of current files (which might be removed by others)
+     */
+    synchronized void write(long time, List<MetricNode> nodes, boolean checkFiles) throws Exception {
         if (nodes == null) {
             return;
         }
@@ -131,61 +211,141 @@ public class MetricWriter {
         }
         // first write, should create file
         if (curMetricFile == null) {
-            baseFileName = formMetricFileName(appName, pid);
+            baseFileName = binary ? formBinaryMetricFileName(appName, pid) : formMetricFileName(appName, pid);
             closeAndNewFile(nextFileNameOfDay(time));
-        }
-        if (!(curMetricFile.exists() && curMetricIndexFile.exists())) {
+        } else if (checkFiles && !currentFilesExist()) {
             closeAndNewFile(nextFileNameOfDay(time));
         }
 
         long second = time / 1000;
         if (second < lastSecond) {
             // 时间靠前的直接忽略，不应该发生。
-        } else if (second == lastSecond) {
-            for (MetricNode node : nodes) {
-                outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-            }
-            outMetricBuf.flush();
-            if (!validSize()) {
-                closeAndNewFile(nextFileNameOfDay(time));
-            }
-        } else {
-            writeIndex(second, outMetric.getChannel().position());
+            return;
+        }
+        if (second > lastSecond) {
             if (isNewDay(lastSecond, second)) {
                 closeAndNewFile(nextFileNameOfDay(time));
-                for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-                }
-                outMetricBuf.flush();
-                if (!validSize()) {
-                    closeAndNewFile(nextFileNameOfDay(time));
-                }
-            } else {
-                for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-                }
-                outMetricBuf.flush();
-                if (!validSize()) {
-                    closeAndNewFile(nextFileNameOfDay(time));
-                }
             }
+            writeIndex(second, outMetric.position());
             lastSecond = second;
         }
+        writeNodes(second, nodes);
+        if (!validSize()) {
+            closeAndNewFile(nextFileNameOfDay(time));
+        }
+    }
+
+    /**
+     * Flush the buffered data to the files.
+     */
+    synchronized void flush() throws IOException {
+        if (outResourceIndex != null) {
+            outResourceIndex.flush();
+        }
+        if (outIndex != null) {
+            outIndex.flush();
+        }
+    }
+
+    /**
+     * Force the written data to the storage device.
+     */
+    synchronized void force() throws IOException {
+        flush();
+        if (outDict != null) {
+            outDict.force();
+        }
+        if (outMetric != null) {
+            outMetric.force();
+        }
+        if (outIndex != null) {
+            outIndex.force();
+        }
+        if (outResourceIndex != null) {
+            outResourceIndex.force();
+        }
     }
 
     public synchronized void close() throws Exception {
-        if (outMetricBuf != null) {
-            outMetricBuf.close();
+        closeWriters();
+    }
+
+    private void closeWriters() throws IOException {
+        // Writers depending on others are closed first, as closing flushes the writers they depend on.
+        if (outResourceIndex != null) {
+            outResourceIndex.close();
         }
         if (outIndex != null) {
             outIndex.close();
         }
+        if (outMetric != null) {
+            outMetric.close();
+        }
+        if (outDict != null) {
+            outDict.close();
+        }
+    }
+
+    private boolean currentFilesExist() {
+        return curMetricFile.exists() && curMetricIndexFile.exists() && (!binary || curDictFile.exists())
+            && (!resourceIndex || curResourceIndexFile.exists());
+    }
+
+    private void writeNodes(long second, List<MetricNode> nodes) throws Exception {
+        resourceIndexRun.clear();
+        if (binary) {
+            writeBinaryNodes(second, nodes);
+            return;
+        }
+        for (MetricNode node : nodes) {
+            long offset = outMetric.position();
+            outMetric.write(node.toFatString().getBytes(CHARSET));
+            if (resourceIndex) {
+                resourceIndexRun.add(node.getResource(), offset);
+            }
+        }
+        writeResourceIndexRun(second);
+    }
+
+    private void writeBinaryNodes(long second, List<MetricNode> nodes) throws Exception {
+        for (MetricNode node : nodes) {
+            String resource = node.getResource();
+            Integer resourceId = resourceIds.get(resource);
+            if (resourceId == null) {
+                byte[] name = resource.getBytes(BinaryMetricFormat.CHARSET);
+                outDict.reserve(4).putInt(name.length);
+                outDict.write(name);
+                resourceId = resourceIds.size();
+                resourceIds.put(resource, resourceId);
+            }
+            long offset = outMetric.position();
+            BinaryMetricFormat.writeRecord(node, resourceId, outMetric.reserve(BinaryMetricFormat.RECORD_SIZE));
+            if (resourceIndex) {
+                resourceIndexRun.add(resource, offset);
+            }
+        }
+        writeResourceIndexRun(second);
+    }
+
+    private void writeResourceIndexRun(long second) throws Exception {
+        MetricResourceIndex.Run run = resourceIndexRun;
+        if (!resourceIndex || run.size() == 0) {
+            return;
+        }
+        run.sort();
+        MetricResourceIndex.writeRunHeader(outResourceIndex.reserve(MetricResourceIndex.ENTRY_SIZE), second,
+            run.size());
+        for (int i = 0; i < run.size(); i++) {
+            MetricResourceIndex.writeEntry(outResourceIndex.reserve(MetricResourceIndex.ENTRY_SIZE), second,
+                run.hashAt(i), run.offsetAt(i));
+        }
+        run.clear();
     }
 
     private void writeIndex(long time, long offset) throws Exception {
-        outIndex.writeLong(time);
-        outIndex.writeLong(offset);
-        outIndex.flush();
+        ByteBuffer buf = outIndex.reserve(16);
+        buf.putLong(time);
+        buf.putLong(offset);
     }
 
     private String nextFileNameOfDay(long time) {
@@ -198,6 +358,8 @@ public class MetricWriter {
             String fileName = file.getName();
             if (fileName.contains(fileNameModel)
                 && !fileName.endsWith(METRIC_FILE_INDEX_SUFFIX)
+                && !fileName.endsWith(BinaryMetricFormat.DICT_FILE_SUFFIX)
+                && !fileName.endsWith(MetricResourceIndex.FILE_SUFFIX)
                 && !fileName.endsWith(".lck")) {
                 list.add(file.getAbsolutePath());
             }
@@ -330,30 +492,45 @@ public class MetricWriter {
             RecordLog.info("[MetricWriter] Removing metric file: {}", fileName);
             new File(indexFile).delete();
             RecordLog.info("[MetricWriter] Removing metric index file: {}", indexFile);
+            File dictFile = new File(BinaryMetricFormat.formDictFileName(fileName));
+            if (dictFile.exists()) {
+                dictFile.delete();
+                RecordLog.info("[MetricWriter] Removing metric dictionary file: {}", dictFile.getPath());
+            }
+            File resourceIndexFile = new File(MetricResourceIndex.formIndexFileName(fileName));
+            if (resourceIndexFile.exists()) {
+                resourceIndexFile.delete();
+                RecordLog.info("[MetricWriter] Removing metric resource index file: {}", resourceIndexFile.getPath());
+            }
         }
     }
 
     private void closeAndNewFile(String fileName) throws Exception {
         removeMoreFiles();
-        if (outMetricBuf != null) {
-            outMetricBuf.close();
-        }
-        if (outIndex != null) {
-            outIndex.close();
+        closeWriters();
+        if (binary) {
+            curDictFile = new File(BinaryMetricFormat.formDictFileName(fileName));
+            outDict = new ChannelWriter(curDictFile, append, dictBuffer, null);
+            resourceIds.clear();
         }
-        outMetric = new FileOutputStream(fileName, append);
-        outMetricBuf = new BufferedOutputStream(outMetric);
         curMetricFile = new File(fileName);
+        outMetric = new ChannelWriter(curMetricFile, append, metricBuffer, outDict);
+        if (binary) {
+            BinaryMetricFormat.writeHeader(outMetric.reserve(BinaryMetricFormat.HEADER_SIZE));
+        }
         String idxFile = formIndexFileName(fileName);
         curMetricIndexFile = new File(idxFile);
-        outIndex = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(idxFile, append)));
+        outIndex = new ChannelWriter(curMetricIndexFile, append, indexBuffer, outMetric);
+        if (resourceIndex) {
+            curResourceIndexFile = new File(MetricResourceIndex.formIndexFileName(fileName));
+            outResourceIndex = new ChannelWriter(curResourceIndexFile, append, resourceIndexBuffer, outMetric);
+        }
         RecordLog.info("[MetricWriter] New metric file created: {}", fileName);
         RecordLog.info("[MetricWriter] New metric index file created: {}", idxFile);
     }
 
-    private boolean validSize() throws Exception {
-        long size = outMetric.getChannel().size();
-        return size < singleFileSize;
+    private boolean validSize() {
+        return outMetric.position() < singleFileSize;
     }
 
     private boolean isNewDay(long lastSecond, long second) {
@@ -374,6 +551,22 @@ public class MetricWriter {
      * @return metric file name.
      */
     public static String formMetricFileName(String appName, int pid) {
+        return formMetricFileName(appName, pid, METRIC_FILE);
+    }
+
+    /**
+     * Form binary metric file name use the specific appName and pid, like {@link #formMetricFileName(String, int)}.
+     *
+     * @param appName
+     * @param pid
+     * @return binary metric file name.
+     * @since 2.0.0
+     */
+    public static String formBinaryMetricFileName(String appName, int pid) {
+        return formMetricFileName(appName, pid, METRIC_BINARY_FILE);
+    }
+
+    private static String formMetricFileName(String appName, int pid, String metricFile) {
         if (appName == null) {
             appName = "";
         }
@@ -383,7 +576,7 @@ public class MetricWriter {
         if (appName.contains(dot)) {
             appName = appName.replace(dot, separator);
         }
-        String name = appName + separator + METRIC_FILE;
+        String name = appName + separator + metricFile;
         if (LogBase.isLogNameUsePid()) {
             name += ".pid" + pid;
         }
@@ -399,4 +592,88 @@ public class MetricWriter {
     public static String formIndexFileName(String metricFileName) {
         return metricFileName + METRIC_FILE_INDEX_SUFFIX;
     }
+
+    /**
+     * Writes a file through a buffer. Before the buffer is flushed, the buffer of the writer
+     * it depends on (if any) is flushed, so that data is always written after the data it refers to.
+     */
+    private static final class ChannelWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final ChannelWriter upstream;
+        /**
+         * Bytes written to the channel.
+         */
+        private long written;
+
+        ChannelWriter(File file, boolean append, ByteBuffer buffer, ChannelWriter upstream) throws IOException {
+            this.channel = append
+                ? FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)
+                : FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = buffer;
+            this.upstream = upstream;
+            this.written = channel.size();
+            buffer.clear();
+        }
+
+        /**
+         * @return position in the file (including buffered data) where the next byte is written
+         */
+        long position() {
+            return written + buffer.position();
+        }
+
+        /**
+         * Make sure the buffer could hold {@code size} more bytes.
+         *
+         * @return the buffer to put the data into
+         */
+        ByteBuffer reserve(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                flush();
+            }
+            return buffer;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (buffer.remaining() < bytes.length) {
+                flush();
+                if (bytes.length > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(bytes));
+                    return;
+                }
+            }
+            buffer.put(bytes);
+        }
+
+        void flush() throws IOException {
+            if (upstream != null) {
+                upstream.flush();
+            }
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        void force() throws IOException {
+            channel.force(false);
+        }
+
+        void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void writeFully(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                written += channel.write(src);
+            }
+        }
+    }
 }
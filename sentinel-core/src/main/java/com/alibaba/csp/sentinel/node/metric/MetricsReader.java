@@ -18,7 +18,12 @@ package com.alibaba.csp.sentinel.node.metric;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,7 +35,7 @@ class MetricsReader {
     /**
      * Avoid OOM in any cases.
      */
-    private static final int MAX_LINES_RETURN = 100000;
+    static final int MAX_LINES_RETURN = 100000;
 
     private final Charset charset;
 
@@ -80,6 +85,53 @@ class MetricsReader {
         return true;
     }
 
+    /**
+     * Read metrics of the resource via the resource index of the file (see {@link MetricResourceIndex}).
+     *
+     * @return if should continue read, return true, else false.
+     */
+    boolean readMetricsInOneFileByResource(List<MetricNode> list, String fileName, long beginTimeMs,
+                                           long endTimeMs, String identity) throws Exception {
+        MetricResourceIndex.Result result = MetricResourceIndex.find(fileName, beginTimeMs / 1000,
+            endTimeMs / 1000, identity);
+        if (result.size() > 0) {
+            readMetricsAt(list, fileName, result, identity);
+        }
+        return !result.isReachedEnd() && list.size() < MAX_LINES_RETURN;
+    }
+
+    /**
+     * Read the metrics at the given offsets, which are candidates of the resource.
+     */
+    void readMetricsAt(List<MetricNode> list, String fileName, MetricResourceIndex.Result offsets,
+                       String identity) throws Exception {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            ByteBuffer buf = channel.map(MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+            try {
+                for (int i = 0; i < offsets.size() && list.size() < MAX_LINES_RETURN; i++) {
+                    MetricNode node = MetricNode.fromFatString(readLine(buf, (int) offsets.offsetAt(i)));
+                    if (node.getResource().equals(identity)) {
+                        list.add(node);
+                    }
+                }
+            } finally {
+                MappedBufferUtil.unmap(buf);
+            }
+        }
+    }
+
+    private String readLine(ByteBuffer buf, int offset) {
+        int end = offset;
+        while (end < buf.limit() && buf.get(end) != '\n') {
+            end++;
+        }
+        byte[] bytes = new byte[end - offset];
+        ByteBuffer line = buf.duplicate();
+        line.position(offset);
+        line.get(bytes);
+        return new String(bytes, charset);
+    }
+
     void readMetricsInOneFile(List<MetricNode> list, String fileName,
                               long offset, int recommendLines) throws Exception {
         //if(list.size() >= recommendLines){
@@ -122,14 +174,24 @@ class MetricsReader {
     List<MetricNode> readMetricsByEndTime(List<String> fileNames, int pos, long offset,
                                           long beginTimeMs, long endTimeMs, String identity) throws Exception {
         List<MetricNode> list = new ArrayList<MetricNode>(1024);
-        if (readMetricsInOneFileByEndTime(list, fileNames.get(pos++), offset, beginTimeMs, endTimeMs, identity)) {
+        if (readMetricsInOneFileByEndTime0(list, fileNames.get(pos++), offset, beginTimeMs, endTimeMs, identity)) {
             while (pos < fileNames.size()
-                && readMetricsInOneFileByEndTime(list, fileNames.get(pos++), 0, beginTimeMs, endTimeMs, identity)) {
+                && readMetricsInOneFileByEndTime0(list, fileNames.get(pos++), 0, beginTimeMs, endTimeMs, identity)) {
             }
         }
         return list;
     }
 
+    private boolean readMetricsInOneFileByEndTime0(List<MetricNode> list, String fileName, long offset,
+                                                   long beginTimeMs, long endTimeMs, String identity)
+        throws Exception {
+        // Files written without the resource index are scanned.
+        if (identity != null && MetricResourceIndex.exists(fileName)) {
+            return readMetricsInOneFileByResource(list, fileName, beginTimeMs, endTimeMs, identity);
+        }
+        return readMetricsInOneFileByEndTime(list, fileName, offset, beginTimeMs, endTimeMs, identity);
+    }
+
     List<MetricNode> readMetrics(List<String> fileNames, int pos,
                                  long offset, int recommendLines) throws Exception {
         List<MetricNode> list = new ArrayList<MetricNode>(recommendLines);
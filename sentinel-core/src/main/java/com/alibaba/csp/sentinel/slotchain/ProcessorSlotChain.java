@@ -22,6 +22,8 @@ package com.alibaba.csp.sentinel.slotchain;
  */
 public abstract class ProcessorSlotChain extends AbstractLinkedProcessorSlot<Object> {
 
+    private volatile boolean removed = false;
+
     /**
      * Add a processor to the head of this slot chain.
      *
@@ -35,4 +37,24 @@ public abstract class ProcessorSlotChain extends AbstractLinkedProcessorSlot<Obj
      * @param protocolProcessor processor to be added.
      */
     public abstract void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor);
+
+    /**
+     * Check whether the slot chain has been removed (e.g. evicted when idle), so that holders of the chain
+     * (e.g. {@code ResourceHandle}) should resolve the chain of the resource again.
+     *
+     * @return whether the slot chain has been removed
+     * @since 2.0.0
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    /**
+     * Mark the slot chain as removed. Only for the registry of the slot chains.
+     *
+     * @since 2.0.0
+     */
+    public void markRemoved() {
+        this.removed = true;
+    }
 }
@@ -35,10 +35,44 @@ public final class RuleConstant {
      * Degrade by biz exception count in the last 60 seconds.
      */
     public static final int DEGRADE_GRADE_EXCEPTION_COUNT = 2;
+    /**
+     * Degrade by the response time at a percentile (e.g. p99) in the statistic interval.
+     *
+     * @since 2.0.0
+     */
+    public static final int DEGRADE_GRADE_RT_PERCENTILE = 3;
 
     public static final int DEGRADE_DEFAULT_SLOW_REQUEST_AMOUNT = 5;
     public static final int DEGRADE_DEFAULT_MIN_REQUEST_AMOUNT = 5;
 
+    /**
+     * Adaptive concurrency limit by the gradient between the long-term and the recent response time.
+     *
+     * @since 2.0.0
+     */
+    public static final int CONCURRENCY_LIMIT_GRADIENT = 0;
+    /**
+     * Adaptive concurrency limit by the queue size estimated from the minimum and the recent response time
+     * (TCP Vegas style).
+     *
+     * @since 2.0.0
+     */
+    public static final int CONCURRENCY_LIMIT_VEGAS = 1;
+
+    /**
+     * System protection that rejects all inbound traffic when the system is overloaded.
+     *
+     * @since 2.0.0
+     */
+    public static final int SYSTEM_STRATEGY_GLOBAL = 0;
+    /**
+     * System protection that sheds inbound traffic per resource by its cost (RT x QPS) when the system
+     * is overloaded, so the most expensive resources are throttled first.
+     *
+     * @since 2.0.0
+     */
+    public static final int SYSTEM_STRATEGY_RESOURCE_WEIGHTED = 1;
+
     public static final int AUTHORITY_WHITE = 0;
     public static final int AUTHORITY_BLACK = 1;
 
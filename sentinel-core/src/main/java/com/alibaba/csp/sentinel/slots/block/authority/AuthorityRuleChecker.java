@@ -16,8 +16,6 @@
 package com.alibaba.csp.sentinel.slots.block.authority;
 
 import com.alibaba.csp.sentinel.context.Context;
-import com.alibaba.csp.sentinel.slots.block.RuleConstant;
-import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
  * Rule checker for white/black list authority.
@@ -27,36 +25,12 @@ import com.alibaba.csp.sentinel.util.StringUtil;
  */
 final class AuthorityRuleChecker {
 
+	/**
+	 * Check the rule by compiling it on the fly. {@link AuthoritySlot} checks the matchers
+	 * compiled at rule-load time (see {@link AuthorityRuleMatcher}) instead.
+	 */
 	static boolean passCheck(AuthorityRule rule, Context context) {
-		String requester = context.getOrigin();
-
-		if (StringUtil.isEmpty(requester) || StringUtil.isEmpty(rule.getLimitApp())) { return true; }
-		//先粗略匹配，再精确匹配
-		int pos = rule.getLimitApp().indexOf(requester);
-		boolean contain = pos > -1;
-
-		if (contain) {
-			boolean exactlyMatch = false;
-			//按逗号进行分割
-			String[] appArray = rule.getLimitApp().split(",");
-			for (String app : appArray) {
-				//没有处理空格
-				//精确匹配
-				if (requester.equals(app)) {
-					exactlyMatch = true;
-					break;
-				}
-			}
-
-			contain = exactlyMatch;
-		}
-
-		int strategy = rule.getStrategy();
-		//在黑名单内
-		if (strategy == RuleConstant.AUTHORITY_BLACK && contain) { return false; }
-		//不在白名单内
-		if (strategy == RuleConstant.AUTHORITY_WHITE && !contain) { return false; }
-		return true;
+		return new AuthorityRuleMatcher(rule).passCheck(context.getOrigin());
 	}
 
 	private AuthorityRuleChecker() {
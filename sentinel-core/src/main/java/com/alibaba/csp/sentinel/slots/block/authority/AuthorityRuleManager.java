@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slots.block.authority;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +41,10 @@ import com.alibaba.csp.sentinel.property.SentinelProperty;
 public final class AuthorityRuleManager {
 
     private static volatile Map<String, Set<AuthorityRule>> authorityRules = new ConcurrentHashMap<>();
+    /**
+     * Rules compiled for checking, which are always updated before {@link #authorityRules}.
+     */
+    private static volatile Map<String, AuthorityRuleMatcher> ruleMatchers = new HashMap<>();
 
     private static final RulePropertyListener LISTENER = new RulePropertyListener();
     private static SentinelProperty<List<AuthorityRule>> currentProperty = new DynamicSentinelProperty<>();
@@ -93,14 +98,18 @@ public final class AuthorityRuleManager {
 
         @Override
         public synchronized void configLoad(List<AuthorityRule> value) {
-            authorityRules = loadAuthorityConf(value);
+            Map<String, Set<AuthorityRule>> rules = loadAuthorityConf(value);
+            ruleMatchers = compile(rules);
+            authorityRules = rules;
 
             RecordLog.info("[AuthorityRuleManager] Authority rules loaded: {}", authorityRules);
         }
 
         @Override
         public synchronized void configUpdate(List<AuthorityRule> conf) {
-            authorityRules = loadAuthorityConf(conf);
+            Map<String, Set<AuthorityRule>> rules = loadAuthorityConf(conf);
+            ruleMatchers = compile(rules);
+            authorityRules = rules;
             
             RecordLog.info("[AuthorityRuleManager] Authority rules received: {}", authorityRules);
         }
@@ -138,12 +147,26 @@ public final class AuthorityRuleManager {
             return newRuleMap;
         }
 
+        private Map<String, AuthorityRuleMatcher> compile(Map<String, Set<AuthorityRule>> rules) {
+            // The map is never modified after published, so a plain HashMap is enough.
+            Map<String, AuthorityRuleMatcher> matchers = new HashMap<>();
+            for (Map.Entry<String, Set<AuthorityRule>> entry : rules.entrySet()) {
+                for (AuthorityRule rule : entry.getValue()) {
+                    matchers.put(entry.getKey(), new AuthorityRuleMatcher(rule));
+                }
+            }
+            return matchers;
+        }
     }
 
     static Map<String, Set<AuthorityRule>> getAuthorityRules() {
         return authorityRules;
     }
 
+    static Map<String, AuthorityRuleMatcher> getRuleMatchers() {
+        return ruleMatchers;
+    }
+
     public static boolean isValidRule(AuthorityRule rule) {
         return rule != null && !StringUtil.isBlank(rule.getResource())
             && rule.getStrategy() >= 0 && StringUtil.isNotBlank(rule.getLimitApp());
@@ -0,0 +1,86 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.authority;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>An {@link AuthorityRule} compiled at rule-load time, whose origins ({@code limitApp} split by comma)
+ * are kept in a hash set, so that an origin is checked with a single lookup.</p>
+ * <p>
+ * Origins are matched exactly as {@link AuthorityRuleChecker} always did: items are not trimmed.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class AuthorityRuleMatcher {
+
+    private final AuthorityRule rule;
+    private final boolean blacklist;
+    /**
+     * The only origin of the rule, which avoids hashing for the common single-origin rules.
+     */
+    private final String singleOrigin;
+    private final Set<String> origins;
+
+    AuthorityRuleMatcher(AuthorityRule rule) {
+        this.rule = rule;
+        this.blacklist = rule.getStrategy() == RuleConstant.AUTHORITY_BLACK;
+        String limitApp = rule.getLimitApp();
+        if (StringUtil.isEmpty(limitApp) || limitApp.indexOf(',') < 0) {
+            this.singleOrigin = limitApp;
+            this.origins = null;
+        } else {
+            this.singleOrigin = null;
+            Set<String> set = new HashSet<>();
+            for (String app : limitApp.split(",")) {
+                set.add(app);
+            }
+            this.origins = set;
+        }
+    }
+
+    AuthorityRule getRule() {
+        return rule;
+    }
+
+    boolean contains(String origin) {
+        if (origins == null) {
+            return origin.equals(singleOrigin);
+        }
+        return origins.contains(origin);
+    }
+
+    /**
+     * @param origin origin of the request
+     * @return whether the request from the origin passes the rule
+     */
+    boolean passCheck(String origin) {
+        if (StringUtil.isEmpty(origin) || StringUtil.isEmpty(rule.getLimitApp())) {
+            return true;
+        }
+        boolean contain = contains(origin);
+        if (blacklist) {
+            return !contain;
+        }
+        // Whitelist, or the strategy is unknown (always passes).
+        return contain || rule.getStrategy() != RuleConstant.AUTHORITY_WHITE;
+    }
+}
@@ -16,7 +16,6 @@
 package com.alibaba.csp.sentinel.slots.block.authority;
 
 import java.util.Map;
-import java.util.Set;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.context.Context;
@@ -42,16 +41,11 @@ public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 	}
 
 	void checkBlackWhiteAuthority(ResourceWrapper resource, Context context) throws AuthorityException {
-		//获取通过AuthorityRuleManager.loadRules()加载的授权规则
-		Map<String, Set<AuthorityRule>> authorityRules = AuthorityRuleManager.getAuthorityRules();
-		//如果授权规则为空，则直接返回
-		if (authorityRules == null) { return; }
-		//根据资源名查找授权规则
-		Set<AuthorityRule> rules = authorityRules.get(resource.getName());
-		if (rules == null) { return; }
-		for (AuthorityRule rule : rules) {
-			//遍历所有的授权规则，逐条校验，如果有一条规则不通过，则抛出AuthorityException，AuthorityException是BlockException的子类
-			if (!AuthorityRuleChecker.passCheck(rule, context)) { throw new AuthorityException(context.getOrigin(), rule); }
-		}
+		//获取通过AuthorityRuleManager.loadRules()加载并预编译的授权规则
+		Map<String, AuthorityRuleMatcher> matchers = AuthorityRuleManager.getRuleMatchers();
+		//根据资源名查找授权规则（每个资源至多一条），一次哈希查找即可完成黑白名单校验
+		AuthorityRuleMatcher matcher = matchers.get(resource.getName());
+		if (matcher == null) { return; }
+		if (!matcher.passCheck(context.getOrigin())) { throw new AuthorityException(context.getOrigin(), matcher.getRule()); }
 	}
 }
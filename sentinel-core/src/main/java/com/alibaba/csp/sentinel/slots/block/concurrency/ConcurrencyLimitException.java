@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * Block exception thrown when the concurrency of a resource reaches its adaptive limit.
+ *
+ * @since 2.0.0
+ */
+public class ConcurrencyLimitException extends BlockException {
+
+    public ConcurrencyLimitException(String ruleLimitApp) {
+        super(ruleLimitApp);
+    }
+
+    public ConcurrencyLimitException(String ruleLimitApp, ConcurrencyLimitRule rule) {
+        super(ruleLimitApp, rule);
+    }
+
+    public ConcurrencyLimitException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ConcurrencyLimitException(String ruleLimitApp, String message) {
+        super(ruleLimitApp, message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+
+    /**
+     * Get triggered rule.
+     * Note: the rule result is a reference to rule map and SHOULD NOT be modified.
+     *
+     * @return triggered rule
+     */
+    @Override
+    public ConcurrencyLimitRule getRule() {
+        return rule.as(ConcurrencyLimitRule.class);
+    }
+}
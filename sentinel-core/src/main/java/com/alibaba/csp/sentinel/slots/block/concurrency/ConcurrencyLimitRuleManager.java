@@ -0,0 +1,225 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
+import com.alibaba.csp.sentinel.property.PropertyListener;
+import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * The rule manager for adaptive concurrency limit rules ({@link ConcurrencyLimitRule}).
+ *
+ * @since 2.0.0
+ */
+public final class ConcurrencyLimitRuleManager {
+
+    private static volatile Map<String, List<ConcurrencyLimiter>> limiters = new HashMap<>();
+    private static volatile Map<String, Set<ConcurrencyLimitRule>> ruleMap = new HashMap<>();
+
+    private static final RulePropertyListener LISTENER = new RulePropertyListener();
+    private static SentinelProperty<List<ConcurrencyLimitRule>> currentProperty = new DynamicSentinelProperty<>();
+
+    static {
+        currentProperty.addListener(LISTENER);
+    }
+
+    /**
+     * Listen to the {@link SentinelProperty} for {@link ConcurrencyLimitRule}s. The property is the source
+     * of {@link ConcurrencyLimitRule}s. Rules can also be set by {@link #loadRules(List)} directly.
+     *
+     * @param property the property to listen.
+     */
+    public static void register2Property(SentinelProperty<List<ConcurrencyLimitRule>> property) {
+        AssertUtil.notNull(property, "property cannot be null");
+        synchronized (LISTENER) {
+            RecordLog.info("[ConcurrencyLimitRuleManager] Registering new property to concurrency limit rule manager");
+            currentProperty.removeListener(LISTENER);
+            property.addListener(LISTENER);
+            currentProperty = property;
+        }
+    }
+
+    static List<ConcurrencyLimiter> getLimiters(String resourceName) {
+        return limiters.get(resourceName);
+    }
+
+    public static boolean hasConfig(String resource) {
+        if (resource == null) {
+            return false;
+        }
+        return limiters.containsKey(resource);
+    }
+
+    /**
+     * Get the current concurrency limit of the resource, i.e. the least limit of its rules.
+     *
+     * @param resource valid resource name
+     * @return the current concurrency limit, or -1 if no rules of the resource were loaded
+     */
+    public static int getCurrentLimit(String resource) {
+        List<ConcurrencyLimiter> list = limiters.get(resource);
+        if (list == null || list.isEmpty()) {
+            return -1;
+        }
+        int limit = Integer.MAX_VALUE;
+        for (ConcurrencyLimiter limiter : list) {
+            limit = Math.min(limit, limiter.getLimit());
+        }
+        return limit;
+    }
+
+    /**
+     * <p>Get existing concurrency limit rules.</p>
+     * <p>Note: DO NOT modify the rules from the returned list directly.
+     * The behavior is <strong>undefined</strong>.</p>
+     *
+     * @return list of existing concurrency limit rules, or empty list if no rules were loaded
+     */
+    public static List<ConcurrencyLimitRule> getRules() {
+        List<ConcurrencyLimitRule> rules = new ArrayList<>();
+        for (Map.Entry<String, Set<ConcurrencyLimitRule>> entry : ruleMap.entrySet()) {
+            rules.addAll(entry.getValue());
+        }
+        return rules;
+    }
+
+    /**
+     * Load {@link ConcurrencyLimitRule}s, former rules will be replaced.
+     *
+     * @param rules new rules to load.
+     */
+    public static void loadRules(List<ConcurrencyLimitRule> rules) {
+        try {
+            currentProperty.updateValue(rules);
+        } catch (Throwable e) {
+            RecordLog.error("[ConcurrencyLimitRuleManager] Unexpected error when loading concurrency limit rules", e);
+        }
+    }
+
+    private static ConcurrencyLimiter getExistingSameLimiterOrNew(/*@Valid*/ ConcurrencyLimitRule rule) {
+        List<ConcurrencyLimiter> list = getLimiters(rule.getResource());
+        if (list != null) {
+            for (ConcurrencyLimiter limiter : list) {
+                if (rule.equals(limiter.getRule())) {
+                    // Reuse the limiter (and its estimated limit) if the rule remains unchanged.
+                    return limiter;
+                }
+            }
+        }
+        return newLimiterFrom(rule);
+    }
+
+    /**
+     * Create a concurrency limiter instance from provided rule.
+     *
+     * @param rule a valid concurrency limit rule
+     * @return new limiter based on provided rule; null if the strategy is unsupported
+     */
+    private static ConcurrencyLimiter newLimiterFrom(/*@Valid*/ ConcurrencyLimitRule rule) {
+        switch (rule.getStrategy()) {
+            case RuleConstant.CONCURRENCY_LIMIT_GRADIENT:
+                return new GradientConcurrencyLimiter(rule);
+            case RuleConstant.CONCURRENCY_LIMIT_VEGAS:
+                return new VegasConcurrencyLimiter(rule);
+            default:
+                return null;
+        }
+    }
+
+    public static boolean isValidRule(ConcurrencyLimitRule rule) {
+        return rule != null && !StringUtil.isBlank(rule.getResource())
+            && rule.getStrategy() >= 0
+            && rule.getMinLimit() > 0 && rule.getMaxLimit() >= rule.getMinLimit()
+            && rule.getInitialLimit() >= rule.getMinLimit() && rule.getInitialLimit() <= rule.getMaxLimit()
+            && rule.getSmoothing() > 0 && rule.getSmoothing() <= 1
+            && rule.getRtTolerance() >= 1 && rule.getUpdateIntervalMs() > 0;
+    }
+
+    private static class RulePropertyListener implements PropertyListener<List<ConcurrencyLimitRule>> {
+
+        private synchronized void reloadFrom(List<ConcurrencyLimitRule> list) {
+            Map<String, List<ConcurrencyLimiter>> newLimiters = buildLimiters(list);
+            Map<String, Set<ConcurrencyLimitRule>> rm = new HashMap<>(newLimiters.size());
+
+            for (Map.Entry<String, List<ConcurrencyLimiter>> e : newLimiters.entrySet()) {
+                Set<ConcurrencyLimitRule> rules = new HashSet<>(e.getValue().size());
+                for (ConcurrencyLimiter limiter : e.getValue()) {
+                    rules.add(limiter.getRule());
+                }
+                rm.put(e.getKey(), rules);
+            }
+
+            ConcurrencyLimitRuleManager.limiters = newLimiters;
+            ConcurrencyLimitRuleManager.ruleMap = rm;
+        }
+
+        @Override
+        public void configUpdate(List<ConcurrencyLimitRule> conf) {
+            reloadFrom(conf);
+            RecordLog.info("[ConcurrencyLimitRuleManager] Concurrency limit rules has been updated to: {}", ruleMap);
+        }
+
+        @Override
+        public void configLoad(List<ConcurrencyLimitRule> conf) {
+            reloadFrom(conf);
+            RecordLog.info("[ConcurrencyLimitRuleManager] Concurrency limit rules loaded: {}", ruleMap);
+        }
+
+        private Map<String, List<ConcurrencyLimiter>> buildLimiters(List<ConcurrencyLimitRule> list) {
+            Map<String, List<ConcurrencyLimiter>> limiterMap = new HashMap<>(8);
+            if (list == null || list.isEmpty()) {
+                return limiterMap;
+            }
+            for (ConcurrencyLimitRule rule : list) {
+                if (!isValidRule(rule)) {
+                    RecordLog.warn("[ConcurrencyLimitRuleManager] Ignoring invalid rule when loading new rules: {}",
+                        rule);
+                    continue;
+                }
+
+                if (StringUtil.isBlank(rule.getLimitApp())) {
+                    rule.setLimitApp(RuleConstant.LIMIT_APP_DEFAULT);
+                }
+                ConcurrencyLimiter limiter = getExistingSameLimiterOrNew(rule);
+                if (limiter == null) {
+                    RecordLog.warn("[ConcurrencyLimitRuleManager] Unknown concurrency limit strategy, ignoring: {}",
+                        rule);
+                    continue;
+                }
+
+                String resourceName = rule.getResource();
+                List<ConcurrencyLimiter> limiterList = limiterMap.get(resourceName);
+                if (limiterList == null) {
+                    limiterList = new ArrayList<>();
+                    limiterMap.put(resourceName, limiterList);
+                }
+                limiterList.add(limiter);
+            }
+            return limiterMap;
+        }
+    }
+}
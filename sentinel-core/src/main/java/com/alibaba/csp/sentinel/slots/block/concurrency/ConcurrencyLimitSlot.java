@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.spi.Spi;
+
+/**
+ * <p>
+ * A {@link com.alibaba.csp.sentinel.slotchain.ProcessorSlot} that limits the concurrency of the resource
+ * to an adaptive limit ({@link ConcurrencyLimitRule}).
+ * </p>
+ * <p>
+ * The concurrency and the response time are read from the {@link ClusterNode} of the resource, which has
+ * recorded the completed request when the slot exits, as the {@code StatisticSlot} exits before this slot.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+@Spi(order = Constants.ORDER_CONCURRENCY_LIMIT_SLOT)
+public class ConcurrencyLimitSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+
+    @Override
+    public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                      boolean prioritized, Object... args) throws Throwable {
+        performChecking(resourceWrapper, node, count);
+        fireEntry(context, resourceWrapper, node, count, prioritized, args);
+    }
+
+    void performChecking(ResourceWrapper r, DefaultNode node, int count) throws BlockException {
+        List<ConcurrencyLimiter> limiters = ConcurrencyLimitRuleManager.getLimiters(r.getName());
+        if (limiters == null || limiters.isEmpty() || node == null || node.getClusterNode() == null) {
+            return;
+        }
+        int curThreadNum = node.getClusterNode().curThreadNum();
+        for (ConcurrencyLimiter limiter : limiters) {
+            if (!limiter.tryPass(curThreadNum, count)) {
+                throw new ConcurrencyLimitException(limiter.getRule().getLimitApp(), limiter.getRule());
+            }
+        }
+    }
+
+    @Override
+    public void exit(Context context, ResourceWrapper r, int count, Object... args) {
+        Entry curEntry = context.getCurEntry();
+        if (curEntry.getBlockError() == null) {
+            List<ConcurrencyLimiter> limiters = ConcurrencyLimitRuleManager.getLimiters(r.getName());
+            Node node = curEntry.getCurNode();
+            if (limiters != null && node instanceof DefaultNode) {
+                ClusterNode clusterNode = ((DefaultNode)node).getClusterNode();
+                if (clusterNode != null) {
+                    for (ConcurrencyLimiter limiter : limiters) {
+                        limiter.onRequestComplete(clusterNode);
+                    }
+                }
+            }
+        }
+        fireExit(context, r, count, args);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Adaptive concurrency limit of a resource, estimated from the response time of the resource.</p>
+ * <p>
+ * Requests are admitted while the current concurrency ({@link Node#curThreadNum()}) is below the limit.
+ * At most once per update interval, the limit is estimated again from the recent average and minimum RT
+ * of the resource ({@link Node#avgRt()} and {@link Node#minRt()}), then smoothed and bounded by the rule.
+ * The limit never grows when the resource is not busy (the max concurrency since the last update is below
+ * half of the limit), as the response time says nothing about a higher concurrency then.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public abstract class ConcurrencyLimiter {
+
+    protected final ConcurrencyLimitRule rule;
+
+    private final AtomicLong nextUpdateTime;
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private volatile double estimatedLimit;
+
+    protected ConcurrencyLimiter(ConcurrencyLimitRule rule) {
+        AssertUtil.isTrue(ConcurrencyLimitRuleManager.isValidRule(rule), "Invalid ConcurrencyLimitRule: " + rule);
+        this.rule = rule;
+        this.estimatedLimit = rule.getInitialLimit();
+        this.nextUpdateTime = new AtomicLong(TimeUtil.currentTimeMillis() + rule.getUpdateIntervalMs());
+    }
+
+    public ConcurrencyLimitRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Get the current concurrency limit.
+     *
+     * @return the current concurrency limit
+     */
+    public int getLimit() {
+        return (int)estimatedLimit;
+    }
+
+    /**
+     * Check whether the requests could pass under the current limit.
+     *
+     * @param curThreadNum current concurrency of the resource, excluding the requests
+     * @param acquireCount count of the requests
+     * @return true if the requests could pass, otherwise false
+     */
+    public boolean tryPass(int curThreadNum, int acquireCount) {
+        int inFlight = curThreadNum + acquireCount;
+        if (inFlight > getLimit()) {
+            return false;
+        }
+        int max = maxInFlight.get();
+        while (inFlight > max && !maxInFlight.compareAndSet(max, inFlight)) {
+            max = maxInFlight.get();
+        }
+        return true;
+    }
+
+    /**
+     * Record the completion of a request, and estimate the limit again if the update interval has passed.
+     *
+     * @param node the statistic node of the resource, of which the completed request has been recorded
+     */
+    public void onRequestComplete(Node node) {
+        long currentTime = TimeUtil.currentTimeMillis();
+        long next = nextUpdateTime.get();
+        if (currentTime < next || !nextUpdateTime.compareAndSet(next, currentTime + rule.getUpdateIntervalMs())) {
+            return;
+        }
+        int inFlight = maxInFlight.getAndSet(0);
+        double rt = node.avgRt();
+        if (rt <= 0) {
+            // No request completed in the statistic window.
+            return;
+        }
+        double limit = estimatedLimit;
+        double newLimit = nextLimit(limit, Math.max(1, rt), node.minRt());
+        if (newLimit > limit && inFlight * 2 < limit) {
+            return;
+        }
+        newLimit = limit * (1 - rule.getSmoothing()) + newLimit * rule.getSmoothing();
+        estimatedLimit = Math.max(rule.getMinLimit(), Math.min(rule.getMaxLimit(), newLimit));
+    }
+
+    /**
+     * Estimate the limit from the response time of the resource.
+     *
+     * @param limit current limit
+     * @param rt    recent average response time (in milliseconds, at least 1)
+     * @param minRt recent minimum response time (in milliseconds, at least 1)
+     * @return new limit before smoothing
+     */
+    protected abstract double nextLimit(double limit, double rt, double minRt);
+}
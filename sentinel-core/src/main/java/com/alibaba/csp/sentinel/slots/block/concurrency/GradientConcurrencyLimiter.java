@@ -0,0 +1,67 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Concurrency limiter by the gradient between the long-term and the recent response time (Gradient2).</p>
+ * <p>
+ * The long-term RT is an exponential moving average of the recent RT. The limit is multiplied by the gradient
+ * {@code rtTolerance * longRt / rt} (within [0.5, 1]) and then given a queue of {@code sqrt(limit)}, so it
+ * keeps growing while the RT stays within the tolerance and shrinks once the RT rises beyond it.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class GradientConcurrencyLimiter extends ConcurrencyLimiter {
+
+    /**
+     * Count of updates the long-term RT averages over.
+     */
+    private static final int LONG_RT_WINDOW = 60;
+
+    private volatile double longRt;
+
+    public GradientConcurrencyLimiter(ConcurrencyLimitRule rule) {
+        super(rule);
+        AssertUtil.isTrue(rule.getStrategy() == RuleConstant.CONCURRENCY_LIMIT_GRADIENT,
+            "rule strategy should be gradient");
+    }
+
+    double getLongRt() {
+        return longRt;
+    }
+
+    @Override
+    protected double nextLimit(double limit, double rt, double minRt) {
+        double longRt = this.longRt;
+        if (longRt <= 0) {
+            longRt = rt;
+        } else {
+            longRt += (rt - longRt) * 2 / (LONG_RT_WINDOW + 1);
+        }
+        if (longRt / rt > 2) {
+            // Let the long-term RT drift back faster once the RT recovers.
+            longRt *= 0.95;
+        }
+        this.longRt = longRt;
+
+        double gradient = Math.max(0.5, Math.min(1.0, rule.getRtTolerance() * longRt / rt));
+        return limit * gradient + Math.sqrt(limit);
+    }
+}
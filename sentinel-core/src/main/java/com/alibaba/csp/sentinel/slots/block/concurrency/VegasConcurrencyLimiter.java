@@ -0,0 +1,75 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Concurrency limiter by the queue size estimated from the no-load and the recent response time (TCP Vegas).</p>
+ * <p>
+ * The no-load RT is the minimum RT observed, and {@code limit * (1 - noLoadRt / rt)} of the requests in flight
+ * are taken as queued. With {@code L = max(1, log10(limit))}, the limit grows by {@code 6L} when the queue is
+ * no more than {@code L}, by {@code L} when it is below {@code 3L}, and shrinks by {@code L} when it exceeds
+ * {@code 6L}. The no-load RT is taken again from the recent minimum RT every {@value #PROBE_INTERVAL} updates,
+ * so it follows a permanent shift of latency.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class VegasConcurrencyLimiter extends ConcurrencyLimiter {
+
+    /**
+     * Count of updates between resetting the no-load RT.
+     */
+    static final int PROBE_INTERVAL = 30;
+
+    private volatile double noLoadRt;
+    private volatile int updateCount;
+
+    public VegasConcurrencyLimiter(ConcurrencyLimitRule rule) {
+        super(rule);
+        AssertUtil.isTrue(rule.getStrategy() == RuleConstant.CONCURRENCY_LIMIT_VEGAS,
+            "rule strategy should be Vegas");
+    }
+
+    double getNoLoadRt() {
+        return noLoadRt;
+    }
+
+    @Override
+    protected double nextLimit(double limit, double rt, double minRt) {
+        int count = updateCount + 1;
+        if (count >= PROBE_INTERVAL) {
+            count = 0;
+            noLoadRt = minRt;
+        } else if (noLoadRt <= 0 || minRt < noLoadRt) {
+            noLoadRt = minRt;
+        }
+        updateCount = count;
+
+        double queueSize = Math.ceil(limit * (1 - noLoadRt / rt));
+        double log = Math.max(1, Math.log10(limit));
+        if (queueSize <= log) {
+            return limit + 6 * log;
+        } else if (queueSize < 3 * log) {
+            return limit + log;
+        } else if (queueSize > 6 * log) {
+            return limit - log;
+        }
+        return limit;
+    }
+}
@@ -32,7 +32,13 @@ public enum CircuitBreakerStrategy {
     /**
      * Circuit breaker opens (cuts off) when error count exceeds the threshold.
      */
-    ERROR_COUNT(2);
+    ERROR_COUNT(2),
+    /**
+     * Circuit breaker opens (cuts off) when response time at the percentile exceeds the threshold.
+     *
+     * @since 2.0.0
+     */
+    RT_PERCENTILE(3);
 
     private int type;
 
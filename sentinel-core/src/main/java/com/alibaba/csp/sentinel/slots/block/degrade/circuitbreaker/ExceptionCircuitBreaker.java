@@ -15,14 +15,9 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
 
-import java.util.List;
-import java.util.concurrent.atomic.LongAdder;
-
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
-import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
-import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 import static com.alibaba.csp.sentinel.slots.block.RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT;
@@ -38,13 +33,13 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
     private final int minRequestAmount;
     private final double threshold;
 
-    private final LeapArray<SimpleErrorCounter> stat;
+    private final RollingCounter stat;
 
     public ExceptionCircuitBreaker(DegradeRule rule) {
-        this(rule, new SimpleErrorCounterLeapArray(1, rule.getStatIntervalMs()));
+        this(rule, new RollingCounter(1, rule.getStatIntervalMs()));
     }
 
-    ExceptionCircuitBreaker(DegradeRule rule, LeapArray<SimpleErrorCounter> stat) {
+    ExceptionCircuitBreaker(DegradeRule rule, RollingCounter stat) {
         super(rule);
         this.strategy = rule.getGrade();
         boolean modeOk = strategy == DEGRADE_GRADE_EXCEPTION_RATIO || strategy == DEGRADE_GRADE_EXCEPTION_COUNT;
@@ -58,7 +53,7 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
     @Override
     protected void resetStat() {
         // Reset current bucket (bucket count = 1).
-        stat.currentWindow().value().reset();
+        stat.reset();
     }
 
     @Override
@@ -68,13 +63,8 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
             return;
         }
         Throwable error = entry.getError();
-        SimpleErrorCounter counter = stat.currentWindow().value();
-        if (error != null) {
-            //异常数加1
-            counter.getErrorCount().add(1);
-        }
-        //总请求数加1
-        counter.getTotalCount().add(1);
+        //异常数加1；总请求数加1
+        stat.add(error != null);
         //熔断逻辑，处理熔断状态的变更
         handleStateChangeWhenThresholdExceeded(error);
     }
@@ -95,13 +85,9 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
             return;
         }
         
-        List<SimpleErrorCounter> counters = stat.values();
-        long errCount = 0;//异常请求数
-        long totalCount = 0;//总请求数
-        for (SimpleErrorCounter counter : counters) {
-            errCount += counter.errorCount.sum();
-            totalCount += counter.totalCount.sum();
-        }
+        // Read the error count first, as both counts only grow within the window.
+        long errCount = stat.badCount();//异常请求数
+        long totalCount = stat.totalCount();//总请求数
         if (totalCount < minRequestAmount) {
             //总请求数小于最小请求数，直接返回
             return;
@@ -116,56 +102,4 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
             transformToOpen(curCount);
         }
     }
-
-    static class SimpleErrorCounter {
-        private LongAdder errorCount;
-        private LongAdder totalCount;
-
-        public SimpleErrorCounter() {
-            this.errorCount = new LongAdder();
-            this.totalCount = new LongAdder();
-        }
-
-        public LongAdder getErrorCount() {
-            return errorCount;
-        }
-
-        public LongAdder getTotalCount() {
-            return totalCount;
-        }
-
-        public SimpleErrorCounter reset() {
-            errorCount.reset();
-            totalCount.reset();
-            return this;
-        }
-
-        @Override
-        public String toString() {
-            return "SimpleErrorCounter{" +
-                "errorCount=" + errorCount +
-                ", totalCount=" + totalCount +
-                '}';
-        }
-    }
-
-    static class SimpleErrorCounterLeapArray extends LeapArray<SimpleErrorCounter> {
-
-        public SimpleErrorCounterLeapArray(int sampleCount, int intervalInMs) {
-            super(sampleCount, intervalInMs);
-        }
-
-        @Override
-        public SimpleErrorCounter newEmptyBucket(long timeMillis) {
-            return new SimpleErrorCounter();
-        }
-
-        @Override
-        protected WindowWrap<SimpleErrorCounter> resetWindowTo(WindowWrap<SimpleErrorCounter> w, long startTime) {
-            // Update the start time and reset value.
-            w.resetTo(startTime);
-            w.value().reset();
-            return w;
-        }
-    }
 }
@@ -15,15 +15,10 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
 
-import java.util.List;
-import java.util.concurrent.atomic.LongAdder;
-
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
-import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
-import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
@@ -39,13 +34,13 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
 	private final double	maxSlowRequestRatio;
 	private final int		minRequestAmount;
 
-	private final LeapArray<SlowRequestCounter> slidingCounter;
+	private final RollingCounter slidingCounter;
 
 	public ResponseTimeCircuitBreaker(DegradeRule rule) {
-		this(rule, new SlowRequestLeapArray(1, rule.getStatIntervalMs()));
+		this(rule, new RollingCounter(1, rule.getStatIntervalMs()));
 	}
 
-	ResponseTimeCircuitBreaker(DegradeRule rule, LeapArray<SlowRequestCounter> stat) {
+	ResponseTimeCircuitBreaker(DegradeRule rule, RollingCounter stat) {
 		super(rule);
 		AssertUtil.isTrue(rule.getGrade() == RuleConstant.DEGRADE_GRADE_RT, "rule metric type should be RT");
 		AssertUtil.notNull(stat, "stat cannot be null");
@@ -58,13 +53,11 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
 	@Override
 	public void resetStat() {
 		// Reset current bucket (bucket count = 1).
-		slidingCounter.currentWindow().value().reset();
+		slidingCounter.reset();
 	}
 
 	@Override
 	public void onRequestComplete(Context context) {
-		//取得当前滑动窗口
-		SlowRequestCounter counter = slidingCounter.currentWindow().value();
 		Entry entry = context.getCurEntry();
 		if (entry == null) { return; }
 		//请求完成时间
@@ -74,12 +67,8 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
 		}
 		//请求响应时间
 		long rt = completeTime - entry.getCreateTimestamp();
-		//请求响应时间大于最大响应时间，慢调用数加1
-		if (rt > maxAllowedRt) {
-			counter.slowCount.add(1);
-		}
-		//总的请求加1
-		counter.totalCount.add(1);
+		//请求响应时间大于最大响应时间，慢调用数加1；总的请求加1
+		slidingCounter.add(rt > maxAllowedRt);
 
 		handleStateChangeWhenThresholdExceeded(rt);
 	}
@@ -101,13 +90,9 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
 			return;
 		}
 
-		List<SlowRequestCounter> counters = slidingCounter.values();
-		long slowCount = 0;//慢请求数
-		long totalCount = 0;//总请求数
-		for (SlowRequestCounter counter : counters) {
-			slowCount += counter.slowCount.sum();
-			totalCount += counter.totalCount.sum();
-		}
+		// Read the slow count first, as both counts only grow within the window.
+		long slowCount = slidingCounter.badCount();//慢请求数
+		long totalCount = slidingCounter.totalCount();//总请求数
 		//总请求数小于最小请求数，直接返回，不熔断
 		if (totalCount < minRequestAmount) { return; }
 		double currentRatio = slowCount * 1.0d / totalCount;
@@ -120,52 +105,4 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
 			transformToOpen(currentRatio);
 		}
 	}
-
-	static class SlowRequestCounter {
-		private LongAdder	slowCount;
-		private LongAdder	totalCount;
-
-		public SlowRequestCounter() {
-			this.slowCount = new LongAdder();
-			this.totalCount = new LongAdder();
-		}
-
-		public LongAdder getSlowCount() {
-			return slowCount;
-		}
-
-		public LongAdder getTotalCount() {
-			return totalCount;
-		}
-
-		public SlowRequestCounter reset() {
-			slowCount.reset();
-			totalCount.reset();
-			return this;
-		}
-
-		@Override
-		public String toString() {
-			return "SlowRequestCounter{" + "slowCount=" + slowCount + ", totalCount=" + totalCount + '}';
-		}
-	}
-
-	static class SlowRequestLeapArray extends LeapArray<SlowRequestCounter> {
-
-		public SlowRequestLeapArray(int sampleCount, int intervalInMs) {
-			super(sampleCount, intervalInMs);
-		}
-
-		@Override
-		public SlowRequestCounter newEmptyBucket(long timeMillis) {
-			return new SlowRequestCounter();
-		}
-
-		@Override
-		protected WindowWrap<SlowRequestCounter> resetWindowTo(WindowWrap<SlowRequestCounter> w, long startTime) {
-			w.resetTo(startTime);
-			w.value().reset();
-			return w;
-		}
-	}
 }
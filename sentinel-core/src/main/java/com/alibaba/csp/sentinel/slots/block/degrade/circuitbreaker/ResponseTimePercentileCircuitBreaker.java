@@ -0,0 +1,131 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.statistic.data.LatencyHistogram;
+import com.alibaba.csp.sentinel.slots.statistic.metric.LatencyHistogramLeapArray;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Circuit breaker that opens when the response time at a percentile (e.g. p99) exceeds the threshold
+ * in the statistic interval, which reacts to the tail latency before the average moves.</p>
+ * <p>
+ * The response time at the percentile {@code p} exceeds the threshold if and only if more than
+ * {@code n - ceil(p * n)} of the {@code n} requests are slower than the threshold, so whether to open is
+ * decided by the exact count of slow requests in constant time. Response times are also recorded in
+ * {@link LatencyHistogram}s, which give the response time at the percentile when the circuit breaker opens.
+ * Per-second histograms of the resource are enabled as well, see {@link ClusterNode#enableRtHistogram()}.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class ResponseTimePercentileCircuitBreaker extends AbstractCircuitBreaker {
+
+    private final long maxAllowedRt;
+    private final double percentile;
+    private final int minRequestAmount;
+
+    private final RollingCounter slowCounter;
+    private final LatencyHistogramLeapArray histograms;
+
+    public ResponseTimePercentileCircuitBreaker(DegradeRule rule) {
+        super(rule);
+        AssertUtil.isTrue(rule.getGrade() == RuleConstant.DEGRADE_GRADE_RT_PERCENTILE,
+            "rule metric type should be RT percentile");
+        this.maxAllowedRt = Math.round(rule.getCount());
+        this.percentile = rule.getPercentile();
+        this.minRequestAmount = rule.getMinRequestAmount();
+        this.slowCounter = new RollingCounter(1, rule.getStatIntervalMs());
+        this.histograms = new LatencyHistogramLeapArray(1, rule.getStatIntervalMs());
+    }
+
+    @Override
+    void resetStat() {
+        // Reset current bucket (bucket count = 1).
+        slowCounter.reset();
+        histograms.currentWindow().value().reset();
+    }
+
+    /**
+     * Get the response time histogram of the statistic interval.
+     *
+     * @return a copy of the histogram
+     */
+    public LatencyHistogram getRtHistogram() {
+        return histograms.snapshot();
+    }
+
+    @Override
+    public void onRequestComplete(Context context) {
+        Entry entry = context.getCurEntry();
+        if (entry == null) {
+            return;
+        }
+        long completeTime = entry.getCompleteTimestamp();
+        if (completeTime <= 0) {
+            completeTime = TimeUtil.currentTimeMillis();
+        }
+        long rt = completeTime - entry.getCreateTimestamp();
+        slowCounter.add(rt > maxAllowedRt);
+        histograms.currentWindow().value().record(rt);
+        enableRtHistogramOf(entry);
+
+        handleStateChangeWhenThresholdExceeded(rt);
+    }
+
+    private void handleStateChangeWhenThresholdExceeded(long rt) {
+        if (currentState.get() == State.OPEN) {
+            return;
+        }
+
+        if (currentState.get() == State.HALF_OPEN) {
+            if (rt > maxAllowedRt) {
+                fromHalfOpenToOpen(rt);
+            } else {
+                fromHalfOpenToClose();
+            }
+            return;
+        }
+
+        // Read the slow count first, as both counts only grow within the window.
+        long slowCount = slowCounter.badCount();
+        long totalCount = slowCounter.totalCount();
+        if (totalCount < minRequestAmount) {
+            return;
+        }
+        if (slowCount > totalCount - (long)Math.ceil(percentile * totalCount)) {
+            transformToOpen(histograms.snapshot().getValueAtPercentile(percentile));
+        }
+    }
+
+    private void enableRtHistogramOf(Entry entry) {
+        Node node = entry.getCurNode();
+        if (node instanceof DefaultNode) {
+            ClusterNode clusterNode = ((DefaultNode)node).getClusterNode();
+            if (clusterNode != null) {
+                clusterNode.enableRtHistogram();
+            }
+        }
+    }
+}
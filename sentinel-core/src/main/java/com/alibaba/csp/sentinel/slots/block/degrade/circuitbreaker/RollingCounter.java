@@ -0,0 +1,148 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+
+/**
+ * <p>Total and "bad" (slow or erroneous) request counts in the sliding window of a circuit breaker.</p>
+ * <p>
+ * Sums of the buckets other than the current one are only computed when the current bucket rotates,
+ * so the sums of the window are read in constant time and without allocation, by adding the counts of
+ * the current bucket to them. Counts added to a bucket after it was closed are missed until the next
+ * rotation.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class RollingCounter {
+
+    private final LeapArray<Bucket> stat;
+
+    private volatile ClosedSums closedSums = new ClosedSums(-1, 0, 0);
+
+    RollingCounter(int sampleCount, int intervalInMs) {
+        this(new BucketLeapArray(sampleCount, intervalInMs));
+    }
+
+    RollingCounter(LeapArray<Bucket> stat) {
+        this.stat = stat;
+    }
+
+    /**
+     * Add a request to the current bucket.
+     *
+     * @param bad whether the request is slow or erroneous
+     */
+    void add(boolean bad) {
+        Bucket bucket = currentBucket();
+        if (bad) {
+            bucket.badCount.add(1);
+        }
+        bucket.totalCount.add(1);
+    }
+
+    long badCount() {
+        // Get the current bucket first, which might update the sums of closed buckets.
+        Bucket bucket = currentBucket();
+        return closedSums.badCount + bucket.badCount.sum();
+    }
+
+    long totalCount() {
+        Bucket bucket = currentBucket();
+        return closedSums.totalCount + bucket.totalCount.sum();
+    }
+
+    /**
+     * Reset the current bucket.
+     */
+    void reset() {
+        currentBucket().reset();
+    }
+
+    private Bucket currentBucket() {
+        WindowWrap<Bucket> current = stat.currentWindow();
+        if (closedSums.windowStart != current.windowStart()) {
+            closedSums = sumClosedBuckets(current);
+        }
+        return current.value();
+    }
+
+    private ClosedSums sumClosedBuckets(WindowWrap<Bucket> current) {
+        long badCount = 0;
+        long totalCount = 0;
+        if (stat.getSampleCount() > 1) {
+            for (WindowWrap<Bucket> w : stat.list()) {
+                if (w != current) {
+                    badCount += w.value().badCount.sum();
+                    totalCount += w.value().totalCount.sum();
+                }
+            }
+        }
+        return new ClosedSums(current.windowStart(), badCount, totalCount);
+    }
+
+    private static final class ClosedSums {
+        private final long windowStart;
+        private final long badCount;
+        private final long totalCount;
+
+        ClosedSums(long windowStart, long badCount, long totalCount) {
+            this.windowStart = windowStart;
+            this.badCount = badCount;
+            this.totalCount = totalCount;
+        }
+    }
+
+    static final class Bucket {
+        private final LongAdder badCount = new LongAdder();
+        private final LongAdder totalCount = new LongAdder();
+
+        Bucket reset() {
+            badCount.reset();
+            totalCount.reset();
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Bucket{" + "badCount=" + badCount + ", totalCount=" + totalCount + '}';
+        }
+    }
+
+    static final class BucketLeapArray extends LeapArray<Bucket> {
+
+        BucketLeapArray(int sampleCount, int intervalInMs) {
+            super(sampleCount, intervalInMs);
+        }
+
+        @Override
+        public Bucket newEmptyBucket(long timeMillis) {
+            return new Bucket();
+        }
+
+        @Override
+        protected WindowWrap<Bucket> resetWindowTo(WindowWrap<Bucket> w, long startTime) {
+            // Update the start time and reset value.
+            w.resetTo(startTime);
+            w.value().reset();
+            return w;
+        }
+    }
+}
@@ -56,6 +56,37 @@ public class FlowRuleChecker {
         }
     }
 
+    /**
+     * Check the rules of the plan that apply to the origin of the context.
+     *
+     * @param plan plan of the flow rules of the resource, or null if there are no rules
+     * @since 2.0.0
+     */
+    void checkFlow(FlowRulePlan plan, Context context, DefaultNode node, int count, boolean prioritized)
+        throws BlockException {
+        if (plan == null) {
+            return;
+        }
+        for (FlowRulePlan.Step step : plan.stepsOf(context.getOrigin())) {
+            if (!canPassCheck(step, context, node, count, prioritized)) {
+                FlowRule rule = step.getRule();
+                throw new FlowException(rule.getLimitApp(), rule);
+            }
+        }
+    }
+
+    boolean canPassCheck(FlowRulePlan.Step step, Context context, DefaultNode node, int acquireCount,
+                         boolean prioritized) {
+        if (step.isClusterMode()) {
+            return canPassCheck(step.getRule(), context, node, acquireCount, prioritized);
+        }
+        Node selectedNode = step.selectNode(context, node);
+        if (selectedNode == null) {
+            return true;
+        }
+        return step.getRater().canPass(selectedNode, acquireCount, prioritized);
+    }
+
     public boolean canPassCheck(/*@NonNull*/ FlowRule rule, Context context, DefaultNode node,
                                                     int acquireCount) {
         return canPassCheck(rule, context, node, acquireCount, false);
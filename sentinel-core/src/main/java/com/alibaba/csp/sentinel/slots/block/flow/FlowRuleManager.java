@@ -49,6 +49,10 @@ import java.util.concurrent.TimeUnit;
 public class FlowRuleManager {
 
     private static volatile Map<String, List<FlowRule>> flowRules = new HashMap<>();
+    /**
+     * Evaluation plans of the rules, which are always updated before {@link #flowRules}.
+     */
+    private static volatile Map<String, FlowRulePlan> flowRulePlans = new HashMap<>();
 
     private static final FlowPropertyListener LISTENER = new FlowPropertyListener();
     private static SentinelProperty<List<FlowRule>> currentProperty = new DynamicSentinelProperty<List<FlowRule>>();
@@ -125,6 +129,10 @@ public class FlowRuleManager {
         return flowRules;
     }
 
+    static FlowRulePlan getFlowRulePlan(String resource) {
+        return flowRulePlans.get(resource);
+    }
+
     public static boolean hasConfig(String resource) {
         return flowRules.containsKey(resource);
     }
@@ -134,17 +142,17 @@ public class FlowRuleManager {
             return false;
         }
 
-        List<FlowRule> rules = flowRules.get(resourceName);
+        FlowRulePlan plan = flowRulePlans.get(resourceName);
+        return plan == null || plan.isOtherOrigin(origin);
+    }
 
-        if (rules != null) {
-            for (FlowRule rule : rules) {
-                if (origin.equals(rule.getLimitApp())) {
-                    return false;
-                }
-            }
+    private static void applyRules(Map<String, List<FlowRule>> rules) {
+        Map<String, FlowRulePlan> plans = new HashMap<>();
+        for (Map.Entry<String, List<FlowRule>> entry : rules.entrySet()) {
+            plans.put(entry.getKey(), FlowRulePlan.compile(entry.getValue()));
         }
-
-        return true;
+        flowRulePlans = plans;
+        flowRules = rules;
     }
 
     private static final class FlowPropertyListener implements PropertyListener<List<FlowRule>> {
@@ -153,7 +161,7 @@ public class FlowRuleManager {
         public synchronized void configUpdate(List<FlowRule> value) {
             Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(value);
             if (rules != null) {
-                flowRules = rules;
+                applyRules(rules);
             }
             RecordLog.info("[FlowRuleManager] Flow rules received: {}", rules);
         }
@@ -162,7 +170,7 @@ public class FlowRuleManager {
         public synchronized void configLoad(List<FlowRule> conf) {
             Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(conf);
             if (rules != null) {
-                flowRules = rules;
+                applyRules(rules);
             }
             RecordLog.info("[FlowRuleManager] Flow rules loaded: {}", rules);
         }
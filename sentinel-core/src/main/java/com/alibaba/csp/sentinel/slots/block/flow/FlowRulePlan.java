@@ -0,0 +1,184 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>The evaluation plan of the flow rules of a resource, compiled when rules are loaded.</p>
+ * <p>
+ * For each origin, the plan keeps the steps of the rules that apply to it (in the order of the rules),
+ * with the statistic node to check resolved from the limit app and strategy of each rule. So checking
+ * a request only evaluates the rules of its origin, instead of matching every rule (and looking up
+ * whether the origin is an "other" origin for each {@code other} rule).
+ * </p>
+ * <ul>
+ * <li>Origins that are the limit app of some rule: rules of the origin, and {@code default} rules</li>
+ * <li>Other non-empty origins: {@code other} rules and {@code default} rules</li>
+ * <li>Empty origin: {@code default} rules</li>
+ * </ul>
+ * <p>Rules in cluster mode apply to all origins, as the token is requested before the origin is matched.</p>
+ *
+ * @since 2.0.0
+ */
+final class FlowRulePlan {
+
+    private static final Step[] NO_STEPS = new Step[0];
+
+    private final Map<String, Step[]> originSteps;
+    private final Step[] otherOriginSteps;
+    private final Step[] noOriginSteps;
+
+    private FlowRulePlan(Map<String, Step[]> originSteps, Step[] otherOriginSteps, Step[] noOriginSteps) {
+        this.originSteps = originSteps;
+        this.otherOriginSteps = otherOriginSteps;
+        this.noOriginSteps = noOriginSteps;
+    }
+
+    /**
+     * Compile the rules of a resource.
+     *
+     * @param rules valid rules of the resource in order, whose traffic shaping controllers have been built
+     * @return the plan of the rules
+     */
+    static FlowRulePlan compile(List<FlowRule> rules) {
+        Set<String> origins = new LinkedHashSet<>();
+        for (FlowRule rule : rules) {
+            origins.add(rule.getLimitApp());
+        }
+        Map<String, Step[]> originSteps = new HashMap<>();
+        for (String origin : origins) {
+            originSteps.put(origin, compileForOrigin(rules, origin, false));
+        }
+        return new FlowRulePlan(originSteps, compileForOrigin(rules, null, true),
+            compileForOrigin(rules, null, false));
+    }
+
+    /**
+     * @param origin      an origin which is the limit app of some rule, or null for other origins
+     * @param otherOrigin whether the steps are for non-empty origins which are not the limit app of any rule
+     */
+    private static Step[] compileForOrigin(List<FlowRule> rules, String origin, boolean otherOrigin) {
+        boolean specificOrigin = origin != null && !RuleConstant.LIMIT_APP_DEFAULT.equals(origin)
+            && !RuleConstant.LIMIT_APP_OTHER.equals(origin);
+        List<Step> steps = new ArrayList<>();
+        for (FlowRule rule : rules) {
+            String limitApp = rule.getLimitApp();
+            if (rule.isClusterMode()) {
+                steps.add(new Step(rule, Step.CLUSTER_MODE));
+            } else if (specificOrigin && limitApp.equals(origin)) {
+                steps.add(new Step(rule, nodeSourceOf(rule, Step.ORIGIN_NODE)));
+            } else if (RuleConstant.LIMIT_APP_DEFAULT.equals(limitApp)) {
+                steps.add(new Step(rule, nodeSourceOf(rule, Step.CLUSTER_NODE)));
+            } else if (otherOrigin && RuleConstant.LIMIT_APP_OTHER.equals(limitApp)) {
+                steps.add(new Step(rule, nodeSourceOf(rule, Step.ORIGIN_NODE)));
+            }
+        }
+        return steps.isEmpty() ? NO_STEPS : steps.toArray(new Step[0]);
+    }
+
+    private static int nodeSourceOf(FlowRule rule, int directNodeSource) {
+        if (rule.getStrategy() == RuleConstant.STRATEGY_DIRECT) {
+            return directNodeSource;
+        }
+        return Step.REFERENCE_NODE;
+    }
+
+    /**
+     * @param origin origin of the request
+     * @return steps of the rules that apply to the origin, in order
+     */
+    Step[] stepsOf(String origin) {
+        if (StringUtil.isEmpty(origin)) {
+            return noOriginSteps;
+        }
+        Step[] steps = originSteps.get(origin);
+        return steps == null ? otherOriginSteps : steps;
+    }
+
+    /**
+     * @return whether the origin is not the limit app of any rule
+     */
+    boolean isOtherOrigin(String origin) {
+        return !originSteps.containsKey(origin);
+    }
+
+    /**
+     * A flow rule to check, with the statistic node to check resolved.
+     */
+    static final class Step {
+
+        /**
+         * The rule is in cluster mode, which is checked as a whole.
+         */
+        static final int CLUSTER_MODE = 0;
+        static final int ORIGIN_NODE = 1;
+        static final int CLUSTER_NODE = 2;
+        /**
+         * The node of the reference resource (relate) or the entrance (chain).
+         */
+        static final int REFERENCE_NODE = 3;
+
+        private final FlowRule rule;
+        private final TrafficShapingController rater;
+        private final int nodeSource;
+
+        private Step(FlowRule rule, int nodeSource) {
+            this.rule = rule;
+            this.rater = rule.getRater();
+            this.nodeSource = nodeSource;
+        }
+
+        FlowRule getRule() {
+            return rule;
+        }
+
+        TrafficShapingController getRater() {
+            return rater;
+        }
+
+        boolean isClusterMode() {
+            return nodeSource == CLUSTER_MODE;
+        }
+
+        /**
+         * @return the node to check, or null if the rule does not apply
+         */
+        Node selectNode(Context context, DefaultNode node) {
+            switch (nodeSource) {
+                case ORIGIN_NODE:
+                    return context.getOriginNode();
+                case CLUSTER_NODE:
+                    return node.getClusterNode();
+                case REFERENCE_NODE:
+                    return FlowRuleChecker.selectReferenceNode(rule, context, node);
+                default:
+                    return null;
+            }
+        }
+    }
+}
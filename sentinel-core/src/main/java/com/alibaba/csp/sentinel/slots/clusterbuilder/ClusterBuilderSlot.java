@@ -15,7 +15,6 @@
  */
 package com.alibaba.csp.sentinel.slots.clusterbuilder;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import com.alibaba.csp.sentinel.Constants;
@@ -26,6 +25,7 @@ import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.IntervalProperty;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.NodeRegistry;
 import com.alibaba.csp.sentinel.node.SampleCountProperty;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
@@ -36,28 +36,25 @@ import com.alibaba.csp.sentinel.spi.Spi;
 //则用于存储资源的统计信息以及调用者信息，例如该资源的RT、QPS、thread count等等，这些信息将用作为多维度限流，降级的依据
 @Spi(isSingleton = false, order = Constants.ORDER_CLUSTER_BUILDER_SLOT)
 public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
-	private static volatile Map<ResourceWrapper, ClusterNode> clusterNodeMap = new HashMap<>();
-
-	private static final Object lock = new Object();
+	private static final NodeRegistry<ResourceWrapper, ClusterNode> clusterNodeMap = new NodeRegistry<>();
 
 	private volatile ClusterNode clusterNode = null;
 
 	@Override
 	public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, boolean prioritized, Object... args) throws Throwable {
 		if (clusterNode == null) {
-			synchronized (lock) {
+			synchronized (this) {
 				if (clusterNode == null) {
 					// Create the cluster node.
-					clusterNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
-					HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(Math.max(clusterNodeMap.size(), 16));
-					newMap.putAll(clusterNodeMap);
-					newMap.put(node.getId(), clusterNode);
-
-					clusterNodeMap = newMap;
+					ClusterNode newNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
+					clusterNodeMap.put(node.getId(), newNode);
+					clusterNode = newNode;
 				}
 			}
 		}
 		node.setClusterNode(clusterNode);
+		// Keep the resource from being evicted as an idle resource.
+		clusterNode.touch();
 
 		/*
 		 * if context origin is set, we should get or create a new {@link Node} of
@@ -115,6 +112,16 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
 	 * @return all {@link ClusterNode}s
 	 */
 	public static Map<ResourceWrapper, ClusterNode> getClusterNodeMap() {
+		return clusterNodeMap.asMap();
+	}
+
+	/**
+	 * Get the registry of all {@link ClusterNode}s.
+	 *
+	 * @return the registry of all {@link ClusterNode}s
+	 * @since 2.0.0
+	 */
+	public static NodeRegistry<ResourceWrapper, ClusterNode> getClusterNodeRegistry() {
 		return clusterNodeMap;
 	}
 
@@ -123,7 +130,7 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
 	 * {@link SampleCountProperty#SAMPLE_COUNT} is changed.
 	 */
 	public static void resetClusterNodes() {
-		for (ClusterNode node : clusterNodeMap.values()) {
+		for (ClusterNode node : clusterNodeMap.asMap().values()) {
 			node.reset();
 		}
 	}
@@ -21,12 +21,11 @@ import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.NodeRegistry;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.spi.Spi;
 
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * </p>
@@ -128,28 +127,20 @@ import java.util.Map;
 //负责收集资源的路径，并将这些资源的调用路径，以树状结构存储起来，用于根据调用链路来限流降级
 @Spi(isSingleton = false, order = Constants.ORDER_NODE_SELECTOR_SLOT)
 public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
-	private volatile Map<String, DefaultNode> map = new HashMap<String, DefaultNode>(10);
+	private final NodeRegistry<String, DefaultNode> map = new NodeRegistry<>();
 
 	@Override
 	public void entry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, boolean prioritized, Object... args) throws Throwable {
 		//这里是根据context name获取DefaultNode，而不是根据resource name获取
 		DefaultNode node = map.get(context.getName());
 		if (node == null) {
-			synchronized (this) {
-				node = map.get(context.getName());
-				if (node == null) {
-					//根据资源创建DefaultNode
-					node = new DefaultNode(resourceWrapper, null);
-					//将DefaultNode放入map中，采用CopyOnWrite保证线程安全
-					//相当于 map.put(context.getName(), node);
-					HashMap<String, DefaultNode> cacheMap = new HashMap<String, DefaultNode>(map.size());
-					cacheMap.putAll(map);
-					cacheMap.put(context.getName(), node);
-					map = cacheMap;
-					// 构建调用链树
-					((DefaultNode) context.getLastNode()).addChild(node);
-				}
-
+			//根据资源创建DefaultNode，并发创建时只有一个会被放入map
+			DefaultNode newNode = new DefaultNode(resourceWrapper, null);
+			node = map.putIfAbsent(context.getName(), newNode);
+			if (node == null) {
+				node = newNode;
+				// 构建调用链树
+				((DefaultNode) context.getLastNode()).addChild(node);
 			}
 		}
 		//设置当前Node
@@ -32,6 +32,13 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
  * and the total time span is {@link #intervalInMs}, so the total bucket amount is:
  * {@code sampleCount = intervalInMs / windowLengthInMs}.
  * </p>
+ * <p>
+ * Deprecated buckets are reset in place under a conditional lock by default. When lock-free rotation is enabled,
+ * deprecated buckets are replaced with new buckets via a single CAS instead, so that no thread will ever lock
+ * or yield at window boundaries. As {@link #resetWindowTo(WindowWrap, long)} is bypassed then, lock-free rotation
+ * is opt-in per subclass (see {@link #LeapArray(int, int, boolean)}), and only fits subclasses of which a new
+ * bucket is equivalent to a reset one.
+ * </p>
  *
  * @param <T> type of statistic data
  * @author jialiang.linjl
@@ -52,6 +59,11 @@ public abstract class LeapArray<T> {
      */
     private final ReentrantLock updateLock = new ReentrantLock();
 
+    /**
+     * Whether to rotate buckets by replacing them via CAS rather than resetting them under the update lock.
+     */
+    private final boolean lockFreeRotation;
+
     /**
      * The total bucket count is: {@code sampleCount = intervalInMs / windowLengthInMs}.
      *
@@ -59,6 +71,19 @@ public abstract class LeapArray<T> {
      * @param intervalInMs the total time interval of this {@link LeapArray} in milliseconds
      */
     public LeapArray(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, false);
+    }
+
+    /**
+     * The total bucket count is: {@code sampleCount = intervalInMs / windowLengthInMs}.
+     *
+     * @param sampleCount      bucket count of the sliding window
+     * @param intervalInMs     the total time interval of this {@link LeapArray} in milliseconds
+     * @param lockFreeRotation whether to replace deprecated buckets with {@link #newEmptyBucket(long)} via CAS
+     *                         instead of resetting them in place with {@link #resetWindowTo(WindowWrap, long)}
+     * @since 2.0.0
+     */
+    public LeapArray(int sampleCount, int intervalInMs, boolean lockFreeRotation) {
         AssertUtil.isTrue(sampleCount > 0, "bucket count is invalid: " + sampleCount);
         AssertUtil.isTrue(intervalInMs > 0, "total time interval of the sliding window should be positive");
         AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
@@ -67,6 +92,7 @@ public abstract class LeapArray<T> {
         this.intervalInMs = intervalInMs;
         this.intervalInSecond = intervalInMs / 1000.0;
         this.sampleCount = sampleCount;
+        this.lockFreeRotation = lockFreeRotation;
 
         this.array = new AtomicReferenceArray<>(sampleCount);
     }
@@ -122,6 +148,10 @@ public abstract class LeapArray<T> {
         // Calculate current bucket start time.
         long windowStart = calculateWindowStart(timeMillis);
 
+        if (lockFreeRotation) {
+            return currentWindowLockFree(timeMillis, idx, windowStart);
+        }
+
         /*
          * Get bucket item at given time from the array.
          *
@@ -201,6 +231,37 @@ public abstract class LeapArray<T> {
         }
     }
 
+    /**
+     * Get bucket item at provided timestamp without any lock or yield.
+     *
+     * <p>Buckets are never reset in place in this mode, so the start time of a published bucket acts as
+     * its version. An absent or deprecated bucket is replaced with a new bucket via a single CAS.
+     * The threads that lose the CAS will see the bucket installed by the winner on the next read.</p>
+     */
+    private WindowWrap<T> currentWindowLockFree(long timeMillis, int idx, long windowStart) {
+        // The candidate bucket is created at most once, and reused by the retries after a lost CAS.
+        WindowWrap<T> window = null;
+        while (true) {
+            WindowWrap<T> old = array.get(idx);
+            if (old != null) {
+                long oldWindowStart = old.windowStart();
+                if (windowStart == oldWindowStart) {
+                    return old;
+                } else if (windowStart < oldWindowStart) {
+                    // Should not go through here, as the provided time is already behind.
+                    return window != null ? window
+                        : new WindowWrap<T>(windowLengthInMs, windowStart, newEmptyBucket(timeMillis));
+                }
+            }
+            if (window == null) {
+                window = new WindowWrap<T>(windowLengthInMs, windowStart, newEmptyBucket(timeMillis));
+            }
+            if (array.compareAndSet(idx, old, window)) {
+                return window;
+            }
+        }
+    }
+
     /**
      * Get the previous bucket item before provided timestamp.
      *
@@ -398,6 +459,38 @@ public abstract class LeapArray<T> {
         return intervalInSecond;
     }
 
+    /**
+     * Estimate the heap size retained by the sliding window, assuming a 64-bit JVM with compressed references.
+     * Buckets are created lazily, so the size grows as buckets are touched.
+     *
+     * @return estimated size in bytes
+     * @since 2.0.0
+     */
+    public long estimatedBytes() {
+        int size = array.length();
+        // The leap array, its update lock, and the AtomicReferenceArray of buckets.
+        long bytes = 48 + 48 + 16 + 16 + 4L * size;
+        for (int i = 0; i < size; i++) {
+            WindowWrap<T> windowWrap = array.get(i);
+            if (windowWrap != null) {
+                bytes += 32 + estimateBucketBytes(windowWrap.value());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimate the heap size retained by the value of a bucket.
+     *
+     * @param bucket value of the bucket
+     * @return estimated size in bytes
+     * @since 2.0.0
+     */
+    protected long estimateBucketBytes(T bucket) {
+        // Roughly a single counter (e.g. an uncontended LongAdder).
+        return 24;
+    }
+
     public void debug(long time) {
         StringBuilder sb = new StringBuilder();
         List<WindowWrap<T>> lists = list(time);
@@ -0,0 +1,143 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A lock-free log-linear histogram of response time (in milliseconds).</p>
+ * <p>
+ * Like HdrHistogram, values below 32 are counted exactly, and each power-of-two range above is split
+ * into 16 linear sub-buckets, so a value is reported with a relative error of at most 1/16.
+ * Values larger than {@link #MAX_VALUE} are counted as {@link #MAX_VALUE}.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int MAX_MAGNITUDE = 16;
+
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + MAX_MAGNITUDE * SUB_BUCKET_HALF_COUNT;
+
+    /**
+     * Max value that could be recorded (about 35 minutes).
+     */
+    public static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + SUB_BUCKET_BITS)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+    }
+
+    /**
+     * Add all counts of the other histogram to this one.
+     *
+     * @param other the other histogram
+     * @return this histogram
+     */
+    public LatencyHistogram add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+                totalCount.add(count);
+            }
+        }
+        return this;
+    }
+
+    public LatencyHistogram reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        return this;
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Get the value at given percentile, i.e. the smallest value that is no less than the given fraction
+     * of all recorded values (reported as the highest value of its bucket).
+     *
+     * @param percentile percentile within (0, 1]
+     * @return the value at the percentile, or 0 if nothing is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(BUCKET_COUNT - 1);
+    }
+
+    public long estimatedBytes() {
+        // Header, the count array and the adder.
+        return 16 + 16 + 8L * BUCKET_COUNT + 32;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int)value;
+        }
+        if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        // The value is within [16 << magnitude, 32 << magnitude).
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (magnitude - 1) * SUB_BUCKET_HALF_COUNT
+            + (int)((value >>> magnitude) - SUB_BUCKET_HALF_COUNT);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int magnitude = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+            "totalCount=" + getTotalCount() +
+            ", p50=" + getValueAtPercentile(0.5) +
+            ", p99=" + getValueAtPercentile(0.99) +
+            '}';
+    }
+}
@@ -15,37 +15,79 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.data;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
-import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Represents metrics data in a period of time span.
+ * <p>Represents metrics data in a period of time span.</p>
+ * <p>
+ * Counters of all {@link MetricEvent}s are laid out together in a stripe, so that an update of several
+ * events from one thread touches the same cache lines. Updates go to the base stripe until contention is
+ * detected, then the bucket inflates to one stripe per CPU (like {@code LongAdder}, but for all events at once).
+ * Each thread updates the stripe picked by its probe, which is rehashed when the update of the stripe is
+ * contended. Stripes are padded to two cache lines, as the array is not aligned to a cache line, so that the
+ * counters of two stripes never share a cache line.
+ * </p>
  *
  * @author jialiang.linjl
  * @author Eric Zhao
  */
 public class MetricBucket {
 
-    private final LongAdder[] counters;
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    /**
+     * Longs of the base stripe, the counters of all events.
+     */
+    private static final int STRIPE_LENGTH = (EVENTS.length + 7) / 8 * 8;
+    /**
+     * Longs between the starts of two per-CPU stripes, padded to two 64-byte cache lines.
+     */
+    private static final int STRIPE_STRIDE = (EVENTS.length + 15) / 16 * 16;
+
+    private static final int MAX_STRIPE_COUNT = 64;
+    private static final int STRIPE_COUNT = stripeCount(Runtime.getRuntime().availableProcessors());
+
+    private static final AtomicLongFieldUpdater<MetricBucket> MIN_RT_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(MetricBucket.class, "minRt");
+    private static final AtomicReferenceFieldUpdater<MetricBucket, AtomicLongArray> STRIPES_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(MetricBucket.class, AtomicLongArray.class, "stripes");
+
+    /**
+     * Per-thread probe of the stripe, initialized from the thread id and rehashed on contention.
+     */
+    private static final ThreadLocal<int[]> PROBE = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            long id = Thread.currentThread().getId();
+            int h = (int)(id ^ (id >>> 32)) * 0x9E3779B9;
+            return new int[] {h == 0 ? 1 : h};
+        }
+    };
+
+    private final AtomicLongArray base = new AtomicLongArray(STRIPE_LENGTH);
+
+    /**
+     * Per-CPU stripes, created lazily when the base stripe is contended. The first stripe is left
+     * empty as padding against the array header.
+     */
+    private volatile AtomicLongArray stripes;
 
     private volatile long minRt;
 
     public MetricBucket() {
-        MetricEvent[] events = MetricEvent.values();
-        this.counters = new LongAdder[events.length];
-        for (MetricEvent event : events) {
-            counters[event.ordinal()] = new LongAdder();
-        }
         initMinRt();
     }
 
     public MetricBucket reset(MetricBucket bucket) {
-        for (MetricEvent event : MetricEvent.values()) {
-            counters[event.ordinal()].reset();
-            counters[event.ordinal()].add(bucket.get(event));
+        reset();
+        for (MetricEvent event : EVENTS) {
+            base.set(event.ordinal(), bucket.get(event));
         }
-        initMinRt();
         return this;
     }
 
@@ -54,27 +96,81 @@ public class MetricBucket {
     }
 
     /**
-     * Reset the adders.
+     * Reset the counters.
      *
      * @return new metric bucket in initial state
      */
     public MetricBucket reset() {
-        for (MetricEvent event : MetricEvent.values()) {
-            counters[event.ordinal()].reset();
+        for (int i = 0; i < EVENTS.length; i++) {
+            base.set(i, 0);
+        }
+        AtomicLongArray as = stripes;
+        if (as != null) {
+            for (int i = STRIPE_STRIDE; i < as.length(); i++) {
+                as.set(i, 0);
+            }
         }
         initMinRt();
         return this;
     }
 
     public long get(MetricEvent event) {
-        return counters[event.ordinal()].sum();
+        int i = event.ordinal();
+        long sum = base.get(i);
+        AtomicLongArray as = stripes;
+        if (as != null) {
+            for (int offset = STRIPE_STRIDE + i; offset < as.length(); offset += STRIPE_STRIDE) {
+                sum += as.get(offset);
+            }
+        }
+        return sum;
     }
 
     public MetricBucket add(MetricEvent event, long n) {
-        counters[event.ordinal()].add(n);
+        int i = event.ordinal();
+        AtomicLongArray as = stripes;
+        if (as == null) {
+            long v = base.get(i);
+            if (base.compareAndSet(i, v, v + n)) {
+                return this;
+            }
+            as = inflate();
+        }
+        int[] probe = PROBE.get();
+        int offset = stripeOffset(probe[0]) + i;
+        long v = as.get(offset);
+        if (!as.compareAndSet(offset, v, v + n)) {
+            // Contended with another thread on the stripe, move to another one.
+            int h = probe[0];
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+            probe[0] = h;
+            as.getAndAdd(stripeOffset(h) + i, n);
+        }
         return this;
     }
 
+    private AtomicLongArray inflate() {
+        AtomicLongArray as = new AtomicLongArray((STRIPE_COUNT + 1) * STRIPE_STRIDE);
+        if (STRIPES_UPDATER.compareAndSet(this, null, as)) {
+            return as;
+        }
+        return stripes;
+    }
+
+    private static int stripeOffset(int probe) {
+        return ((probe >>> 16 & (STRIPE_COUNT - 1)) + 1) * STRIPE_STRIDE;
+    }
+
+    private static int stripeCount(int processors) {
+        int n = 1;
+        while (n < processors && n < MAX_STRIPE_COUNT) {
+            n <<= 1;
+        }
+        return n;
+    }
+
     public long pass() {
         return get(MetricEvent.PASS);
     }
@@ -126,10 +222,28 @@ public class MetricBucket {
     public void addRT(long rt) {
         add(MetricEvent.RT, rt);
 
-        // Not thread-safe, but it's okay.
-        if (rt < minRt) {
-            minRt = rt;
+        long cur;
+        while (rt < (cur = minRt)) {
+            if (MIN_RT_UPDATER.compareAndSet(this, cur, rt)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Estimate the heap size retained by the bucket, assuming a 64-bit JVM with compressed references.
+     *
+     * @return estimated size in bytes
+     * @since 2.0.0
+     */
+    public long estimatedBytes() {
+        // The bucket itself and the base stripe (the AtomicLongArray and its long[]).
+        long bytes = 32 + 16 + 16 + 8L * STRIPE_LENGTH;
+        AtomicLongArray as = stripes;
+        if (as != null) {
+            bytes += 16 + 16 + 8L * as.length();
         }
+        return bytes;
     }
 
     @Override
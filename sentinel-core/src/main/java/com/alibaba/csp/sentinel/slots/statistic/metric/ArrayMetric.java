@@ -334,4 +334,10 @@ public class ArrayMetric implements Metric {
     public int getSampleCount() {
         return data.getSampleCount();
     }
+
+    @Override
+    public long estimatedBytes() {
+        // The metric itself and its sliding window.
+        return 16 + data.estimatedBytes();
+    }
 }
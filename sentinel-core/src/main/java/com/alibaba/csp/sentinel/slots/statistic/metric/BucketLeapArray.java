@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.metric;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
@@ -29,7 +31,11 @@ import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
 public class BucketLeapArray extends LeapArray<MetricBucket> {
 
     public BucketLeapArray(int sampleCount, int intervalInMs) {
-        super(sampleCount, intervalInMs);
+        super(sampleCount, intervalInMs, SentinelConfig.lockFreeWindowRotation());
+    }
+
+    public BucketLeapArray(int sampleCount, int intervalInMs, boolean lockFreeRotation) {
+        super(sampleCount, intervalInMs, lockFreeRotation);
     }
 
     @Override
@@ -44,4 +50,29 @@ public class BucketLeapArray extends LeapArray<MetricBucket> {
         w.value().reset();
         return w;
     }
+
+    /**
+     * Sum the count of the event in the buckets of which the window starts within the interval before the time,
+     * without building the bucket list.
+     *
+     * @param event      the metric event
+     * @param timeMillis a valid timestamp in milliseconds
+     * @return the sum of the event
+     * @since 2.0.0
+     */
+    long sum(MetricEvent event, long timeMillis) {
+        long sum = 0;
+        for (int i = 0; i < array.length(); i++) {
+            WindowWrap<MetricBucket> w = array.get(i);
+            if (w != null && timeMillis - w.windowStart() < intervalInMs) {
+                sum += w.value().get(event);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    protected long estimateBucketBytes(MetricBucket bucket) {
+        return bucket.estimatedBytes();
+    }
 }
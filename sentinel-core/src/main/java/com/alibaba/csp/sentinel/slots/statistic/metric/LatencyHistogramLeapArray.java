@@ -0,0 +1,64 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.LatencyHistogram;
+
+/**
+ * Response time histograms of a time span.
+ *
+ * @see LatencyHistogram
+ * @since 2.0.0
+ */
+public class LatencyHistogramLeapArray extends LeapArray<LatencyHistogram> {
+
+    public LatencyHistogramLeapArray(int sampleCount, int intervalInMs) {
+        super(sampleCount, intervalInMs);
+    }
+
+    /**
+     * Merge the histograms of all valid buckets.
+     *
+     * @return a new histogram of the entire sliding window
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (LatencyHistogram bucket : values()) {
+            histogram.add(bucket);
+        }
+        return histogram;
+    }
+
+    @Override
+    public LatencyHistogram newEmptyBucket(long time) {
+        return new LatencyHistogram();
+    }
+
+    @Override
+    protected WindowWrap<LatencyHistogram> resetWindowTo(WindowWrap<LatencyHistogram> w, long startTime) {
+        // Update the start time and reset value.
+        w.resetTo(startTime);
+        w.value().reset();
+        return w;
+    }
+
+    @Override
+    protected long estimateBucketBytes(LatencyHistogram bucket) {
+        return bucket.estimatedBytes();
+    }
+}
@@ -194,6 +194,16 @@ public interface Metric extends DebugSupport {
      */
     long occupiedPass();
 
+    /**
+     * Estimate the heap size retained by the metric.
+     *
+     * @return estimated size in bytes, or 0 if unknown
+     * @since 2.0.0
+     */
+    default long estimatedBytes() {
+        return 0;
+    }
+
     // Tool methods.
 
     long previousWindowBlock();
@@ -0,0 +1,464 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>A {@link Metric} that starts as a small sparse ring of buckets, and upgrades to a full
+ * {@link BucketLeapArray} when the traffic grows.</p>
+ * <p>
+ * The sparse ring only holds buckets of the windows that have been written, so a resource that is hit a few
+ * times a minute retains a few buckets instead of one bucket per window. Reading the metric never allocates
+ * buckets. The metric is upgraded when the ring has no room for a new window (i.e. more windows within the
+ * interval have been written than the ring holds), or when the pass and block count of a window reaches the
+ * upgrade threshold. The sparse ring is still read after the upgrade, until all of its buckets expire, so no
+ * counts are lost while upgrading.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public class TieredMetric implements Metric {
+
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    private final int sampleCount;
+    private final int intervalInMs;
+    private final int windowLengthInMs;
+    private final long upgradeThreshold;
+
+    /**
+     * Buckets of the written windows, in no particular order. Several buckets might exist for the same window
+     * when they are created concurrently, which are summed up when read.
+     */
+    private volatile AtomicReferenceArray<WindowWrap<MetricBucket>> sparseWindows;
+    private volatile BucketLeapArray fullWindows;
+
+    /**
+     * @param sampleCount      bucket count of the sliding window
+     * @param intervalInMs     the total time interval of the sliding window in milliseconds
+     * @param sparseSize       max amount of buckets in the sparse ring
+     * @param upgradeThreshold pass and block count of a window from which the metric is upgraded
+     */
+    public TieredMetric(int sampleCount, int intervalInMs, int sparseSize, long upgradeThreshold) {
+        AssertUtil.isTrue(sampleCount > 0, "bucket count is invalid: " + sampleCount);
+        AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        AssertUtil.isTrue(sparseSize > 0, "sparse size should be positive");
+        this.sampleCount = sampleCount;
+        this.intervalInMs = intervalInMs;
+        this.windowLengthInMs = intervalInMs / sampleCount;
+        this.upgradeThreshold = upgradeThreshold;
+        this.sparseWindows = new AtomicReferenceArray<>(sparseSize);
+    }
+
+    /**
+     * @return whether the metric has been upgraded to the full sliding window
+     */
+    public boolean isUpgraded() {
+        return fullWindows != null;
+    }
+
+    private MetricBucket currentBucket() {
+        BucketLeapArray full = fullWindows;
+        if (full != null) {
+            return full.currentWindow().value();
+        }
+        long time = TimeUtil.currentTimeMillis();
+        MetricBucket bucket = sparseBucket(time);
+        if (bucket != null) {
+            return bucket;
+        }
+        return upgrade().currentWindow(time).value();
+    }
+
+    /**
+     * @return the bucket of the window in the sparse ring, or null if there is no room for the window
+     */
+    private MetricBucket sparseBucket(long time) {
+        AtomicReferenceArray<WindowWrap<MetricBucket>> ring = sparseWindows;
+        if (ring == null) {
+            return null;
+        }
+        long windowStart = time - time % windowLengthInMs;
+        while (true) {
+            int free = -1;
+            WindowWrap<MetricBucket> expired = null;
+            for (int i = 0; i < ring.length(); i++) {
+                WindowWrap<MetricBucket> w = ring.get(i);
+                if (w != null && w.windowStart() == windowStart) {
+                    return w.value();
+                }
+                if (free < 0 && (w == null || isDeprecated(time, w))) {
+                    free = i;
+                    expired = w;
+                }
+            }
+            if (free < 0) {
+                return null;
+            }
+            WindowWrap<MetricBucket> w = new WindowWrap<>(windowLengthInMs, windowStart, new MetricBucket());
+            if (ring.compareAndSet(free, expired, w)) {
+                return w.value();
+            }
+        }
+    }
+
+    private synchronized BucketLeapArray upgrade() {
+        if (fullWindows == null) {
+            fullWindows = new BucketLeapArray(sampleCount, intervalInMs);
+        }
+        return fullWindows;
+    }
+
+    private void addAndCheck(MetricBucket bucket, MetricEvent event, int count) {
+        bucket.add(event, count);
+        if (fullWindows == null && upgradeThreshold > 0
+            && bucket.pass() + bucket.block() >= upgradeThreshold) {
+            upgrade();
+        }
+    }
+
+    /**
+     * A bucket is deprecated once its window starts an entire interval ago, i.e. when the sliding window
+     * would rotate it for the current window.
+     */
+    private boolean isDeprecated(long time, WindowWrap<MetricBucket> w) {
+        return time - w.windowStart() >= intervalInMs;
+    }
+
+    /**
+     * @return valid buckets of both tiers, which might include several buckets of the same window
+     */
+    private List<WindowWrap<MetricBucket>> validWindows(long time) {
+        BucketLeapArray full = fullWindows;
+        List<WindowWrap<MetricBucket>> result = new ArrayList<>();
+        if (full != null) {
+            for (WindowWrap<MetricBucket> w : full.list(time)) {
+                if (!isDeprecated(time, w)) {
+                    result.add(w);
+                }
+            }
+        }
+        AtomicReferenceArray<WindowWrap<MetricBucket>> ring = sparseWindows;
+        if (ring != null) {
+            boolean alive = false;
+            for (int i = 0; i < ring.length(); i++) {
+                WindowWrap<MetricBucket> w = ring.get(i);
+                if (w != null && !isDeprecated(time, w)) {
+                    result.add(w);
+                    alive = true;
+                }
+            }
+            if (!alive && full != null) {
+                // All buckets written before the upgrade have expired.
+                sparseWindows = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return valid buckets with one bucket per window, ordered by the window start
+     */
+    private List<WindowWrap<MetricBucket>> mergedWindows(long time) {
+        Map<Long, WindowWrap<MetricBucket>> merged = new TreeMap<>();
+        for (WindowWrap<MetricBucket> w : validWindows(time)) {
+            WindowWrap<MetricBucket> existing = merged.get(w.windowStart());
+            if (existing == null) {
+                merged.put(w.windowStart(), w);
+                continue;
+            }
+            MetricBucket sum = new MetricBucket().reset(existing.value());
+            for (MetricEvent event : EVENTS) {
+                sum.add(event, w.value().get(event));
+            }
+            merged.put(w.windowStart(), new WindowWrap<>(windowLengthInMs, w.windowStart(), sum));
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private long sum(MetricEvent event) {
+        long time = TimeUtil.currentTimeMillis();
+        long sum = 0;
+        BucketLeapArray full = fullWindows;
+        if (full != null) {
+            sum += full.sum(event, time);
+        }
+        AtomicReferenceArray<WindowWrap<MetricBucket>> ring = sparseWindows;
+        if (ring != null) {
+            boolean alive = false;
+            for (int i = 0; i < ring.length(); i++) {
+                WindowWrap<MetricBucket> w = ring.get(i);
+                if (w != null && !isDeprecated(time, w)) {
+                    sum += w.value().get(event);
+                    alive = true;
+                }
+            }
+            if (!alive && full != null) {
+                // All buckets written before the upgrade have expired.
+                sparseWindows = null;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return sum of the event in the buckets of the window in the sparse ring
+     */
+    private long sparseSumOfWindow(MetricEvent event, long windowStart) {
+        AtomicReferenceArray<WindowWrap<MetricBucket>> ring = sparseWindows;
+        if (ring == null) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < ring.length(); i++) {
+            WindowWrap<MetricBucket> w = ring.get(i);
+            if (w != null && w.windowStart() == windowStart) {
+                sum += w.value().get(event);
+            }
+        }
+        return sum;
+    }
+
+    private long sumOfWindow(MetricEvent event, long windowStart) {
+        long sum = sparseSumOfWindow(event, windowStart);
+        BucketLeapArray full = fullWindows;
+        if (full != null) {
+            MetricBucket bucket = full.getWindowValue(windowStart);
+            if (bucket != null) {
+                sum += bucket.get(event);
+            }
+        }
+        return sum;
+    }
+
+    private long sumOfPreviousWindow(MetricEvent event) {
+        long time = TimeUtil.currentTimeMillis();
+        long previous = time - windowLengthInMs;
+        long windowStart = previous - previous % windowLengthInMs;
+        long sum = sparseSumOfWindow(event, windowStart);
+        BucketLeapArray full = fullWindows;
+        if (full != null) {
+            WindowWrap<MetricBucket> w = full.getPreviousWindow(time);
+            if (w != null && w.windowStart() == windowStart) {
+                sum += w.value().get(event);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long success() {
+        return sum(MetricEvent.SUCCESS);
+    }
+
+    @Override
+    public long maxSuccess() {
+        long success = 0;
+        for (WindowWrap<MetricBucket> w : mergedWindows(TimeUtil.currentTimeMillis())) {
+            success = Math.max(success, w.value().success());
+        }
+        return Math.max(success, 1);
+    }
+
+    @Override
+    public long exception() {
+        return sum(MetricEvent.EXCEPTION);
+    }
+
+    @Override
+    public long block() {
+        return sum(MetricEvent.BLOCK);
+    }
+
+    @Override
+    public long pass() {
+        return sum(MetricEvent.PASS);
+    }
+
+    @Override
+    public long rt() {
+        return sum(MetricEvent.RT);
+    }
+
+    @Override
+    public long minRt() {
+        long rt = SentinelConfig.statisticMaxRt();
+        for (WindowWrap<MetricBucket> w : validWindows(TimeUtil.currentTimeMillis())) {
+            rt = Math.min(rt, w.value().minRt());
+        }
+        return Math.max(1, rt);
+    }
+
+    @Override
+    public List<MetricNode> details() {
+        return detailsOnCondition(null);
+    }
+
+    @Override
+    public List<MetricNode> detailsOnCondition(Predicate<Long> timePredicate) {
+        List<MetricNode> details = new ArrayList<>();
+        for (WindowWrap<MetricBucket> w : mergedWindows(TimeUtil.currentTimeMillis())) {
+            if (timePredicate != null && !timePredicate.test(w.windowStart())) {
+                continue;
+            }
+            details.add(fromBucket(w));
+        }
+        return details;
+    }
+
+    private MetricNode fromBucket(WindowWrap<MetricBucket> wrap) {
+        MetricBucket bucket = wrap.value();
+        MetricNode node = new MetricNode();
+        node.setBlockQps(bucket.block());
+        node.setExceptionQps(bucket.exception());
+        node.setPassQps(bucket.pass());
+        long successQps = bucket.success();
+        node.setSuccessQps(successQps);
+        if (successQps != 0) {
+            node.setRt(bucket.rt() / successQps);
+        } else {
+            node.setRt(bucket.rt());
+        }
+        node.setTimestamp(wrap.windowStart());
+        node.setOccupiedPassQps(bucket.occupiedPass());
+        return node;
+    }
+
+    @Override
+    public MetricBucket[] windows() {
+        List<WindowWrap<MetricBucket>> windows = mergedWindows(TimeUtil.currentTimeMillis());
+        MetricBucket[] buckets = new MetricBucket[windows.size()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = windows.get(i).value();
+        }
+        return buckets;
+    }
+
+    @Override
+    public void addException(int n) {
+        currentBucket().addException(n);
+    }
+
+    @Override
+    public void addBlock(int n) {
+        addAndCheck(currentBucket(), MetricEvent.BLOCK, n);
+    }
+
+    @Override
+    public void addSuccess(int n) {
+        currentBucket().addSuccess(n);
+    }
+
+    @Override
+    public void addPass(int n) {
+        addAndCheck(currentBucket(), MetricEvent.PASS, n);
+    }
+
+    @Override
+    public void addRT(long rt) {
+        currentBucket().addRT(rt);
+    }
+
+    @Override
+    public double getWindowIntervalInSec() {
+        return intervalInMs / 1000.0;
+    }
+
+    @Override
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public long getWindowPass(long timeMillis) {
+        return sumOfWindow(MetricEvent.PASS, timeMillis - timeMillis % windowLengthInMs);
+    }
+
+    @Override
+    public void addOccupiedPass(int acquireCount) {
+        currentBucket().addOccupiedPass(acquireCount);
+    }
+
+    @Override
+    public void addWaiting(long futureTime, int acquireCount) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long waiting() {
+        return 0;
+    }
+
+    @Override
+    public long occupiedPass() {
+        return sum(MetricEvent.OCCUPIED_PASS);
+    }
+
+    @Override
+    public long previousWindowBlock() {
+        return sumOfPreviousWindow(MetricEvent.BLOCK);
+    }
+
+    @Override
+    public long previousWindowPass() {
+        return sumOfPreviousWindow(MetricEvent.PASS);
+    }
+
+    @Override
+    public long estimatedBytes() {
+        // The metric itself.
+        long bytes = 40;
+        AtomicReferenceArray<WindowWrap<MetricBucket>> ring = sparseWindows;
+        if (ring != null) {
+            bytes += 16 + 16 + 4L * ring.length();
+            for (int i = 0; i < ring.length(); i++) {
+                WindowWrap<MetricBucket> w = ring.get(i);
+                if (w != null) {
+                    bytes += 32 + w.value().estimatedBytes();
+                }
+            }
+        }
+        BucketLeapArray full = fullWindows;
+        if (full != null) {
+            bytes += full.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void debug() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Thread_").append(Thread.currentThread().getId()).append("_");
+        for (WindowWrap<MetricBucket> w : mergedWindows(TimeUtil.currentTimeMillis())) {
+            sb.append(w.windowStart()).append(":").append(w.value().toString());
+        }
+        System.out.println(sb.toString());
+    }
+}
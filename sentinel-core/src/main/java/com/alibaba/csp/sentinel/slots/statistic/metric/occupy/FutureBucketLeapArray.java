@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.metric.occupy;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
@@ -29,7 +30,11 @@ public class FutureBucketLeapArray extends LeapArray<MetricBucket> {
 
     public FutureBucketLeapArray(int sampleCount, int intervalInMs) {
         // This class is the original "BorrowBucketArray".
-        super(sampleCount, intervalInMs);
+        super(sampleCount, intervalInMs, SentinelConfig.lockFreeWindowRotation());
+    }
+
+    public FutureBucketLeapArray(int sampleCount, int intervalInMs, boolean lockFreeRotation) {
+        super(sampleCount, intervalInMs, lockFreeRotation);
     }
 
     @Override
@@ -50,4 +55,9 @@ public class FutureBucketLeapArray extends LeapArray<MetricBucket> {
         // Tricky: will only calculate for future.
         return time >= windowWrap.windowStart();
     }
+
+    @Override
+    protected long estimateBucketBytes(MetricBucket bucket) {
+        return bucket.estimatedBytes();
+    }
 }
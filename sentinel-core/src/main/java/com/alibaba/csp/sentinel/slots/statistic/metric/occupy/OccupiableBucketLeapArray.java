@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.slots.statistic.metric.occupy;
 
 import java.util.List;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
@@ -32,8 +33,13 @@ public class OccupiableBucketLeapArray extends LeapArray<MetricBucket> {
 
     public OccupiableBucketLeapArray(int sampleCount, int intervalInMs) {
         // This class is the original "CombinedBucketArray".
-        super(sampleCount, intervalInMs);
-        this.borrowArray = new FutureBucketLeapArray(sampleCount, intervalInMs);
+        this(sampleCount, intervalInMs, SentinelConfig.lockFreeWindowRotation());
+    }
+
+    public OccupiableBucketLeapArray(int sampleCount, int intervalInMs, boolean lockFreeRotation) {
+        // Borrowed buckets only record pass, so a new bucket carries the same borrowed count as a reset one.
+        super(sampleCount, intervalInMs, lockFreeRotation);
+        this.borrowArray = new FutureBucketLeapArray(sampleCount, intervalInMs, lockFreeRotation);
     }
 
     @Override
@@ -63,6 +69,16 @@ public class OccupiableBucketLeapArray extends LeapArray<MetricBucket> {
         return w;
     }
 
+    @Override
+    protected long estimateBucketBytes(MetricBucket bucket) {
+        return bucket.estimatedBytes();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return super.estimatedBytes() + borrowArray.estimatedBytes();
+    }
+
     @Override
     public long currentWaiting() {
         borrowArray.currentWindow();
@@ -0,0 +1,426 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>System metrics of the container, read from the cgroup (v1 or v2) of the process. Like the container support
+ * of the JDK, the cgroup directories are resolved from {@code /proc/self/cgroup} and {@code /proc/self/mountinfo},
+ * so that the right cgroup is read even without a private cgroup namespace. The resolution could be overridden
+ * by {@link SentinelConfig#systemCgroupRoot()}.</p>
+ * <ul>
+ * <li>CPU usage: the CPU time used by the cgroup ({@code cpu.stat} usage_usec in v2, {@code cpuacct.usage}
+ * in v1) over the CPU quota ({@code cpu.max} in v2, {@code cpu.cfs_quota_us} / {@code cpu.cfs_period_us} in v1),
+ * or over all available processors if the quota is not set.</li>
+ * <li>CPU throttled ratio: the ratio of throttled periods ({@code cpu.stat} nr_throttled / nr_periods).</li>
+ * <li>Memory pressure: the "some avg10" memory pressure stall information ({@code memory.pressure},
+ * only available in v2).</li>
+ * </ul>
+ * <p>
+ * The system load is always read from the {@link JmxSystemMetricsProvider} as the cgroup has no load average,
+ * and so is the CPU usage if no cgroup is found.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+@Spi(isDefault = true)
+public class CgroupSystemMetricsProvider implements SystemMetricsProvider {
+
+    private final SystemMetricsProvider fallback;
+
+    /**
+     * Directory of the cgroup v2 files, or null if not cgroup v2.
+     */
+    private final File unifiedDir;
+    /**
+     * Directories of the cgroup v1 controllers, which could be null if not found.
+     */
+    private final File cpuDir;
+    private final File cpuacctDir;
+
+    private final boolean available;
+
+    private volatile double currentCpuUsage = -1;
+    private volatile double currentCpuThrottledRatio = -1;
+    private volatile double currentMemoryPressure = -1;
+
+    private long lastSampleTime = -1;
+    private long lastUsageNanos = -1;
+    private long lastPeriods = -1;
+    private long lastThrottled = -1;
+
+    public CgroupSystemMetricsProvider() {
+        this(resolveDirs(SentinelConfig.systemCgroupRoot()), new JmxSystemMetricsProvider());
+    }
+
+    CgroupSystemMetricsProvider(File root, SystemMetricsProvider fallback) {
+        this(CgroupDirs.ofRoot(root), fallback);
+    }
+
+    CgroupSystemMetricsProvider(CgroupDirs dirs, SystemMetricsProvider fallback) {
+        this.fallback = fallback;
+        this.unifiedDir = dirs.unifiedDir;
+        this.cpuDir = dirs.cpuDir;
+        this.cpuacctDir = dirs.cpuacctDir;
+        this.available = unifiedDir != null || cpuacctDir != null;
+        RecordLog.info("[CgroupSystemMetricsProvider] cgroup {}: {}",
+            unifiedDir != null ? "v2 found" : (available ? "v1 found" : "not found"), dirs);
+    }
+
+    private static CgroupDirs resolveDirs(String configuredRoot) {
+        if (configuredRoot != null) {
+            return CgroupDirs.ofRoot(new File(configuredRoot));
+        }
+        CgroupDirs dirs = CgroupDirs.ofProcess(new File("/proc/self/cgroup"), new File("/proc/self/mountinfo"));
+        return dirs != null ? dirs : CgroupDirs.ofRoot(new File(SentinelConfig.DEFAULT_SYSTEM_CGROUP_ROOT));
+    }
+
+    boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public void refresh() {
+        try {
+            fallback.refresh();
+        } catch (Throwable e) {
+            RecordLog.warn("[CgroupSystemMetricsProvider] Failed to get system metrics from fallback provider", e);
+        }
+        if (!available) {
+            return;
+        }
+        long currentTime = TimeUtil.currentTimeMillis();
+        long elapsed = currentTime - lastSampleTime;
+        if (lastSampleTime >= 0 && elapsed <= 0) {
+            // Sampled too frequently to tell the rates.
+            return;
+        }
+
+        long usageNanos = readCpuUsageNanos();
+        if (usageNanos >= 0 && lastUsageNanos >= 0 && lastSampleTime >= 0) {
+            double usage = (double)(usageNanos - lastUsageNanos) / (elapsed * 1000000L) / readCpuLimit();
+            currentCpuUsage = Math.max(0, Math.min(1, usage));
+        }
+        lastUsageNanos = usageNanos;
+
+        File statFile = unifiedDir != null ? new File(unifiedDir, "cpu.stat")
+            : (cpuDir != null ? new File(cpuDir, "cpu.stat") : null);
+        long periods = readStatValue(statFile, "nr_periods");
+        long throttled = readStatValue(statFile, "nr_throttled");
+        if (periods < 0 || throttled < 0) {
+            currentCpuThrottledRatio = -1;
+        } else if (lastPeriods >= 0 && lastThrottled >= 0) {
+            long periodDiff = periods - lastPeriods;
+            currentCpuThrottledRatio = periodDiff <= 0 ? 0
+                : Math.max(0, Math.min(1, (double)(throttled - lastThrottled) / periodDiff));
+        }
+        lastPeriods = periods;
+        lastThrottled = throttled;
+
+        if (unifiedDir != null) {
+            currentMemoryPressure = readPressure(new File(unifiedDir, "memory.pressure"));
+        }
+        lastSampleTime = currentTime;
+    }
+
+    @Override
+    public double getSystemLoad() {
+        return fallback.getSystemLoad();
+    }
+
+    @Override
+    public double getCpuUsage() {
+        return available ? currentCpuUsage : fallback.getCpuUsage();
+    }
+
+    @Override
+    public double getCpuThrottledRatio() {
+        return currentCpuThrottledRatio;
+    }
+
+    @Override
+    public double getMemoryPressure() {
+        return currentMemoryPressure;
+    }
+
+    /**
+     * @return CPU time used by the cgroup in nanoseconds, or -1 if unavailable
+     */
+    private long readCpuUsageNanos() {
+        if (unifiedDir != null) {
+            long usageMicros = readStatValue(new File(unifiedDir, "cpu.stat"), "usage_usec");
+            return usageMicros < 0 ? -1 : usageMicros * 1000;
+        }
+        return readLong(new File(cpuacctDir, "cpuacct.usage"));
+    }
+
+    /**
+     * @return count of CPU cores the cgroup is allowed to use
+     */
+    private double readCpuLimit() {
+        long quota = -1;
+        long period = -1;
+        if (unifiedDir != null) {
+            // e.g. "200000 100000", or "max 100000" if unlimited.
+            String line = readFirstLine(new File(unifiedDir, "cpu.max"));
+            if (line != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length == 2 && !"max".equals(parts[0])) {
+                    quota = parseLong(parts[0]);
+                    period = parseLong(parts[1]);
+                }
+            }
+        } else if (cpuDir != null) {
+            quota = readLong(new File(cpuDir, "cpu.cfs_quota_us"));
+            period = readLong(new File(cpuDir, "cpu.cfs_period_us"));
+        }
+        if (quota > 0 && period > 0) {
+            return (double)quota / period;
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Directories of the cgroup of the process.
+     */
+    static final class CgroupDirs {
+
+        private static final String V2_PROBE_FILE = "cgroup.controllers";
+        private static final String CPU_PROBE_FILE = "cpu.cfs_quota_us";
+        private static final String CPUACCT_PROBE_FILE = "cpuacct.usage";
+
+        private final File unifiedDir;
+        private final File cpuDir;
+        private final File cpuacctDir;
+
+        private CgroupDirs(File unifiedDir, File cpuDir, File cpuacctDir) {
+            this.unifiedDir = unifiedDir;
+            this.cpuDir = cpuDir;
+            this.cpuacctDir = cpuacctDir;
+        }
+
+        /**
+         * Take the given directory as the cgroup (v2) or the root of the controllers (v1) of the process.
+         */
+        static CgroupDirs ofRoot(File root) {
+            if (new File(root, V2_PROBE_FILE).isFile()) {
+                return new CgroupDirs(root, null, null);
+            }
+            return new CgroupDirs(null, findControllerDir(root, "cpu", CPU_PROBE_FILE),
+                findControllerDir(root, "cpuacct", CPUACCT_PROBE_FILE));
+        }
+
+        /**
+         * Resolve the cgroup of the process from the cgroup membership and the mount points of the cgroup
+         * file systems.
+         *
+         * @param cgroupFile    e.g. {@code /proc/self/cgroup}
+         * @param mountInfoFile e.g. {@code /proc/self/mountinfo}
+         * @return the directories, or null if cgroup is not found
+         */
+        static CgroupDirs ofProcess(File cgroupFile, File mountInfoFile) {
+            // Lines of "hierarchy-ID:controller-list:cgroup-path", e.g. "4:cpu,cpuacct:/docker/abc" in v1
+            // and "0::/kubepods/pod1/abc" in v2.
+            String v2Path = null;
+            String cpuPath = null;
+            String cpuacctPath = null;
+            for (String line : readLines(cgroupFile)) {
+                String[] parts = line.split(":", 3);
+                if (parts.length != 3) {
+                    continue;
+                }
+                if ("0".equals(parts[0]) && parts[1].isEmpty()) {
+                    v2Path = parts[2];
+                    continue;
+                }
+                for (String controller : parts[1].split(",")) {
+                    if ("cpu".equals(controller)) {
+                        cpuPath = parts[2];
+                    } else if ("cpuacct".equals(controller)) {
+                        cpuacctPath = parts[2];
+                    }
+                }
+            }
+
+            // Lines of "ID parent-ID major:minor root mount-point options [optional-fields] - type source
+            // super-options", e.g. "30 23 0:26 / /sys/fs/cgroup rw,relatime shared:4 - cgroup2 cgroup2 rw".
+            String[] v2Mount = null;
+            String[] cpuMount = null;
+            String[] cpuacctMount = null;
+            for (String line : readLines(mountInfoFile)) {
+                int separator = line.indexOf(" - ");
+                if (separator < 0) {
+                    continue;
+                }
+                String[] fields = line.substring(0, separator).split(" ");
+                String[] fsFields = line.substring(separator + 3).split(" ");
+                if (fields.length < 5 || fsFields.length < 3) {
+                    continue;
+                }
+                String[] mount = {fields[3], fields[4]};
+                if ("cgroup2".equals(fsFields[0])) {
+                    v2Mount = mount;
+                } else if ("cgroup".equals(fsFields[0])) {
+                    for (String option : fsFields[2].split(",")) {
+                        if ("cpu".equals(option)) {
+                            cpuMount = mount;
+                        } else if ("cpuacct".equals(option)) {
+                            cpuacctMount = mount;
+                        }
+                    }
+                }
+            }
+
+            // The CPU controllers are in v1 if they are mounted as v1 (also in the hybrid mode).
+            if (cpuacctPath != null && cpuacctMount != null) {
+                return new CgroupDirs(null,
+                    cpuPath == null || cpuMount == null ? null : controllerDir(cpuMount, cpuPath, CPU_PROBE_FILE),
+                    controllerDir(cpuacctMount, cpuacctPath, CPUACCT_PROBE_FILE));
+            }
+            if (v2Path != null && v2Mount != null) {
+                return new CgroupDirs(controllerDir(v2Mount, v2Path, V2_PROBE_FILE), null, null);
+            }
+            return null;
+        }
+
+        /**
+         * Resolve the directory of the cgroup like the JDK does, falling back to the mount point if the
+         * directory is not found (e.g. the cgroup path is not visible in the container).
+         *
+         * @param mount      root of the mount and the mount point
+         * @param cgroupPath path of the cgroup within the hierarchy
+         * @param probeFile  file that should exist in the directory
+         * @return the directory, or null if not found
+         */
+        private static File controllerDir(String[] mount, String cgroupPath, String probeFile) {
+            String mountRoot = mount[0];
+            File mountPoint = new File(mount[1]);
+            File dir;
+            if ("/".equals(mountRoot)) {
+                dir = "/".equals(cgroupPath) ? mountPoint : new File(mountPoint, cgroupPath);
+            } else if (mountRoot.equals(cgroupPath)) {
+                dir = mountPoint;
+            } else if (cgroupPath.startsWith(mountRoot + "/")) {
+                dir = new File(mountPoint, cgroupPath.substring(mountRoot.length()));
+            } else {
+                dir = mountPoint;
+            }
+            if (new File(dir, probeFile).isFile()) {
+                return dir;
+            }
+            return new File(mountPoint, probeFile).isFile() ? mountPoint : null;
+        }
+
+        private static File findControllerDir(File root, String controller, String probeFile) {
+            File[] candidates = {new File(root, controller), new File(root, "cpu,cpuacct"),
+                new File(root, "cpuacct,cpu")};
+            for (File dir : candidates) {
+                if (new File(dir, probeFile).isFile()) {
+                    return dir;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return unifiedDir != null ? String.valueOf(unifiedDir)
+                : "cpu=" + cpuDir + ", cpuacct=" + cpuacctDir;
+        }
+    }
+
+    /**
+     * Read a value from a flat keyed file, e.g. {@code cpu.stat}.
+     *
+     * @return the value, or -1 if unavailable
+     */
+    private static long readStatValue(File file, String key) {
+        if (file == null || !file.isFile()) {
+            return -1;
+        }
+        for (String line : readLines(file)) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length == 2 && key.equals(parts[0])) {
+                return parseLong(parts[1]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read the "some avg10" value from a pressure stall information file, e.g.
+     * {@code some avg10=1.53 avg60=0.87 avg300=0.31 total=3246371}.
+     *
+     * @return the share of time stalled within [0, 1], or -1 if unavailable
+     */
+    private static double readPressure(File file) {
+        if (!file.isFile()) {
+            return -1;
+        }
+        for (String line : readLines(file)) {
+            if (!line.startsWith("some ")) {
+                continue;
+            }
+            for (String field : line.trim().split("\\s+")) {
+                if (field.startsWith("avg10=")) {
+                    try {
+                        return Double.parseDouble(field.substring("avg10=".length())) / 100;
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long readLong(File file) {
+        String line = readFirstLine(file);
+        return line == null ? -1 : parseLong(line.trim());
+    }
+
+    private static long parseLong(String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String readFirstLine(File file) {
+        List<String> lines = readLines(file);
+        return lines.isEmpty() ? null : lines.get(0);
+    }
+
+    private static List<String> readLines(File file) {
+        try {
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+}
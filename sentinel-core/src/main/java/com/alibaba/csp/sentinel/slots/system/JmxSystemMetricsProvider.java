@@ -0,0 +1,81 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.management.OperatingSystemMXBean;
+
+/**
+ * System metrics of the host (or the process), read from the {@link OperatingSystemMXBean}.
+ * The CPU usage is the max of the system CPU usage and the process CPU usage.
+ *
+ * @since 2.0.0
+ */
+public class JmxSystemMetricsProvider implements SystemMetricsProvider {
+
+    private volatile double currentLoad = -1;
+    private volatile double currentCpuUsage = -1;
+
+    private long processCpuTime = 0;
+    private long processUpTime = 0;
+
+    @Override
+    public void refresh() {
+        OperatingSystemMXBean osBean = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+        currentLoad = osBean.getSystemLoadAverage();
+
+        double systemCpuUsage = osBean.getSystemCpuLoad();
+
+        RuntimeMXBean runtimeBean = ManagementFactory.getPlatformMXBean(RuntimeMXBean.class);
+        long newProcessCpuTime = osBean.getProcessCpuTime();
+        long newProcessUpTime = runtimeBean.getUptime();
+        int cpuCores = osBean.getAvailableProcessors();
+        long processCpuTimeDiffInMs = TimeUnit.NANOSECONDS.toMillis(newProcessCpuTime - processCpuTime);
+        long processUpTimeDiffInMs = newProcessUpTime - processUpTime;
+        if (processUpTimeDiffInMs <= 0) {
+            // Sampled too frequently to tell the process CPU usage.
+            return;
+        }
+        double processCpuUsage = (double)processCpuTimeDiffInMs / processUpTimeDiffInMs / cpuCores;
+        processCpuTime = newProcessCpuTime;
+        processUpTime = newProcessUpTime;
+
+        currentCpuUsage = Math.max(processCpuUsage, systemCpuUsage);
+    }
+
+    @Override
+    public double getSystemLoad() {
+        return currentLoad;
+    }
+
+    @Override
+    public double getCpuUsage() {
+        return currentCpuUsage;
+    }
+
+    @Override
+    public double getCpuThrottledRatio() {
+        return -1;
+    }
+
+    @Override
+    public double getMemoryPressure() {
+        return -1;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Sheds inbound traffic per resource by its cost when the system is overloaded.</p>
+ * <p>
+ * The cost of a resource is its average RT times its inbound QPS, which includes the requests rejected by
+ * this shedder (so the demand of a shed resource is still seen) but not those rejected by other rules.
+ * On each sample of the system status, the ratio of the total cost to shed rises by
+ * {@link #SHED_STEP_PER_SECOND} per second elapsed since the last sample if the system is overloaded,
+ * and falls at the same rate otherwise, so that the reaction speed does not depend on the sampling interval
+ * ({@code csp.sentinel.system.status.interval.ms}). The cost to shed is then taken from the most expensive
+ * resources first, each of which rejects requests with the probability of its shed share, at most
+ * {@link #MAX_SHED_PROBABILITY} so that its RT is still observed.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+final class ResourceWeightedShedder {
+
+    static final double SHED_STEP_PER_SECOND = 0.05;
+    static final double MAX_SHED_PROBABILITY = 0.9;
+
+    private volatile double shedRatio = 0;
+    private volatile Map<String, ResourceShed> sheds = Collections.emptyMap();
+
+    /**
+     * Time of the last sample, only accessed by the sampling thread.
+     */
+    private long lastUpdateTime = -1;
+
+    /**
+     * Last known average RT of the resources, only accessed by the sampling thread.
+     */
+    private final Map<String, Double> lastRt = new HashMap<>();
+
+    /**
+     * Check whether a request of the resource could pass.
+     *
+     * @param resource resource name
+     * @return true if the request could pass, otherwise false
+     */
+    boolean tryPass(String resource) {
+        ResourceShed shed = sheds.get(resource);
+        if (shed == null || ThreadLocalRandom.current().nextDouble() >= shed.probability) {
+            return true;
+        }
+        shed.rejected.increment();
+        return false;
+    }
+
+    double getShedRatio() {
+        return shedRatio;
+    }
+
+    double getShedProbability(String resource) {
+        ResourceShed shed = sheds.get(resource);
+        return shed == null ? 0 : shed.probability;
+    }
+
+    /**
+     * Adjust the shed probabilities on a sample of the system status.
+     *
+     * @param overloaded   whether the system is overloaded
+     * @param clusterNodes statistic nodes of the resources
+     */
+    void update(boolean overloaded, Map<ResourceWrapper, ClusterNode> clusterNodes) {
+        long now = TimeUtil.currentTimeMillis();
+        // The first sample is taken as a whole sampling interval.
+        long elapsedMs = lastUpdateTime < 0 ? SentinelConfig.systemStatusIntervalMs() : now - lastUpdateTime;
+        lastUpdateTime = now;
+
+        double step = SHED_STEP_PER_SECOND * elapsedMs / 1000;
+        double ratio = overloaded ? Math.min(MAX_SHED_PROBABILITY, shedRatio + step)
+            : Math.max(0, shedRatio - step);
+        shedRatio = ratio;
+        Map<String, ResourceShed> lastSheds = sheds;
+        if (ratio <= 0) {
+            if (!lastSheds.isEmpty()) {
+                sheds = Collections.emptyMap();
+            }
+            lastRt.clear();
+            return;
+        }
+
+        List<ResourceCost> costs = new ArrayList<>();
+        double totalCost = 0;
+        for (Map.Entry<ResourceWrapper, ClusterNode> e : clusterNodes.entrySet()) {
+            if (e.getKey().getEntryType() != EntryType.IN) {
+                continue;
+            }
+            String resource = e.getKey().getName();
+            ClusterNode node = e.getValue();
+            ResourceShed lastShed = lastSheds.get(resource);
+            double qps = node.passQps() + (lastShed == null ? 0 : lastShed.takeRejectedQps(elapsedMs));
+            if (qps <= 0) {
+                continue;
+            }
+            double rt = node.avgRt();
+            if (rt > 0) {
+                lastRt.put(resource, rt);
+            } else {
+                // No request passed recently, e.g. mostly rejected.
+                Double last = lastRt.get(resource);
+                rt = last == null ? 0 : last;
+            }
+            double cost = Math.max(1, rt) * qps;
+            costs.add(new ResourceCost(resource, cost, lastShed));
+            totalCost += cost;
+        }
+        Collections.sort(costs, COST_DESC);
+
+        Map<String, ResourceShed> newSheds = new HashMap<>();
+        double costToShed = ratio * totalCost;
+        for (ResourceCost c : costs) {
+            if (costToShed <= 0) {
+                break;
+            }
+            double probability = Math.min(MAX_SHED_PROBABILITY, costToShed / c.cost);
+            // Keep counting on the same adder, so that no rejection is lost while switching.
+            LongAdder rejected = c.lastShed == null ? new LongAdder() : c.lastShed.rejected;
+            newSheds.put(c.resource, new ResourceShed(probability, rejected));
+            costToShed -= probability * c.cost;
+        }
+        sheds = newSheds;
+    }
+
+    void reset() {
+        shedRatio = 0;
+        sheds = Collections.emptyMap();
+    }
+
+    private static final Comparator<ResourceCost> COST_DESC = new Comparator<ResourceCost>() {
+        @Override
+        public int compare(ResourceCost o1, ResourceCost o2) {
+            return Double.compare(o2.cost, o1.cost);
+        }
+    };
+
+    private static final class ResourceCost {
+        private final String resource;
+        private final double cost;
+        private final ResourceShed lastShed;
+
+        ResourceCost(String resource, double cost, ResourceShed lastShed) {
+            this.resource = resource;
+            this.cost = cost;
+            this.lastShed = lastShed;
+        }
+    }
+
+    /**
+     * Shed probability of a resource, and the count of its requests rejected by this shedder.
+     */
+    private static final class ResourceShed {
+        private final double probability;
+        private final LongAdder rejected;
+
+        ResourceShed(double probability, LongAdder rejected) {
+            this.probability = probability;
+            this.rejected = rejected;
+        }
+
+        /**
+         * @param elapsedMs time elapsed since the rejections were last taken
+         * @return QPS of the rejections since last taken
+         */
+        double takeRejectedQps(long elapsedMs) {
+            long count = rejected.sumThenReset();
+            return count <= 0 || elapsedMs <= 0 ? 0 : count * 1000.0 / elapsedMs;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+/**
+ * <p>Provider of the system metrics that system rules are checked against, sampled periodically by
+ * {@link SystemStatusListener}.</p>
+ * <p>
+ * The provider is resolved via SPI: the first provider registered in
+ * {@code META-INF/services/com.alibaba.csp.sentinel.slots.system.SystemMetricsProvider} is used,
+ * or {@link CgroupSystemMetricsProvider} by default.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public interface SystemMetricsProvider {
+
+    /**
+     * Take a new sample of the system metrics. Rates (e.g. CPU usage) are computed over the time
+     * since the last sample.
+     */
+    void refresh();
+
+    /**
+     * @return system load average, or a negative value if unavailable
+     */
+    double getSystemLoad();
+
+    /**
+     * @return CPU usage within [0, 1], or a negative value if unavailable
+     */
+    double getCpuUsage();
+
+    /**
+     * @return ratio of the CPU scheduling periods in which the process was throttled by its CPU quota,
+     * within [0, 1], or a negative value if unavailable
+     */
+    double getCpuThrottledRatio();
+
+    /**
+     * @return share of the time in which tasks were stalled on memory, within [0, 1],
+     * or a negative value if unavailable
+     */
+    double getMemoryPressure();
+}
@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slots.system;
 
 import com.alibaba.csp.sentinel.slots.block.AbstractRule;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 
 /**
  * <p>
@@ -48,6 +49,25 @@ public class SystemRule extends AbstractRule {
     private double qps = -1;
     private long avgRt = -1;
     private long maxThread = -1;
+    /**
+     * Ratio of CPU periods throttled by the CPU quota of the container, between [0, 1].
+     *
+     * @since 2.0.0
+     */
+    private double highestCpuThrottledRatio = -1;
+    /**
+     * Memory pressure (share of time stalled on memory) of the container, between [0, 1].
+     *
+     * @since 2.0.0
+     */
+    private double highestMemoryPressure = -1;
+    /**
+     * How the system load, CPU and memory thresholds are applied (0: reject all inbound traffic,
+     * 1: shed inbound traffic per resource weighted by its cost).
+     *
+     * @since 2.0.0
+     */
+    private int strategy = RuleConstant.SYSTEM_STRATEGY_GLOBAL;
 
     public double getQps() {
         return qps;
@@ -131,6 +151,69 @@ public class SystemRule extends AbstractRule {
         this.highestCpuUsage = highestCpuUsage;
     }
 
+    /**
+     * Get highest CPU throttled ratio. The ratio is between [0, 1]
+     *
+     * @return highest CPU throttled ratio
+     * @since 2.0.0
+     */
+    public double getHighestCpuThrottledRatio() {
+        return highestCpuThrottledRatio;
+    }
+
+    /**
+     * Set highest ratio of the CPU scheduling periods in which the container is throttled by its CPU quota
+     * (cgroup {@code cpu.stat} nr_throttled / nr_periods), which is between [0, 1]. Note that this parameter
+     * is only available in a cgroup (e.g. container) with CPU quota.
+     *
+     * @param highestCpuThrottledRatio the value to set, negative values are special for clearing the threshold.
+     * @since 2.0.0
+     */
+    public void setHighestCpuThrottledRatio(double highestCpuThrottledRatio) {
+        this.highestCpuThrottledRatio = highestCpuThrottledRatio;
+    }
+
+    /**
+     * Get highest memory pressure. The pressure is between [0, 1]
+     *
+     * @return highest memory pressure
+     * @since 2.0.0
+     */
+    public double getHighestMemoryPressure() {
+        return highestMemoryPressure;
+    }
+
+    /**
+     * Set highest memory pressure, i.e. the share of time in which tasks of the container are stalled on
+     * memory (cgroup v2 {@code memory.pressure} "some avg10"), which is between [0, 1]. Note that this
+     * parameter is only available with cgroup v2.
+     *
+     * @param highestMemoryPressure the value to set, negative values are special for clearing the threshold.
+     * @since 2.0.0
+     */
+    public void setHighestMemoryPressure(double highestMemoryPressure) {
+        this.highestMemoryPressure = highestMemoryPressure;
+    }
+
+    public int getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * <p>Set how the system load, CPU and memory thresholds are applied when exceeded:</p>
+     * <ul>
+     * <li>{@link RuleConstant#SYSTEM_STRATEGY_GLOBAL}: all inbound traffic is rejected.</li>
+     * <li>{@link RuleConstant#SYSTEM_STRATEGY_RESOURCE_WEIGHTED}: inbound traffic is shed per resource, and
+     * the resources that cost most (RT x QPS) are throttled first.</li>
+     * </ul>
+     *
+     * @param strategy the strategy of system protection
+     * @since 2.0.0
+     */
+    public void setStrategy(int strategy) {
+        this.strategy = strategy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -159,6 +242,15 @@ public class SystemRule extends AbstractRule {
         if (avgRt != that.avgRt) {
             return false;
         }
+        if (strategy != that.strategy) {
+            return false;
+        }
+        if (Double.compare(that.highestCpuThrottledRatio, highestCpuThrottledRatio) != 0) {
+            return false;
+        }
+        if (Double.compare(that.highestMemoryPressure, highestMemoryPressure) != 0) {
+            return false;
+        }
         return maxThread == that.maxThread;
     }
 
@@ -177,6 +269,13 @@ public class SystemRule extends AbstractRule {
 
         result = 31 * result + (int)(avgRt ^ (avgRt >>> 32));
         result = 31 * result + (int)(maxThread ^ (maxThread >>> 32));
+        result = 31 * result + strategy;
+
+        temp = Double.doubleToLongBits(highestCpuThrottledRatio);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
+
+        temp = Double.doubleToLongBits(highestMemoryPressure);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
         return result;
     }
 
@@ -188,6 +287,9 @@ public class SystemRule extends AbstractRule {
             ", qps=" + qps +
             ", avgRt=" + avgRt +
             ", maxThread=" + maxThread +
+            ", highestCpuThrottledRatio=" + highestCpuThrottledRatio +
+            ", highestMemoryPressure=" + highestMemoryPressure +
+            ", strategy=" + strategy +
             "}";
     }
 }
@@ -25,12 +25,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 
 public final class SystemRuleManager {
@@ -43,6 +46,11 @@ public final class SystemRuleManager {
     private static volatile double qps = Double.MAX_VALUE;
     private static volatile long maxRt = Long.MAX_VALUE;
     private static volatile long maxThread = Long.MAX_VALUE;
+    /**
+     * CPU throttled ratio and memory pressure of the container, between [0, 1]
+     */
+    private static volatile double highestCpuThrottledRatio = Double.MAX_VALUE;
+    private static volatile double highestMemoryPressure = Double.MAX_VALUE;
     /**
      * mark whether the threshold are set by user.
      */
@@ -51,10 +59,17 @@ public final class SystemRuleManager {
     private static volatile boolean qpsIsSet = false;
     private static volatile boolean maxRtIsSet = false;
     private static volatile boolean maxThreadIsSet = false;
+    private static volatile boolean highestCpuThrottledRatioIsSet = false;
+    private static volatile boolean highestMemoryPressureIsSet = false;
+    /**
+     * Whether the system load, CPU and memory thresholds are applied by shedding traffic per resource.
+     */
+    private static volatile boolean resourceWeighted = false;
 
     private static AtomicBoolean checkSystemStatus = new AtomicBoolean(false);
 
     private static SystemStatusListener statusListener = null;
+    private static final ResourceWeightedShedder shedder = new ResourceWeightedShedder();
     private final static SystemPropertyListener listener = new SystemPropertyListener();
     private static SentinelProperty<List<SystemRule>> currentProperty = new DynamicSentinelProperty<List<SystemRule>>();
 
@@ -66,7 +81,13 @@ public final class SystemRuleManager {
     static {
         checkSystemStatus.set(false);
         statusListener = new SystemStatusListener();
-        scheduler.scheduleAtFixedRate(statusListener, 0, 1, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                statusListener.run();
+                adjustResourceShedding();
+            }
+        }, 0, SentinelConfig.systemStatusIntervalMs(), TimeUnit.MILLISECONDS);
         currentProperty.addListener(listener);
     }
 
@@ -100,15 +121,33 @@ public final class SystemRuleManager {
             return result;
         }
 
+        int strategy = resourceWeighted ? RuleConstant.SYSTEM_STRATEGY_RESOURCE_WEIGHTED
+            : RuleConstant.SYSTEM_STRATEGY_GLOBAL;
         if (highestSystemLoadIsSet) {
             SystemRule loadRule = new SystemRule();
             loadRule.setHighestSystemLoad(highestSystemLoad);
+            loadRule.setStrategy(strategy);
             result.add(loadRule);
         }
 
         if (highestCpuUsageIsSet) {
             SystemRule rule = new SystemRule();
             rule.setHighestCpuUsage(highestCpuUsage);
+            rule.setStrategy(strategy);
+            result.add(rule);
+        }
+
+        if (highestCpuThrottledRatioIsSet) {
+            SystemRule rule = new SystemRule();
+            rule.setHighestCpuThrottledRatio(highestCpuThrottledRatio);
+            rule.setStrategy(strategy);
+            result.add(rule);
+        }
+
+        if (highestMemoryPressureIsSet) {
+            SystemRule rule = new SystemRule();
+            rule.setHighestMemoryPressure(highestMemoryPressure);
+            rule.setStrategy(strategy);
             result.add(rule);
         }
 
@@ -166,13 +205,19 @@ public final class SystemRuleManager {
                     + "highestCpuUsage: %e, "
                     + "maxRt: %d, "
                     + "maxThread: %d, "
-                    + "maxQps: %e",
+                    + "maxQps: %e, "
+                    + "highestCpuThrottledRatio: %e, "
+                    + "highestMemoryPressure: %e, "
+                    + "resourceWeighted: %s",
                 checkSystemStatus.get(),
                 highestSystemLoad,
                 highestCpuUsage,
                 maxRt,
                 maxThread,
-                qps));
+                qps,
+                highestCpuThrottledRatio,
+                highestMemoryPressure,
+                resourceWeighted));
         }
 
         protected void restoreSetting() {
@@ -183,11 +228,17 @@ public final class SystemRuleManager {
             maxRt = Long.MAX_VALUE;
             maxThread = Long.MAX_VALUE;
             qps = Double.MAX_VALUE;
+            highestCpuThrottledRatio = Double.MAX_VALUE;
+            highestMemoryPressure = Double.MAX_VALUE;
             highestSystemLoadIsSet = false;
             highestCpuUsageIsSet = false;
             maxRtIsSet = false;
             maxThreadIsSet = false;
             qpsIsSet = false;
+            highestCpuThrottledRatioIsSet = false;
+            highestMemoryPressureIsSet = false;
+            resourceWeighted = false;
+            shedder.reset();
         }
 
     }
@@ -201,6 +252,33 @@ public final class SystemRuleManager {
     public static double getCpuUsageThreshold() {
         return highestCpuUsage;
     }
+
+    /**
+     * @since 2.0.0
+     */
+    public static double getCpuThrottledRatioThreshold() {
+        return highestCpuThrottledRatio;
+    }
+
+    /**
+     * @since 2.0.0
+     */
+    public static double getMemoryPressureThreshold() {
+        return highestMemoryPressure;
+    }
+
+    /**
+     * Get the probability that inbound requests of the resource are currently shed, when the system load, CPU
+     * and memory thresholds are applied per resource ({@link RuleConstant#SYSTEM_STRATEGY_RESOURCE_WEIGHTED}).
+     *
+     * @param resource resource name
+     * @return the shed probability within [0, 1)
+     * @since 2.0.0
+     */
+    public static double getResourceShedProbability(String resource) {
+        return shedder.getShedProbability(resource);
+    }
+
     public static void loadSystemConf(SystemRule rule) {
         boolean checkStatus = false;
         if (rule.getHighestSystemLoad() >= 0) {
@@ -220,6 +298,28 @@ public final class SystemRuleManager {
             }
         }
 
+        if (rule.getHighestCpuThrottledRatio() >= 0) {
+            if (rule.getHighestCpuThrottledRatio() > 1) {
+                RecordLog.warn(String.format("[SystemRuleManager] Ignoring invalid SystemRule: "
+                    + "highestCpuThrottledRatio %.3f > 1", rule.getHighestCpuThrottledRatio()));
+            } else {
+                highestCpuThrottledRatio = Math.min(highestCpuThrottledRatio, rule.getHighestCpuThrottledRatio());
+                highestCpuThrottledRatioIsSet = true;
+                checkStatus = true;
+            }
+        }
+
+        if (rule.getHighestMemoryPressure() >= 0) {
+            if (rule.getHighestMemoryPressure() > 1) {
+                RecordLog.warn(String.format("[SystemRuleManager] Ignoring invalid SystemRule: "
+                    + "highestMemoryPressure %.3f > 1", rule.getHighestMemoryPressure()));
+            } else {
+                highestMemoryPressure = Math.min(highestMemoryPressure, rule.getHighestMemoryPressure());
+                highestMemoryPressureIsSet = true;
+                checkStatus = true;
+            }
+        }
+
         if (rule.getAvgRt() >= 0) {
             maxRt = Math.min(maxRt, rule.getAvgRt());
             maxRtIsSet = true;
@@ -237,6 +337,10 @@ public final class SystemRuleManager {
             checkStatus = true;
         }
 
+        if (rule.getStrategy() == RuleConstant.SYSTEM_STRATEGY_RESOURCE_WEIGHTED) {
+            resourceWeighted = true;
+        }
+
         checkSystemStatus.set(checkStatus);
 
     }
@@ -271,6 +375,13 @@ public final class SystemRuleManager {
         if (rt > maxRt) {
             throw new SystemBlockException(resourceWrapper.getName(), "rt");
         }
+        // Shed the traffic of the expensive resources first instead of rejecting all when overloaded.
+        if (resourceWeighted) {
+            if (!shedder.tryPass(resourceWrapper.getName())) {
+                throw new SystemBlockException(resourceWrapper.getName(), "adaptive");
+            }
+            return;
+        }
         //系统load超过阈值
         if (highestSystemLoadIsSet && getCurrentSystemAvgLoad() > highestSystemLoad) {
             if (!checkBbr(currentThread)) {
@@ -281,6 +392,13 @@ public final class SystemRuleManager {
         if (highestCpuUsageIsSet && getCurrentCpuUsage() > highestCpuUsage) {
             throw new SystemBlockException(resourceWrapper.getName(), "cpu");
         }
+        // The container is throttled by its CPU quota.
+        if (highestCpuThrottledRatioIsSet && getCurrentCpuThrottledRatio() > highestCpuThrottledRatio) {
+            throw new SystemBlockException(resourceWrapper.getName(), "cpuThrottled");
+        }
+        if (highestMemoryPressureIsSet && getCurrentMemoryPressure() > highestMemoryPressure) {
+            throw new SystemBlockException(resourceWrapper.getName(), "memory");
+        }
     }
 
     private static boolean checkBbr(int currentThread) {
@@ -292,6 +410,30 @@ public final class SystemRuleManager {
         return true;
     }
 
+    /**
+     * Adjust the shed probabilities of the resources on each sample of the system status.
+     */
+    static void adjustResourceShedding() {
+        if (!resourceWeighted) {
+            return;
+        }
+        shedder.update(isSystemOverloaded(), ClusterBuilderSlot.getClusterNodeMap());
+    }
+
+    private static boolean isSystemOverloaded() {
+        if (highestSystemLoadIsSet && getCurrentSystemAvgLoad() > highestSystemLoad
+            && !checkBbr(Constants.ENTRY_NODE.curThreadNum())) {
+            return true;
+        }
+        if (highestCpuThrottledRatioIsSet && getCurrentCpuThrottledRatio() > highestCpuThrottledRatio) {
+            return true;
+        }
+        if (highestMemoryPressureIsSet && getCurrentMemoryPressure() > highestMemoryPressure) {
+            return true;
+        }
+        return highestCpuUsageIsSet && getCurrentCpuUsage() > highestCpuUsage;
+    }
+
     public static double getCurrentSystemAvgLoad() {
         return statusListener.getSystemAverageLoad();
     }
@@ -299,4 +441,18 @@ public final class SystemRuleManager {
     public static double getCurrentCpuUsage() {
         return statusListener.getCpuUsage();
     }
+
+    /**
+     * @since 2.0.0
+     */
+    public static double getCurrentCpuThrottledRatio() {
+        return statusListener.getCpuThrottledRatio();
+    }
+
+    /**
+     * @since 2.0.0
+     */
+    public static double getCurrentMemoryPressure() {
+        return statusListener.getMemoryPressure();
+    }
 }
@@ -15,15 +15,12 @@
  */
 package com.alibaba.csp.sentinel.slots.system;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.RuntimeMXBean;
-import java.util.concurrent.TimeUnit;
-
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.spi.SpiLoader;
+import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
-
-import com.sun.management.OperatingSystemMXBean;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * @author jialiang.linjl
@@ -32,11 +29,40 @@ public class SystemStatusListener implements Runnable {
 
 	volatile double	currentLoad		= -1;
 	volatile double	currentCpuUsage	= -1;
+	volatile double	currentCpuThrottledRatio	= -1;
+	volatile double	currentMemoryPressure	= -1;
 
 	volatile String reason = StringUtil.EMPTY;
 
-	volatile long	processCpuTime	= 0;
-	volatile long	processUpTime	= 0;
+	private final SystemMetricsProvider metricsProvider;
+
+	/**
+	 * The status may be sampled more than once per second, but logged at most once per second.
+	 */
+	private long lastLogTime = -1;
+
+	public SystemStatusListener() {
+		this(resolveMetricsProvider());
+	}
+
+	/**
+	 * @param metricsProvider provider of the system metrics
+	 * @since 2.0.0
+	 */
+	public SystemStatusListener(SystemMetricsProvider metricsProvider) {
+		AssertUtil.notNull(metricsProvider, "metricsProvider cannot be null");
+		this.metricsProvider = metricsProvider;
+	}
+
+	private static SystemMetricsProvider resolveMetricsProvider() {
+		SystemMetricsProvider provider = SpiLoader.of(SystemMetricsProvider.class).loadFirstInstanceOrDefault();
+		if (provider == null) {
+			provider = new CgroupSystemMetricsProvider();
+		}
+		RecordLog.info("[SystemStatusListener] System metrics provider resolved: {}",
+			provider.getClass().getCanonicalName());
+		return provider;
+	}
 
 	public double getSystemAverageLoad() {
 		return currentLoad;
@@ -46,33 +72,39 @@ public class SystemStatusListener implements Runnable {
 		return currentCpuUsage;
 	}
 
+	/**
+	 * @since 2.0.0
+	 */
+	public double getCpuThrottledRatio() {
+		return currentCpuThrottledRatio;
+	}
+
+	/**
+	 * @since 2.0.0
+	 */
+	public double getMemoryPressure() {
+		return currentMemoryPressure;
+	}
+
 	@Override
 	public void run() {
 		try {
-			//获取操作系统的信息
-			OperatingSystemMXBean osBean = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+			metricsProvider.refresh();
 			//系统的平均负载
-			currentLoad = osBean.getSystemLoadAverage();
-
-			double systemCpuUsage = osBean.getSystemCpuLoad();
-
-			RuntimeMXBean runtimeBean = ManagementFactory.getPlatformMXBean(RuntimeMXBean.class);
-			long newProcessCpuTime = osBean.getProcessCpuTime();
-			long newProcessUpTime = runtimeBean.getUptime();
-			int cpuCores = osBean.getAvailableProcessors();
-			long processCpuTimeDiffInMs = TimeUnit.NANOSECONDS.toMillis(newProcessCpuTime - processCpuTime);
-			long processUpTimeDiffInMs = newProcessUpTime - processUpTime;
-			double processCpuUsage = (double) processCpuTimeDiffInMs / processUpTimeDiffInMs / cpuCores;
-			processCpuTime = newProcessCpuTime;
-			processUpTime = newProcessUpTime;
+			currentLoad = metricsProvider.getSystemLoad();
 			//当前CPU的负载
-			currentCpuUsage = Math.max(processCpuUsage, systemCpuUsage);
+			currentCpuUsage = metricsProvider.getCpuUsage();
+			currentCpuThrottledRatio = metricsProvider.getCpuThrottledRatio();
+			currentMemoryPressure = metricsProvider.getMemoryPressure();
 
-			if (currentLoad > SystemRuleManager.getSystemLoadThreshold()) {
+			long currentTime = TimeUtil.currentTimeMillis();
+			if (currentLoad > SystemRuleManager.getSystemLoadThreshold()
+				&& (lastLogTime < 0 || currentTime - lastLogTime >= 1000)) {
+				lastLogTime = currentTime;
 				writeSystemStatusLog();
 			}
 		} catch (Throwable e) {
-			RecordLog.warn("[SystemStatusListener] Failed to get system metrics from JMX", e);
+			RecordLog.warn("[SystemStatusListener] Failed to get system metrics", e);
 		}
 	}
 
@@ -81,6 +113,8 @@ public class SystemStatusListener implements Runnable {
 		sb.append("Load exceeds the threshold: ");
 		sb.append("load:").append(String.format("%.4f", currentLoad)).append("; ");
 		sb.append("cpuUsage:").append(String.format("%.4f", currentCpuUsage)).append("; ");
+		sb.append("cpuThrottledRatio:").append(String.format("%.4f", currentCpuThrottledRatio)).append("; ");
+		sb.append("memoryPressure:").append(String.format("%.4f", currentMemoryPressure)).append("; ");
 		sb.append("qps:").append(String.format("%.4f", Constants.ENTRY_NODE.passQps())).append("; ");
 		sb.append("rt:").append(String.format("%.4f", Constants.ENTRY_NODE.avgRt())).append("; ");
 		sb.append("thread:").append(Constants.ENTRY_NODE.curThreadNum()).append("; ");
@@ -0,0 +1,204 @@
+package com.alibaba.csp.sentinel;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ResourceHandle}.
+ */
+public class ResourceHandleTest {
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(null);
+    }
+
+    @Test
+    public void testEntryRecycledAfterExit() throws BlockException {
+        ResourceHandle handle = SphU.handle("testEntryRecycledAfterExit");
+
+        Entry entry1 = handle.entry();
+        Entry recycled = ContextUtil.getContext().getCurEntry();
+        assertTrue(recycled instanceof RecyclableEntry);
+        Context context1 = ContextUtil.getContext();
+        assertTrue(ContextUtil.isDefaultContext(context1));
+        entry1.exit();
+        assertNull(ContextUtil.getContext());
+
+        Entry entry2 = handle.entry();
+        // Both the entry and the default context are reused.
+        assertSame(recycled, ContextUtil.getContext().getCurEntry());
+        assertSame(context1, ContextUtil.getContext());
+        assertNotNull(entry2.getCurNode());
+        assertSame(recycled.getCurNode(), entry2.getCurNode());
+        entry2.exit();
+        assertNull(ContextUtil.getContext());
+
+        assertNotNull(handle.getClusterNode());
+        assertEquals(2, handle.getClusterNode().totalSuccess());
+    }
+
+    @Test
+    public void testNestedEntriesOfSameResource() throws BlockException {
+        ResourceHandle handle = SphU.handle("testNestedEntriesOfSameResource");
+
+        Entry outer = handle.entry();
+        Entry inner = handle.entry();
+        Entry innerRecycled = ContextUtil.getContext().getCurEntry();
+        assertSame(outer.getCurNode(), inner.getLastNode());
+        inner.exit();
+        assertNotSame(innerRecycled, ContextUtil.getContext().getCurEntry());
+        assertNotNull(ContextUtil.getContext().getCurEntry());
+        outer.exit();
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testDuplicateExitWillNotRecycleTwice() throws BlockException {
+        ResourceHandle handle = SphU.handle("testDuplicateExitWillNotRecycleTwice");
+
+        Entry entry = handle.entry();
+        entry.exit();
+        entry.exit();
+
+        Entry entry1 = handle.entry();
+        Entry recycled1 = ContextUtil.getContext().getCurEntry();
+        Entry entry2 = handle.entry();
+        assertNotSame(recycled1, ContextUtil.getContext().getCurEntry());
+        entry2.exit();
+        entry1.exit();
+    }
+
+    @Test
+    public void testStaleExitAfterReuseIsNoop() throws BlockException {
+        ResourceHandle handle = SphU.handle("testStaleExitAfterReuseIsNoop");
+
+        Entry stale = handle.entry();
+        stale.exit();
+
+        Entry entry = handle.entry();
+        Context context = ContextUtil.getContext();
+        Entry recycled = context.getCurEntry();
+        // The stale reference must not exit the invocation reusing the entry.
+        stale.exit();
+        stale.setError(new IllegalStateException());
+        assertSame(context, ContextUtil.getContext());
+        assertSame(recycled, context.getCurEntry());
+        assertNull(entry.getError());
+        assertNull(stale.getCurNode());
+        assertNotNull(entry.getCurNode());
+
+        entry.exit();
+        assertNull(ContextUtil.getContext());
+        assertEquals(2, handle.getClusterNode().totalSuccess());
+    }
+
+    @Test
+    public void testEntryInCustomContext() throws BlockException {
+        ResourceHandle handle = SphU.handle("testEntryInCustomContext", EntryType.IN);
+        Context context = ContextUtil.enter("testEntryInCustomContext-context", "app");
+        try {
+            Entry entry = handle.entry();
+            assertSame(context, ContextUtil.getContext());
+            assertNotNull(context.getCurEntry());
+            assertNotNull(entry.getOriginNode());
+            assertSame(context.getCurEntry().getOriginNode(), entry.getOriginNode());
+            entry.exit();
+            assertNull(context.getCurEntry());
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+
+    @Test
+    public void testBlockedEntry() throws BlockException {
+        String resourceName = "testBlockedEntry";
+        FlowRule rule = new FlowRule(resourceName).setCount(0);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        ResourceHandle handle = SphU.handle(resourceName);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                handle.entry();
+                fail("Should be blocked");
+            } catch (FlowException ex) {
+                assertNull(ContextUtil.getContext());
+            }
+        }
+        assertEquals(2, handle.getClusterNode().blockRequest());
+    }
+
+    @Test
+    public void testMissingChainResolvedAgainOnlyAfterRemoval() throws BlockException {
+        // Simulates that the amount of slot chains exceeds the threshold.
+        CountingSph sph = new CountingSph(true);
+        ResourceHandle handle = new ResourceHandle(sph,
+            new StringResourceWrapper("testMissingChainResolvedAgain", EntryType.OUT));
+        assertNull(handle.getChain());
+        assertNull(handle.getChain());
+        assertEquals(1, sph.lookups);
+
+        removeChainOf("testMissingChainRemovedResource");
+        assertNull(handle.getChain());
+        assertNull(handle.getChain());
+        assertEquals(2, sph.lookups);
+    }
+
+    @Test
+    public void testChainResolvedAgainOnlyIfRemoved() throws BlockException {
+        CountingSph sph = new CountingSph(false);
+        StringResourceWrapper resource = new StringResourceWrapper("testChainResolvedAgain", EntryType.OUT);
+        ResourceHandle handle = new ResourceHandle(sph, resource);
+        ProcessorSlot<Object> chain = handle.getChain();
+        assertNotNull(chain);
+
+        // Removing the chain of another resource does not affect the handle.
+        removeChainOf("testChainRemovedOtherResource");
+        assertSame(chain, handle.getChain());
+        assertEquals(1, sph.lookups);
+
+        assertTrue(CtSph.removeChain(resource, (ProcessorSlotChain) chain));
+        ProcessorSlot<Object> newChain = handle.getChain();
+        assertNotNull(newChain);
+        assertNotSame(chain, newChain);
+        assertSame(newChain, handle.getChain());
+        assertEquals(2, sph.lookups);
+    }
+
+    private void removeChainOf(String resourceName) throws BlockException {
+        StringResourceWrapper resource = new StringResourceWrapper(resourceName, EntryType.OUT);
+        SphU.entry(resourceName).exit();
+        assertTrue(CtSph.removeChain(resource, CtSph.getChainMap().get(resource)));
+    }
+
+    private static class CountingSph extends CtSph {
+
+        private final boolean exceeded;
+        private int lookups = 0;
+
+        CountingSph(boolean exceeded) {
+            this.exceeded = exceeded;
+        }
+
+        @Override
+        ProcessorSlotChain lookProcessChain(ResourceWrapper resourceWrapper) {
+            lookups++;
+            return exceeded ? null : super.lookProcessChain(resourceWrapper);
+        }
+    }
+}
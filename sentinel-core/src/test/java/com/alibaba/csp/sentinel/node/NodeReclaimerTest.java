@@ -0,0 +1,160 @@
+package com.alibaba.csp.sentinel.node;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.CtSph;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link NodeReclaimer}.
+ */
+public class NodeReclaimerTest {
+
+    private static final long TTL = 60 * 1000;
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(null);
+    }
+
+    @Test
+    public void testEvictIdleResourceKeepsRules() throws Exception {
+        String resource = "testEvictIdleResource";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(0)));
+
+        ContextUtil.enter("testEvictIdleContext");
+        assertBlocked(resource);
+        ContextUtil.exit();
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resource);
+        assertNotNull(clusterNode);
+        assertEquals(1, NodeReclaimer.collectDefaultNodes().get(clusterNode).size());
+
+        assertEquals(0, evictIdleAfter(TTL / 2));
+        assertSame(clusterNode, ClusterBuilderSlot.getClusterNode(resource));
+
+        assertTrue(evictIdleAfter(TTL) > 0);
+        assertTrue(clusterNode.isEvicted());
+        assertNull(ClusterBuilderSlot.getClusterNode(resource));
+        assertFalse(CtSph.getChainRegistry().asMap().containsKey(new StringResourceWrapper(resource, EntryType.OUT)));
+        assertNull(NodeReclaimer.collectDefaultNodes().get(clusterNode));
+
+        // Rules still apply to the resource, which is rebuilt on next access.
+        ContextUtil.enter("testEvictIdleContext");
+        assertBlocked(resource);
+        ContextUtil.exit();
+        ClusterNode newNode = ClusterBuilderSlot.getClusterNode(resource);
+        assertNotNull(newNode);
+        assertNotSame(clusterNode, newNode);
+        assertEquals(1, newNode.blockRequest());
+    }
+
+    @Test
+    public void testRunningResourceNotEvicted() throws Exception {
+        String resource = "testRunningResourceNotEvicted";
+        Entry entry = SphU.entry(resource);
+        try {
+            ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resource);
+            evictIdleAfter(TTL);
+            assertFalse(clusterNode.isEvicted());
+            assertSame(clusterNode, ClusterBuilderSlot.getClusterNode(resource));
+        } finally {
+            entry.exit();
+        }
+    }
+
+    @Test
+    public void testChildrenOfEvictedNodeMovedToParent() throws Exception {
+        String outer = "testEvictedOuterResource";
+        String inner = "testLiveInnerResource";
+        ContextUtil.enter("testEvictedNodeChildrenContext");
+        try {
+            DefaultNode entranceNode = ContextUtil.getContext().getEntranceNode();
+            Entry outerEntry = SphU.entry(outer);
+            SphU.entry(inner).exit();
+            outerEntry.exit();
+            ClusterNode outerNode = ClusterBuilderSlot.getClusterNode(outer);
+            DefaultNode innerNode = NodeReclaimer.collectDefaultNodes()
+                .get(ClusterBuilderSlot.getClusterNode(inner)).get(0);
+            assertFalse(entranceNode.getChildList().contains(innerNode));
+
+            // The inner node is cached in its own chain, so it keeps counting while the outer resource is idle.
+            Entry innerEntry = SphU.entry(inner);
+            try {
+                evictIdleAfter(TTL);
+                assertTrue(outerNode.isEvicted());
+                assertTrue(entranceNode.getChildList().contains(innerNode));
+                assertEquals(1, entranceNode.curThreadNum());
+            } finally {
+                innerEntry.exit();
+            }
+            assertSame(innerNode, NodeReclaimer.collectDefaultNodes()
+                .get(ClusterBuilderSlot.getClusterNode(inner)).get(0));
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+
+    @Test
+    public void testHandleResolvesEvictedChain() throws Exception {
+        ResourceHandle handle = SphU.handle("testHandleResolvesEvictedChain");
+        handle.entry().exit();
+        ClusterNode clusterNode = handle.getClusterNode();
+        assertNotNull(clusterNode);
+
+        evictIdleAfter(TTL);
+        assertTrue(clusterNode.isEvicted());
+
+        handle.entry().exit();
+        ClusterNode newNode = handle.getClusterNode();
+        assertNotSame(clusterNode, newNode);
+        assertSame(newNode, ClusterBuilderSlot.getClusterNode("testHandleResolvesEvictedChain"));
+        assertEquals(1, newNode.totalSuccess());
+    }
+
+    @Test
+    public void testEstimatedBytes() {
+        ClusterNode node = new ClusterNode("testEstimatedBytes");
+        long empty = node.estimatedBytes();
+        assertTrue(empty > 0);
+
+        node.addPassRequest(1);
+        long touched = node.estimatedBytes();
+        assertTrue(touched > empty);
+
+        node.getOrCreateOriginNode("appA").addPassRequest(1);
+        assertTrue(node.estimatedBytes() > touched);
+        assertTrue(node.estimatedOriginNodesBytes() > 0);
+
+        Map<ClusterNode, List<DefaultNode>> defaultNodes = NodeReclaimer.collectDefaultNodes();
+        assertNull(defaultNodes.get(node));
+    }
+
+    private int evictIdleAfter(long elapsed) {
+        return NodeReclaimer.evictIdle(TimeUtil.currentTimeMillis() + elapsed, TTL);
+    }
+
+    private void assertBlocked(String resource) {
+        try {
+            SphU.entry(resource).exit();
+            fail("should be blocked");
+        } catch (BlockException expected) {
+        }
+    }
+}
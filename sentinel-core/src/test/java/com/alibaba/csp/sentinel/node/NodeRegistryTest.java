@@ -0,0 +1,100 @@
+package com.alibaba.csp.sentinel.node;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NodeRegistryTest {
+
+    private static final Function<String, StatisticNode> FACTORY = new Function<String, StatisticNode>() {
+        @Override
+        public StatisticNode apply(String key) {
+            return new StatisticNode();
+        }
+    };
+
+    @Test
+    public void testGetOrCreate() {
+        NodeRegistry<String, StatisticNode> registry = new NodeRegistry<>();
+        StatisticNode node = registry.getOrCreate("a", FACTORY);
+        assertNotNull(node);
+        assertSame(node, registry.getOrCreate("a", FACTORY));
+        assertSame(node, registry.get("a"));
+        assertSame(node, registry.asMap().get("a"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testBounded() {
+        NodeRegistry<String, StatisticNode> registry = new NodeRegistry<>(3);
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(registry.getOrCreate("node" + i, FACTORY));
+        }
+        assertTrue(registry.isFull());
+        assertNull(registry.getOrCreate("node3", FACTORY));
+        // Existing nodes are still available.
+        assertNotNull(registry.getOrCreate("node0", FACTORY));
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    public void testEvictIf() {
+        NodeRegistry<String, StatisticNode> registry = new NodeRegistry<>();
+        final StatisticNode busy = registry.getOrCreate("busy", FACTORY);
+        registry.getOrCreate("idle1", FACTORY);
+        registry.getOrCreate("idle2", FACTORY);
+
+        int evicted = registry.evictIf(new Predicate<StatisticNode>() {
+            @Override
+            public boolean test(StatisticNode node) {
+                return node != busy;
+            }
+        });
+        assertEquals(2, evicted);
+        assertEquals(1, registry.size());
+        assertSame(busy, registry.get("busy"));
+    }
+
+    @Test
+    public void testConcurrentCreateKeepsOneNode() throws Exception {
+        final NodeRegistry<String, StatisticNode> registry = new NodeRegistry<>();
+        final Set<StatisticNode> returned = ConcurrentHashMap.newKeySet();
+        final AtomicInteger keys = new AtomicInteger();
+        int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 10000; i++) {
+                        registry.getOrCreate("key" + i, FACTORY);
+                        keys.incrementAndGet();
+                    }
+                    returned.add(registry.getOrCreate("shared", FACTORY));
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(10001, registry.size());
+        assertEquals(1, returned.size());
+    }
+}
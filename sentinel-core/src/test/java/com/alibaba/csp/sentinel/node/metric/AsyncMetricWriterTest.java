@@ -0,0 +1,105 @@
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.PidUtil;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class AsyncMetricWriterTest {
+
+    private static final String[] RESOURCES = {"resA", "resB", "resC"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteText() throws Exception {
+        verifyWrite(SentinelConfig.METRIC_FILE_FORMAT_TEXT);
+    }
+
+    @Test
+    public void testWriteBinary() throws Exception {
+        verifyWrite(SentinelConfig.METRIC_FILE_FORMAT_BINARY);
+    }
+
+    @Test
+    public void testRestartAfterInterrupted() throws Exception {
+        File dir = folder.newFolder();
+        AsyncMetricWriter writer = new AsyncMetricWriter(new MetricWriter(dir.getAbsolutePath(), 1024 * 1024, 6,
+            SentinelConfig.METRIC_FILE_FORMAT_TEXT), 10, 0);
+        Thread thread = writer.getThread();
+        thread.interrupt();
+        thread.join();
+
+        long begin = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        assertTrue(writer.offer(metricsOf(begin, begin, 1)));
+        assertNotSame(thread, writer.getThread());
+        writer.close();
+        assertFalse(writer.offer(metricsOf(begin, begin + 1000, 1)));
+        assertEquals(0, writer.getDroppedCount());
+
+        MetricSearcher searcher = new MetricSearcher(dir.getAbsolutePath(),
+            MetricWriter.formMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid()));
+        assertEquals(RESOURCES.length, searcher.findByTimeAndResource(begin, begin, null).size());
+    }
+
+    private void verifyWrite(String format) throws Exception {
+        boolean binary = SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(format);
+        File dir = folder.newFolder();
+        AsyncMetricWriter writer = new AsyncMetricWriter(new MetricWriter(dir.getAbsolutePath(), 1024 * 1024, 6,
+            format), 100, 1000);
+        long begin = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        int seconds = 20;
+        for (int s = 0; s < seconds; s += 2) {
+            // Metrics of two seconds in one snapshot.
+            assertTrue(writer.offer(metricsOf(begin, begin + s * 1000, 2)));
+        }
+        writer.close();
+        assertEquals(0, writer.getDroppedCount());
+
+        String appName = SentinelConfig.getAppName();
+        MetricSearcher searcher = binary
+            ? new BinaryMetricSearcher(dir.getAbsolutePath(),
+                MetricWriter.formBinaryMetricFileName(appName, PidUtil.getPid()))
+            : new MetricSearcher(dir.getAbsolutePath(), MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+        List<MetricNode> all = searcher.findByTimeAndResource(begin, begin + seconds * 1000, null);
+        assertEquals(seconds * RESOURCES.length, all.size());
+        List<MetricNode> nodes = searcher.findByTimeAndResource(begin + 5000, begin + 9000, "resB");
+        assertEquals(5, nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            MetricNode node = nodes.get(i);
+            assertEquals("resB", node.getResource());
+            assertEquals(begin + (5 + i) * 1000, node.getTimestamp());
+            assertEquals((5 + i) * 10 + 1, node.getPassQps());
+        }
+    }
+
+    /**
+     * @return metrics of the seconds from {@code from}, whose pass QPS is {@code secondsAfterBegin * 10 + index}
+     */
+    private SortedMap<Long, List<MetricNode>> metricsOf(long begin, long from, int seconds) {
+        SortedMap<Long, List<MetricNode>> metrics = new TreeMap<>();
+        for (int s = 0; s < seconds; s++) {
+            long time = from + s * 1000;
+            List<MetricNode> nodes = new ArrayList<>();
+            for (int r = 0; r < RESOURCES.length; r++) {
+                MetricNode node = new MetricNode();
+                node.setResource(RESOURCES[r]);
+                node.setPassQps((time - begin) / 1000 * 10 + r);
+                node.setRt(r);
+                nodes.add(node);
+            }
+            metrics.put(time, nodes);
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,133 @@
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.PidUtil;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class BinaryMetricSearcherTest {
+
+    private static final String[] RESOURCES = {"resA", "resB", "com.foo.Bar:baz(java.lang.String)"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameResultsAsTextFormat() throws Exception {
+        File textDir = folder.newFolder("text");
+        File binaryDir = folder.newFolder("binary");
+        long begin = writeMetrics(textDir, SentinelConfig.METRIC_FILE_FORMAT_TEXT, 1024 * 1024, 10);
+        writeMetrics(binaryDir, SentinelConfig.METRIC_FILE_FORMAT_BINARY, 1024 * 1024, 10);
+
+        MetricSearcher textSearcher = new MetricSearcher(textDir.getAbsolutePath(),
+            MetricWriter.formMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid()));
+        MetricSearcher binarySearcher = new BinaryMetricSearcher(binaryDir.getAbsolutePath(),
+            MetricWriter.formBinaryMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid()));
+
+        List<MetricNode> expected = textSearcher.findByTimeAndResource(begin + 2000, begin + 5000, null);
+        List<MetricNode> actual = binarySearcher.findByTimeAndResource(begin + 2000, begin + 5000, null);
+        assertEquals(4 * RESOURCES.length, expected.size());
+        assertEquals(toThinStrings(expected), toThinStrings(actual));
+
+        expected = textSearcher.findByTimeAndResource(begin, begin + 9000, RESOURCES[2]);
+        actual = binarySearcher.findByTimeAndResource(begin, begin + 9000, RESOURCES[2]);
+        assertEquals(10, actual.size());
+        assertEquals(toThinStrings(expected), toThinStrings(actual));
+
+        // Seconds are never split.
+        expected = textSearcher.find(begin + 3000, 4);
+        actual = binarySearcher.find(begin + 3000, 4);
+        assertEquals(2 * RESOURCES.length, actual.size());
+        assertEquals(toThinStrings(expected), toThinStrings(actual));
+
+        assertTrue(binarySearcher.findByTimeAndResource(begin, begin + 9000, "unknown").isEmpty());
+    }
+
+    @Test
+    public void testSearchAcrossFiles() throws Exception {
+        File dir = folder.newFolder();
+        // Roll to a new file every second.
+        long begin = writeMetrics(dir, SentinelConfig.METRIC_FILE_FORMAT_BINARY, 100, 5);
+        String baseFileName = MetricWriter.formBinaryMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid());
+        assertTrue(MetricWriter.listMetricFiles(dir.getAbsolutePath(), baseFileName).size() > 1);
+
+        MetricSearcher searcher = new BinaryMetricSearcher(dir.getAbsolutePath(), baseFileName);
+        List<MetricNode> nodes = searcher.findByTimeAndResource(begin + 1000, begin + 4000, RESOURCES[1]);
+        assertEquals(4, nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            MetricNode node = nodes.get(i);
+            assertEquals(RESOURCES[1], node.getResource());
+            assertEquals(begin + (i + 1) * 1000, node.getTimestamp());
+            assertEquals(i + 1 + 1, node.getPassQps());
+        }
+    }
+
+    @Test
+    public void testMappedFilesReleasedAfterSearch() throws Exception {
+        File maps = new File("/proc/self/maps");
+        Assume.assumeTrue(maps.isFile());
+        File textDir = folder.newFolder("text");
+        File binaryDir = folder.newFolder("binary");
+        long begin = writeMetrics(textDir, SentinelConfig.METRIC_FILE_FORMAT_TEXT, 1024 * 1024, 5);
+        writeMetrics(binaryDir, SentinelConfig.METRIC_FILE_FORMAT_BINARY, 1024 * 1024, 5);
+
+        MetricSearcher textSearcher = new MetricSearcher(textDir.getAbsolutePath(),
+            MetricWriter.formMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid()));
+        MetricSearcher binarySearcher = new BinaryMetricSearcher(binaryDir.getAbsolutePath(),
+            MetricWriter.formBinaryMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid()));
+        assertEquals(5, textSearcher.findByTimeAndResource(begin, begin + 4000, RESOURCES[0]).size());
+        assertEquals(5, binarySearcher.findByTimeAndResource(begin, begin + 4000, RESOURCES[0]).size());
+        assertEquals(5 * RESOURCES.length, binarySearcher.findByTimeAndResource(begin, begin + 4000, null).size());
+        assertFalse(binarySearcher.find(begin, 1).isEmpty());
+
+        // No metric, index or dictionary file is still mapped.
+        for (String line : Files.readAllLines(maps.toPath(), StandardCharsets.UTF_8)) {
+            assertFalse(line, line.contains(folder.getRoot().getAbsolutePath()));
+        }
+    }
+
+    private long writeMetrics(File dir, String format, long singleFileSize, int seconds) throws Exception {
+        MetricWriter writer = new MetricWriter(dir.getAbsolutePath(), singleFileSize, 100, format);
+        long begin = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        try {
+            for (int s = 0; s < seconds; s++) {
+                List<MetricNode> nodes = new ArrayList<>();
+                for (int r = 0; r < RESOURCES.length; r++) {
+                    MetricNode node = new MetricNode();
+                    node.setResource(RESOURCES[r]);
+                    node.setPassQps(s + r);
+                    node.setBlockQps(r);
+                    node.setSuccessQps(s);
+                    node.setExceptionQps(1);
+                    node.setRt(10 + r);
+                    node.setOccupiedPassQps(2);
+                    node.setConcurrency(r + 5);
+                    node.setClassification(r);
+                    nodes.add(node);
+                }
+                writer.write(begin + s * 1000, nodes);
+            }
+        } finally {
+            writer.close();
+        }
+        return begin;
+    }
+
+    private List<String> toThinStrings(List<MetricNode> nodes) {
+        List<String> list = new ArrayList<>();
+        for (MetricNode node : nodes) {
+            list.add(node.toThinString());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,147 @@
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.PidUtil;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class MetricResourceIndexTest {
+
+    /**
+     * "Aa" and "BB" have the same hash code.
+     */
+    private static final String[] RESOURCES = {"Aa", "BB", "resC"};
+    private static final int SECONDS = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTextFormat() throws Exception {
+        verifySameAsScan(SentinelConfig.METRIC_FILE_FORMAT_TEXT);
+    }
+
+    @Test
+    public void testBinaryFormat() throws Exception {
+        verifySameAsScan(SentinelConfig.METRIC_FILE_FORMAT_BINARY);
+    }
+
+    @Test
+    public void testFindOffsets() throws Exception {
+        File dir = folder.newFolder();
+        long begin = writeMetrics(dir, SentinelConfig.METRIC_FILE_FORMAT_BINARY, true, 1024 * 1024);
+        String fileName = MetricWriter.listMetricFiles(dir.getAbsolutePath(), binaryBaseFileName()).get(0);
+
+        MetricResourceIndex.Result result = MetricResourceIndex.find(fileName, begin / 1000 + 2,
+            begin / 1000 + 4, "resC");
+        assertEquals(3, result.size());
+        assertTrue(result.isReachedEnd());
+        for (int i = 0; i < result.size(); i++) {
+            long expectedOffset = BinaryMetricFormat.HEADER_SIZE
+                + ((2 + i) * RESOURCES.length + 2) * BinaryMetricFormat.RECORD_SIZE;
+            assertEquals(expectedOffset, result.offsetAt(i));
+        }
+        // Candidates of the same hash.
+        assertEquals(2 * SECONDS, MetricResourceIndex.find(fileName, 0, Long.MAX_VALUE, "Aa").size());
+        assertFalse(MetricResourceIndex.find(fileName, 0, Long.MAX_VALUE, "Aa").isReachedEnd());
+    }
+
+    @Test
+    public void testSecondWrittenInSeveralRuns() throws Exception {
+        File dir = folder.newFolder();
+        MetricWriter writer = new MetricWriter(dir.getAbsolutePath(), 1024 * 1024, 100,
+            SentinelConfig.METRIC_FILE_FORMAT_BINARY, true);
+        long begin = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        try {
+            for (int s = 0; s < 3; s++) {
+                // Each resource of a second is written separately, in the reverse order of the hash.
+                for (int r = RESOURCES.length - 1; r >= 0; r--) {
+                    MetricNode node = new MetricNode();
+                    node.setResource(RESOURCES[r]);
+                    node.setPassQps(s * 10 + r);
+                    writer.write(begin + s * 1000, Collections.singletonList(node));
+                }
+            }
+        } finally {
+            writer.close();
+        }
+        String fileName = MetricWriter.listMetricFiles(dir.getAbsolutePath(), binaryBaseFileName()).get(0);
+        assertEquals(3, MetricResourceIndex.find(fileName, 0, Long.MAX_VALUE, "resC").size());
+        // Candidates of "Aa" and "BB" in two seconds.
+        assertEquals(4, MetricResourceIndex.find(fileName, begin / 1000 + 1, begin / 1000 + 2, "Aa").size());
+        assertEquals(0, MetricResourceIndex.find(fileName, 0, Long.MAX_VALUE, "unknown").size());
+    }
+
+    private void verifySameAsScan(String format) throws Exception {
+        boolean binary = SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(format);
+        String baseFileName = binary ? binaryBaseFileName()
+            : MetricWriter.formMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid());
+        File indexedDir = folder.newFolder();
+        File scannedDir = folder.newFolder();
+        // Roll to a new file every few seconds.
+        long begin = writeMetrics(indexedDir, format, true, 600);
+        writeMetrics(scannedDir, format, false, 600);
+        List<String> files = MetricWriter.listMetricFiles(indexedDir.getAbsolutePath(), baseFileName);
+        assertTrue(files.size() > 1);
+        assertTrue(MetricResourceIndex.exists(files.get(0)));
+        assertFalse(MetricResourceIndex.exists(
+            MetricWriter.listMetricFiles(scannedDir.getAbsolutePath(), baseFileName).get(0)));
+
+        MetricSearcher indexed = binary ? new BinaryMetricSearcher(indexedDir.getAbsolutePath(), baseFileName)
+            : new MetricSearcher(indexedDir.getAbsolutePath(), baseFileName);
+        MetricSearcher scanned = binary ? new BinaryMetricSearcher(scannedDir.getAbsolutePath(), baseFileName)
+            : new MetricSearcher(scannedDir.getAbsolutePath(), baseFileName);
+        for (String resource : RESOURCES) {
+            List<MetricNode> expected = scanned.findByTimeAndResource(begin + 1000, begin + 7000, resource);
+            List<MetricNode> actual = indexed.findByTimeAndResource(begin + 1000, begin + 7000, resource);
+            assertEquals(7, actual.size());
+            assertEquals(toThinStrings(expected), toThinStrings(actual));
+            for (MetricNode node : actual) {
+                assertEquals(resource, node.getResource());
+            }
+        }
+        assertTrue(indexed.findByTimeAndResource(begin, begin + SECONDS * 1000, "unknown").isEmpty());
+    }
+
+    private String binaryBaseFileName() {
+        return MetricWriter.formBinaryMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid());
+    }
+
+    private long writeMetrics(File dir, String format, boolean resourceIndex, long singleFileSize)
+        throws Exception {
+        MetricWriter writer = new MetricWriter(dir.getAbsolutePath(), singleFileSize, 100, format, resourceIndex);
+        long begin = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        try {
+            for (int s = 0; s < SECONDS; s++) {
+                List<MetricNode> nodes = new ArrayList<>();
+                for (int r = 0; r < RESOURCES.length; r++) {
+                    MetricNode node = new MetricNode();
+                    node.setResource(RESOURCES[r]);
+                    node.setPassQps(s * 10 + r);
+                    node.setRt(r);
+                    nodes.add(node);
+                }
+                writer.write(begin + s * 1000, nodes);
+            }
+        } finally {
+            writer.close();
+        }
+        return begin;
+    }
+
+    private List<String> toThinStrings(List<MetricNode> nodes) {
+        List<String> list = new ArrayList<>();
+        for (MetricNode node : nodes) {
+            list.add(node.toThinString());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,89 @@
+package com.alibaba.csp.sentinel.slots.block.authority;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link AuthorityRuleMatcher}.
+ */
+public class AuthorityRuleMatcherTest {
+
+    @Test
+    public void testManyOrigins() {
+        StringBuilder limitApp = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            if (i > 0) {
+                limitApp.append(',');
+            }
+            limitApp.append("app").append(i);
+        }
+        AuthorityRuleMatcher white = new AuthorityRuleMatcher(newRule(limitApp.toString(),
+            RuleConstant.AUTHORITY_WHITE));
+        AuthorityRuleMatcher black = new AuthorityRuleMatcher(newRule(limitApp.toString(),
+            RuleConstant.AUTHORITY_BLACK));
+        for (int i = 0; i < 300; i++) {
+            assertTrue(white.passCheck("app" + i));
+            assertFalse(black.passCheck("app" + i));
+        }
+        // Substrings of the limitApp should not match.
+        assertFalse(white.passCheck("app"));
+        assertFalse(white.passCheck("app1,app2"));
+        assertFalse(white.passCheck("app300"));
+        assertTrue(black.passCheck("pp1"));
+    }
+
+    @Test
+    public void testSameAsChecking() {
+        String[] limitApps = {"appA", "appA,appB", "appB, appA", "appA,", ",appA", "appAB"};
+        String[] origins = {"appA", "appB", " appA", "appAB", "app"};
+        for (String limitApp : limitApps) {
+            for (int strategy : new int[] {RuleConstant.AUTHORITY_WHITE, RuleConstant.AUTHORITY_BLACK, 2}) {
+                AuthorityRule rule = newRule(limitApp, strategy);
+                AuthorityRuleMatcher matcher = new AuthorityRuleMatcher(rule);
+                for (String origin : origins) {
+                    assertEquals(limitApp + " / " + strategy + " / " + origin,
+                        expectedPass(rule, origin), matcher.passCheck(origin));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyOrigin() {
+        AuthorityRuleMatcher matcher = new AuthorityRuleMatcher(newRule("appA", RuleConstant.AUTHORITY_WHITE));
+        assertTrue(matcher.passCheck(""));
+        assertTrue(matcher.passCheck(null));
+    }
+
+    /**
+     * The original way of checking: rough match first, then exact match of the split items.
+     */
+    private boolean expectedPass(AuthorityRule rule, String requester) {
+        boolean contain = rule.getLimitApp().contains(requester);
+        if (contain) {
+            boolean exactlyMatch = false;
+            for (String app : rule.getLimitApp().split(",")) {
+                if (requester.equals(app)) {
+                    exactlyMatch = true;
+                    break;
+                }
+            }
+            contain = exactlyMatch;
+        }
+        if (rule.getStrategy() == RuleConstant.AUTHORITY_BLACK && contain) {
+            return false;
+        }
+        return rule.getStrategy() != RuleConstant.AUTHORITY_WHITE || contain;
+    }
+
+    private AuthorityRule newRule(String limitApp, int strategy) {
+        return new AuthorityRule()
+            .setResource("testResource")
+            .setLimitApp(limitApp)
+            .as(AuthorityRule.class)
+            .setStrategy(strategy);
+    }
+}
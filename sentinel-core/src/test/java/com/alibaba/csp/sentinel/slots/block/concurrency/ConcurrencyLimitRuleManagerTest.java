@@ -0,0 +1,65 @@
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ConcurrencyLimitRuleManager}.
+ */
+public class ConcurrencyLimitRuleManagerTest {
+
+    @Before
+    public void setUp() {
+        ConcurrencyLimitRuleManager.loadRules(new ArrayList<ConcurrencyLimitRule>());
+    }
+
+    @After
+    public void tearDown() {
+        ConcurrencyLimitRuleManager.loadRules(new ArrayList<ConcurrencyLimitRule>());
+    }
+
+    @Test
+    public void testLoadSameRuleUseSameLimiter() {
+        String resource = "testLoadSameRuleUseSameLimiter";
+        ConcurrencyLimitRule rule = new ConcurrencyLimitRule(resource).setInitialLimit(10);
+        ConcurrencyLimitRuleManager.loadRules(Arrays.asList(rule));
+        ConcurrencyLimiter limiter = ConcurrencyLimitRuleManager.getLimiters(resource).get(0);
+        assertTrue(limiter instanceof GradientConcurrencyLimiter);
+        assertEquals(10, ConcurrencyLimitRuleManager.getCurrentLimit(resource));
+
+        ConcurrencyLimitRuleManager.loadRules(Arrays.asList(new ConcurrencyLimitRule(resource).setInitialLimit(10),
+            new ConcurrencyLimitRule("abc").setStrategy(RuleConstant.CONCURRENCY_LIMIT_VEGAS)));
+        assertSame(limiter, ConcurrencyLimitRuleManager.getLimiters(resource).get(0));
+        assertTrue(ConcurrencyLimitRuleManager.getLimiters("abc").get(0) instanceof VegasConcurrencyLimiter);
+        assertEquals(2, ConcurrencyLimitRuleManager.getRules().size());
+
+        ConcurrencyLimitRuleManager.loadRules(Arrays.asList(new ConcurrencyLimitRule(resource).setInitialLimit(5)));
+        assertNotSame(limiter, ConcurrencyLimitRuleManager.getLimiters(resource).get(0));
+        assertEquals(5, ConcurrencyLimitRuleManager.getCurrentLimit(resource));
+        assertFalse(ConcurrencyLimitRuleManager.hasConfig("abc"));
+        assertEquals(-1, ConcurrencyLimitRuleManager.getCurrentLimit("abc"));
+    }
+
+    @Test
+    public void testIgnoreInvalidRules() {
+        String resource = "testIgnoreInvalidRules";
+        ConcurrencyLimitRuleManager.loadRules(Arrays.asList(
+            new ConcurrencyLimitRule(resource).setMinLimit(0),
+            new ConcurrencyLimitRule(resource).setInitialLimit(2000),
+            new ConcurrencyLimitRule(resource).setSmoothing(0),
+            new ConcurrencyLimitRule(resource).setRtTolerance(0.5),
+            new ConcurrencyLimitRule(resource).setUpdateIntervalMs(0),
+            new ConcurrencyLimitRule(resource).setStrategy(5),
+            new ConcurrencyLimitRule()));
+        assertFalse(ConcurrencyLimitRuleManager.hasConfig(resource));
+        assertTrue(ConcurrencyLimitRuleManager.getRules().isEmpty());
+    }
+}
@@ -0,0 +1,54 @@
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ConcurrencyLimitSlot}.
+ */
+public class ConcurrencyLimitSlotTest {
+
+    @Before
+    public void setUp() {
+        ContextTestUtil.cleanUpContext();
+        ConcurrencyLimitRuleManager.loadRules(new ArrayList<ConcurrencyLimitRule>());
+    }
+
+    @After
+    public void tearDown() {
+        ContextTestUtil.cleanUpContext();
+        ConcurrencyLimitRuleManager.loadRules(new ArrayList<ConcurrencyLimitRule>());
+    }
+
+    @Test
+    public void testBlockWhenConcurrencyReachesLimit() throws BlockException {
+        String resource = "testBlockWhenConcurrencyReachesLimit";
+        ConcurrencyLimitRuleManager.loadRules(Collections.singletonList(
+            new ConcurrencyLimitRule(resource).setInitialLimit(2)));
+
+        Entry e1 = SphU.entry(resource);
+        Entry e2 = SphU.entry(resource);
+        try {
+            SphU.entry(resource);
+            fail("should be blocked");
+        } catch (ConcurrencyLimitException ex) {
+            assertEquals(resource, ex.getRule().getResource());
+        }
+        e2.exit();
+
+        Entry e3 = SphU.entry(resource);
+        e3.exit();
+        e1.exit();
+    }
+}
@@ -0,0 +1,113 @@
+package com.alibaba.csp.sentinel.slots.block.concurrency;
+
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link GradientConcurrencyLimiter} and {@link VegasConcurrencyLimiter}.
+ */
+public class ConcurrencyLimiterTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testGradientLimitTracksResponseTime() {
+        setCurrentMillis(100_000);
+        ClusterNode node = new ClusterNode("testGradientLimitTracksResponseTime");
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(
+            new ConcurrencyLimitRule("testGradientLimitTracksResponseTime").setInitialLimit(20));
+
+        int limit = runBusyPeriod(limiter, node, 10, 10);
+        assertTrue(limit > 20);
+        assertEquals(10, limiter.getLongRt(), 0.01);
+
+        // The latency grows far beyond the tolerance, so the limit shrinks.
+        int decreased = runBusyPeriod(limiter, node, 100, 5);
+        assertTrue(decreased < limit);
+        // The long-term RT follows the permanent shift of latency.
+        runBusyPeriod(limiter, node, 100, 60);
+        assertTrue(limiter.getLongRt() > 50);
+    }
+
+    @Test
+    public void testLimitNotGrowWhenNotBusy() {
+        setCurrentMillis(100_000);
+        ClusterNode node = new ClusterNode("testLimitNotGrowWhenNotBusy");
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(
+            new ConcurrencyLimitRule("testLimitNotGrowWhenNotBusy").setInitialLimit(20));
+
+        for (int i = 0; i < 10; i++) {
+            sleep(1000);
+            assertTrue(limiter.tryPass(2, 1));
+            node.addRtAndSuccess(10, 1);
+            limiter.onRequestComplete(node);
+        }
+        assertEquals(20, limiter.getLimit());
+        // Concurrency beyond the limit is rejected.
+        assertTrue(limiter.tryPass(19, 1));
+        assertFalse(limiter.tryPass(20, 1));
+    }
+
+    @Test
+    public void testVegasLimitTracksQueueSize() {
+        setCurrentMillis(100_000);
+        ClusterNode node = new ClusterNode("testVegasLimitTracksQueueSize");
+        VegasConcurrencyLimiter limiter = new VegasConcurrencyLimiter(
+            new ConcurrencyLimitRule("testVegasLimitTracksQueueSize")
+                .setStrategy(RuleConstant.CONCURRENCY_LIMIT_VEGAS)
+                .setInitialLimit(20)
+                .setSmoothing(1));
+
+        // No queue while the latency stays at the no-load RT.
+        int limit = runBusyPeriod(limiter, node, 10, 5);
+        assertTrue(limit > 20);
+        assertEquals(10, limiter.getNoLoadRt(), 0.01);
+
+        // Half of the requests are queued when the latency doubles.
+        int decreased = runBusyPeriod(limiter, node, 20, 5);
+        assertTrue(decreased < limit);
+        assertEquals(10, limiter.getNoLoadRt(), 0.01);
+
+        // The no-load RT follows the permanent shift of latency after probing.
+        runBusyPeriod(limiter, node, 20, VegasConcurrencyLimiter.PROBE_INTERVAL);
+        assertEquals(20, limiter.getNoLoadRt(), 0.01);
+    }
+
+    @Test
+    public void testUpdateOncePerInterval() {
+        setCurrentMillis(100_000);
+        ClusterNode node = new ClusterNode("testUpdateOncePerInterval");
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(
+            new ConcurrencyLimitRule("testUpdateOncePerInterval").setInitialLimit(20).setSmoothing(1)
+                .setUpdateIntervalMs(500));
+
+        limiter.tryPass(19, 1);
+        node.addRtAndSuccess(10, 1);
+        limiter.onRequestComplete(node);
+        assertEquals(20, limiter.getLimit());
+
+        sleep(500);
+        limiter.onRequestComplete(node);
+        int limit = limiter.getLimit();
+        assertTrue(limit > 20);
+        limiter.tryPass(limit - 1, 1);
+        limiter.onRequestComplete(node);
+        assertEquals(limit, limiter.getLimit());
+    }
+
+    private int runBusyPeriod(ConcurrencyLimiter limiter, ClusterNode node, int rt, int seconds) {
+        for (int i = 0; i < seconds; i++) {
+            sleep(1000);
+            limiter.tryPass(limiter.getLimit() - 1, 1);
+            node.addRtAndSuccess(rt, 1);
+            // Let the window only contain the latest requests.
+            sleep(500);
+            node.addRtAndSuccess(rt, 1);
+            limiter.onRequestComplete(node);
+        }
+        return limiter.getLimit();
+    }
+}
@@ -0,0 +1,106 @@
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ResponseTimePercentileCircuitBreaker}.
+ */
+public class ResponseTimePercentileCircuitBreakerTest extends AbstractTimeBasedTest {
+
+    @Before
+    public void setUp() {
+        DegradeRuleManager.loadRules(new ArrayList<DegradeRule>());
+    }
+
+    @After
+    public void tearDown() {
+        DegradeRuleManager.loadRules(new ArrayList<DegradeRule>());
+    }
+
+    @Test
+    public void testOpenOnTailLatency() {
+        String resource = "testOpenOnTailLatency";
+        DegradeRule rule = new DegradeRule(resource)
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT_PERCENTILE)
+            .setCount(300)
+            .setPercentile(0.9)
+            .setMinRequestAmount(10)
+            .setStatIntervalMs(10000)
+            .setTimeWindow(5);
+        assertTrue(DegradeRuleManager.isValidRule(rule));
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+        setCurrentMillis(100_000);
+
+        // 1 of 10 requests is slow, p90 is still fast.
+        for (int i = 0; i < 9; i++) {
+            assertTrue(entryAndSleepFor(resource, 10));
+        }
+        assertTrue(entryAndSleepFor(resource, 500));
+        // Another slow request pushes p90 above the threshold, though the average is below it.
+        assertTrue(entryAndSleepFor(resource, 400));
+        assertFalse(entryAndSleepFor(resource, 10));
+
+        // Probe after the recovery timeout.
+        sleepSecond(5);
+        assertTrue(entryAndSleepFor(resource, 10));
+        assertTrue(entryAndSleepFor(resource, 10));
+    }
+
+    @Test
+    public void testRtHistogramInMetricNode() {
+        String resource = "testRtHistogramInMetricNode";
+        DegradeRule rule = new DegradeRule(resource)
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT_PERCENTILE)
+            .setCount(1000)
+            .setTimeWindow(5);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+        setCurrentMillis(100_000);
+
+        assertTrue(entryAndSleepFor(resource, 10));
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resource);
+        assertNotNull(clusterNode);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(entryAndSleepFor(resource, 20));
+        }
+        sleepSecond(1);
+
+        List<MetricNode> metrics = clusterNode.rawMetricsInMin(new Predicate<Long>() {
+            @Override
+            public boolean test(Long timestamp) {
+                return timestamp == 100_000;
+            }
+        });
+        assertEquals(1, metrics.size());
+        assertNotNull(metrics.get(0).getRtHistogram());
+        assertEquals(5, metrics.get(0).getRtHistogram().getTotalCount());
+        assertEquals(20, metrics.get(0).getRtHistogram().getValueAtPercentile(0.99));
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        DegradeRule rule = new DegradeRule("testInvalidPercentile")
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT_PERCENTILE)
+            .setCount(100)
+            .setTimeWindow(5);
+        assertTrue(DegradeRuleManager.isValidRule(rule.setPercentile(1)));
+        assertFalse(DegradeRuleManager.isValidRule(rule.setPercentile(0)));
+        assertFalse(DegradeRuleManager.isValidRule(rule.setPercentile(1.5)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link RollingCounter}.
+ */
+public class RollingCounterTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testSingleBucket() {
+        setCurrentMillis(100_000);
+        RollingCounter counter = new RollingCounter(1, 1000);
+        counter.add(true);
+        counter.add(false);
+        counter.add(false);
+        assertEquals(1, counter.badCount());
+        assertEquals(3, counter.totalCount());
+
+        counter.reset();
+        assertEquals(0, counter.totalCount());
+        counter.add(true);
+
+        sleep(1000);
+        assertEquals(0, counter.badCount());
+        assertEquals(0, counter.totalCount());
+    }
+
+    @Test
+    public void testSumsOfSlidingWindow() {
+        setCurrentMillis(100_000);
+        RollingCounter counter = new RollingCounter(4, 1000);
+        for (int i = 0; i < 4; i++) {
+            counter.add(true);
+            counter.add(false);
+            assertEquals(i + 1, counter.badCount());
+            assertEquals(2 * (i + 1), counter.totalCount());
+            sleep(250);
+        }
+
+        // The first bucket is replaced.
+        counter.add(false);
+        assertEquals(3, counter.badCount());
+        assertEquals(7, counter.totalCount());
+
+        // Buckets not rotated for a while are not counted.
+        sleep(750);
+        counter.add(false);
+        assertEquals(0, counter.badCount());
+        assertEquals(2, counter.totalCount());
+
+        sleep(2000);
+        assertEquals(0, counter.totalCount());
+    }
+}
@@ -0,0 +1,117 @@
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for {@link FlowRulePlan}.
+ */
+public class FlowRulePlanTest {
+
+    private static final String RESOURCE = "testFlowRulePlan";
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(null);
+    }
+
+    @Test
+    public void testSameNodesAsSelectingByRequester() {
+        String[] limitApps = {"appA", RuleConstant.LIMIT_APP_DEFAULT, "appB", RuleConstant.LIMIT_APP_OTHER, "appA"};
+        int[] strategies = {RuleConstant.STRATEGY_DIRECT, RuleConstant.STRATEGY_CHAIN};
+        List<FlowRule> rules = new ArrayList<>();
+        for (String limitApp : limitApps) {
+            for (int strategy : strategies) {
+                FlowRule rule = new FlowRule(RESOURCE).setCount(rules.size() + 1);
+                rule.setLimitApp(limitApp);
+                rule.setStrategy(strategy);
+                rule.setRefResource("entrance");
+                rules.add(rule);
+            }
+        }
+        FlowRuleManager.loadRules(rules);
+        List<FlowRule> loadedRules = FlowRuleManager.getFlowRuleMap().get(RESOURCE);
+        FlowRulePlan plan = FlowRuleManager.getFlowRulePlan(RESOURCE);
+
+        DefaultNode node = mock(DefaultNode.class);
+        when(node.getClusterNode()).thenReturn(mock(ClusterNode.class));
+        for (String origin : Arrays.asList("appA", "appB", "appC", "", null, RuleConstant.LIMIT_APP_DEFAULT,
+            RuleConstant.LIMIT_APP_OTHER)) {
+            for (String contextName : Arrays.asList("entrance", "another")) {
+                Context context = mock(Context.class);
+                when(context.getOrigin()).thenReturn(origin);
+                when(context.getName()).thenReturn(contextName);
+                when(context.getOriginNode()).thenReturn(mock(DefaultNode.class));
+
+                List<String> expected = new ArrayList<>();
+                for (FlowRule rule : loadedRules) {
+                    Node selected = FlowRuleChecker.selectNodeByRequesterAndStrategy(rule, context, node);
+                    if (selected != null) {
+                        expected.add(rule.getCount() + "@" + System.identityHashCode(selected));
+                    }
+                }
+                List<String> actual = new ArrayList<>();
+                for (FlowRulePlan.Step step : plan.stepsOf(origin)) {
+                    Node selected = step.selectNode(context, node);
+                    if (selected != null) {
+                        actual.add(step.getRule().getCount() + "@" + System.identityHashCode(selected));
+                    }
+                }
+                assertEquals(origin + "/" + contextName, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyApplicableRulesEvaluated() {
+        List<FlowRule> rules = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            FlowRule rule = new FlowRule(RESOURCE).setCount(i + 1);
+            rule.setLimitApp("app" + i);
+            rules.add(rule);
+        }
+        rules.add(new FlowRule(RESOURCE).setCount(1000));
+        FlowRuleManager.loadRules(rules);
+        FlowRulePlan plan = FlowRuleManager.getFlowRulePlan(RESOURCE);
+
+        FlowRulePlan.Step[] steps = plan.stepsOf("app42");
+        assertEquals(2, steps.length);
+        assertEquals("app42", steps[0].getRule().getLimitApp());
+        assertEquals(RuleConstant.LIMIT_APP_DEFAULT, steps[1].getRule().getLimitApp());
+        assertEquals(1, plan.stepsOf("unknownApp").length);
+        assertEquals(1, plan.stepsOf(null).length);
+
+        assertFalse(FlowRuleManager.isOtherOrigin("app42", RESOURCE));
+        assertTrue(FlowRuleManager.isOtherOrigin("unknownApp", RESOURCE));
+        assertFalse(FlowRuleManager.isOtherOrigin("", RESOURCE));
+    }
+
+    @Test
+    public void testClusterRulesApplyToAllOrigins() {
+        FlowRule localRule = new FlowRule(RESOURCE).setCount(1);
+        localRule.setLimitApp("appA");
+        FlowRule clusterRule = new FlowRule(RESOURCE).setCount(2).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(1L));
+        clusterRule.setLimitApp("appB");
+        FlowRuleManager.loadRules(Arrays.asList(localRule, clusterRule));
+        FlowRulePlan plan = FlowRuleManager.getFlowRulePlan(RESOURCE);
+
+        assertEquals(2, plan.stepsOf("appA").length);
+        assertTrue(plan.stepsOf("appA")[1].isClusterMode());
+        assertEquals(1, plan.stepsOf("appC").length);
+        assertEquals(1, plan.stepsOf(null).length);
+    }
+}
@@ -21,13 +21,12 @@ import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.node.DefaultNode;
-import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
-import com.alibaba.csp.sentinel.util.function.Function;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentMatcher;
 
 import static org.mockito.Mockito.*;
 
@@ -55,7 +54,7 @@ public class FlowSlotTest {
         FlowSlot flowSlot = new FlowSlot(checker);
         Context context = mock(Context.class);
         DefaultNode node = mock(DefaultNode.class);
-        doCallRealMethod().when(checker).checkFlow(any(Function.class), any(ResourceWrapper.class), any(Context.class),
+        doCallRealMethod().when(checker).checkFlow(nullable(FlowRulePlan.class), any(Context.class),
             any(DefaultNode.class), anyInt(), anyBoolean());
 
         String resA = "resAK";
@@ -65,10 +64,10 @@ public class FlowSlotTest {
         // Here we only load rules for resA.
         FlowRuleManager.loadRules(Collections.singletonList(rule1));
 
-        when(checker.canPassCheck(eq(rule1), any(Context.class), any(DefaultNode.class), anyInt(), anyBoolean()))
-            .thenReturn(true);
-        when(checker.canPassCheck(eq(rule2), any(Context.class), any(DefaultNode.class), anyInt(), anyBoolean()))
-            .thenReturn(false);
+        when(checker.canPassCheck(argThat(stepOf(rule1)), any(Context.class), any(DefaultNode.class), anyInt(),
+            anyBoolean())).thenReturn(true);
+        when(checker.canPassCheck(argThat(stepOf(rule2)), any(Context.class), any(DefaultNode.class), anyInt(),
+            anyBoolean())).thenReturn(false);
 
         flowSlot.checkFlow(new StringResourceWrapper(resA, EntryType.IN), context, node, 1, false);
         flowSlot.checkFlow(new StringResourceWrapper(resB, EntryType.IN), context, node, 1, false);
@@ -81,16 +80,25 @@ public class FlowSlotTest {
         FlowSlot flowSlot = new FlowSlot(checker);
         Context context = mock(Context.class);
         DefaultNode node = mock(DefaultNode.class);
-        doCallRealMethod().when(checker).checkFlow(any(Function.class), any(ResourceWrapper.class), any(Context.class),
+        doCallRealMethod().when(checker).checkFlow(nullable(FlowRulePlan.class), any(Context.class),
             any(DefaultNode.class), anyInt(), anyBoolean());
 
         String resA = "resAK";
         FlowRule rule = new FlowRule(resA).setCount(10);
         FlowRuleManager.loadRules(Collections.singletonList(rule));
 
-        when(checker.canPassCheck(any(FlowRule.class), any(Context.class), any(DefaultNode.class), anyInt(), anyBoolean()))
-            .thenReturn(false);
+        when(checker.canPassCheck(any(FlowRulePlan.Step.class), any(Context.class), any(DefaultNode.class), anyInt(),
+            anyBoolean())).thenReturn(false);
 
         flowSlot.checkFlow(new StringResourceWrapper(resA, EntryType.IN), context, node, 1, false);
     }
+
+    private static ArgumentMatcher<FlowRulePlan.Step> stepOf(final FlowRule rule) {
+        return new ArgumentMatcher<FlowRulePlan.Step>() {
+            @Override
+            public boolean matches(FlowRulePlan.Step step) {
+                return step != null && step.getRule() == rule;
+            }
+        };
+    }
 }
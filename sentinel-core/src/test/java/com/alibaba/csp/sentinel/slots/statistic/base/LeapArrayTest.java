@@ -19,6 +19,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
 
 import static org.junit.Assert.*;
@@ -62,4 +63,44 @@ public class LeapArrayTest extends AbstractTimeBasedTest {
         assertSame(expected2, leapArray.getValidHead());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLockFreeRotationConfigKeepsResetOfOtherSubclasses() {
+        SentinelConfig.setConfig(SentinelConfig.LOCK_FREE_WINDOW_ROTATION, "true");
+        try {
+            final int windowLengthInMs = 100;
+            final int intervalInMs = 1000;
+            final AtomicInteger newCount = new AtomicInteger();
+            final AtomicInteger resetCount = new AtomicInteger();
+            LeapArray<AtomicInteger> leapArray = new LeapArray<AtomicInteger>(intervalInMs / windowLengthInMs,
+                intervalInMs) {
+                @Override
+                public AtomicInteger newEmptyBucket(long time) {
+                    newCount.incrementAndGet();
+                    return new AtomicInteger(0);
+                }
+
+                @Override
+                protected WindowWrap<AtomicInteger> resetWindowTo(WindowWrap<AtomicInteger> windowWrap,
+                                                                  long startTime) {
+                    resetCount.incrementAndGet();
+                    windowWrap.resetTo(startTime);
+                    windowWrap.value().set(0);
+                    return windowWrap;
+                }
+            };
+
+            WindowWrap<AtomicInteger> window = leapArray.currentWindow(0);
+            window.value().addAndGet(5);
+            WindowWrap<AtomicInteger> rotated = leapArray.currentWindow(intervalInMs);
+
+            // The global switch only applies to metric bucket arrays, others are still reset in place.
+            assertSame(window, rotated);
+            assertEquals(intervalInMs, rotated.windowStart());
+            assertEquals(0, rotated.value().get());
+            assertEquals(1, newCount.get());
+            assertEquals(1, resetCount.get());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.LOCK_FREE_WINDOW_ROTATION);
+        }
+    }
+}
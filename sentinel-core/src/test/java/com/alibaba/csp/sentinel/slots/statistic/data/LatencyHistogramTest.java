@@ -0,0 +1,50 @@
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value = 0; value < (1 << 16); value++) {
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(highest >= value);
+            // Relative error is no more than 1/16.
+            assertTrue(highest - value <= value / 16);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value);
+            }
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE));
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+        assertEquals(0, LatencyHistogram.indexOf(-1));
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(0.99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i < 99 ? 10 : 500);
+        }
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(10, histogram.getValueAtPercentile(0.5));
+        assertEquals(10, histogram.getValueAtPercentile(0.98));
+        long p99 = histogram.getValueAtPercentile(0.99);
+        assertTrue(p99 >= 500 && p99 <= 500 + 500 / 16);
+
+        LatencyHistogram merged = new LatencyHistogram().add(histogram).add(histogram);
+        assertEquals(200, merged.getTotalCount());
+        assertEquals(p99, merged.getValueAtPercentile(0.99));
+
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(1));
+    }
+}
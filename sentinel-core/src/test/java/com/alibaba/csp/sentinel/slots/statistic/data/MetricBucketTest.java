@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.CountDownLatch;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MetricBucket}.
+ */
+public class MetricBucketTest {
+
+    @Test
+    public void testAddAndReset() {
+        MetricBucket bucket = new MetricBucket();
+        bucket.addPass(2);
+        bucket.addBlock(1);
+        bucket.addSuccess(3);
+        bucket.addException(1);
+        bucket.addOccupiedPass(4);
+        bucket.addRT(20);
+        bucket.addRT(10);
+
+        assertEquals(2, bucket.pass());
+        assertEquals(1, bucket.block());
+        assertEquals(3, bucket.success());
+        assertEquals(1, bucket.exception());
+        assertEquals(4, bucket.occupiedPass());
+        assertEquals(30, bucket.rt());
+        assertEquals(10, bucket.minRt());
+
+        MetricBucket copy = new MetricBucket().reset(bucket);
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(bucket.get(event), copy.get(event));
+        }
+
+        bucket.reset();
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(0, bucket.get(event));
+        }
+        assertEquals(SentinelConfig.statisticMaxRt(), bucket.minRt());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        final MetricBucket bucket = new MetricBucket();
+        final int nThreads = 16;
+        final int times = 10000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(nThreads);
+        for (int i = 0; i < nThreads; i++) {
+            final long rt = i + 1;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                    for (int j = 0; j < times; j++) {
+                        bucket.addPass(1);
+                        bucket.addSuccess(1);
+                        bucket.addRT(rt);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        latch.await();
+
+        assertEquals(nThreads * times, bucket.pass());
+        assertEquals(nThreads * times, bucket.success());
+        assertEquals((long) times * nThreads * (nThreads + 1) / 2, bucket.rt());
+        assertEquals(1, bucket.minRt());
+
+        bucket.reset();
+        assertEquals(0, bucket.pass());
+        assertEquals(0, bucket.rt());
+        bucket.addPass(1);
+        assertEquals(1, bucket.pass());
+    }
+}
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
 import com.alibaba.csp.sentinel.util.TimeUtil;
@@ -215,4 +216,71 @@ public class BucketLeapArrayTest {
 
         assertEquals(1, leapArray.list().size());
     }
+
+    @Test
+    public void testLockFreeRotationReplaceDeprecatedBucket() {
+        BucketLeapArray leapArray = new BucketLeapArray(sampleCount, intervalInMs, true);
+        long time = TimeUtil.currentTimeMillis();
+        long windowStart = time - time % windowLengthInMs;
+
+        WindowWrap<MetricBucket> window = leapArray.currentWindow(windowStart);
+        window.value().addPass(3);
+        assertSame(window, leapArray.currentWindow(windowStart + windowLengthInMs / 2));
+
+        WindowWrap<MetricBucket> rotated = leapArray.currentWindow(windowStart + intervalInMs);
+        assertNotSame(window, rotated);
+        assertEquals(windowStart + intervalInMs, rotated.windowStart());
+        assertEquals(0L, rotated.value().pass());
+        // The deprecated bucket is left untouched instead of being reset.
+        assertEquals(windowStart, window.windowStart());
+        assertEquals(3L, window.value().pass());
+    }
+
+    @Test
+    public void testLockFreeRotationMultiThreadUpdateDeprecatedWindow() throws Exception {
+        final long time = TimeUtil.currentTimeMillis();
+        final int nThreads = 32;
+        final BucketLeapArray leapArray = new BucketLeapArray(sampleCount, intervalInMs, true);
+        leapArray.currentWindow(time).value().addPass(100);
+
+        final long nextTime = time + intervalInMs;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(nThreads);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException ignore) {
+                }
+                leapArray.currentWindow(nextTime).value().addPass(1);
+                latch.countDown();
+            }
+        };
+
+        for (int i = 0; i < nThreads; i++) {
+            new Thread(task).start();
+        }
+        startLatch.countDown();
+        latch.await();
+
+        assertEquals(nThreads, leapArray.currentWindow(nextTime).value().pass());
+    }
+
+    @Test
+    public void testLockFreeRotationEnabledByConfig() {
+        SentinelConfig.setConfig(SentinelConfig.LOCK_FREE_WINDOW_ROTATION, "true");
+        try {
+            BucketLeapArray leapArray = new BucketLeapArray(sampleCount, intervalInMs);
+            WindowWrap<MetricBucket> window = leapArray.currentWindow(0);
+            window.value().addPass(3);
+
+            WindowWrap<MetricBucket> rotated = leapArray.currentWindow(intervalInMs);
+            assertNotSame(window, rotated);
+            assertEquals(0L, rotated.value().pass());
+            assertEquals(3L, window.value().pass());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.LOCK_FREE_WINDOW_ROTATION);
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TieredMetric}.
+ */
+public class TieredMetricTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testSparseUntilOutOfRoom() {
+        setCurrentMillis(100_000);
+        TieredMetric metric = new TieredMetric(60, 60 * 1000, 4, 100);
+        long empty = metric.estimatedBytes();
+        for (int i = 0; i < 4; i++) {
+            metric.addPass(1);
+            metric.addSuccess(1);
+            metric.addRT(10);
+            sleepSecond(10);
+        }
+        // Reading never allocates buckets.
+        assertEquals(4, metric.details().size());
+        assertFalse(metric.isUpgraded());
+        assertEquals(4, metric.pass());
+        assertEquals(40, metric.rt());
+        assertTrue(metric.estimatedBytes() > empty);
+
+        // The oldest bucket has expired, so its slot is reused.
+        sleepSecond(21);
+        metric.addPass(1);
+        assertFalse(metric.isUpgraded());
+        assertEquals(4, metric.pass());
+
+        // No room for another window.
+        sleepSecond(1);
+        metric.addPass(1);
+        assertTrue(metric.isUpgraded());
+        assertEquals(5, metric.pass());
+        assertEquals(5, metric.details().size());
+    }
+
+    @Test
+    public void testUpgradeOnThreshold() {
+        setCurrentMillis(100_000);
+        TieredMetric metric = new TieredMetric(60, 60 * 1000, 8, 10);
+        metric.addPass(5);
+        metric.addBlock(4);
+        assertFalse(metric.isUpgraded());
+        metric.addBlock(1);
+        assertTrue(metric.isUpgraded());
+
+        // Counts of the same second from both tiers are merged.
+        metric.addPass(3);
+        metric.addSuccess(2);
+        assertEquals(8, metric.pass());
+        assertEquals(5, metric.block());
+        List<MetricNode> details = metric.details();
+        assertEquals(1, details.size());
+        assertEquals(8, details.get(0).getPassQps());
+        assertEquals(5, details.get(0).getBlockQps());
+        assertEquals(100_000, details.get(0).getTimestamp());
+        assertEquals(2, metric.maxSuccess());
+
+        sleepSecond(1);
+        assertEquals(8, metric.previousWindowPass());
+        assertEquals(5, metric.previousWindowBlock());
+        assertEquals(8, metric.getWindowPass(100_500));
+
+        // Sparse buckets are dropped once they expire.
+        sleepSecond(61);
+        metric.addPass(1);
+        assertEquals(1, metric.pass());
+        assertEquals(1, metric.details().size());
+    }
+
+    @Test
+    public void testSameAsArrayMetric() {
+        setCurrentMillis(100_000);
+        TieredMetric tiered = new TieredMetric(60, 60 * 1000, 8, 20);
+        ArrayMetric array = new ArrayMetric(60, 60 * 1000, false);
+        for (int i = 0; i < 90; i++) {
+            for (Metric metric : new Metric[] {tiered, array}) {
+                metric.addPass(i % 7);
+                metric.addBlock(i % 3);
+                metric.addException(i % 2);
+                metric.addSuccess(i % 5);
+                metric.addRT(i);
+            }
+            sleep(700);
+            assertEquals(array.pass(), tiered.pass());
+            assertEquals(array.block(), tiered.block());
+            assertEquals(array.exception(), tiered.exception());
+            assertEquals(array.success(), tiered.success());
+            assertEquals(array.rt(), tiered.rt());
+            assertEquals(array.minRt(), tiered.minRt());
+            assertEquals(array.maxSuccess(), tiered.maxSuccess());
+            assertEquals(array.previousWindowPass(), tiered.previousWindowPass());
+            // The array metric also lists the empty bucket created when read.
+            assertEquals(countWithTraffic(array.details()), countWithTraffic(tiered.details()));
+        }
+        assertTrue(tiered.isUpgraded());
+    }
+
+    private int countWithTraffic(List<MetricNode> details) {
+        int count = 0;
+        for (MetricNode node : details) {
+            if (node.getPassQps() + node.getBlockQps() + node.getSuccessQps() + node.getExceptionQps() > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
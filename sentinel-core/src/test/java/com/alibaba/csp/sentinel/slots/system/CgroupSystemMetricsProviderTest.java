@@ -0,0 +1,188 @@
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link CgroupSystemMetricsProvider} against fake cgroup file systems.
+ */
+public class CgroupSystemMetricsProviderTest extends AbstractTimeBasedTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCgroupV2() throws IOException {
+        setCurrentMillis(100_000);
+        File root = folder.newFolder("v2");
+        write(root, "cgroup.controllers", "cpuset cpu io memory pids");
+        write(root, "cpu.max", "200000 100000");
+        write(root, "cpu.stat", "usage_usec 1000000\nuser_usec 800000\nsystem_usec 200000\n"
+            + "nr_periods 100\nnr_throttled 10\nthrottled_usec 5000");
+        write(root, "memory.pressure", "some avg10=12.50 avg60=3.00 avg300=1.00 total=123456\n"
+            + "full avg10=2.00 avg60=1.00 avg300=0.50 total=23456");
+
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(root, new FixedMetricsProvider());
+        assertTrue(provider.isAvailable());
+        provider.refresh();
+        // Rates are unknown until the second sample.
+        assertEquals(-1, provider.getCpuUsage(), 0.001);
+        assertEquals(-1, provider.getCpuThrottledRatio(), 0.001);
+        assertEquals(0.125, provider.getMemoryPressure(), 0.001);
+        assertEquals(3.0, provider.getSystemLoad(), 0.001);
+
+        // 1 second of CPU time in 1 second with a quota of 2 cores.
+        sleep(1000);
+        write(root, "cpu.stat", "usage_usec 2000000\nuser_usec 1600000\nsystem_usec 400000\n"
+            + "nr_periods 110\nnr_throttled 15\nthrottled_usec 9000");
+        write(root, "memory.pressure", "some avg10=0.00 avg60=3.00 avg300=1.00 total=123456\n"
+            + "full avg10=0.00 avg60=1.00 avg300=0.50 total=23456");
+        provider.refresh();
+        assertEquals(0.5, provider.getCpuUsage(), 0.001);
+        assertEquals(0.5, provider.getCpuThrottledRatio(), 0.001);
+        assertEquals(0, provider.getMemoryPressure(), 0.001);
+
+        // Not throttled without CPU quota periods.
+        sleep(500);
+        write(root, "cpu.max", "max 100000");
+        write(root, "cpu.stat", "usage_usec 2000000\nnr_periods 110\nnr_throttled 15");
+        provider.refresh();
+        assertEquals(0, provider.getCpuUsage(), 0.001);
+        assertEquals(0, provider.getCpuThrottledRatio(), 0.001);
+    }
+
+    @Test
+    public void testCgroupV1() throws IOException {
+        setCurrentMillis(100_000);
+        File root = folder.newFolder("v1");
+        File cpuDir = new File(root, "cpu,cpuacct");
+        assertTrue(cpuDir.mkdirs());
+        write(cpuDir, "cpu.cfs_quota_us", "50000");
+        write(cpuDir, "cpu.cfs_period_us", "100000");
+        write(cpuDir, "cpuacct.usage", "1000000000");
+        write(cpuDir, "cpu.stat", "nr_periods 20\nnr_throttled 0\nthrottled_time 0");
+
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(root, new FixedMetricsProvider());
+        assertTrue(provider.isAvailable());
+        provider.refresh();
+
+        // 250 ms of CPU time in 1 second with a quota of half a core.
+        sleep(1000);
+        write(cpuDir, "cpuacct.usage", "1250000000");
+        write(cpuDir, "cpu.stat", "nr_periods 30\nnr_throttled 2\nthrottled_time 1000");
+        provider.refresh();
+        assertEquals(0.5, provider.getCpuUsage(), 0.001);
+        assertEquals(0.2, provider.getCpuThrottledRatio(), 0.001);
+        // Memory pressure is not available in cgroup v1.
+        assertEquals(-1, provider.getMemoryPressure(), 0.001);
+    }
+
+    @Test
+    public void testFallbackWithoutCgroup() throws IOException {
+        File root = folder.newFolder("none");
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(root, new FixedMetricsProvider());
+        assertFalse(provider.isAvailable());
+        provider.refresh();
+        assertEquals(0.7, provider.getCpuUsage(), 0.001);
+        assertEquals(3.0, provider.getSystemLoad(), 0.001);
+        assertEquals(-1, provider.getCpuThrottledRatio(), 0.001);
+        assertEquals(-1, provider.getMemoryPressure(), 0.001);
+    }
+
+    @Test
+    public void testResolveCgroupV2OfProcess() throws IOException {
+        setCurrentMillis(100_000);
+        // cgroup v2 without a private cgroup namespace, where the mount point is the root cgroup of the host.
+        File mountPoint = folder.newFolder("host");
+        write(mountPoint, "cgroup.controllers", "cpuset cpu io memory pids");
+        write(mountPoint, "cpu.stat", "usage_usec 900000000");
+        File cgroupDir = new File(mountPoint, "kubepods/pod1/abc");
+        assertTrue(cgroupDir.mkdirs());
+        write(cgroupDir, "cgroup.controllers", "cpu memory");
+        write(cgroupDir, "cpu.max", "50000 100000");
+        write(cgroupDir, "cpu.stat", "usage_usec 1000000");
+        File proc = folder.newFolder("proc");
+        write(proc, "cgroup", "0::/kubepods/pod1/abc\n");
+        write(proc, "mountinfo", "25 1 8:1 / / rw,relatime shared:1 - ext4 /dev/sda1 rw\n"
+            + "30 23 0:26 / " + mountPoint.getPath() + " rw,nosuid,nodev shared:4 - cgroup2 cgroup2 rw,nsdelegate\n");
+
+        CgroupSystemMetricsProvider.CgroupDirs dirs = CgroupSystemMetricsProvider.CgroupDirs.ofProcess(
+            new File(proc, "cgroup"), new File(proc, "mountinfo"));
+        assertNotNull(dirs);
+        assertEquals(cgroupDir.getPath(), dirs.toString());
+
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(dirs, new FixedMetricsProvider());
+        provider.refresh();
+        // 250 ms of CPU time in 1 second with a quota of half a core.
+        sleep(1000);
+        write(cgroupDir, "cpu.stat", "usage_usec 1250000");
+        write(mountPoint, "cpu.stat", "usage_usec 999000000");
+        provider.refresh();
+        assertEquals(0.5, provider.getCpuUsage(), 0.001);
+    }
+
+    @Test
+    public void testResolveCgroupV1OfProcessInContainer() throws IOException {
+        // The cgroup of the container is mounted as the root of the hierarchy.
+        File mountPoint = folder.newFolder("cpu,cpuacct");
+        write(mountPoint, "cpu.cfs_quota_us", "50000");
+        write(mountPoint, "cpuacct.usage", "1000000000");
+        File proc = folder.newFolder("proc");
+        write(proc, "cgroup", "5:memory:/docker/abc\n4:cpu,cpuacct:/docker/abc\n0::/\n");
+        write(proc, "mountinfo", "40 30 0:35 /docker/abc " + mountPoint.getPath()
+            + " ro,nosuid master:17 - cgroup cgroup rw,cpu,cpuacct\n"
+            + "41 30 0:36 /docker/abc /sys/fs/cgroup/memory ro,nosuid master:18 - cgroup cgroup rw,memory\n");
+
+        CgroupSystemMetricsProvider.CgroupDirs dirs = CgroupSystemMetricsProvider.CgroupDirs.ofProcess(
+            new File(proc, "cgroup"), new File(proc, "mountinfo"));
+        assertNotNull(dirs);
+        assertEquals("cpu=" + mountPoint.getPath() + ", cpuacct=" + mountPoint.getPath(), dirs.toString());
+        assertTrue(new CgroupSystemMetricsProvider(dirs, new FixedMetricsProvider()).isAvailable());
+    }
+
+    @Test
+    public void testNoCgroupOfProcess() throws IOException {
+        File proc = folder.newFolder("proc");
+        assertNull(CgroupSystemMetricsProvider.CgroupDirs.ofProcess(
+            new File(proc, "cgroup"), new File(proc, "mountinfo")));
+    }
+
+    private static void write(File dir, String name, String content) throws IOException {
+        Files.write(new File(dir, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class FixedMetricsProvider implements SystemMetricsProvider {
+        @Override
+        public void refresh() {}
+
+        @Override
+        public double getSystemLoad() {
+            return 3.0;
+        }
+
+        @Override
+        public double getCpuUsage() {
+            return 0.7;
+        }
+
+        @Override
+        public double getCpuThrottledRatio() {
+            return -1;
+        }
+
+        @Override
+        public double getMemoryPressure() {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ResourceWeightedShedder}.
+ */
+public class ResourceWeightedShedderTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testShedExpensiveResourcesFirst() {
+        setCurrentMillis(100_000);
+        ResourceWeightedShedder shedder = new ResourceWeightedShedder();
+        shedder.update(false, threeResources());
+        assertEquals(0, shedder.getShedRatio(), 0.001);
+        assertTrue(shedder.tryPass("expensive"));
+
+        updateEverySecond(shedder, true, 10);
+        assertEquals(0.5, shedder.getShedRatio(), 0.001);
+        assertEquals(0.55, shedder.getShedProbability("expensive"), 0.001);
+        assertEquals(0, shedder.getShedProbability("cheap"), 0.001);
+        assertEquals(0, shedder.getShedProbability("outbound"), 0.001);
+        assertTrue(shedder.tryPass("cheap"));
+
+        // The cost beyond the max probability of the expensive one goes to the next.
+        updateEverySecond(shedder, true, 10);
+        assertEquals(ResourceWeightedShedder.MAX_SHED_PROBABILITY, shedder.getShedRatio(), 0.001);
+        assertEquals(ResourceWeightedShedder.MAX_SHED_PROBABILITY, shedder.getShedProbability("expensive"), 0.001);
+        assertEquals(0.9, shedder.getShedProbability("cheap"), 0.001);
+
+        updateEverySecond(shedder, false, 20);
+        assertEquals(0, shedder.getShedRatio(), 0.001);
+        assertEquals(0, shedder.getShedProbability("expensive"), 0.001);
+        assertTrue(shedder.tryPass("expensive"));
+    }
+
+    @Test
+    public void testShedRatioChangesByElapsedTime() {
+        setCurrentMillis(100_000);
+        ResourceWeightedShedder shedder = new ResourceWeightedShedder();
+        shedder.update(false, threeResources());
+
+        // Sampling every 100 ms sheds no faster than sampling every second.
+        for (int i = 0; i < 10; i++) {
+            sleep(100);
+            shedder.update(true, threeResources());
+        }
+        assertEquals(ResourceWeightedShedder.SHED_STEP_PER_SECOND, shedder.getShedRatio(), 0.001);
+
+        // Neither does a late sample make it slower.
+        sleep(3000);
+        shedder.update(true, threeResources());
+        assertEquals(ResourceWeightedShedder.SHED_STEP_PER_SECOND * 4, shedder.getShedRatio(), 0.001);
+    }
+
+    @Test
+    public void testIgnoreRejectionsOfOtherRules() {
+        setCurrentMillis(100_000);
+        Map<ResourceWrapper, ClusterNode> nodes = new HashMap<>();
+        addResource(nodes, "expensive", EntryType.IN, 100, 10);
+        addResource(nodes, "cheap", EntryType.IN, 10, 10);
+        ResourceWeightedShedder shedder = new ResourceWeightedShedder();
+        shedder.update(true, nodes);
+
+        // Most requests of the cheap resource are rejected by its flow rules, which adds nothing to its cost.
+        Map<ResourceWrapper, ClusterNode> blockedNodes = new HashMap<>();
+        addResource(blockedNodes, "expensive", EntryType.IN, 100, 10);
+        addResource(blockedNodes, "cheap", EntryType.IN, 10, 10).increaseBlockQps(1000);
+        ResourceWeightedShedder blockedShedder = new ResourceWeightedShedder();
+        blockedShedder.update(true, blockedNodes);
+
+        assertEquals(shedder.getShedProbability("expensive"), blockedShedder.getShedProbability("expensive"), 0.001);
+        assertEquals(0, blockedShedder.getShedProbability("cheap"), 0.001);
+    }
+
+    @Test
+    public void testKeepCostOfShedResource() {
+        setCurrentMillis(100_000);
+        ResourceWeightedShedder shedder = new ResourceWeightedShedder();
+        ResourceWeightedShedder idleShedder = new ResourceWeightedShedder();
+        Map<ResourceWrapper, ClusterNode> nodes = new HashMap<>();
+        addResource(nodes, "expensive", EntryType.IN, 100, 10);
+        addResource(nodes, "cheap", EntryType.IN, 20, 10);
+        shedder.update(true, nodes);
+        idleShedder.update(true, nodes);
+        assertTrue(shedder.getShedProbability("expensive") > 0);
+
+        // Requests of the expensive resource are shed in the next second, and only a few pass.
+        int rejected = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (!shedder.tryPass("expensive")) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+        sleep(1000);
+        nodes.clear();
+        addResource(nodes, "expensive", EntryType.IN, 100, 1);
+        addResource(nodes, "cheap", EntryType.IN, 20, 10);
+        shedder.update(true, nodes);
+        idleShedder.update(true, nodes);
+
+        // The shed requests still count in the cost of the resource, so it is still shed first.
+        assertTrue(shedder.getShedProbability("expensive") > 0);
+        assertEquals(0, shedder.getShedProbability("cheap"), 0.001);
+        // Without counting them, the resource would look cheaper than the other one.
+        assertTrue(idleShedder.getShedProbability("cheap") > 0);
+    }
+
+    private void updateEverySecond(ResourceWeightedShedder shedder, boolean overloaded, int times) {
+        for (int i = 0; i < times; i++) {
+            sleep(1000);
+            shedder.update(overloaded, threeResources());
+        }
+    }
+
+    private Map<ResourceWrapper, ClusterNode> threeResources() {
+        Map<ResourceWrapper, ClusterNode> nodes = new HashMap<>();
+        // Costs (RT x QPS): 1000 and 100, the outbound resource is never shed.
+        addResource(nodes, "expensive", EntryType.IN, 100, 10);
+        addResource(nodes, "cheap", EntryType.IN, 10, 10);
+        addResource(nodes, "outbound", EntryType.OUT, 1000, 10);
+        return nodes;
+    }
+
+    private ClusterNode addResource(Map<ResourceWrapper, ClusterNode> nodes, String name, EntryType type,
+                                    long rt, int count) {
+        ClusterNode node = new ClusterNode(name);
+        for (int i = 0; i < count; i++) {
+            node.addPassRequest(1);
+            node.addRtAndSuccess(rt, 1);
+        }
+        nodes.put(new StringResourceWrapper(name, type), node);
+        return node;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 
 import org.junit.After;
 import org.junit.Before;
@@ -65,6 +66,20 @@ public class SystemRuleManagerTest {
         assertEquals(50, SystemRuleManager.getRtThreshold());
     }
 
+    @Test
+    public void testLoadCgroupRules() {
+        SystemRule rule1 = new SystemRule();
+        rule1.setHighestCpuThrottledRatio(0.3d);
+        SystemRule rule2 = new SystemRule();
+        rule2.setHighestMemoryPressure(0.1d);
+        SystemRule rule3 = new SystemRule();
+        rule3.setHighestMemoryPressure(1.5d);
+        SystemRuleManager.loadRules(Arrays.asList(rule3, rule1, rule2));
+        assertEquals(0.3d, SystemRuleManager.getCpuThrottledRatioThreshold(), 0.01);
+        assertEquals(0.1d, SystemRuleManager.getMemoryPressureThreshold(), 0.01);
+        assertEquals(2, SystemRuleManager.getRules().size());
+    }
+
     @Test
     public void testLoadDuplicateTypeOfRules() {
         SystemRule rule1 = new SystemRule();
@@ -100,6 +115,30 @@ public class SystemRuleManagerTest {
         assertTrue("The entry should be blocked under SystemRule maxCpuUsage=0", blocked);
     }
 
+    @Test
+    public void testCheckMaxCpuUsageResourceWeighted() throws Exception {
+        SystemRule rule1 = new SystemRule();
+        rule1.setHighestCpuUsage(0d);
+        rule1.setStrategy(RuleConstant.SYSTEM_STRATEGY_RESOURCE_WEIGHTED);
+        SystemRule rule2 = new SystemRule();
+        rule2.setQps(1000);
+        SystemRuleManager.loadRules(Arrays.asList(rule1, rule2));
+
+        for (SystemRule rule : SystemRuleManager.getRules()) {
+            int expected = rule.getHighestCpuUsage() >= 0 ? RuleConstant.SYSTEM_STRATEGY_RESOURCE_WEIGHTED
+                : RuleConstant.SYSTEM_STRATEGY_GLOBAL;
+            assertEquals(expected, rule.getStrategy());
+        }
+
+        // Wait until SystemStatusListener triggered the first CPU usage collecting.
+        Thread.sleep(1500);
+
+        // Only the resources that cost most are shed, rather than all inbound traffic.
+        String resource = "testCheckMaxCpuUsageResourceWeighted";
+        SystemRuleManager.checkSystem(new StringResourceWrapper(resource, EntryType.IN), 1);
+        assertEquals(0, SystemRuleManager.getResourceShedProbability(resource), 0.01);
+    }
+
     @Before
     public void setUp() throws Exception {
         SystemRuleManager.loadRules(new ArrayList<SystemRule>());
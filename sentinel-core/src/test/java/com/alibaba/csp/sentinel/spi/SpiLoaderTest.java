@@ -22,6 +22,7 @@ import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.SlotChainBuilder;
 import com.alibaba.csp.sentinel.slots.DefaultSlotChainBuilder;
 import com.alibaba.csp.sentinel.slots.block.authority.AuthoritySlot;
+import com.alibaba.csp.sentinel.slots.block.concurrency.ConcurrencyLimitSlot;
 import com.alibaba.csp.sentinel.slots.block.degrade.DefaultCircuitBreakerSlot;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeSlot;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
@@ -100,12 +101,13 @@ public class SpiLoaderTest {
         prototypeSlotClasses.add(NodeSelectorSlot.class);
         prototypeSlotClasses.add(ClusterBuilderSlot.class);
 
-        List<Class<? extends ProcessorSlot>> singletonSlotClasses = new ArrayList<>(7);
+        List<Class<? extends ProcessorSlot>> singletonSlotClasses = new ArrayList<>(8);
         singletonSlotClasses.add(LogSlot.class);
         singletonSlotClasses.add(StatisticSlot.class);
         singletonSlotClasses.add(AuthoritySlot.class);
         singletonSlotClasses.add(SystemSlot.class);
         singletonSlotClasses.add(FlowSlot.class);
+        singletonSlotClasses.add(ConcurrencyLimitSlot.class);
         singletonSlotClasses.add(DegradeSlot.class);
         singletonSlotClasses.add(DefaultCircuitBreakerSlot.class);
 
@@ -150,8 +152,8 @@ public class SpiLoaderTest {
         List<ProcessorSlot> sortedSlots = SpiLoader.of(ProcessorSlot.class).loadInstanceListSorted();
         assertNotNull(sortedSlots);
 
-        // Total 8 default slot in sentinel-core
-        assertEquals(9, sortedSlots.size());
+        // Total 10 default slot in sentinel-core
+        assertEquals(10, sortedSlots.size());
 
         // Verify the order of slot
         int index = 0;
@@ -162,6 +164,7 @@ public class SpiLoaderTest {
         assertTrue(sortedSlots.get(index++) instanceof AuthoritySlot);
         assertTrue(sortedSlots.get(index++) instanceof SystemSlot);
         assertTrue(sortedSlots.get(index++) instanceof FlowSlot);
+        assertTrue(sortedSlots.get(index++) instanceof ConcurrencyLimitSlot);
         assertTrue(sortedSlots.get(index++) instanceof DefaultCircuitBreakerSlot);
         assertTrue(sortedSlots.get(index++) instanceof DegradeSlot);
     }
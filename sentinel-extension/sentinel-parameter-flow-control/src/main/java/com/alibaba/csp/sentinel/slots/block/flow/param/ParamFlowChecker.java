@@ -16,10 +16,10 @@
 package com.alibaba.csp.sentinel.slots.block.flow.param;
 
 import java.lang.reflect.Array;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -84,6 +84,24 @@ public final class ParamFlowChecker {
                         return false;
                     }
                 }
+            } else if (value instanceof long[]) {
+                ParamFlowLongCounters longCounters = getLongCounters(resourceWrapper, rule);
+                for (long param : (long[])value) {
+                    boolean pass = longCounters != null ? passLongValueCheck(longCounters, rule, count, param)
+                        : passSingleValueCheck(resourceWrapper, rule, count, param);
+                    if (!pass) {
+                        return false;
+                    }
+                }
+            } else if (value instanceof int[]) {
+                ParamFlowLongCounters longCounters = getLongCounters(resourceWrapper, rule);
+                for (int param : (int[])value) {
+                    boolean pass = longCounters != null ? passLongValueCheck(longCounters, rule, count, param)
+                        : passSingleValueCheck(resourceWrapper, rule, count, param);
+                    if (!pass) {
+                        return false;
+                    }
+                }
             } else if (value.getClass().isArray()) {
                 int length = Array.getLength(value);
                 for (int i = 0; i < length; i++) {
@@ -105,7 +123,9 @@ public final class ParamFlowChecker {
     static boolean passSingleValueCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                         Object value) {
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
-            if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
+            if (ParamFlowRuleUtil.isSketchRule(rule)) {
+                return passSketchLocalCheck(resourceWrapper, rule, acquireCount, value);
+            } else if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
                 return passThrottleLocalCheck(resourceWrapper, rule, acquireCount, value);
             } else {
                 return passDefaultLocalCheck(resourceWrapper, rule, acquireCount, value);
@@ -124,6 +144,31 @@ public final class ParamFlowChecker {
         return true;
     }
 
+    static boolean passSketchLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
+                                        Object value) {
+        ParameterMetric metric = getParameterMetric(resourceWrapper);
+        ParamFlowSketch sketch = metric == null ? null : metric.getRuleSketch(rule);
+        if (sketch == null) {
+            return true;
+        }
+
+        Set<Object> exclusionItems = rule.getParsedHotItems().keySet();
+        long tokenCount = (long)rule.getCount();
+        if (exclusionItems.contains(value)) {
+            tokenCount = rule.getParsedHotItems().get(value);
+        }
+
+        if (tokenCount == 0) {
+            return false;
+        }
+
+        long maxCount = tokenCount + rule.getBurstCount();
+        if (acquireCount > maxCount) {
+            return false;
+        }
+        return sketch.tryAcquire(value, maxCount, acquireCount, TimeUtil.currentTimeMillis());
+    }
+
     static boolean passDefaultLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                          Object value) {
         ParameterMetric metric = getParameterMetric(resourceWrapper);
@@ -141,6 +186,11 @@ public final class ParamFlowChecker {
             tokenCount = rule.getParsedHotItems().get(value);
         }
 
+        ParamFlowLongCounters longCounters = metric.getRuleLongCounters(rule);
+        if (longCounters != null && isLongValue(value)) {
+            return passDefaultLongValueCheck(longCounters, rule, tokenCount, acquireCount, ((Number)value).longValue());
+        }
+
         if (tokenCount == 0) {
             return false;
         }
@@ -153,7 +203,11 @@ public final class ParamFlowChecker {
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
 
-            AtomicLong lastAddTokenTime = timeCounters.putIfAbsent(value, new AtomicLong(currentTime));
+            // Look up first, so that no counter is created when the value is present.
+            AtomicLong lastAddTokenTime = timeCounters.get(value);
+            if (lastAddTokenTime == null) {
+                lastAddTokenTime = timeCounters.putIfAbsent(value, new AtomicLong(currentTime));
+            }
             if (lastAddTokenTime == null) {
                 // Token never added, just replenish the tokens and consume {@code acquireCount} immediately.
                 tokenCounters.putIfAbsent(value, new AtomicLong(maxCount - acquireCount));
@@ -164,7 +218,10 @@ public final class ParamFlowChecker {
             long passTime = currentTime - lastAddTokenTime.get();
             // A simplified token bucket algorithm that will replenish the tokens only when statistic window has passed.
             if (passTime > rule.getDurationInSec() * 1000) {
-                AtomicLong oldQps = tokenCounters.putIfAbsent(value, new AtomicLong(maxCount - acquireCount));
+                AtomicLong oldQps = tokenCounters.get(value);
+                if (oldQps == null) {
+                    oldQps = tokenCounters.putIfAbsent(value, new AtomicLong(maxCount - acquireCount));
+                }
                 if (oldQps == null) {
                     // Might not be accurate here.
                     lastAddTokenTime.set(currentTime);
@@ -216,6 +273,12 @@ public final class ParamFlowChecker {
             tokenCount = rule.getParsedHotItems().get(value);
         }
 
+        ParamFlowLongCounters longCounters = metric.getRuleLongCounters(rule);
+        if (longCounters != null && isLongValue(value)) {
+            return passThrottleLongValueCheck(longCounters, rule, tokenCount, acquireCount,
+                ((Number)value).longValue());
+        }
+
         if (tokenCount == 0) {
             return false;
         }
@@ -223,9 +286,12 @@ public final class ParamFlowChecker {
         long costTime = Math.round(1.0 * 1000 * acquireCount * rule.getDurationInSec() / tokenCount);
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
-            AtomicLong timeRecorder = timeRecorderMap.putIfAbsent(value, new AtomicLong(currentTime));
+            AtomicLong timeRecorder = timeRecorderMap.get(value);
             if (timeRecorder == null) {
-                return true;
+                timeRecorder = timeRecorderMap.putIfAbsent(value, new AtomicLong(currentTime));
+                if (timeRecorder == null) {
+                    return true;
+                }
             }
             //AtomicLong timeRecorder = timeRecorderMap.get(value);
             long lastPassTime = timeRecorder.get();
@@ -237,11 +303,7 @@ public final class ParamFlowChecker {
                     long waitTime = expectedTime - currentTime;
                     if (waitTime > 0) {
                         lastPastTimeRef.set(expectedTime);
-                        try {
-                            TimeUnit.MILLISECONDS.sleep(waitTime);
-                        } catch (InterruptedException e) {
-                            RecordLog.warn("passThrottleLocalCheck: wait interrupted", e);
-                        }
+                        waitForQueueing(waitTime);
                     }
                     return true;
                 } else {
@@ -253,6 +315,73 @@ public final class ParamFlowChecker {
         }
     }
 
+    private static boolean isLongValue(Object value) {
+        return value instanceof Long || value instanceof Integer;
+    }
+
+    /**
+     * Get the counters of numeric values of the rule, if the numeric values could be checked without being boxed
+     * (i.e. the rule is a QPS rule without hot items).
+     */
+    private static ParamFlowLongCounters getLongCounters(ResourceWrapper resourceWrapper, ParamFlowRule rule) {
+        if (rule.getGrade() != RuleConstant.FLOW_GRADE_QPS || ParamFlowRuleUtil.isSketchRule(rule)
+            || !rule.getParsedHotItems().isEmpty()) {
+            return null;
+        }
+        ParameterMetric metric = getParameterMetric(resourceWrapper);
+        return metric == null ? null : metric.getRuleLongCounters(rule);
+    }
+
+    private static boolean passLongValueCheck(ParamFlowLongCounters longCounters, ParamFlowRule rule,
+                                              int acquireCount, long value) {
+        long tokenCount = (long)rule.getCount();
+        if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
+            return passThrottleLongValueCheck(longCounters, rule, tokenCount, acquireCount, value);
+        } else {
+            return passDefaultLongValueCheck(longCounters, rule, tokenCount, acquireCount, value);
+        }
+    }
+
+    private static boolean passDefaultLongValueCheck(ParamFlowLongCounters longCounters, ParamFlowRule rule,
+                                                     long tokenCount, int acquireCount, long value) {
+        if (tokenCount == 0) {
+            return false;
+        }
+
+        long maxCount = tokenCount + rule.getBurstCount();
+        if (acquireCount > maxCount) {
+            return false;
+        }
+        return longCounters.tryAcquireToken(value, tokenCount, maxCount, acquireCount,
+            rule.getDurationInSec() * 1000, TimeUtil.currentTimeMillis());
+    }
+
+    private static boolean passThrottleLongValueCheck(ParamFlowLongCounters longCounters, ParamFlowRule rule,
+                                                      long tokenCount, int acquireCount, long value) {
+        if (tokenCount == 0) {
+            return false;
+        }
+
+        long costTime = Math.round(1.0 * 1000 * acquireCount * rule.getDurationInSec() / tokenCount);
+        long waitTime = longCounters.tryAcquireThrottle(value, costTime, rule.getMaxQueueingTimeMs(),
+            TimeUtil.currentTimeMillis());
+        if (waitTime < 0) {
+            return false;
+        }
+        if (waitTime > 0) {
+            waitForQueueing(waitTime);
+        }
+        return true;
+    }
+
+    private static void waitForQueueing(long waitTime) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(waitTime);
+        } catch (InterruptedException e) {
+            RecordLog.warn("passThrottleLocalCheck: wait interrupted", e);
+        }
+    }
+
     private static ParameterMetric getParameterMetric(ResourceWrapper resourceWrapper) {
         // Should not be null.
         return ParameterMetricStorage.getParamMetric(resourceWrapper);
@@ -262,14 +391,22 @@ public final class ParamFlowChecker {
     private static Collection<Object> toCollection(Object value) {
         if (value instanceof Collection) {
             return (Collection<Object>)value;
+        } else if (value instanceof Object[]) {
+            return Arrays.asList((Object[])value);
         } else if (value.getClass().isArray()) {
-            List<Object> params = new ArrayList<Object>();
-            int length = Array.getLength(value);
-            for (int i = 0; i < length; i++) {
-                Object param = Array.get(value, i);
-                params.add(param);
-            }
-            return params;
+            // A view of the primitive array rather than a copy.
+            final Object array = value;
+            return new AbstractList<Object>() {
+                @Override
+                public Object get(int index) {
+                    return Array.get(array, index);
+                }
+
+                @Override
+                public int size() {
+                    return Array.getLength(array);
+                }
+            };
         } else {
             return Collections.singletonList(value);
         }
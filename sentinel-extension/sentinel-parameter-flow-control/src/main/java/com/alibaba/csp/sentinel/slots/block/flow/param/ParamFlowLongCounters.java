@@ -0,0 +1,298 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Counters of numeric parameter values of a QPS rule, keyed by the primitive value.</p>
+ * <p>
+ * The state of each value (last time and tokens) is kept in primitive arrays of open-addressing tables,
+ * so checking a value neither boxes it nor allocates counters. The tables grow on demand up to the max size,
+ * after which the least recently accessed value among a few sampled ones is evicted, like the LRU
+ * eviction of the boxed counters. Each table is guarded by its own lock.
+ * </p>
+ * <p>
+ * Note that {@link Integer} and {@link Long} values of the same number share the same counter.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public final class ParamFlowLongCounters {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int SEGMENT_SHIFT = 60;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+    private static final int EVICTION_SAMPLES = 8;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    /**
+     * @param maxSize max amount of values to keep
+     */
+    public ParamFlowLongCounters(long maxSize) {
+        AssertUtil.isTrue(maxSize > 0, "max size should be positive");
+        int segmentMaxSize = (int)Math.max(1, (maxSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentMaxSize);
+        }
+    }
+
+    /**
+     * Try to acquire tokens of the value, with the same token bucket as
+     * {@link ParamFlowChecker#passDefaultLocalCheck}.
+     *
+     * @param value        the parameter value
+     * @param tokenCount   tokens added per duration
+     * @param maxCount     max tokens of the value
+     * @param acquireCount tokens to acquire
+     * @param durationMs   duration of the rule in milliseconds
+     * @param currentTime  current time in milliseconds
+     * @return whether the tokens are acquired
+     */
+    public boolean tryAcquireToken(long value, long tokenCount, long maxCount, int acquireCount, long durationMs,
+                                   long currentTime) {
+        long hash = hash(value);
+        return segmentFor(hash).tryAcquireToken(value, hash, tokenCount, maxCount, acquireCount, durationMs,
+            currentTime);
+    }
+
+    /**
+     * Try to reserve the next pass time of the value, with the same leaky bucket as
+     * {@link ParamFlowChecker#passThrottleLocalCheck}.
+     *
+     * @param value             the parameter value
+     * @param costTime          interval between two passes in milliseconds
+     * @param maxQueueingTimeMs max queueing time in milliseconds
+     * @param currentTime       current time in milliseconds
+     * @return time to wait before passing in milliseconds, or -1 if the value is blocked
+     */
+    public long tryAcquireThrottle(long value, long costTime, long maxQueueingTimeMs, long currentTime) {
+        long hash = hash(value);
+        return segmentFor(hash).tryAcquireThrottle(value, hash, costTime, maxQueueingTimeMs, currentTime);
+    }
+
+    /**
+     * @return amount of values kept
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int)(hash >>> SEGMENT_SHIFT)];
+    }
+
+    private static long hash(long value) {
+        // The finalizer of MurmurHash3.
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int tableSizeFor(int size) {
+        // Keep the load factor no more than 0.75.
+        int n = size + size / 3 + 1;
+        return n <= 2 ? 2 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static final class Segment {
+
+        private final int maxSize;
+        private final int maxCapacity;
+
+        private boolean[] used;
+        private long[] keys;
+        private long[] times;
+        private long[] tokens;
+        private long[] accessTimes;
+        private int size;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+            this.maxCapacity = tableSizeFor(maxSize);
+            allocate(Math.min(INITIAL_SEGMENT_CAPACITY, maxCapacity));
+        }
+
+        synchronized boolean tryAcquireToken(long key, long hash, long tokenCount, long maxCount, int acquireCount,
+                                             long durationMs, long currentTime) {
+            int slot = find(key, hash);
+            if (slot < 0) {
+                // Token never added, just replenish the tokens and consume {@code acquireCount} immediately.
+                slot = insert(key, hash, currentTime);
+                times[slot] = currentTime;
+                tokens[slot] = maxCount - acquireCount;
+                return true;
+            }
+            accessTimes[slot] = currentTime;
+
+            long passTime = currentTime - times[slot];
+            if (passTime > durationMs) {
+                long restQps = tokens[slot];
+                long toAddCount = (passTime * tokenCount) / durationMs;
+                long newQps = toAddCount + restQps > maxCount ? (maxCount - acquireCount)
+                    : (restQps + toAddCount - acquireCount);
+                if (newQps < 0) {
+                    return false;
+                }
+                tokens[slot] = newQps;
+                times[slot] = currentTime;
+                return true;
+            }
+            if (tokens[slot] - acquireCount >= 0) {
+                tokens[slot] -= acquireCount;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized long tryAcquireThrottle(long key, long hash, long costTime, long maxQueueingTimeMs,
+                                             long currentTime) {
+            int slot = find(key, hash);
+            if (slot < 0) {
+                slot = insert(key, hash, currentTime);
+                times[slot] = currentTime;
+                return 0;
+            }
+            accessTimes[slot] = currentTime;
+
+            long expectedTime = times[slot] + costTime;
+            if (expectedTime <= currentTime || expectedTime - currentTime < maxQueueingTimeMs) {
+                long waitTime = expectedTime - currentTime;
+                times[slot] = waitTime > 0 ? expectedTime : currentTime;
+                return Math.max(waitTime, 0);
+            }
+            return -1;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private int find(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int i = (int)hash & mask; used[i]; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int insert(long key, long hash, long currentTime) {
+            if (size >= maxSize) {
+                evictOne(hash);
+            } else if (size + 1 > keys.length / 4 * 3 && keys.length < maxCapacity) {
+                resize(keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int i = (int)hash & mask;
+            while (used[i]) {
+                i = (i + 1) & mask;
+            }
+            used[i] = true;
+            keys[i] = key;
+            times[i] = 0;
+            tokens[i] = 0;
+            accessTimes[i] = currentTime;
+            size++;
+            return i;
+        }
+
+        /**
+         * Evict the least recently accessed value among the first few values from the home slot.
+         */
+        private void evictOne(long hash) {
+            int mask = keys.length - 1;
+            int victim = -1;
+            int samples = Math.min(EVICTION_SAMPLES, size);
+            int sampled = 0;
+            for (int i = (int)hash & mask; sampled < samples; i = (i + 1) & mask) {
+                if (!used[i]) {
+                    continue;
+                }
+                if (victim < 0 || accessTimes[i] < accessTimes[victim]) {
+                    victim = i;
+                }
+                sampled++;
+            }
+            removeAt(victim);
+        }
+
+        /**
+         * Remove the entry in the slot, shifting following entries of the probe sequence backwards,
+         * so that no tombstone is needed.
+         */
+        private void removeAt(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            for (int i = (hole + 1) & mask; used[i]; i = (i + 1) & mask) {
+                int home = (int)hash(keys[i]) & mask;
+                // Move the entry to the hole unless its home slot is cyclically within (hole, i].
+                boolean stays = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+                if (!stays) {
+                    keys[hole] = keys[i];
+                    times[hole] = times[i];
+                    tokens[hole] = tokens[i];
+                    accessTimes[hole] = accessTimes[i];
+                    hole = i;
+                }
+            }
+            used[hole] = false;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            boolean[] oldUsed = used;
+            long[] oldKeys = keys;
+            long[] oldTimes = times;
+            long[] oldTokens = tokens;
+            long[] oldAccessTimes = accessTimes;
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (!oldUsed[j]) {
+                    continue;
+                }
+                int i = (int)hash(oldKeys[j]) & mask;
+                while (used[i]) {
+                    i = (i + 1) & mask;
+                }
+                used[i] = true;
+                keys[i] = oldKeys[j];
+                times[i] = oldTimes[j];
+                tokens[i] = oldTokens[j];
+                accessTimes[i] = oldAccessTimes[j];
+            }
+        }
+
+        private void allocate(int capacity) {
+            used = new boolean[capacity];
+            keys = new long[capacity];
+            times = new long[capacity];
+            tokens = new long[capacity];
+            accessTimes = new long[capacity];
+        }
+    }
+}
@@ -33,6 +33,8 @@ import com.alibaba.csp.sentinel.slots.block.RuleConstant;
  */
 public class ParamFlowRule extends AbstractRule {
 
+    public static final int DEFAULT_SKETCH_HOT_KEY_COUNT = 64;
+
     public ParamFlowRule() {}
 
     public ParamFlowRule(String resourceName) {
@@ -82,6 +84,18 @@ public class ParamFlowRule extends AbstractRule {
      */
     private ParamFlowClusterConfig clusterConfig;
 
+    /**
+     * Whether to count parameter values in a fixed-size sketch instead of one counter per value, so that
+     * memory of the rule does not grow with the cardinality of the parameter. Only applies to QPS rules
+     * with the default control behavior (since 2.0.0).
+     */
+    private boolean sketchMode = false;
+
+    /**
+     * Amount of the hottest values that are counted exactly in sketch mode (since 2.0.0).
+     */
+    private int sketchHotKeyCount = DEFAULT_SKETCH_HOT_KEY_COUNT;
+
     public int getControlBehavior() {
         return controlBehavior;
     }
@@ -188,6 +202,24 @@ public class ParamFlowRule extends AbstractRule {
         return this;
     }
 
+    public boolean isSketchMode() {
+        return sketchMode;
+    }
+
+    public ParamFlowRule setSketchMode(boolean sketchMode) {
+        this.sketchMode = sketchMode;
+        return this;
+    }
+
+    public int getSketchHotKeyCount() {
+        return sketchHotKeyCount;
+    }
+
+    public ParamFlowRule setSketchHotKeyCount(int sketchHotKeyCount) {
+        this.sketchHotKeyCount = sketchHotKeyCount;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -203,6 +235,8 @@ public class ParamFlowRule extends AbstractRule {
         if (burstCount != that.burstCount) { return false; }
         if (durationInSec != that.durationInSec) { return false; }
         if (clusterMode != that.clusterMode) { return false; }
+        if (sketchMode != that.sketchMode) { return false; }
+        if (sketchHotKeyCount != that.sketchHotKeyCount) { return false; }
         if (!Objects.equals(paramIdx, that.paramIdx)) { return false; }
         if (!Objects.equals(paramFlowItemList, that.paramFlowItemList)) { return false; }
         return Objects.equals(clusterConfig, that.clusterConfig);
@@ -223,6 +257,8 @@ public class ParamFlowRule extends AbstractRule {
         result = 31 * result + (paramFlowItemList != null ? paramFlowItemList.hashCode() : 0);
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
+        result = 31 * result + (sketchMode ? 1 : 0);
+        result = 31 * result + sketchHotKeyCount;
         return result;
     }
 
@@ -239,6 +275,8 @@ public class ParamFlowRule extends AbstractRule {
             ", paramFlowItemList=" + paramFlowItemList +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
+            ", sketchMode=" + sketchMode +
+            ", sketchHotKeyCount=" + sketchHotKeyCount +
             '}';
     }
 }
@@ -48,9 +48,22 @@ public final class ParamFlowRuleUtil {
             && rule.getGrade() >= 0 && rule.getParamIdx() != null
             && rule.getBurstCount() >= 0 && rule.getControlBehavior() >= 0
             && rule.getDurationInSec() > 0 && rule.getMaxQueueingTimeMs() >= 0
+            && (!rule.isSketchMode() || rule.getSketchHotKeyCount() > 0)
             && checkCluster(rule);
     }
 
+    /**
+     * Check whether parameter values of the rule are counted in a sketch (see {@link ParamFlowSketch}).
+     *
+     * @param rule valid parameter rule
+     * @return whether the rule is checked via a sketch
+     * @since 2.0.0
+     */
+    static boolean isSketchRule(/*@Valid*/ ParamFlowRule rule) {
+        return rule.isSketchMode() && rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
+    }
+
     private static boolean checkCluster(/*@PreChecked*/ ParamFlowRule rule) {
         if (!rule.isClusterMode()) {
             return true;
@@ -0,0 +1,300 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Fixed-size counters of the parameter values of a rule in sketch mode.</p>
+ * <p>
+ * Counts of all values within the current window (of {@code durationInSec}) are kept in a count-min sketch,
+ * which never underestimates a value, so the rule is never looser than exact counting. Values whose count gets
+ * close to the threshold are promoted to a small table of exact counters, so the hot values that are actually
+ * limited are counted precisely. When the table is full, a value only replaces the coldest entry whose count is
+ * lower than its own, so a flood of distinct values could not evict the hot values.
+ * </p>
+ * <p>
+ * Concurrent acquires never lose an increment: the threshold is checked and the sketch is raised in one CAS loop,
+ * which starts over if any row of the value changed since it was read. An exact counter is seeded from the sketch
+ * only after it is published, and acquires counted in the sketch meanwhile are added to it as well, so a value
+ * might be overcounted (never undercounted) around its promotion.
+ * </p>
+ * <p>
+ * Unlike the per-value token buckets, counts are reset at the end of each window, and updates racing with
+ * the reset might be lost.
+ * </p>
+ *
+ * @since 2.0.0
+ */
+public final class ParamFlowSketch {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 2048;
+    private static final int ROW_BITS = 16;
+
+    private final long windowMs;
+    private final int hotKeyCount;
+
+    private final AtomicLongArray counts = new AtomicLongArray(DEPTH * WIDTH);
+    private final AtomicLong windowStart;
+    private final Map<Object, HotCounter> hotCounters = new ConcurrentHashMap<>();
+
+    /**
+     * @param windowMs    length of the counting window in milliseconds
+     * @param hotKeyCount max amount of values counted exactly
+     * @param currentTime current time in milliseconds
+     */
+    public ParamFlowSketch(long windowMs, int hotKeyCount, long currentTime) {
+        AssertUtil.isTrue(windowMs > 0, "window length should be positive");
+        AssertUtil.isTrue(hotKeyCount > 0, "hot key count should be positive");
+        this.windowMs = windowMs;
+        this.hotKeyCount = hotKeyCount;
+        this.windowStart = new AtomicLong(currentTime);
+    }
+
+    /**
+     * Try to count {@code acquireCount} for the value in the current window.
+     *
+     * @param value        the parameter value
+     * @param maxCount     max count of the value within a window
+     * @param acquireCount count to acquire
+     * @param currentTime  current time in milliseconds
+     * @return whether the count is acquired
+     */
+    public boolean tryAcquire(Object value, long maxCount, int acquireCount, long currentTime) {
+        rotate(currentTime);
+        long hash = hash(value);
+        HotCounter hot = hotCounters.get(value);
+        if (hot != null && hot.ready) {
+            if (!hot.tryAcquire(maxCount, acquireCount, currentTime)) {
+                return false;
+            }
+            // Keep counting in the sketch too, so the value keeps its count if it is replaced in the table.
+            tryAdd(hash, acquireCount, Long.MAX_VALUE);
+            return true;
+        }
+        long estimate = tryAdd(hash, acquireCount, maxCount);
+        if (estimate < 0) {
+            promote(value, hash, estimate(hash), maxCount, currentTime);
+            return false;
+        }
+        hot = hotCounters.get(value);
+        if (hot != null) {
+            // Promoted meanwhile, the exact counter might have been seeded before this acquire was counted.
+            hot.add(acquireCount, currentTime);
+        } else {
+            promote(value, hash, estimate, maxCount, currentTime);
+        }
+        return true;
+    }
+
+    /**
+     * Get the count of the value in the current window, which might be overestimated if the value
+     * is not counted exactly.
+     *
+     * @param value       the parameter value
+     * @param currentTime current time in milliseconds
+     * @return estimated count of the value
+     */
+    public long estimateCount(Object value, long currentTime) {
+        rotate(currentTime);
+        HotCounter hot = hotCounters.get(value);
+        if (hot != null && hot.ready) {
+            return hot.get(currentTime);
+        }
+        return estimate(hash(value));
+    }
+
+    /**
+     * @return amount of values counted exactly
+     */
+    public int getHotKeySize() {
+        return hotCounters.size();
+    }
+
+    boolean isHotKey(Object value) {
+        return hotCounters.containsKey(value);
+    }
+
+    private void rotate(long currentTime) {
+        long start = windowStart.get();
+        if (currentTime - start < windowMs) {
+            return;
+        }
+        long newStart = currentTime - (currentTime - start) % windowMs;
+        if (windowStart.compareAndSet(start, newStart)) {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Promote the value to an exact counter if it is close to the threshold and hotter than the coldest
+     * exact counter.
+     */
+    private void promote(Object value, long hash, long count, long maxCount, long currentTime) {
+        if (count * 2 < maxCount) {
+            return;
+        }
+        if (hotCounters.size() < hotKeyCount) {
+            publish(value, hash, currentTime);
+            return;
+        }
+        Object coldestKey = null;
+        HotCounter coldest = null;
+        long coldestCount = Long.MAX_VALUE;
+        for (Map.Entry<Object, HotCounter> e : hotCounters.entrySet()) {
+            long c = e.getValue().get(currentTime);
+            if (c < coldestCount) {
+                coldestKey = e.getKey();
+                coldest = e.getValue();
+                coldestCount = c;
+            }
+        }
+        if (coldest != null && coldestCount < count && hotCounters.remove(coldestKey, coldest)) {
+            publish(value, hash, currentTime);
+        }
+    }
+
+    /**
+     * Publish an exact counter of the value, then seed it with the count in the sketch. Acquires counted in
+     * the sketch after the seed is read find the published counter and add themselves to it.
+     */
+    private void publish(Object value, long hash, long currentTime) {
+        HotCounter hot = new HotCounter(currentTime);
+        if (hotCounters.putIfAbsent(value, hot) == null) {
+            hot.add(estimate(hash), currentTime);
+            hot.ready = true;
+        }
+    }
+
+    private long estimate(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counts.get(indexOf(hash, row)));
+        }
+        return min;
+    }
+
+    /**
+     * Add the count with conservative update if the estimate of the value would not exceed {@code maxCount}:
+     * rows are only raised up to the new estimate of the value, which keeps the overestimation of other values
+     * lower than incrementing every row.
+     * <p>
+     * Each row is raised by CAS from the value read along with the estimate. If any row changed meanwhile,
+     * the estimate is read again, so an increment of a concurrent acquire is never overwritten.
+     * Rows raised before the retry are only overestimated.
+     * </p>
+     *
+     * @return new estimate of the value, or -1 if it would exceed {@code maxCount}
+     */
+    private long tryAdd(long hash, int count, long maxCount) {
+        long[] seen = new long[DEPTH];
+        while (true) {
+            long min = Long.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                seen[row] = counts.get(indexOf(hash, row));
+                min = Math.min(min, seen[row]);
+            }
+            if (min + count > maxCount) {
+                return -1;
+            }
+            long target = min + count;
+            if (raise(hash, seen, target)) {
+                return target;
+            }
+        }
+    }
+
+    private boolean raise(long hash, long[] seen, long target) {
+        for (int row = 0; row < DEPTH; row++) {
+            if (seen[row] < target && !counts.compareAndSet(indexOf(hash, row), seen[row], target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(long hash, int row) {
+        return row * WIDTH + ((int)(hash >>> (row * ROW_BITS)) & (WIDTH - 1));
+    }
+
+    private static long hash(Object value) {
+        // The finalizer of MurmurHash3, so that each 16 bits of the hash could index a row.
+        long h = value.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class HotCounter {
+        private final AtomicLong count = new AtomicLong();
+        private volatile long start;
+        /**
+         * Whether the counter has been seeded with the count in the sketch, before which the sketch is checked.
+         */
+        private volatile boolean ready = false;
+
+        HotCounter(long currentTime) {
+            this.start = windowStart.get();
+            rotate(currentTime);
+        }
+
+        private void rotate(long currentTime) {
+            long s = start;
+            if (currentTime - s >= windowMs) {
+                synchronized (this) {
+                    if (start == s) {
+                        count.set(0);
+                        start = currentTime - (currentTime - s) % windowMs;
+                    }
+                }
+            }
+        }
+
+        void add(long n, long currentTime) {
+            rotate(currentTime);
+            count.addAndGet(n);
+        }
+
+        long get(long currentTime) {
+            rotate(currentTime);
+            return count.get();
+        }
+
+        boolean tryAcquire(long maxCount, int acquireCount, long currentTime) {
+            rotate(currentTime);
+            while (true) {
+                long c = count.get();
+                if (c + acquireCount > maxCount) {
+                    return false;
+                }
+                if (count.compareAndSet(c, c + acquireCount)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -23,8 +23,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
 import com.alibaba.csp.sentinel.slots.statistic.cache.ConcurrentLinkedHashMapWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Function;
 
 /**
  * Metrics for frequent ("hot spot") parameters.
@@ -38,6 +41,13 @@ public class ParameterMetric {
     private static final int BASE_PARAM_MAX_CAPACITY = 4000;
     private static final int TOTAL_MAX_CAPACITY = 20_0000;
 
+    private static final Function<Object, AtomicInteger> NEW_THREAD_COUNTER = new Function<Object, AtomicInteger>() {
+        @Override
+        public AtomicInteger apply(Object value) {
+            return new AtomicInteger();
+        }
+    };
+
     private final Object lock = new Object();
 
     /**
@@ -53,6 +63,18 @@ public class ParameterMetric {
      */
     private final Map<ParamFlowRule, CacheMap<Object, AtomicLong>> ruleTokenCounter = new HashMap<>();
     private final Map<Integer, CacheMap<Object, AtomicInteger>> threadCountMap = new HashMap<>();
+    /**
+     * Format: (rule, sketch), for rules in sketch mode only.
+     *
+     * @since 2.0.0
+     */
+    private final Map<ParamFlowRule, ParamFlowSketch> ruleSketches = new HashMap<>();
+    /**
+     * Format: (rule, counters of numeric values), for QPS rules not in sketch mode.
+     *
+     * @since 2.0.0
+     */
+    private final Map<ParamFlowRule, ParamFlowLongCounters> ruleLongCounters = new HashMap<>();
 
     /**
      * Get the token counter for given parameter rule.
@@ -76,11 +98,35 @@ public class ParameterMetric {
         return ruleTimeCounters.get(rule);
     }
 
+    /**
+     * Get the sketch for given parameter rule in sketch mode.
+     *
+     * @param rule valid parameter rule
+     * @return the associated sketch, or null if the rule is not in sketch mode
+     * @since 2.0.0
+     */
+    public ParamFlowSketch getRuleSketch(ParamFlowRule rule) {
+        return ruleSketches.get(rule);
+    }
+
+    /**
+     * Get the counters of numeric ({@link Integer} or {@link Long}) values for given parameter rule.
+     *
+     * @param rule valid parameter rule
+     * @return the associated counters, or null if numeric values are counted as other values
+     * @since 2.0.0
+     */
+    public ParamFlowLongCounters getRuleLongCounters(ParamFlowRule rule) {
+        return ruleLongCounters.get(rule);
+    }
+
     public void clear() {
         synchronized (lock) {
             threadCountMap.clear();
             ruleTimeCounters.clear();
             ruleTokenCounter.clear();
+            ruleSketches.clear();
+            ruleLongCounters.clear();
         }
     }
 
@@ -88,11 +134,38 @@ public class ParameterMetric {
         synchronized (lock) {
             ruleTimeCounters.remove(rule);
             ruleTokenCounter.remove(rule);
+            ruleSketches.remove(rule);
+            ruleLongCounters.remove(rule);
             threadCountMap.remove(rule.getParamIdx());
         }
     }
 
     public void initialize(ParamFlowRule rule) {
+        if (ParamFlowRuleUtil.isSketchRule(rule)) {
+            // Values of rules in sketch mode are counted in fixed-size sketches rather than token buckets.
+            if (!ruleSketches.containsKey(rule)) {
+                synchronized (lock) {
+                    if (ruleSketches.get(rule) == null) {
+                        ruleSketches.put(rule, new ParamFlowSketch(rule.getDurationInSec() * 1000,
+                            rule.getSketchHotKeyCount(), TimeUtil.currentTimeMillis()));
+                    }
+                }
+            }
+        } else {
+            initializeTokenCounters(rule);
+        }
+
+        if (!threadCountMap.containsKey(rule.getParamIdx())) {
+            synchronized (lock) {
+                if (threadCountMap.get(rule.getParamIdx()) == null) {
+                    threadCountMap.put(rule.getParamIdx(),
+                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
+                }
+            }
+        }
+    }
+
+    private void initializeTokenCounters(ParamFlowRule rule) {
         if (!ruleTimeCounters.containsKey(rule)) {
             synchronized (lock) {
                 if (ruleTimeCounters.get(rule) == null) {
@@ -111,11 +184,11 @@ public class ParameterMetric {
             }
         }
 
-        if (!threadCountMap.containsKey(rule.getParamIdx())) {
+        if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS && !ruleLongCounters.containsKey(rule)) {
             synchronized (lock) {
-                if (threadCountMap.get(rule.getParamIdx()) == null) {
-                    threadCountMap.put(rule.getParamIdx(),
-                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
+                if (ruleLongCounters.get(rule) == null) {
+                    long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
+                    ruleLongCounters.put(rule, new ParamFlowLongCounters(size));
                 }
             }
         }
@@ -141,7 +214,7 @@ public class ParameterMetric {
                 if (Collection.class.isAssignableFrom(arg.getClass())) {
 
                     for (Object value : ((Collection)arg)) {
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
+                        AtomicInteger oldValue = threadCount.get(value);
                         if (oldValue != null) {
                             int currentValue = oldValue.decrementAndGet();
                             if (currentValue <= 0) {
@@ -154,7 +227,7 @@ public class ParameterMetric {
                     int length = Array.getLength(arg);
                     for (int i = 0; i < length; i++) {
                         Object value = Array.get(arg, i);
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
+                        AtomicInteger oldValue = threadCount.get(value);
                         if (oldValue != null) {
                             int currentValue = oldValue.decrementAndGet();
                             if (currentValue <= 0) {
@@ -164,7 +237,7 @@ public class ParameterMetric {
 
                     }
                 } else {
-                    AtomicInteger oldValue = threadCount.putIfAbsent(arg, new AtomicInteger());
+                    AtomicInteger oldValue = threadCount.get(arg);
                     if (oldValue != null) {
                         int currentValue = oldValue.decrementAndGet();
                         if (currentValue <= 0) {
@@ -201,34 +274,16 @@ public class ParameterMetric {
 
                 if (Collection.class.isAssignableFrom(arg.getClass())) {
                     for (Object value : ((Collection)arg)) {
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            oldValue.incrementAndGet();
-                        } else {
-                            threadCount.put(value, new AtomicInteger(1));
-                        }
-
+                        threadCount.computeIfAbsent(value, NEW_THREAD_COUNTER).incrementAndGet();
                     }
                 } else if (arg.getClass().isArray()) {
                     int length = Array.getLength(arg);
                     for (int i = 0; i < length; i++) {
                         Object value = Array.get(arg, i);
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            oldValue.incrementAndGet();
-                        } else {
-                            threadCount.put(value, new AtomicInteger(1));
-                        }
-
+                        threadCount.computeIfAbsent(value, NEW_THREAD_COUNTER).incrementAndGet();
                     }
                 } else {
-                    AtomicInteger oldValue = threadCount.putIfAbsent(arg, new AtomicInteger());
-                    if (oldValue != null) {
-                        oldValue.incrementAndGet();
-                    } else {
-                        threadCount.put(arg, new AtomicInteger(1));
-                    }
-
+                    threadCount.computeIfAbsent(arg, NEW_THREAD_COUNTER).incrementAndGet();
                 }
 
             }
@@ -264,4 +319,12 @@ public class ParameterMetric {
     Map<ParamFlowRule, CacheMap<Object, AtomicLong>> getRuleTimeCounterMap() {
         return ruleTimeCounters;
     }
+
+    Map<ParamFlowRule, ParamFlowSketch> getRuleSketchMap() {
+        return ruleSketches;
+    }
+
+    Map<ParamFlowRule, ParamFlowLongCounters> getRuleLongCounterMap() {
+        return ruleLongCounters;
+    }
 }
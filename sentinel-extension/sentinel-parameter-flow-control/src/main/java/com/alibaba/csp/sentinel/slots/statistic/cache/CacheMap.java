@@ -17,6 +17,8 @@ package com.alibaba.csp.sentinel.slots.statistic.cache;
 
 import java.util.Set;
 
+import com.alibaba.csp.sentinel.util.function.Function;
+
 /**
  * A common cache map interface.
  *
@@ -37,6 +39,26 @@ public interface CacheMap<K, V> {
 
     V putIfAbsent(K key, V value);
 
+    /**
+     * Get the value of the key, or put the value computed by the function if absent. Unlike
+     * {@link #putIfAbsent(Object, Object)}, no value is created when the key is present.
+     * The default implementation gets the value first, then puts the computed value if absent.
+     *
+     * @param key             the key
+     * @param mappingFunction function to compute the value, only invoked when the key is absent
+     * @return the current value of the key
+     * @since 2.0.0
+     */
+    default V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        V newValue = mappingFunction.apply(key);
+        V oldValue = putIfAbsent(key, newValue);
+        return oldValue == null ? newValue : oldValue;
+    }
+
     long size();
 
     void clear();
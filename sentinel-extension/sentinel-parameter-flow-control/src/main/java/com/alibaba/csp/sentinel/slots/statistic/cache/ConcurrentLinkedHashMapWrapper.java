@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.slots.statistic.cache;
 
 import java.util.Set;
 
+import com.alibaba.csp.sentinel.util.function.Function;
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import com.googlecode.concurrentlinkedhashmap.Weighers;
 
@@ -75,6 +76,17 @@ public class ConcurrentLinkedHashMapWrapper<T, R> implements CacheMap<T, R> {
         return map.putIfAbsent(key, value);
     }
 
+    @Override
+    public R computeIfAbsent(T key, Function<? super T, ? extends R> mappingFunction) {
+        R value = map.get(key);
+        if (value != null) {
+            return value;
+        }
+        R newValue = mappingFunction.apply(key);
+        R oldValue = map.putIfAbsent(key, newValue);
+        return oldValue == null ? newValue : oldValue;
+    }
+
     @Override
     public long size() {
         return map.weightedSize();
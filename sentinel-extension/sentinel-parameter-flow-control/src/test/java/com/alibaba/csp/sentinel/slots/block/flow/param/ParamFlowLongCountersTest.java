@@ -0,0 +1,125 @@
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParamFlowLongCounters}.
+ */
+public class ParamFlowLongCountersTest extends AbstractTimeBasedTest {
+
+    @After
+    public void tearDown() {
+        ParameterMetricStorage.getMetricsMap().clear();
+    }
+
+    @Test
+    public void testTokenBucket() {
+        ParamFlowLongCounters counters = new ParamFlowLongCounters(100);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(counters.tryAcquireToken(42L, 5, 5, 1, 1000, 100_000));
+        }
+        assertFalse(counters.tryAcquireToken(42L, 5, 5, 1, 1000, 100_500));
+        assertTrue(counters.tryAcquireToken(43L, 5, 5, 1, 1000, 100_500));
+
+        // Tokens are replenished after the duration.
+        assertTrue(counters.tryAcquireToken(42L, 5, 5, 5, 1000, 101_001));
+        assertFalse(counters.tryAcquireToken(42L, 5, 5, 1, 1000, 101_002));
+        assertEquals(2, counters.size());
+    }
+
+    @Test
+    public void testThrottle() {
+        ParamFlowLongCounters counters = new ParamFlowLongCounters(100);
+        assertEquals(0, counters.tryAcquireThrottle(7L, 200, 500, 100_000));
+        assertEquals(200, counters.tryAcquireThrottle(7L, 200, 500, 100_000));
+        assertEquals(400, counters.tryAcquireThrottle(7L, 200, 500, 100_000));
+        assertEquals(-1, counters.tryAcquireThrottle(7L, 200, 500, 100_000));
+        assertEquals(0, counters.tryAcquireThrottle(7L, 200, 500, 101_000));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyAccessed() {
+        int maxSize = 16 * 8;
+        ParamFlowLongCounters counters = new ParamFlowLongCounters(maxSize);
+        long time = 100_000;
+        // The hot value is exhausted and accessed all the time.
+        for (int i = 0; i < 3; i++) {
+            counters.tryAcquireToken(-1L, 3, 3, 1, 1000, time);
+        }
+        for (long value = 0; value < 10_000; value++) {
+            time++;
+            counters.tryAcquireToken(value, 3, 3, 1, 100_000_000, time);
+            assertFalse(counters.tryAcquireToken(-1L, 3, 3, 1, 100_000_000, time));
+            assertTrue(counters.size() <= maxSize);
+        }
+        assertEquals(maxSize, counters.size());
+
+        // Recently accessed values are all still there, after all the entries shifted by eviction.
+        for (long value = 10_000 - 32; value < 10_000; value++) {
+            assertTrue(counters.tryAcquireToken(value, 3, 3, 2, 100_000_000, time));
+            assertFalse(counters.tryAcquireToken(value, 3, 3, 1, 100_000_000, time));
+        }
+    }
+
+    @Test
+    public void testCheckNumericValues() {
+        setCurrentMillis(100_000);
+        ResourceWrapper resourceWrapper = new StringResourceWrapper("testCheckNumericValues", EntryType.IN);
+        ParamFlowRule rule = new ParamFlowRule(resourceWrapper.getName())
+            .setCount(2)
+            .setParamIdx(0);
+        ParameterMetric metric = new ParameterMetric();
+        metric.initialize(rule);
+        ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+        ParamFlowLongCounters longCounters = metric.getRuleLongCounters(rule);
+        CacheMap<Object, AtomicLong> timeCounters = metric.getRuleTimeCounter(rule);
+        assertNotNull(longCounters);
+
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, 1001L));
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, 1001));
+        assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, 1001L));
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, "1001"));
+
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, new long[] {1002L, 1003L}));
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, new int[] {1002, 1003}));
+        assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, new long[] {1004L, 1002L}));
+
+        assertEquals(4, longCounters.size());
+        assertEquals(1, timeCounters.size());
+
+        sleep(1001);
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 2, 1001L));
+    }
+
+    @Test
+    public void testNoLongCountersForThreadRule() {
+        ParamFlowRule rule = new ParamFlowRule("testNoLongCountersForThreadRule")
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setCount(1)
+            .setParamIdx(0);
+        ParameterMetric metric = new ParameterMetric();
+        metric.initialize(rule);
+        assertNull(metric.getRuleLongCounters(rule));
+
+        metric.addThreadCount(1L);
+        metric.addThreadCount(1L);
+        assertEquals(2, metric.getThreadCount(0, 1L));
+        metric.decreaseThreadCount(1L);
+        metric.decreaseThreadCount(1L);
+        metric.decreaseThreadCount(2L);
+        assertEquals(0, metric.getThreadCount(0, 1L));
+        assertEquals(0, metric.getThreadCountMap().get(0).size());
+    }
+}
@@ -0,0 +1,156 @@
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParamFlowSketch}.
+ */
+public class ParamFlowSketchTest extends AbstractTimeBasedTest {
+
+    @After
+    public void tearDown() {
+        ParameterMetricStorage.getMetricsMap().clear();
+    }
+
+    @Test
+    public void testHotKeyLimitedExactly() {
+        setCurrentMillis(100_000);
+        ParamFlowSketch sketch = new ParamFlowSketch(1000, 4, 100_000);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(sketch.tryAcquire("hot", 10, 1, 100_000));
+        }
+        assertFalse(sketch.tryAcquire("hot", 10, 1, 100_000));
+        assertTrue(sketch.isHotKey("hot"));
+        assertEquals(10, sketch.estimateCount("hot", 100_000));
+
+        // Counts are reset in the next window.
+        assertTrue(sketch.tryAcquire("hot", 10, 1, 101_000));
+        assertEquals(1, sketch.estimateCount("hot", 101_000));
+    }
+
+    @Test
+    public void testDistinctKeysNotEvictHotKeys() {
+        ParamFlowSketch sketch = new ParamFlowSketch(1000, 2, 100_000);
+        for (int i = 0; i < 8; i++) {
+            sketch.tryAcquire("hotA", 10, 1, 100_000);
+            sketch.tryAcquire("hotB", 10, 1, 100_000);
+        }
+        for (int i = 0; i < 2000; i++) {
+            sketch.tryAcquire(i, 10, 1, 100_000);
+        }
+        assertTrue(sketch.isHotKey("hotA"));
+        assertTrue(sketch.isHotKey("hotB"));
+        assertEquals(2, sketch.getHotKeySize());
+        assertEquals(8, sketch.estimateCount("hotA", 100_000));
+        assertTrue(sketch.tryAcquire("hotA", 10, 2, 100_000));
+        assertFalse(sketch.tryAcquire("hotA", 10, 1, 100_000));
+    }
+
+    @Test
+    public void testNeverLooserThanThreshold() {
+        ParamFlowSketch sketch = new ParamFlowSketch(1000, 8, 100_000);
+        for (int i = 0; i < 1000; i++) {
+            int passed = 0;
+            for (int j = 0; j < 5; j++) {
+                if (sketch.tryAcquire(i, 3, 1, 100_000)) {
+                    passed++;
+                }
+            }
+            assertTrue(passed <= 3);
+        }
+    }
+
+    @Test
+    public void testConcurrentAcquireNotOverAdmitted() throws Exception {
+        // The value is promoted to an exact counter while being acquired concurrently.
+        ParamFlowSketch sketch = new ParamFlowSketch(60_000, 4, 100_000);
+        assertTrue(concurrentAcquire(sketch, "hot", 1000) <= 1000);
+        assertTrue(sketch.isHotKey("hot"));
+        assertTrue(sketch.estimateCount("hot", 100_000) >= 1000);
+    }
+
+    @Test
+    public void testConcurrentAcquireInSketchNotOverAdmitted() throws Exception {
+        ParamFlowSketch sketch = new ParamFlowSketch(60_000, 1, 100_000);
+        // Fill the exact counters with a hotter value, so that the value is only counted in the sketch.
+        assertTrue(sketch.tryAcquire("hotter", 5000, 5000, 100_000));
+        assertTrue(sketch.isHotKey("hotter"));
+
+        // No increment is lost, so exactly the threshold is admitted.
+        assertEquals(1000, concurrentAcquire(sketch, "hot", 1000));
+        assertFalse(sketch.isHotKey("hot"));
+        assertEquals(1000, sketch.estimateCount("hot", 100_000));
+    }
+
+    private int concurrentAcquire(final ParamFlowSketch sketch, final Object value, final long maxCount)
+        throws Exception {
+        final int threadCount = 16;
+        final int acquirePerThread = 200;
+        final AtomicInteger passed = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < acquirePerThread; j++) {
+                            if (sketch.tryAcquire(value, maxCount, 1, 100_000)) {
+                                passed.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException ignored) {
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        doneLatch.await();
+        return passed.get();
+    }
+
+    @Test
+    public void testCheckWithSketchRule() {
+        setCurrentMillis(100_000);
+        ResourceWrapper resourceWrapper = new StringResourceWrapper("testCheckWithSketchRule", EntryType.IN);
+        ParamFlowRule rule = new ParamFlowRule(resourceWrapper.getName())
+            .setCount(5)
+            .setParamIdx(0)
+            .setSketchMode(true);
+        assertTrue(ParamFlowRuleUtil.isValidRule(rule));
+        assertTrue(ParamFlowRuleUtil.isSketchRule(rule));
+
+        ParameterMetric metric = new ParameterMetric();
+        metric.initialize(rule);
+        ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+        assertNotNull(metric.getRuleSketch(rule));
+        assertNull(metric.getRuleTokenCounter(rule));
+        assertNull(metric.getRuleTimeCounter(rule));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "valueA"));
+        }
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "valueA"));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "valueB"));
+
+        sleepSecond(1);
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "valueA"));
+
+        metric.clearForRule(rule);
+        assertNull(metric.getRuleSketch(rule));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.command.vo.NodeFootprintVo;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.NodeReclaimer;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+import com.alibaba.fastjson.JSON;
+
+/**
+ * Get the estimated heap footprint of the statistic nodes of each resource, largest first.
+ *
+ * @since 2.0.0
+ */
+@CommandMapping(name = "nodeFootprint", desc = "get estimated heap footprint of the nodes of each resource, "
+    + "request param: limit={maxResourceCount}")
+public class FetchNodeFootprintCommandHandler implements CommandHandler<String> {
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        int limit = Integer.MAX_VALUE;
+        String limitStr = request.getParam("limit");
+        if (StringUtil.isNotBlank(limitStr)) {
+            try {
+                limit = Integer.parseInt(limitStr.trim());
+            } catch (NumberFormatException e) {
+                return CommandResponse.ofFailure(new IllegalArgumentException("invalid limit: " + limitStr));
+            }
+        }
+
+        Map<ClusterNode, List<DefaultNode>> defaultNodes = NodeReclaimer.collectDefaultNodes();
+        List<NodeFootprintVo> results = new ArrayList<NodeFootprintVo>();
+        for (Map.Entry<ResourceWrapper, ClusterNode> e : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
+            results.add(NodeFootprintVo.fromClusterNode(e.getKey().getShowName(), e.getValue(),
+                defaultNodes.get(e.getValue())));
+        }
+        Collections.sort(results, new Comparator<NodeFootprintVo>() {
+            @Override
+            public int compare(NodeFootprintVo o1, NodeFootprintVo o2) {
+                return o2.getRetainedBytes().compareTo(o1.getRetainedBytes());
+            }
+        });
+        if (results.size() > limit) {
+            results = results.subList(0, Math.max(limit, 0));
+        }
+        return CommandResponse.ofSuccess(JSON.toJSONString(results));
+    }
+}
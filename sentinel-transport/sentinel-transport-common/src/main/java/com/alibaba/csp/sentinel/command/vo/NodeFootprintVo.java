@@ -0,0 +1,136 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.vo;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+
+/**
+ * Estimated heap footprint of the statistic nodes of a resource.
+ *
+ * @since 2.0.0
+ */
+public class NodeFootprintVo {
+
+    private String resource;
+
+    private Long clusterNodeBytes;
+    private Integer originNodeCount;
+    private Long originNodeBytes;
+    private Integer defaultNodeCount;
+    private Long defaultNodeBytes;
+    /**
+     * Total estimated bytes retained by the nodes of the resource.
+     */
+    private Long retainedBytes;
+
+    private Long lastAccessTime;
+
+    /**
+     * @param name         resource name
+     * @param node         the cluster node of the resource
+     * @param defaultNodes the {@link DefaultNode}s of the resource in the invocation tree, could be null
+     * @return footprint view object
+     */
+    public static NodeFootprintVo fromClusterNode(String name, ClusterNode node, List<DefaultNode> defaultNodes) {
+        if (node == null) {
+            return null;
+        }
+        NodeFootprintVo vo = new NodeFootprintVo();
+        vo.resource = name;
+        long clusterNodeBytes = node.estimatedBytes();
+        vo.clusterNodeBytes = clusterNodeBytes;
+        vo.originNodeCount = node.getOriginCountMap().size();
+        vo.originNodeBytes = node.estimatedOriginNodesBytes();
+        long defaultNodeBytes = 0;
+        if (defaultNodes != null) {
+            for (DefaultNode defaultNode : defaultNodes) {
+                defaultNodeBytes += defaultNode.estimatedBytes();
+            }
+        }
+        vo.defaultNodeCount = defaultNodes == null ? 0 : defaultNodes.size();
+        vo.defaultNodeBytes = defaultNodeBytes;
+        vo.retainedBytes = clusterNodeBytes + defaultNodeBytes;
+        vo.lastAccessTime = node.getLastAccessTime();
+        return vo;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public void setResource(String resource) {
+        this.resource = resource;
+    }
+
+    public Long getClusterNodeBytes() {
+        return clusterNodeBytes;
+    }
+
+    public void setClusterNodeBytes(Long clusterNodeBytes) {
+        this.clusterNodeBytes = clusterNodeBytes;
+    }
+
+    public Integer getOriginNodeCount() {
+        return originNodeCount;
+    }
+
+    public void setOriginNodeCount(Integer originNodeCount) {
+        this.originNodeCount = originNodeCount;
+    }
+
+    public Long getOriginNodeBytes() {
+        return originNodeBytes;
+    }
+
+    public void setOriginNodeBytes(Long originNodeBytes) {
+        this.originNodeBytes = originNodeBytes;
+    }
+
+    public Integer getDefaultNodeCount() {
+        return defaultNodeCount;
+    }
+
+    public void setDefaultNodeCount(Integer defaultNodeCount) {
+        this.defaultNodeCount = defaultNodeCount;
+    }
+
+    public Long getDefaultNodeBytes() {
+        return defaultNodeBytes;
+    }
+
+    public void setDefaultNodeBytes(Long defaultNodeBytes) {
+        this.defaultNodeBytes = defaultNodeBytes;
+    }
+
+    public Long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public void setRetainedBytes(Long retainedBytes) {
+        this.retainedBytes = retainedBytes;
+    }
+
+    public Long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public void setLastAccessTime(Long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+}